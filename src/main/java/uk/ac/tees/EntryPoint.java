@@ -4,7 +4,16 @@ import picocli.CommandLine;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
 import picocli.CommandLine.Parameters;
+import uk.ac.tees.codegeneration.CodeGenerationOption;
 import uk.ac.tees.codegeneration.x86_64.X86_64NetwideAssemblyGenerator;
+import uk.ac.tees.codegeneration.x86_64.X86_64ThreeAddressCodeGenerator;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.ThreeAddressCodeGenerator;
+import uk.ac.tees.optimise.OptimisationLevel;
+import uk.ac.tees.optimise.PartialEvaluation;
+import uk.ac.tees.optimise.Pass;
+import uk.ac.tees.optimise.PassManager;
+import uk.ac.tees.semantics.ProgramIndex;
 import uk.ac.tees.semantics.ProgramSemanticsAnalyser;
 import uk.ac.tees.syntax.grammar.Program;
 import uk.ac.tees.syntax.parser.Parser;
@@ -12,6 +21,8 @@ import uk.ac.tees.syntax.parser.RecursiveDescentParser;
 import uk.ac.tees.syntax.parser.TokenSupplier;
 import uk.ac.tees.syntax.parser.exception.ParseException;
 import uk.ac.tees.syntax.graph.GraphDescriptionVisitor;
+import uk.ac.tees.syntax.visitor.FusableVisitor;
+import uk.ac.tees.syntax.visitor.FusedVisitor;
 import uk.ac.tees.tokenizer.TinyBasicTokenizer;
 import uk.ac.tees.tokenizer.Token;
 import uk.ac.tees.tokenizer.TokenizationException;
@@ -25,7 +36,11 @@ import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.logging.ConsoleHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -41,7 +56,8 @@ public final class EntryPoint implements Runnable {
     private Class<? extends TinyBasicTokenizer> tokenizerType = FlagTokenizer.class;
 
     @Option(names = {"-g", "--ast-graph"},
-            description = "Graph file, if specified a dot graph description is generated and written to the given file.")
+            description = "Graph file, if specified a dot graph description of the abstract syntax tree, after the "
+                    + "syntax tree passes of the optimisation level, is generated and written to the given file.")
     private Path graphStructure;
 
     @Option(names = {"-o", "--output-file"},
@@ -54,6 +70,32 @@ public final class EntryPoint implements Runnable {
                     "The format is as follows: TOKEN_TYPE_NAME: REGEX")
     private URL regexPath = EntryPoint.class.getClassLoader().getResource("regex");
 
+    @Option(names = {"--ir-backend"},
+            description = "Compile by lowering the program to three-address code, rather than directly from the " +
+                    "abstract syntax tree.")
+    private boolean irBackend;
+
+    @Option(names = {"-i", "--ir-dump"},
+            description = "IR file, if specified the three-address code control flow graph of the program, after " +
+                    "optimisation, is written to the given file.")
+    private Path irDump;
+
+    @Option(names = {"-O"},
+            paramLabel = "<level>",
+            converter = OptimisationLevelConverter.class,
+            description = "Optimisation level, 0 compiles the program as written, 1 (the default) folds constants and " +
+                    "removes unreachable code, 2 also compiles through three-address code.")
+    private OptimisationLevel optimisationLevel = OptimisationLevel.O1;
+
+    @Option(names = {"-p", "--partial-evaluation"},
+            description = "Run the program at compile time and, if it ends without reading input, compile only the " +
+                    "output it writes. Programs that do not end within a budget of steps are compiled as usual.")
+    private boolean partialEvaluation;
+
+    @Option(names = {"-v", "--verbose"},
+            description = "Log details of each compilation stage, such as the time taken.")
+    private boolean verbose;
+
     @Parameters(description = "The input file, containing Tiny BASIC source code.")
     private Path inputPath;
 
@@ -63,6 +105,10 @@ public final class EntryPoint implements Runnable {
 
     @Override
     public void run() {
+        if (verbose) {
+            enableVerboseLogging();
+        }
+
         String input = readInput();
         TinyBasicTokenizer tokenizer = instantiateTokenizer();
 
@@ -73,11 +119,77 @@ public final class EntryPoint implements Runnable {
             String name = fileName.substring(0, fileName.lastIndexOf('.'));
 
             Parser parser = new RecursiveDescentParser(supplier);
-            Program abstractSyntaxTree = new ProgramSemanticsAnalyser().visitTree(parser.parse(name));
+            Program abstractSyntaxTree = parser.parse(name);
+            ProgramIndex index = ProgramIndex.of(abstractSyntaxTree);
 
-            compile(abstractSyntaxTree);
+            // the program as written is verified before it is optimised, gathering facts from its lines in parallel.
+            new ProgramSemanticsAnalyser(index).visitTree(abstractSyntaxTree);
 
-            Optional.ofNullable(graphStructure).ifPresent(path -> graphAbstractSyntaxTree(abstractSyntaxTree, path));
+            List<Pass<Program>> passes = new ArrayList<>();
+
+            if (partialEvaluation) {
+                passes.add(new PartialEvaluation());
+            }
+
+            passes.addAll(optimisationLevel.syntaxTreePasses());
+
+            PassManager<Program> syntaxTreePasses = new PassManager<>(passes);
+            Program optimised = syntaxTreePasses.run(abstractSyntaxTree);
+            LOGGER.fine(syntaxTreePasses::toString);
+
+            ProgramIndex optimisedIndex = optimised == abstractSyntaxTree ? index : ProgramIndex.of(optimised);
+
+            Set<CodeGenerationOption> options = optimisationLevel.codeGenerationOptions();
+
+            X86_64NetwideAssemblyGenerator compiler = new X86_64NetwideAssemblyGenerator(optimisedIndex, options);
+            GraphDescriptionVisitor<Program> graphVisitor = new GraphDescriptionVisitor<>(name);
+
+            boolean intermediate = irBackend || optimisationLevel.usesIntermediateRepresentation();
+
+            // the compiler and the graph visitor share a walk of the optimised tree, which is the tree compiled.
+            List<FusableVisitor<?, Program>> visitors = new ArrayList<>();
+
+            if (!intermediate) {
+                visitors.add(compiler);
+            }
+
+            if (graphStructure != null) {
+                visitors.add(graphVisitor);
+            }
+
+            FusedVisitor.Results results = new FusedVisitor<>(visitors).visitTree(optimised);
+
+            if (results.walksSaved() > 0) {
+                LOGGER.fine(results::toString);
+            }
+
+            if (intermediate || irDump != null) {
+                ControlFlowGraph graph = new ThreeAddressCodeGenerator().visitTree(optimised);
+
+                PassManager<ControlFlowGraph> intermediatePasses
+                        = new PassManager<>(optimisationLevel.intermediatePasses());
+                intermediatePasses.run(graph);
+                LOGGER.fine(intermediatePasses::toString);
+
+                Optional.ofNullable(irDump)
+                        .ifPresent(path -> writeIntermediateRepresentation(abstractSyntaxTree, graph, path));
+
+                if (intermediate) {
+                    X86_64ThreeAddressCodeGenerator generator = new X86_64ThreeAddressCodeGenerator(options);
+                    String assembly = generator.compile(graph);
+                    LOGGER.fine(() -> String.valueOf(generator.getRegisterAllocator()));
+                    LOGGER.fine(() -> String.valueOf(generator.getInductionVariables()));
+
+                    compile(abstractSyntaxTree, optimise(assembly, generator.getAssignedRegisters()));
+                }
+            }
+
+            if (!intermediate) {
+                compile(abstractSyntaxTree, optimise(results.get(compiler), Set.of()));
+            }
+
+            Optional.ofNullable(graphStructure)
+                    .ifPresent(path -> writeGraph(abstractSyntaxTree, results.get(graphVisitor), path));
 
         } catch (TokenizationException e) {
             LOGGER.log(Level.SEVERE, "Error tokenizing: " + input, e);
@@ -135,15 +247,26 @@ public final class EntryPoint implements Runnable {
     }
 
     /**
-     * Generates a DOT graph description for the given {@link Program} as the root node of the abstract syntax tree.
-     *
-     * @param program the program to create a graph description of.
-     * @param path    the {@link Path} to write the DOT graph description to.
+     * Enables logging of fine detail, from all classes of this application, to the console.
      */
-    private void graphAbstractSyntaxTree(Program program, Path path) {
-        GraphDescriptionVisitor visitor = new GraphDescriptionVisitor(program.getName());
-        String graphDescription = visitor.visitTree(program);
+    private void enableVerboseLogging() {
+        Logger logger = Logger.getLogger(EntryPoint.class.getPackageName());
+        ConsoleHandler handler = new ConsoleHandler();
+
+        handler.setLevel(Level.FINE);
+        logger.setLevel(Level.FINE);
+        logger.addHandler(handler);
+        logger.setUseParentHandlers(false);
+    }
 
+    /**
+     * Writes the DOT graph description, generated for the given {@link Program}, to the given path.
+     *
+     * @param program          the program the graph description was generated for.
+     * @param graphDescription the DOT graph description of the program.
+     * @param path             the {@link Path} to write the DOT graph description to.
+     */
+    private void writeGraph(Program program, String graphDescription, Path path) {
         if (Files.isDirectory(path)) {
             path = path.resolve(program.getName() + ".gv");
         }
@@ -157,16 +280,49 @@ public final class EntryPoint implements Runnable {
     }
 
     /**
-     * Compiles the given program to x86-64 Netwide Assembler assembly code. The output is written to the file at
+     * Writes a textual dump of the three-address code, lowered from the given {@link Program}, to the given path.
+     *
+     * @param program the program the three-address code was lowered from.
+     * @param graph   the control flow graph of the three-address code.
+     * @param path    the {@link Path} to write the dump to.
+     */
+    private void writeIntermediateRepresentation(Program program, ControlFlowGraph graph, Path path) {
+        if (Files.isDirectory(path)) {
+            path = path.resolve(program.getName() + ".ir");
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(path)) {
+            writer.write(graph.toString());
+
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error writing intermediate representation!", e);
+        }
+    }
+
+    /**
+     * Runs the assembly code passes of the optimisation level over the given assembly code.
+     *
+     * @param assembly          the generated assembly code.
+     * @param assignedRegisters the registers assigned to variables by the code generator.
+     * @return the optimised assembly code.
+     */
+    private String optimise(String assembly, Set<String> assignedRegisters) {
+        PassManager<String> assemblyPasses = new PassManager<>(optimisationLevel.assemblyPasses(assignedRegisters));
+        String optimised = assemblyPasses.run(assembly);
+        LOGGER.fine(assemblyPasses::toString);
+
+        return optimised;
+    }
+
+    /**
+     * Writes the x86-64 Netwide Assembler assembly code, compiled from the given program, to the file at
      * {@link #outputPath} if one has been specified or at a file named {@link Program#getName()} and extension .asm
      * in the current directory.
      *
-     * @param program the program to compile.
+     * @param program the compiled program.
+     * @param output  the assembly code compiled from the program.
      */
-    private void compile(Program program) {
-        X86_64NetwideAssemblyGenerator compiler = new X86_64NetwideAssemblyGenerator();
-        String output = compiler.visitTree(program);
-
+    private void compile(Program program, String output) {
         Path path = Optional.ofNullable(outputPath).orElse(inputPath.getParent().resolve(program.getName() + ".asm"));
 
         if (Files.isDirectory(path)) {
@@ -185,4 +341,21 @@ public final class EntryPoint implements Runnable {
         System.out.println(path.toAbsolutePath());
     }
 
+    /**
+     * Converts the level given after -O to an {@link OptimisationLevel}.
+     */
+    static final class OptimisationLevelConverter implements CommandLine.ITypeConverter<OptimisationLevel> {
+
+        @Override
+        public OptimisationLevel convert(String value) {
+            try {
+                return OptimisationLevel.of(value);
+
+            } catch (IllegalArgumentException e) {
+                throw new CommandLine.TypeConversionException("Expected 0, 1 or 2 but was " + value);
+            }
+        }
+
+    }
+
 }
\ No newline at end of file
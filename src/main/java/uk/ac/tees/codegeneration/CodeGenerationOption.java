@@ -0,0 +1,45 @@
+package uk.ac.tees.codegeneration;
+
+/**
+ * The optimisations that a code generator may apply as it generates code, enabled by the optimisation level.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public enum CodeGenerationOption {
+
+    /**
+     * Multiplication and division by constants are replaced with shifts, lea instructions and multiplication by magic
+     * reciprocals.
+     */
+    STRENGTH_REDUCTION,
+
+    /**
+     * Whole arithmetic expressions are evaluated in registers, in Sethi-Ullman order, rather than on the stack.
+     */
+    REGISTER_EXPRESSIONS,
+
+    /**
+     * Variables and temporaries of three-address code are held in registers, assigned by linear scan, rather than in
+     * memory.
+     */
+    REGISTER_ALLOCATION,
+
+    /**
+     * Labels are only given to the lines and blocks that are the target of a jump or call, so the code of the lines
+     * between them forms a single straight-line sequence.
+     */
+    LABEL_PRUNING,
+
+    /**
+     * Loops counted by an induction variable that is compared with 0 are closed by stepping the variable and jumping
+     * on the flags that sets, without a separate comparison.
+     */
+    COUNTED_LOOPS,
+
+    /**
+     * The output of PRINT arguments whose value is constant is formatted at compile time, and each run of constant
+     * arguments and string literals is written from a single data entry by a single system call.
+     */
+    CONSTANT_OUTPUT
+
+}
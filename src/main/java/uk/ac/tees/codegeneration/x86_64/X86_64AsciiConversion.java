@@ -0,0 +1,45 @@
+package uk.ac.tees.codegeneration.x86_64;
+
+/**
+ * The conversion of values to the bytes written by PRINT, exactly as done at runtime by the {@code decimal_to_ascii}
+ * subroutine of {@code ascii_util.asm}, so output can be produced at compile time.
+ *
+ * <p>The subroutine divides the value by 10 as an unsigned 64-bit integer, shifting the ASCII code of each digit, the
+ * least significant first, into a register that is shifted left by a byte after each. The 8 bytes of the register
+ * are written, so the output of a value is a null byte, followed by the first 7 digits of the unsigned decimal form
+ * of the value, followed by null bytes, the digits shifted beyond the register being lost.</p>
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class X86_64AsciiConversion {
+
+    /**
+     * The number of bytes written for a value.
+     */
+    public static final int VALUE_SIZE = 8;
+
+    /**
+     * Prevent instantiation.
+     */
+    private X86_64AsciiConversion() {
+
+    }
+
+    /**
+     * Converts the given value to the bytes written when it is printed.
+     *
+     * @param value the value.
+     * @return the {@link #VALUE_SIZE} bytes written.
+     */
+    public static byte[] decimalToAscii(long value) {
+        String digits = Long.toUnsignedString(value);
+        byte[] bytes = new byte[VALUE_SIZE];
+
+        for (int i = 0; i < Math.min(digits.length(), VALUE_SIZE - 1); i++) {
+            bytes[i + 1] = (byte) digits.charAt(i);
+        }
+
+        return bytes;
+    }
+
+}
@@ -0,0 +1,341 @@
+package uk.ac.tees.codegeneration.x86_64;
+
+import uk.ac.tees.optimise.Pass;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static uk.ac.tees.codegeneration.x86_64.X86_64CompilerConstants.INDENTATION;
+
+/**
+ * Rewrites the jumps of generated assembly code so that fewer are executed.
+ * <ul>
+ *     <li>A call followed by a return becomes a jump, as for a GOSUB on the line before a RETURN.</li>
+ *     <li>A jump or call to a label at which there is only an unconditional jump is threaded through to the target of
+ *     that jump, following chains of such jumps, as formed by a GOTO to a line that is itself a GOTO.</li>
+ *     <li>{@code jcc a; jmp b; a:} becomes {@code jncc b; a:}, with the condition inverted so control falls through to
+ *     the code that follows. An IF whose statement is a GOTO therefore becomes a single conditional jump to the line
+ *     of the GOTO. Labels between the two jumps are allowed, as long as nothing else refers to them.</li>
+ *     <li>A jump to the label that immediately follows it is removed.</li>
+ * </ul>
+ *
+ * <p>Labels are never removed, so the position of a label and anything that refers to it are unchanged, and the
+ * windows examined by {@link X86_64PeepholeOptimiser} are the same before and after.</p>
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class X86_64BranchOptimiser implements Pass<String> {
+
+    /**
+     * The conditional jumps generated for relational operators, and the jump taken when the condition is false.
+     */
+    private static final Map<String, String> INVERSE = Map.of(
+            "je", "jne", "jne", "je",
+            "jl", "jge", "jge", "jl",
+            "jg", "jle", "jle", "jg");
+
+    /**
+     * The lines of assembly code being optimised.
+     */
+    private final List<String> lines = new ArrayList<>();
+
+    /**
+     * The instruction on each line, or {@code null} for labels, directives and data.
+     */
+    private final List<X86_64Instruction> instructions = new ArrayList<>();
+
+    /**
+     * The line of each label.
+     */
+    private final Map<String, Integer> labels = new HashMap<>();
+
+    /**
+     * The number of jumps, calls and other operands that refer to each label.
+     */
+    private final Map<String, Integer> references = new HashMap<>();
+
+    private int tailJumps;
+
+    private int threadedJumps;
+
+    private int invertedBranches;
+
+    private int removedJumps;
+
+    /**
+     * Optimises the jumps of the given assembly code.
+     *
+     * @param assembly the assembly code, as output by a code generator.
+     * @return the optimised assembly code, or the given assembly code if nothing changed.
+     */
+    @Override
+    public String run(String assembly) {
+        for (String line : assembly.split("\n", -1)) {
+            X86_64Instruction instruction = X86_64Instruction.parse(line);
+
+            lines.add(line);
+            instructions.add(instruction);
+
+            if (instruction != null) {
+                instruction.getOperands().forEach(operand -> references.merge(operand, 1, Integer::sum));
+
+            } else if (label(line) != null) {
+                labels.put(label(line), lines.size() - 1);
+            }
+        }
+
+        for (int i = 0; i < lines.size(); i++) {
+            tailJump(i);
+            thread(i);
+        }
+
+        boolean changed;
+
+        // removing a jump may leave the jump before it followed by its target.
+        do {
+            changed = false;
+
+            for (int i = 0; i < lines.size(); ) {
+                if (invert(i) || removeJumpToNext(i)) {
+                    changed = true;
+
+                } else {
+                    i++;
+                }
+            }
+        } while (changed);
+
+        if (tailJumps == 0 && threadedJumps == 0 && invertedBranches == 0 && removedJumps == 0) {
+            return assembly;
+        }
+
+        return String.join("\n", lines);
+    }
+
+    /**
+     * Gets the label defined on the given line.
+     *
+     * @return the label, or {@code null} if the line is not a label on its own.
+     */
+    private static String label(String line) {
+        if (line.isEmpty() || Character.isWhitespace(line.charAt(0))) {
+            return null;
+        }
+
+        int colon = line.indexOf(':');
+
+        return colon > 0 && line.substring(colon + 1).isBlank() ? line.substring(0, colon) : null;
+    }
+
+    /**
+     * Gets the position of the first instruction at or after the given position.
+     *
+     * @return the position, or the number of lines if no instruction follows.
+     */
+    private int nextInstruction(int position) {
+        while (position < lines.size() && instructions.get(position) == null) {
+            position++;
+        }
+
+        return position;
+    }
+
+    /**
+     * Gets the target of the jump or call at the given position, if it is a label of this code.
+     */
+    private String target(int position) {
+        X86_64Instruction instruction = instructions.get(position);
+
+        if (instruction == null || instruction.getOperands().size() != 1) {
+            return null;
+        }
+
+        boolean jump = instruction.isConditionalJump() || instruction.getMnemonic().equals("jmp")
+                || instruction.getMnemonic().equals("call");
+
+        return jump && labels.containsKey(instruction.getOperand(0)) ? instruction.getOperand(0) : null;
+    }
+
+    /**
+     * {@code call a; ret} becomes {@code jmp a; ret}, since the return of the subroutine then returns to where the
+     * return after the call would have. The return is kept for any label between the two.
+     */
+    private void tailJump(int position) {
+        X86_64Instruction instruction = instructions.get(position);
+
+        if (instruction == null || !instruction.getMnemonic().equals("call") || target(position) == null) {
+            return;
+        }
+
+        int next = nextInstruction(position + 1);
+
+        if (next < lines.size() && instructions.get(next).getMnemonic().equals("ret")) {
+            replace(position, new X86_64Instruction("jmp", instruction.getOperand(0)));
+            tailJumps++;
+        }
+    }
+
+    /**
+     * Retargets the jump or call at the given position to the end of the chain of unconditional jumps it leads to.
+     */
+    private void thread(int position) {
+        String target = target(position);
+
+        if (target == null) {
+            return;
+        }
+
+        Set<String> visited = new HashSet<>();
+        String threaded = target;
+
+        // a chain of jumps that loops back on itself is followed only until a label is reached a second time.
+        while (visited.add(threaded)) {
+            int next = nextInstruction(labels.get(threaded));
+
+            if (next == lines.size() || !instructions.get(next).getMnemonic().equals("jmp")
+                    || target(next) == null) {
+                break;
+            }
+
+            threaded = target(next);
+        }
+
+        if (!threaded.equals(target)) {
+            replace(position, new X86_64Instruction(instructions.get(position).getMnemonic(), threaded));
+            threadedJumps++;
+        }
+    }
+
+    /**
+     * Denotes whether the lines after the given position, up to the next instruction, are labels including the given
+     * label.
+     */
+    private boolean isFollowedBy(int position, String label) {
+        int next = nextInstruction(position + 1);
+
+        for (int i = position + 1; i < next; i++) {
+            if (label.equals(label(lines.get(i)))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * {@code jcc a; jmp b; a:} becomes {@code jncc b; a:}.
+     */
+    private boolean invert(int position) {
+        X86_64Instruction instruction = instructions.get(position);
+
+        if (instruction == null || !INVERSE.containsKey(instruction.getMnemonic()) || target(position) == null) {
+            return false;
+        }
+
+        int next = nextInstruction(position + 1);
+
+        if (next == lines.size() || !instructions.get(next).getMnemonic().equals("jmp") || target(next) == null
+                || !isFollowedBy(next, target(position))) {
+            return false;
+        }
+
+        // control may only reach the unconditional jump from the conditional jump.
+        for (int i = position + 1; i < next; i++) {
+            String label = label(lines.get(i));
+
+            if (label == null || references.getOrDefault(label, 0) > 0) {
+                return false;
+            }
+        }
+
+        String inverse = INVERSE.get(instruction.getMnemonic());
+
+        replace(position, new X86_64Instruction(inverse, target(next)));
+        remove(next);
+        invertedBranches++;
+
+        return true;
+    }
+
+    /**
+     * {@code jmp a; a:} or {@code jcc a; a:} is removed.
+     */
+    private boolean removeJumpToNext(int position) {
+        X86_64Instruction instruction = instructions.get(position);
+
+        if (instruction == null || !(instruction.isConditionalJump() || instruction.getMnemonic().equals("jmp"))
+                || target(position) == null || !isFollowedBy(position, target(position))) {
+            return false;
+        }
+
+        remove(position);
+        removedJumps++;
+
+        return true;
+    }
+
+    private void remove(int position) {
+        instructions.get(position).getOperands().forEach(operand -> references.merge(operand, -1, Integer::sum));
+
+        lines.remove(position);
+        instructions.remove(position);
+
+        // the lines of labels after the removed line move up by one.
+        labels.replaceAll((label, line) -> line > position ? line - 1 : line);
+    }
+
+    private void replace(int position, X86_64Instruction instruction) {
+        instructions.get(position).getOperands().forEach(operand -> references.merge(operand, -1, Integer::sum));
+        instruction.getOperands().forEach(operand -> references.merge(operand, 1, Integer::sum));
+
+        lines.set(position, INDENTATION + instruction);
+        instructions.set(position, instruction);
+    }
+
+    /**
+     * Gets the number of calls followed by a return made jumps by the last run.
+     *
+     * @return the number of tail jumps.
+     */
+    public int getTailJumps() {
+        return tailJumps;
+    }
+
+    /**
+     * Gets the number of jumps and calls retargeted through a chain of jumps by the last run.
+     *
+     * @return the number of threaded jumps.
+     */
+    public int getThreadedJumps() {
+        return threadedJumps;
+    }
+
+    /**
+     * Gets the number of conditional jumps inverted to absorb the unconditional jump after them by the last run.
+     *
+     * @return the number of inverted branches.
+     */
+    public int getInvertedBranches() {
+        return invertedBranches;
+    }
+
+    /**
+     * Gets the number of jumps to the next instruction removed by the last run.
+     *
+     * @return the number of removed jumps.
+     */
+    public int getRemovedJumps() {
+        return removedJumps;
+    }
+
+    @Override
+    public String toString() {
+        return "Branch optimisation: " + tailJumps + " tail jumps, threaded " + threadedJumps + " jumps, inverted "
+                + invertedBranches + " branches, removed " + removedJumps + " jumps";
+    }
+
+}
@@ -88,6 +88,21 @@ final class X86_64CompilerConstants {
                 .toArray(String[]::new);
     }
 
+    /**
+     * Converts the given bytes to an array of hex strings, in the form given by {@link #stringLiteralCharsToHex}.
+     * @param bytes the bytes to convert
+     * @return an array of hex strings.
+     */
+    static String[] bytesToHex(byte[] bytes) {
+        String[] hexArray = new String[bytes.length];
+
+        for (int i = 0; i < bytes.length; i++) {
+            hexArray[i] = "0x" + Integer.toHexString(bytes[i] & 0xFF);
+        }
+
+        return hexArray;
+    }
+
     public enum DataSectionType {
 
         READ_ONLY(".rodata"),
@@ -1,41 +1,121 @@
 package uk.ac.tees.codegeneration.x86_64;
 
+import uk.ac.tees.codegeneration.CodeGenerationOption;
+import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
 import uk.ac.tees.syntax.grammar.expression.Expression;
+import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
+import uk.ac.tees.syntax.grammar.expression.UnaryOperator;
 import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
 import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
 import uk.ac.tees.syntax.grammar.factor.NumberFactor;
 import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
+import uk.ac.tees.syntax.visitor.TreeWalker;
 import uk.ac.tees.syntax.visitor.Visitor;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 import static uk.ac.tees.codegeneration.x86_64.X86_64CompilerConstants.INDENTATION;
 
+/**
+ * Compiles arithmetic expressions, leaving the value of each on the stack.
+ *
+ * <p>Without {@link CodeGenerationOption#REGISTER_EXPRESSIONS}, each operator is compiled on its own, once its
+ * operands have been pushed, by popping them into rax and rbx and pushing the result.</p>
+ *
+ * <p>With registers, a whole expression is compiled at once into a pool of registers, and only the value of the
+ * whole expression is pushed. Each subexpression is first labelled with the number of registers needed to evaluate
+ * it without spilling, its Sethi-Ullman number. The operand needing more registers is evaluated first, so that its
+ * registers are free again when the other is evaluated. Factors on the right of an operator, or either side of a
+ * commutative one, are used as immediate and memory operands rather than loaded into a register. Only when both
+ * operands need every register left is the right operand spilled to the stack while the left is evaluated.</p>
+ *
+ * <p>The rcx and rdx registers are never in the pool, since they are used by division. Expressions are compiled
+ * iteratively, with explicit stacks, so there is no limit to their depth.</p>
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
 public final class X86_64ExpressionCompiler extends AbstractSyntaxTreeVisitor<String, Expression> {
 
+    /**
+     * The registers that expressions are evaluated in, in the order they are used. The value of an expression is
+     * left in the first.
+     */
+    public static final List<String> REGISTERS = List.of(
+            "rax", "rbx", "rsi", "rdi", "r8", "r9", "r10", "r11", "r12", "r13", "r14", "r15");
+
     private final StringBuilder builder = new StringBuilder();
 
     private final X86_64NetwideAssemblyGenerator x86_64Generator;
 
-    public X86_64ExpressionCompiler(X86_64NetwideAssemblyGenerator x86_64Generator) {
+    /**
+     * The registers whole expressions are evaluated in, {@code null} if each operator is evaluated on the stack.
+     */
+    private final List<String> registers;
+
+    /**
+     * The number of registers needed to evaluate each subexpression of the expression being compiled.
+     */
+    private final Map<Expression, Integer> need = new IdentityHashMap<>();
+
+    /**
+     * The number of times an operand was spilled to the stack, for want of registers.
+     */
+    private int spillCount;
+
+    public X86_64ExpressionCompiler(X86_64NetwideAssemblyGenerator x86_64Generator, List<String> registers) {
+        if (registers != null && registers.size() < 2) {
+            throw new IllegalArgumentException("At least two registers are required to evaluate expressions");
+        }
+
         this.x86_64Generator = x86_64Generator;
+        this.registers = registers;
+    }
+
+    public X86_64ExpressionCompiler(X86_64NetwideAssemblyGenerator x86_64Generator) {
+        this(x86_64Generator,
+                x86_64Generator.isEnabled(CodeGenerationOption.REGISTER_EXPRESSIONS) ? REGISTERS : null);
     }
 
     @Override
     public String visitTree(Expression node) {
-        visitNode(node);
+        if (registers == null) {
+            visitNode(node);
+
+        } else {
+            TreeWalker.walk(node, this::label);
+            evaluate(node);
+            builder.append(INDENTATION).append("push ").append(registers.get(0)).append('\n');
+        }
 
         return builder.toString();
     }
 
+    public int getSpillCount() {
+        return spillCount;
+    }
+
     @Visitor(types = {NumberFactor.class, IdentifierFactor.class})
-    private void visit(Expression node) {
+    void visit(Expression node) {
         x86_64Generator.visitNode(node);
     }
 
     @Visitor
-    private void visit(ArithmeticBinaryExpression node) {
+    void visit(ArithmeticBinaryExpression node) {
         builder.append(INDENTATION).append("pop rbx\n")
                 .append(INDENTATION).append("pop rax\n");
 
+        if (x86_64Generator.isEnabled(CodeGenerationOption.STRENGTH_REDUCTION) && reduce(node)) {
+            builder.append(INDENTATION).append("push rax\n");
+            return;
+        }
+
         String operatorName = node.getOperator().name().toLowerCase();
 
         switch (node.getOperator()) {
@@ -45,7 +125,7 @@ public final class X86_64ExpressionCompiler extends AbstractSyntaxTreeVisitor<St
                 break;
 
             case DIV:
-                builder.append(INDENTATION).append("xor rdx, rdx\n");
+                builder.append(INDENTATION).append("cqo\n");
             case MUL:
                 builder.append(INDENTATION).append('i').append(operatorName);
                 break;
@@ -55,4 +135,306 @@ public final class X86_64ExpressionCompiler extends AbstractSyntaxTreeVisitor<St
                 .append(INDENTATION).append("push rax\n");
     }
 
-}
\ No newline at end of file
+    /**
+     * Appends a strength reduced sequence for a multiplication or division by a constant, with the left operand in
+     * rax and the right in rbx, leaving the result in rax.
+     *
+     * @return {@code true} if the operation was reduced.
+     */
+    private boolean reduce(ArithmeticBinaryExpression node) {
+        List<String> instructions = null;
+
+        if (node.getRight() instanceof NumberFactor) {
+            int value = ((NumberFactor) node.getRight()).getValue();
+
+            switch (node.getOperator()) {
+                case MUL:
+                    instructions = X86_64StrengthReduction.multiply(value);
+                    break;
+
+                case DIV:
+                    instructions = X86_64StrengthReduction.divide(value);
+                    break;
+            }
+
+        } else if (node.getOperator() == ArithmeticOperator.MUL && node.getLeft() instanceof NumberFactor) {
+            instructions = X86_64StrengthReduction.multiply(((NumberFactor) node.getLeft()).getValue());
+
+            if (instructions != null) {
+                builder.append(INDENTATION).append("mov rax, rbx\n");
+            }
+        }
+
+        if (instructions == null) {
+            return false;
+        }
+
+        instructions.forEach(instruction -> builder.append(INDENTATION).append(instruction).append('\n'));
+        return true;
+    }
+
+    private static boolean isFactor(Expression node) {
+        return node instanceof NumberFactor || node instanceof IdentifierFactor;
+    }
+
+    /**
+     * Denotes whether the operands of the given expression are exchanged, so that a factor on the left of a
+     * commutative operator is used directly as the right operand, as is a number on the left of a variable.
+     */
+    private static boolean isExchanged(ArithmeticBinaryExpression node) {
+        ArithmeticOperator operator = node.getOperator();
+
+        if (operator != ArithmeticOperator.ADD && operator != ArithmeticOperator.MUL || !isFactor(node.getLeft())) {
+            return false;
+        }
+
+        return !isFactor(node.getRight())
+                || (node.getLeft() instanceof NumberFactor && node.getRight() instanceof IdentifierFactor);
+    }
+
+    /**
+     * Labels the given subexpression, once its operands have been labelled, with the number of registers needed to
+     * evaluate it.
+     */
+    private void label(AbstractSyntaxTreeNode node) {
+        if (node instanceof UnaryExpression) {
+            need.put((Expression) node, need.get(((UnaryExpression) node).getExpression()));
+
+        } else if (node instanceof ArithmeticBinaryExpression) {
+            ArithmeticBinaryExpression binary = (ArithmeticBinaryExpression) node;
+            Expression left = isExchanged(binary) ? binary.getRight() : binary.getLeft();
+            Expression right = isExchanged(binary) ? binary.getLeft() : binary.getRight();
+
+            int leftNeed = need.get(left);
+            int rightNeed = need.get(right);
+
+            if (isFactor(right)) {
+                need.put(binary, leftNeed);
+
+            } else {
+                need.put(binary, leftNeed == rightNeed ? leftNeed + 1 : Math.max(leftNeed, rightNeed));
+            }
+
+        } else if (node instanceof Expression) {
+            need.put((Expression) node, 1);
+        }
+    }
+
+    /**
+     * Appends the instructions that evaluate the given expression into the first of {@link #registers}.
+     *
+     * <p>The work to be done is kept on a stack, each item being either an instruction to append or a subexpression
+     * to evaluate into the first of a list of free registers. Which registers each subexpression is evaluated in is
+     * known before any of its instructions are appended, so the instructions that combine the operands are pushed
+     * beneath the evaluation of the operands themselves.</p>
+     */
+    private void evaluate(Expression root) {
+        Deque<Object> work = new ArrayDeque<>();
+        work.push(new Evaluation(root, registers));
+
+        while (!work.isEmpty()) {
+            Object item = work.pop();
+
+            if (item instanceof String) {
+                builder.append(INDENTATION).append(item).append('\n');
+                continue;
+            }
+
+            Evaluation evaluation = (Evaluation) item;
+            Expression node = evaluation.node;
+            List<String> free = evaluation.registers;
+            String target = free.get(0);
+
+            if (isFactor(node)) {
+                work.push("mov " + target + ", " + operand(node));
+
+            } else if (node instanceof UnaryExpression) {
+                UnaryExpression unary = (UnaryExpression) node;
+
+                if (unary.getOperator() == UnaryOperator.SUB) {
+                    work.push("neg " + target);
+                }
+
+                work.push(new Evaluation((Expression) unary.getExpression(), free));
+
+            } else {
+                binary((ArithmeticBinaryExpression) node, free, work);
+            }
+        }
+    }
+
+    /**
+     * Pushes the work to evaluate the given binary expression into the first of the given free registers.
+     */
+    private void binary(ArithmeticBinaryExpression node, List<String> free, Deque<Object> work) {
+        Expression left = isExchanged(node) ? node.getRight() : node.getLeft();
+        Expression right = isExchanged(node) ? node.getLeft() : node.getRight();
+        String target = free.get(0);
+
+        if (isFactor(right)) {
+            operation(node.getOperator(), free, operand(right), right).forEach(work::push);
+            work.push(new Evaluation(left, free));
+            return;
+        }
+
+        List<String> rest = free.subList(1, free.size());
+        int leftNeed = need.get(left);
+        int rightNeed = need.get(right);
+
+        if (leftNeed >= rightNeed && rightNeed <= rest.size()) {
+            // the left operand is held in the target while the right is evaluated in the registers that remain.
+            operation(node.getOperator(), free, rest.get(0), null).forEach(work::push);
+            work.push(new Evaluation(right, rest));
+            work.push(new Evaluation(left, free));
+
+        } else if (leftNeed < rightNeed && leftNeed <= rest.size()) {
+            // the right operand is evaluated first, into the second register, using the target as well.
+            List<String> exchanged = new ArrayList<>(free);
+            exchanged.set(0, free.get(1));
+            exchanged.set(1, target);
+
+            List<String> remaining = new ArrayList<>(free);
+            remaining.remove(1);
+
+            operation(node.getOperator(), free, free.get(1), null).forEach(work::push);
+            work.push(new Evaluation(left, remaining));
+            work.push(new Evaluation(right, exchanged));
+
+        } else {
+            spillCount++;
+
+            operation(node.getOperator(), free, free.get(1), null).forEach(work::push);
+            work.push("pop " + free.get(1));
+            work.push(new Evaluation(left, free));
+            work.push("push " + target);
+            work.push(new Evaluation(right, free));
+        }
+    }
+
+    /**
+     * Gets the instructions that combine the left operand, in the first of the given free registers, with the given
+     * right operand, in reverse order so that they may be pushed onto the work stack.
+     *
+     * @param operator the operator.
+     * @param free     the free registers, the first holding the left operand and the result.
+     * @param operand  the right operand, a register, immediate value or memory operand.
+     * @param factor   the right operand as a factor, {@code null} if it is in a register.
+     * @return the instructions, last first.
+     */
+    private List<String> operation(ArithmeticOperator operator, List<String> free, String operand, Expression factor) {
+        String target = free.get(0);
+        List<String> instructions = new ArrayList<>();
+        boolean reduce = x86_64Generator.isEnabled(CodeGenerationOption.STRENGTH_REDUCTION)
+                && factor instanceof NumberFactor;
+
+        switch (operator) {
+            case ADD:
+            case SUB:
+                instructions.add(operator.name().toLowerCase() + " " + target + ", " + operand);
+                break;
+
+            case MUL:
+                List<String> reduced = reduce
+                        ? X86_64StrengthReduction.multiply(((NumberFactor) factor).getValue(), target)
+                        : null;
+
+                if (reduced == null) {
+                    instructions.add("imul " + target + ", " + operand);
+                } else {
+                    instructions.addAll(reduced);
+                }
+                break;
+
+            case DIV:
+                instructions.addAll(divide(free, operand, factor, reduce));
+                break;
+        }
+
+        return reversed(instructions);
+    }
+
+    /**
+     * Gets the instructions that divide the first of the given free registers by the given operand. The dividend
+     * must be in rax, so when the target is another register, rax is saved around the division if it is not free.
+     */
+    private List<String> divide(List<String> free, String operand, Expression factor, boolean reduce) {
+        String target = free.get(0);
+        List<String> instructions = new ArrayList<>();
+        List<String> division = reduce ? X86_64StrengthReduction.divide(((NumberFactor) factor).getValue()) : null;
+
+        if (division == null) {
+            String divisor = operand;
+
+            if (factor instanceof NumberFactor) {
+                instructions.add("mov rcx, " + operand);
+                divisor = "rcx";
+
+            } else if (factor instanceof IdentifierFactor) {
+                divisor = "qword " + operand;
+            }
+
+            division = List.of("cqo", "idiv " + divisor);
+        }
+
+        if (target.equals("rax")) {
+            instructions.addAll(division);
+            return instructions;
+        }
+
+        if (operand.equals("rax")) {
+            // the divisor is in rax, so it is exchanged with the dividend.
+            return List.of("xchg rax, " + target, "cqo", "idiv " + target, "mov " + target + ", rax");
+        }
+
+        boolean saveRax = !free.contains("rax");
+
+        if (saveRax) {
+            instructions.add(0, "push rax");
+        }
+
+        instructions.add("mov rax, " + target);
+        instructions.addAll(division);
+        instructions.add("mov " + target + ", rax");
+
+        if (saveRax) {
+            instructions.add("pop rax");
+        }
+
+        return instructions;
+    }
+
+    private static List<String> reversed(List<String> instructions) {
+        List<String> reversed = new ArrayList<>(instructions);
+        Collections.reverse(reversed);
+        return reversed;
+    }
+
+    /**
+     * Gets the immediate value or memory operand for the given factor.
+     */
+    private String operand(Expression factor) {
+        if (factor instanceof NumberFactor) {
+            return String.valueOf(((NumberFactor) factor).getValue());
+        }
+
+        char name = ((IdentifierFactor) factor).getName();
+        return "[rbp - " + x86_64Generator.getLocalVariableAddressOffset(name) + "]";
+    }
+
+    /**
+     * A subexpression to be evaluated into the first of the given free registers.
+     */
+    private static final class Evaluation {
+
+        private final Expression node;
+
+        private final List<String> registers;
+
+        private Evaluation(Expression node, List<String> registers) {
+            this.node = node;
+            this.registers = registers;
+        }
+
+    }
+
+}
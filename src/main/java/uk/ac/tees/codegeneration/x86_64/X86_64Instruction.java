@@ -0,0 +1,329 @@
+package uk.ac.tees.codegeneration.x86_64;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A single x86-64 instruction, in Netwide Assembler syntax, as it appears in generated assembly code, with the
+ * registers it reads and writes.
+ *
+ * <p>Registers are identified by the name of the 64-bit register they are part of, so eax is rax. The flags
+ * register is identified by {@link #FLAGS}. Instructions that are not known are treated as reading and writing every
+ * register, so are never changed or moved past.</p>
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class X86_64Instruction {
+
+    /**
+     * The name that identifies the flags register.
+     */
+    public static final String FLAGS = "rflags";
+
+    /**
+     * The general purpose registers, by the names of each of their parts that may appear in generated code.
+     */
+    private static final Map<String, String> REGISTERS = Map.ofEntries(
+            Map.entry("rax", "rax"), Map.entry("eax", "rax"),
+            Map.entry("rbx", "rbx"), Map.entry("ebx", "rbx"),
+            Map.entry("rcx", "rcx"), Map.entry("ecx", "rcx"),
+            Map.entry("rdx", "rdx"), Map.entry("edx", "rdx"),
+            Map.entry("rsi", "rsi"), Map.entry("esi", "rsi"),
+            Map.entry("rdi", "rdi"), Map.entry("edi", "rdi"),
+            Map.entry("rbp", "rbp"), Map.entry("rsp", "rsp"),
+            Map.entry("r8", "r8"), Map.entry("r8d", "r8"),
+            Map.entry("r9", "r9"), Map.entry("r9d", "r9"),
+            Map.entry("r10", "r10"), Map.entry("r10d", "r10"),
+            Map.entry("r11", "r11"), Map.entry("r11d", "r11"),
+            Map.entry("r12", "r12"), Map.entry("r12d", "r12"),
+            Map.entry("r13", "r13"), Map.entry("r13d", "r13"),
+            Map.entry("r14", "r14"), Map.entry("r14d", "r14"),
+            Map.entry("r15", "r15"), Map.entry("r15d", "r15"));
+
+    /**
+     * Instructions that write their first operand from their operands, and set the flags.
+     */
+    private static final Set<String> ARITHMETIC = Set.of(
+            "add", "sub", "and", "or", "xor", "shl", "sar", "shr", "inc", "dec");
+
+    private static final Pattern WORD = Pattern.compile("\\w+");
+
+    private final String mnemonic;
+
+    private final List<String> operands;
+
+    public X86_64Instruction(String mnemonic, String... operands) {
+        this.mnemonic = mnemonic;
+        this.operands = List.of(operands);
+    }
+
+    /**
+     * Parses a line of assembly code.
+     *
+     * @param line the line.
+     * @return the instruction on the line, or {@code null} if the line is a label, directive, data or blank.
+     */
+    public static X86_64Instruction parse(String line) {
+        String trimmed = line.trim();
+
+        if (trimmed.isEmpty() || trimmed.contains(":") || trimmed.startsWith("%") || trimmed.startsWith(";")
+                || !Character.isWhitespace(line.charAt(0))) {
+            return null;
+        }
+
+        String[] parts = trimmed.split("\\s+", 2);
+
+        if (parts[0].equals("global") || parts[0].equals("extern") || parts[0].equals("section")) {
+            return null;
+        }
+
+        String[] operands = parts.length == 1 ? new String[0] : parts[1].split(",");
+
+        return new X86_64Instruction(parts[0], Arrays.stream(operands).map(String::trim).toArray(String[]::new));
+    }
+
+    /**
+     * Gets the 64-bit register that the given operand names.
+     *
+     * @param operand the operand.
+     * @return the name of the 64-bit register, or {@code null} if the operand is not a register.
+     */
+    public static String register(String operand) {
+        return REGISTERS.get(operand);
+    }
+
+    /**
+     * Denotes whether the given operand is a memory operand.
+     */
+    public static boolean isMemory(String operand) {
+        return operand.indexOf('[') >= 0;
+    }
+
+    /**
+     * Denotes whether the given operand is an immediate value, rather than a register, memory operand or label.
+     */
+    public static boolean isImmediate(String operand) {
+        return operand.matches("-?[0-9]+|0x[0-9a-fA-F]+");
+    }
+
+    /**
+     * Denotes whether the given operand is or refers to the given register, including as part of a memory address.
+     */
+    public static boolean refers(String operand, String register) {
+        Matcher matcher = WORD.matcher(operand);
+
+        while (matcher.find()) {
+            if (register.equals(REGISTERS.get(matcher.group()))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public String getMnemonic() {
+        return mnemonic;
+    }
+
+    public List<String> getOperands() {
+        return operands;
+    }
+
+    public String getOperand(int index) {
+        return operands.get(index);
+    }
+
+    /**
+     * Denotes whether this is a known instruction, whose effects are described by this class.
+     *
+     * @return {@code true} if the instruction is known.
+     */
+    public boolean isKnown() {
+        switch (mnemonic) {
+            case "mov":
+            case "lea":
+            case "cmp":
+            case "test":
+            case "neg":
+            case "push":
+            case "pop":
+            case "cqo":
+            case "idiv":
+            case "imul":
+            case "call":
+            case "ret":
+            case "jmp":
+            case "syscall":
+                return true;
+
+            default:
+                return ARITHMETIC.contains(mnemonic) || isConditionalJump();
+        }
+    }
+
+    /**
+     * Denotes whether this is a conditional jump, which reads only the flags.
+     */
+    public boolean isConditionalJump() {
+        return mnemonic.startsWith("j") && !mnemonic.equals("jmp");
+    }
+
+    /**
+     * Denotes whether control never continues to the next instruction, or leaves the code being compiled and then
+     * returns to it, that is jmp, call and ret.
+     */
+    public boolean isTransfer() {
+        return mnemonic.equals("jmp") || mnemonic.equals("call") || mnemonic.equals("ret");
+    }
+
+    /**
+     * Denotes whether this instruction reads or writes the stack, or the stack pointer.
+     */
+    public boolean usesStack() {
+        switch (mnemonic) {
+            case "push":
+            case "pop":
+            case "call":
+            case "ret":
+            case "syscall":
+                return true;
+
+            default:
+                return !isKnown() || operands.stream().anyMatch(operand -> refers(operand, "rsp"));
+        }
+    }
+
+    /**
+     * Denotes whether this instruction sets a register to zero, regardless of its value, as xor does when both
+     * operands are the same register.
+     */
+    private boolean isZeroIdiom() {
+        return mnemonic.equals("xor") && operands.size() == 2 && register(operands.get(0)) != null
+                && register(operands.get(0)).equals(register(operands.get(1)));
+    }
+
+    /**
+     * Denotes whether this instruction reads the given register, or the flags.
+     *
+     * @param register the 64-bit register name, or {@link #FLAGS}.
+     * @return {@code true} if the value of the register before this instruction may be read.
+     */
+    public boolean reads(String register) {
+        if (!isKnown()) {
+            return true;
+        }
+
+        if (register.equals(FLAGS)) {
+            return isConditionalJump();
+        }
+
+        switch (mnemonic) {
+            case "mov":
+            case "lea":
+                // the destination is only read if it is a memory operand, for the registers of its address.
+                return (isMemory(operands.get(0)) && refers(operands.get(0), register))
+                        || refers(operands.get(1), register);
+
+            case "pop":
+                return register.equals("rsp") || (isMemory(operands.get(0)) && refers(operands.get(0), register));
+
+            case "push":
+            case "call":
+            case "ret":
+                return register.equals("rsp") || operands.stream().anyMatch(operand -> refers(operand, register));
+
+            case "cqo":
+                return register.equals("rax");
+
+            case "idiv":
+                return register.equals("rax") || register.equals("rdx") || refers(operands.get(0), register);
+
+            case "imul":
+                return (operands.size() == 1 && register.equals("rax"))
+                        || operands.stream().anyMatch(operand -> refers(operand, register));
+
+            case "syscall":
+                return List.of("rax", "rdi", "rsi", "rdx", "r10", "r8", "r9").contains(register);
+
+            default:
+                return !isZeroIdiom() && operands.stream().anyMatch(operand -> refers(operand, register));
+        }
+    }
+
+    /**
+     * Denotes whether this instruction writes the given register, or the flags.
+     *
+     * @param register the 64-bit register name, or {@link #FLAGS}.
+     * @return {@code true} if the register may be written.
+     */
+    public boolean writes(String register) {
+        if (!isKnown()) {
+            return true;
+        }
+
+        if (register.equals(FLAGS)) {
+            return ARITHMETIC.contains(mnemonic) || List.of("cmp", "test", "neg", "imul", "idiv").contains(mnemonic);
+        }
+
+        switch (mnemonic) {
+            case "cmp":
+            case "test":
+            case "jmp":
+                return false;
+
+            case "push":
+            case "call":
+            case "ret":
+                return register.equals("rsp");
+
+            case "pop":
+                return register.equals("rsp") || register.equals(register(operands.get(0)));
+
+            case "cqo":
+                return register.equals("rdx");
+
+            case "idiv":
+                return register.equals("rax") || register.equals("rdx");
+
+            case "imul":
+                return operands.size() == 1
+                        ? register.equals("rax") || register.equals("rdx")
+                        : register.equals(register(operands.get(0)));
+
+            case "syscall":
+                return List.of("rax", "rcx", "r11").contains(register);
+
+            default:
+                return !isConditionalJump() && !operands.isEmpty() && register.equals(register(operands.get(0)));
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof X86_64Instruction)) {
+            return false;
+        }
+
+        X86_64Instruction that = (X86_64Instruction) o;
+        return mnemonic.equals(that.mnemonic) && operands.equals(that.operands);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * mnemonic.hashCode() + operands.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return operands.isEmpty() ? mnemonic : mnemonic + " " + String.join(", ", operands);
+    }
+
+}
@@ -1,10 +1,12 @@
 package uk.ac.tees.codegeneration.x86_64;
 
-import uk.ac.tees.optimise.ConstantExpressionEvaluator;
+import uk.ac.tees.codegeneration.CodeGenerationOption;
+import uk.ac.tees.semantics.ProgramIndex;
 import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
 import uk.ac.tees.syntax.grammar.Line;
 import uk.ac.tees.syntax.grammar.Program;
 import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.Expression;
 import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
 import uk.ac.tees.syntax.grammar.expression.UnaryOperator;
 import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
@@ -14,10 +16,18 @@ import uk.ac.tees.syntax.grammar.factor.NumberFactor;
 import uk.ac.tees.syntax.grammar.factor.StringLiteral;
 import uk.ac.tees.syntax.grammar.statement.*;
 import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
+import uk.ac.tees.syntax.visitor.Exhaustive;
+import uk.ac.tees.syntax.visitor.FusableVisitor;
+import uk.ac.tees.syntax.visitor.TreeWalker;
 import uk.ac.tees.syntax.visitor.Visitor;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Set;
 
 import static uk.ac.tees.codegeneration.x86_64.X86_64CompilerConstants.*;
 
@@ -34,6 +44,17 @@ import static uk.ac.tees.codegeneration.x86_64.X86_64CompilerConstants.*;
  * the operation would be at the top of the stack. This makes the compilation process really simple however leads to
  * long sequences of stack operations, repeatedly pushing and popping off the stack.</p>
  *
+ * <p>With {@link CodeGenerationOption#REGISTER_EXPRESSIONS}, the nodes of arithmetic expressions are not compiled as
+ * they are visited, but held until the node that uses the expression is visited. Each whole expression is then
+ * compiled into registers by an {@link X86_64ExpressionCompiler}, and only its value is pushed.</p>
+ *
+ * <p>With {@link CodeGenerationOption#LABEL_PRUNING}, only the lines targeted by a GOTO, GOSUB or IF statement are
+ * given a label, so that the code of consecutive lines that are not forms one straight-line sequence, which the
+ * peephole optimiser may then rewrite across lines.</p>
+ *
+ * <p>With {@link CodeGenerationOption#CONSTANT_OUTPUT}, the string literals and constant arguments of a PRINT statement
+ * are not compiled, their output is produced at compile time by the {@link X86_64PrintStatementCompiler}.</p>
+ *
  * <p>Operands are also pushed onto the stack for such operations as writing to standard output and reading from
  * standard input. In the case of a string operand, the address of the string (label, usually declared in read-memory
  * data section) is passed to the system call.</p>
@@ -43,7 +64,9 @@ import static uk.ac.tees.codegeneration.x86_64.X86_64CompilerConstants.*;
  *
  * @author Sam Hammersley - Gonsalves (q5315908)
  */
-public final class X86_64NetwideAssemblyGenerator extends AbstractSyntaxTreeVisitor<String, Program> {
+@Exhaustive(except = {UnassignedIdentifier.class})
+public final class X86_64NetwideAssemblyGenerator extends AbstractSyntaxTreeVisitor<String, Program>
+        implements FusableVisitor<String, Program> {
 
     /**
      * The read-only data section holding string data, with generated labels.
@@ -56,9 +79,25 @@ public final class X86_64NetwideAssemblyGenerator extends AbstractSyntaxTreeVisi
     private final StringBuilder builder = new StringBuilder();
 
     /**
-     * Characters mapped to address offsets, these offsets are from rbp and are reserved for local variables.
+     * Address offsets of each variable, 'A' being at index 0, these offsets are from rbp and are reserved for local
+     * variables. An offset of 0 denotes that no address has been reserved for the variable.
+     */
+    private final int[] localVariableAddress = new int[MAX_LOCAL_VARIABLE_COUNT];
+
+    /**
+     * The optimisations applied as code is generated.
+     */
+    private final Set<CodeGenerationOption> options;
+
+    /**
+     * The number of local variables that have been reserved an address.
+     */
+    private int localVariableCount;
+
+    /**
+     * The index of the program being compiled, built when the program node is visited if one is not given.
      */
-    private final Map<Character, Integer> localVariableAddress = new HashMap<>();
+    private ProgramIndex index;
 
     /**
      * The current line of source code.
@@ -71,38 +110,161 @@ public final class X86_64NetwideAssemblyGenerator extends AbstractSyntaxTreeVisi
     private boolean includeAsciiUtil;
 
     /**
-     * Gets the offset from stack frame base pointer for the given identifier.
+     * The line numbers of the lines that are the target of a branch, or {@code null} if every line is given a label.
+     */
+    private Set<Integer> branchTargets;
+
+    /**
+     * The label placed after the last statement, if an IF on the last line skips to it.
+     */
+    private String endLabel;
+
+    /**
+     * The visited expressions whose values are yet to be compiled, in the order they were visited, when expressions
+     * are evaluated in registers.
+     */
+    private final Deque<Expression> pending = new ArrayDeque<>();
+
+    /**
+     * The arguments of the PRINT statement of the current line whose output is produced at compile time, and the nodes
+     * within them, which are not compiled.
+     */
+    private final Set<AbstractSyntaxTreeNode> formatted = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    public X86_64NetwideAssemblyGenerator(ProgramIndex index, Set<CodeGenerationOption> options) {
+        this.index = index;
+        this.options = options.isEmpty() ? EnumSet.noneOf(CodeGenerationOption.class) : EnumSet.copyOf(options);
+    }
+
+    public X86_64NetwideAssemblyGenerator(ProgramIndex index) {
+        this(index, Set.of());
+    }
+
+    public X86_64NetwideAssemblyGenerator() {
+        this(null);
+    }
+
+    /**
+     * Denotes whether the given optimisation is applied as code is generated.
+     *
+     * @param option the optimisation.
+     * @return {@code true} if the optimisation is enabled.
+     */
+    boolean isEnabled(CodeGenerationOption option) {
+        return options.contains(option);
+    }
+
+    /**
+     * Gets the offset from stack frame base pointer for the given identifier. When compiling a whole program, every
+     * variable is reserved an address from the {@link ProgramIndex} up front, otherwise addresses are reserved as
+     * each variable is first encountered.
      *
      * @param identifier the identifier to get the offset for.
      * @return an integer offset, that is taken from rbp register for the address of the given identifier.
      */
-    private int getLocalVariableAddressOffset(char identifier) {
-        return localVariableAddress.getOrDefault(identifier,
-                (1 + localVariableAddress.size()) * Long.BYTES);
+    int getLocalVariableAddressOffset(char identifier) {
+        int variable = identifier - 'A';
+
+        if (localVariableAddress[variable] == 0) {
+            if (localVariableCount == MAX_LOCAL_VARIABLE_COUNT) {
+                throw new RuntimeException("Too many variables");
+            }
+
+            localVariableAddress[variable] = ++localVariableCount * Long.BYTES;
+        }
+
+        return localVariableAddress[variable];
+    }
+
+    @Override
+    public void visitNode(AbstractSyntaxTreeNode node) {
+        if (formatted.contains(node)) {
+            return;
+        }
+
+        if (isEnabled(CodeGenerationOption.REGISTER_EXPRESSIONS)) {
+            if (defer(node)) {
+                return;
+            }
+
+            // every pending expression is an operand of this node, so their values are pushed in order.
+            while (!pending.isEmpty()) {
+                builder.append(new X86_64ExpressionCompiler(this).visitTree(pending.removeLast()));
+            }
+        }
+
+        super.visitNode(node);
+    }
+
+    /**
+     * Holds the given node if it is part of an arithmetic expression, replacing the operands of an operator, which
+     * are visited first, with the operator itself.
+     *
+     * @return {@code true} if the node was held.
+     */
+    private boolean defer(AbstractSyntaxTreeNode node) {
+        if (node instanceof ArithmeticBinaryExpression) {
+            pending.pop();
+            pending.pop();
+
+        } else if (node instanceof UnaryExpression) {
+            pending.pop();
+
+        } else if (!(node instanceof NumberFactor) && !(node instanceof IdentifierFactor)) {
+            return false;
+        }
+
+        pending.push((Expression) node);
+        return true;
     }
 
     @Override
     public String visitTree(Program root) {
-        root.accept(this);
+        TreeWalker.walk(root, this);
 
+        return finish(root);
+    }
+
+    @Override
+    public String finish(Program root) {
         // this is inserted since data section is not ready before hand.
         builder.insert(0, dataSection);
 
         int index = builder.indexOf(LOCAL_VAR_RESERVE_PLACE_HOLDER);
 
         // stack grows down so we sub to reserve enough space on the stack for local variables.
-        String reserved = INDENTATION + "sub rsp, " + localVariableAddress.size() * Long.BYTES + "\n";
+        String reserved = INDENTATION + "sub rsp, " + localVariableCount * Long.BYTES + "\n";
         builder.replace(index, index + LOCAL_VAR_RESERVE_PLACE_HOLDER.length(), reserved);
 
         if (includeAsciiUtil) {
             builder.insert(0, INCLUDE_ASCII_UTILS);
         }
 
+        if (endLabel != null) {
+            builder.append(endLabel).append(":\n");
+        }
+
         return builder.toString();
     }
 
     @Visitor
-    private void visit(Program root) {
+    void visit(Program root) {
+        if (index == null) {
+            index = ProgramIndex.of(root);
+        }
+
+        for (char identifier = 'A'; identifier <= 'Z'; identifier++) {
+            if (index.isAssigned(identifier)) {
+                localVariableAddress[identifier - 'A'] = index.slotOf(identifier) * Long.BYTES;
+            }
+        }
+
+        localVariableCount = index.variableCount();
+
+        if (isEnabled(CodeGenerationOption.LABEL_PRUNING)) {
+            branchTargets = branchTargets(index);
+        }
+
         builder.append("section .text\n")
                 .append(INDENTATION).append("global _start\n")
                 .append("_start:\n")
@@ -116,7 +278,7 @@ public final class X86_64NetwideAssemblyGenerator extends AbstractSyntaxTreeVisi
     }
 
     @Visitor
-    private void visit(EndStatement node) {
+    void visit(EndStatement node) {
         // clear the rax register.
         builder.append(INDENTATION).append("xor rax, rax\n")
                 // change the stack pointers back to original values.
@@ -128,20 +290,20 @@ public final class X86_64NetwideAssemblyGenerator extends AbstractSyntaxTreeVisi
     }
 
     @Visitor
-    private void visit(IdentifierFactor node) {
+    void visit(IdentifierFactor node) {
         char identifier = node.getName();
         builder.append(INDENTATION).append("mov rax, [rbp - ")
-                .append(localVariableAddress.get(identifier)).append("]\n")
+                .append(getLocalVariableAddressOffset(identifier)).append("]\n")
                 .append(INDENTATION).append("push rax\n");
     }
 
     @Visitor
-    private void visit(NumberFactor node) {
+    void visit(NumberFactor node) {
         builder.append(INDENTATION).append("push ").append(node.getValue()).append('\n');
     }
 
     @Visitor
-    private void visit(StringLiteral node) {
+    void visit(StringLiteral node) {
         // convert the string to an array of hex strings (for each character).
         String[] hexArray = X86_64CompilerConstants.stringLiteralCharsToHex(node.getValue());
         String operand = String.join(",", hexArray);
@@ -150,7 +312,7 @@ public final class X86_64NetwideAssemblyGenerator extends AbstractSyntaxTreeVisi
     }
 
     @Visitor
-    private void visit(UnaryExpression node) {
+    void visit(UnaryExpression node) {
         if (node.getOperator().equals(UnaryOperator.SUB)) {
             builder.append(INDENTATION).append("pop rbx\n")
                     .append(INDENTATION).append("mov rax, 0\n")
@@ -160,80 +322,136 @@ public final class X86_64NetwideAssemblyGenerator extends AbstractSyntaxTreeVisi
     }
 
     @Visitor
-    private void visit(ArithmeticBinaryExpression node) {
-        X86_64ExpressionCompiler expressionCompiler = new X86_64ExpressionCompiler(this);
+    void visit(ArithmeticBinaryExpression node) {
+        // the operands have already been pushed, constant expressions are folded before compilation at -O1 and above.
+        builder.append(new X86_64ExpressionCompiler(this).visitTree(node));
+    }
+
+    /**
+     * Finds the lines that are jumped to, being the targets of GOTO and GOSUB statements, including those of IF
+     * statements, and the line after each IF statement, which is jumped to if its condition does not hold.
+     */
+    private static Set<Integer> branchTargets(ProgramIndex index) {
+        Set<Integer> targets = new HashSet<>();
+
+        for (int i = 0; i < index.lineCount(); i++) {
+            Statement statement = index.lineAt(i).getStatement();
+
+            if (statement instanceof IfStatement && i + 1 < index.lineCount()) {
+                targets.add(index.lineAt(i + 1).getLineNumber());
+            }
+
+            while (statement instanceof IfStatement) {
+                statement = ((IfStatement) statement).getStatement();
+            }
+
+            if (statement instanceof GoToStatement) {
+                targets.add(((GoToStatement) statement).getLineNumber());
 
-        ConstantExpressionEvaluator<String, X86_64ExpressionCompiler> evaluator
-                = new ConstantExpressionEvaluator<>(expressionCompiler);
+            } else if (statement instanceof GoSubStatement) {
+                targets.add(((GoSubStatement) statement).getLineNumber());
+            }
+        }
 
-        builder.append(evaluator.visitTree(node));
+        return targets;
     }
 
     @Visitor
-    private void visit(Line node) {
-        builder.append("_line_").append(node.getLineNumber()).append(":\n");
+    void visit(Line node) {
+        if (branchTargets == null || branchTargets.contains(node.getLineNumber())) {
+            builder.append("_line_").append(node.getLineNumber()).append(":\n");
+        }
 
         currentLine = node.getLineNumber();
+        format(node.getStatement());
     }
 
-    @Visitor
-    private void visit(LetStatement node) {
-        if (localVariableAddress.size() > MAX_LOCAL_VARIABLE_COUNT) {
-            throw new RuntimeException("Too many variables");
+    /**
+     * Marks the string literals and constant arguments of the given statement, if it is a PRINT statement, and the
+     * nodes within them, as having their output produced at compile time.
+     */
+    private void format(Statement statement) {
+        if (!isEnabled(CodeGenerationOption.CONSTANT_OUTPUT) || !(statement instanceof PrintStatement)) {
+            return;
         }
 
-        char identifier = node.getIdentifier().getName();
-        int addressOffset = getLocalVariableAddressOffset(identifier);
+        for (AbstractSyntaxTreeNode expression : ((PrintStatement) statement).getExpressions()) {
+            if (expression instanceof StringLiteral
+                    || X86_64PrintStatementCompiler.constantValue(expression) != null) {
+                TreeWalker.walk(expression, formatted::add);
+            }
+        }
+    }
+
+    @Visitor
+    void visit(LetStatement node) {
+        int addressOffset = getLocalVariableAddressOffset(node.getIdentifier().getName());
 
-        localVariableAddress.put(identifier, addressOffset);
         builder.append(INDENTATION).append("pop rax\n")
                 .append(INDENTATION).append("mov [rbp - ").append(addressOffset).append("], rax\n");
     }
 
     @Visitor
-    private void visit(PrintStatement node) {
-        X86_64PrintStatementCompiler printer = new X86_64PrintStatementCompiler(dataSection);
+    void visit(PrintStatement node) {
+        X86_64PrintStatementCompiler printer = new X86_64PrintStatementCompiler(dataSection, formatted);
 
         builder.append(printer.visitTree(node));
         includeAsciiUtil |= printer.shouldConvert();
+        formatted.clear();
     }
 
     @Visitor
-    private void visit(RelationalBinaryExpression node) {
+    void visit(RelationalBinaryExpression node) {
         builder.append(INDENTATION).append("pop rax\n")
                 .append(INDENTATION).append("pop rbx\n")
                 .append(INDENTATION).append("cmp rbx, rax\n");
     }
 
     @Visitor
-    private void visit(IfStatement node) {
+    void visit(IfStatement node) {
         String operation = getJumpOperation(node.getExpression().getOperator().negate());
 
-        builder.append(INDENTATION).append(operation).append(" _line_").append(currentLine + 10).append('\n');
+        builder.append(INDENTATION).append(operation).append(' ').append(nextLineLabel()).append('\n');
+        // the condition has been compiled, so only the nodes of the statement it guards are marked.
+        format(node.getStatement());
+    }
+
+    /**
+     * Gets the label of the line after the current line, which need not be 10 more than the current line once lines
+     * have been removed by optimisation. After the last line, or without an index, there is no next line, so a label
+     * is placed at the end of the program instead.
+     */
+    private String nextLineLabel() {
+        int position = index == null ? -1 : index.indexOf(currentLine);
+
+        if (position < 0 || position + 1 == index.lineCount()) {
+            endLabel = "_line_" + currentLine + "_end";
+            return endLabel;
+        }
+
+        return "_line_" + index.lineAt(position + 1).getLineNumber();
     }
 
     @Visitor
-    private void visit(GoToStatement node) {
+    void visit(GoToStatement node) {
         builder.append(INDENTATION).append("jmp _line_").append(node.getLineNumber()).append('\n');
     }
 
     @Visitor
-    private void visit(GoSubStatement node) {
+    void visit(GoSubStatement node) {
         builder.append(INDENTATION).append("call _line_").append(node.getLineNumber()).append('\n');
     }
 
     @Visitor
-    private void visit(ReturnStatement node) {
+    void visit(ReturnStatement node) {
         builder.append(INDENTATION).append("ret\n");
     }
 
     @Visitor
-    private void visit(InputStatement node) {
+    void visit(InputStatement node) {
         for (UnassignedIdentifier identifier : node.getIdentifiers()) {
             int addressOffset = getLocalVariableAddressOffset(identifier.getName());
 
-            localVariableAddress.put(identifier.getName(), addressOffset);
-
             builder.append(INDENTATION).append("lea r8, [rbp - ").append(addressOffset).append("]\n");
             systemCall(builder, SYS_READ_ID, STD_IN_FILE_DESCRIPTOR, "r8", 8);
             builder.append(INDENTATION).append("mov rax, [rbp - ").append(addressOffset).append("]\n");
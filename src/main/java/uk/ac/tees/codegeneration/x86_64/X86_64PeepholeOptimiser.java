@@ -0,0 +1,495 @@
+package uk.ac.tees.codegeneration.x86_64;
+
+import uk.ac.tees.optimise.Pass;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static uk.ac.tees.codegeneration.x86_64.X86_64CompilerConstants.INDENTATION;
+import static uk.ac.tees.codegeneration.x86_64.X86_64Instruction.FLAGS;
+
+/**
+ * Rewrites short sequences of instructions in generated assembly code into fewer or cheaper instructions, examining a
+ * window of adjacent instructions at each position until no rule applies anywhere.
+ * <ul>
+ *     <li>A push followed by a pop, with no use of the stack between, becomes a mov, or nothing if they are of the
+ *     same register.</li>
+ *     <li>A load from memory or a register just stored to becomes a copy of the register stored, or nothing if it is
+ *     the same register.</li>
+ *     <li>A mov of an immediate value, register or memory operand into a register that is then only used as the
+ *     source of the next instruction, or compared by it, is folded into that instruction.</li>
+ *     <li>An instruction that writes only a register whose value is never read is removed.</li>
+ *     <li>{@code mov reg, 0} becomes {@code xor reg, reg}, where the flags it sets are never read. This is applied in
+ *     a final sweep, once no other rule applies, so that the zero may first be folded into the instruction using
+ *     it.</li>
+ * </ul>
+ *
+ * <p>Windows never span a label, so instructions are only ever rewritten within a straight-line sequence. Whether a
+ * register is read later is determined by scanning forward to the instruction that next reads or writes it. The code
+ * generators hold no values in registers across labels, jumps, calls and returns, other than in the registers
+ * assigned to variables by register allocation, so all other registers are taken to be dead at each of them.</p>
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class X86_64PeepholeOptimiser implements Pass<String> {
+
+    /**
+     * Instructions whose immediate, register or memory source operand can be given directly, rather than in a
+     * register.
+     */
+    private static final Set<String> FOLDABLE = Set.of("mov", "add", "sub", "and", "or", "xor", "cmp", "imul");
+
+    /**
+     * The registers that hold values across labels, jumps, calls and returns.
+     */
+    private final Set<String> assignedRegisters;
+
+    /**
+     * The lines of assembly code being optimised.
+     */
+    private final List<String> lines = new ArrayList<>();
+
+    /**
+     * The instruction on each line, or {@code null} for labels, directives and data.
+     */
+    private final List<X86_64Instruction> instructions = new ArrayList<>();
+
+    /**
+     * The number of instructions before optimisation.
+     */
+    private int instructionCount;
+
+    /**
+     * The number of instructions removed.
+     */
+    private int removedInstructions;
+
+    /**
+     * The number of instructions replaced with another.
+     */
+    private int rewrittenInstructions;
+
+    public X86_64PeepholeOptimiser(Set<String> assignedRegisters) {
+        this.assignedRegisters = Set.copyOf(assignedRegisters);
+    }
+
+    public X86_64PeepholeOptimiser() {
+        this(Set.of());
+    }
+
+    /**
+     * Optimises the given assembly code.
+     *
+     * @param assembly the assembly code, as output by a code generator.
+     * @return the optimised assembly code, or the given assembly code if no rule applied.
+     */
+    @Override
+    public String run(String assembly) {
+        for (String line : assembly.split("\n", -1)) {
+            X86_64Instruction instruction = X86_64Instruction.parse(line);
+
+            lines.add(line);
+            instructions.add(instruction);
+
+            if (instruction != null) {
+                instructionCount++;
+            }
+        }
+
+        boolean changed;
+
+        do {
+            changed = false;
+
+            for (int i = 0; i < lines.size(); ) {
+                if (rewrite(i)) {
+                    changed = true;
+
+                } else {
+                    i++;
+                }
+            }
+        } while (changed);
+
+        // a mov of zero may yet be folded into the instruction using it, so is only rewritten once no rule applies.
+        for (int i = 0; i < lines.size(); i++) {
+            X86_64Instruction instruction = instructions.get(i);
+
+            if (instruction != null && instruction.getMnemonic().equals("mov")) {
+                zeroIdiom(i);
+            }
+        }
+
+        if (removedInstructions == 0 && rewrittenInstructions == 0) {
+            return assembly;
+        }
+
+        return String.join("\n", lines);
+    }
+
+    /**
+     * Applies the first rule that matches the instruction at the given position.
+     *
+     * @return {@code true} if a rule was applied.
+     */
+    private boolean rewrite(int position) {
+        X86_64Instruction instruction = instructions.get(position);
+
+        if (instruction == null) {
+            return false;
+        }
+
+        switch (instruction.getMnemonic()) {
+            case "push":
+                return pushPop(position);
+
+            case "mov":
+                return deadWrite(position) || storeToLoad(position) || fold(position) || foldComparison(position);
+
+            case "lea":
+                return deadWrite(position) || fold(position);
+
+            default:
+                return deadWrite(position);
+        }
+    }
+
+    /**
+     * {@code push a; ...; pop r} becomes {@code mov r, a; ...}, where the instructions between use neither the stack
+     * nor r.
+     */
+    private boolean pushPop(int position) {
+        String source = instructions.get(position).getOperand(0);
+
+        for (int i = position + 1; i < lines.size(); i++) {
+            X86_64Instruction instruction = instructions.get(i);
+
+            if (instruction == null) {
+                return false;
+            }
+
+            if (instruction.getMnemonic().equals("pop")) {
+                String destination = instruction.getOperand(0);
+                String register = X86_64Instruction.register(destination);
+
+                if (register == null || !isUntouched(register, position + 1, i)) {
+                    return false;
+                }
+
+                remove(i);
+
+                if (destination.equals(source)) {
+                    remove(position);
+
+                } else {
+                    replace(position, new X86_64Instruction("mov", destination, source));
+                }
+
+                return true;
+            }
+
+            if (instruction.usesStack() || instruction.isTransfer() || instruction.isConditionalJump()) {
+                return false;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * {@code mov [m], r; mov s, [m]} becomes {@code mov [m], r; mov s, r}, or just the store where s is r. The same
+     * holds where {@code [m]} is a register.
+     */
+    private boolean storeToLoad(int position) {
+        X86_64Instruction store = instructions.get(position);
+        X86_64Instruction load = next(position);
+
+        String register = store.getOperand(1);
+
+        if (load == null || !load.getMnemonic().equals("mov") || X86_64Instruction.register(register) == null
+                || !address(store.getOperand(0)).equals(address(load.getOperand(1)))
+                || X86_64Instruction.isImmediate(store.getOperand(0))) {
+            return false;
+        }
+
+        if (load.getOperand(0).equals(register)) {
+            remove(position + 1);
+
+        } else {
+            replace(position + 1, new X86_64Instruction("mov", load.getOperand(0), register));
+        }
+
+        return true;
+    }
+
+    /**
+     * {@code mov r, s; op d, r} becomes {@code op d, s}, and {@code lea r, [m]; mov d, r} becomes
+     * {@code lea d, [m]}, where r is not read afterwards.
+     */
+    private boolean fold(int position) {
+        X86_64Instruction definition = instructions.get(position);
+        X86_64Instruction use = next(position);
+
+        String register = definition.getOperand(0);
+        String source = definition.getOperand(1);
+
+        if (use == null || use.getOperands().size() != 2 || !use.getOperand(1).equals(register)
+                || X86_64Instruction.register(register) == null) {
+            return false;
+        }
+
+        String destination = use.getOperand(0);
+        String mnemonic = use.getMnemonic();
+        boolean memoryDestination = X86_64Instruction.isMemory(destination);
+
+        if (X86_64Instruction.refers(destination, X86_64Instruction.register(register))) {
+            return false;
+        }
+
+        if (definition.getMnemonic().equals("lea")) {
+            if (!mnemonic.equals("mov") || memoryDestination) {
+                return false;
+            }
+
+            mnemonic = "lea";
+
+        } else if (!FOLDABLE.contains(mnemonic) || (mnemonic.equals("imul") && memoryDestination)) {
+            return false;
+
+        } else if (X86_64Instruction.isImmediate(source)) {
+            long value = Long.decode(source);
+
+            if (value != (int) value) {
+                return false;
+            }
+
+            if (memoryDestination && !destination.startsWith("qword")) {
+                destination = "qword " + destination;
+            }
+
+        } else if (X86_64Instruction.isMemory(source)) {
+            if (memoryDestination) {
+                return false;
+            }
+
+        } else if (X86_64Instruction.register(source) == null) {
+            return false;
+        }
+
+        if (!isDead(X86_64Instruction.register(register), position + 2)) {
+            return false;
+        }
+
+        remove(position);
+        replace(position, new X86_64Instruction(mnemonic, destination, source));
+        return true;
+    }
+
+    /**
+     * {@code mov r, s; cmp r, x} becomes {@code cmp s, x}, where r is not read afterwards and s is a register or
+     * memory operand.
+     */
+    private boolean foldComparison(int position) {
+        X86_64Instruction definition = instructions.get(position);
+        X86_64Instruction comparison = next(position);
+
+        String register = X86_64Instruction.register(definition.getOperand(0));
+        String source = definition.getOperand(1);
+
+        if (comparison == null || !comparison.getMnemonic().equals("cmp") || register == null
+                || !comparison.getOperand(0).equals(definition.getOperand(0))) {
+            return false;
+        }
+
+        String operand = comparison.getOperand(1);
+
+        if (X86_64Instruction.refers(operand, register) || !isDead(register, position + 2)) {
+            return false;
+        }
+
+        if (X86_64Instruction.isMemory(source)) {
+            if (X86_64Instruction.isMemory(operand)) {
+                return false;
+            }
+
+            if (X86_64Instruction.isImmediate(operand) && !source.startsWith("qword")) {
+                source = "qword " + source;
+            }
+
+        } else if (X86_64Instruction.register(source) == null) {
+            return false;
+        }
+
+        remove(position);
+        replace(position, new X86_64Instruction("cmp", source, operand));
+        return true;
+    }
+
+    /**
+     * {@code mov r, 0} becomes {@code xor r, r}, which is shorter, where the flags are not read afterwards.
+     */
+    private boolean zeroIdiom(int position) {
+        X86_64Instruction instruction = instructions.get(position);
+        String register = X86_64Instruction.register(instruction.getOperand(0));
+
+        if (register == null || !instruction.getOperand(1).equals("0") || !isDead(FLAGS, position + 1)) {
+            return false;
+        }
+
+        // writing the 32-bit register clears the upper half of the 64-bit register.
+        String lower = register.startsWith("r") && Character.isDigit(register.charAt(1))
+                ? register + "d"
+                : "e" + register.substring(1);
+
+        replace(position, new X86_64Instruction("xor", lower, lower));
+        return true;
+    }
+
+    /**
+     * Removes an instruction whose only effect is to write a register, and possibly the flags, that is never read.
+     */
+    private boolean deadWrite(int position) {
+        X86_64Instruction instruction = instructions.get(position);
+
+        if (instruction.getOperands().isEmpty() || instruction.isTransfer() || instruction.isConditionalJump()
+                || instruction.usesStack() || !instruction.isKnown()) {
+            return false;
+        }
+
+        String register = X86_64Instruction.register(instruction.getOperand(0));
+
+        switch (instruction.getMnemonic()) {
+            case "cmp":
+            case "test":
+            case "idiv":
+                return false;
+
+            case "imul":
+                if (instruction.getOperands().size() == 1) {
+                    return false;
+                }
+        }
+
+        if (register == null || register.equals("rbp")
+                || (instruction.writes(FLAGS) && !isDead(FLAGS, position + 1))
+                || !isDead(register, position + 1)) {
+            return false;
+        }
+
+        remove(position);
+        return true;
+    }
+
+    /**
+     * Denotes whether the value of the given register, or the flags, is never read from the given position onwards.
+     */
+    private boolean isDead(String register, int position) {
+        for (int i = position; i < lines.size(); i++) {
+            X86_64Instruction instruction = instructions.get(i);
+
+            if (instruction == null) {
+                String line = lines.get(i).trim();
+
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                // nothing other than the assigned registers is held in registers across a label.
+                return line.endsWith(":") && !assignedRegisters.contains(register);
+            }
+
+            if (instruction.reads(register)) {
+                return false;
+            }
+
+            if (instruction.writes(register)) {
+                return true;
+            }
+
+            if (instruction.isTransfer()) {
+                return !assignedRegisters.contains(register);
+            }
+
+            // an assigned register may be read where a conditional jump goes, even if it is written after the jump.
+            if (instruction.isConditionalJump() && assignedRegisters.contains(register)) {
+                return false;
+            }
+        }
+
+        return !assignedRegisters.contains(register);
+    }
+
+    /**
+     * Denotes whether none of the instructions in the given range read or write the given register.
+     */
+    private boolean isUntouched(String register, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (instructions.get(i).reads(register) || instructions.get(i).writes(register)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the instruction immediately after the given position, or {@code null} if a label, directive or data is.
+     */
+    private X86_64Instruction next(int position) {
+        return position + 1 < lines.size() ? instructions.get(position + 1) : null;
+    }
+
+    /**
+     * Gets the address of a memory operand, without its size.
+     */
+    private static String address(String operand) {
+        return operand.substring(operand.indexOf('[') < 0 ? 0 : operand.indexOf('['));
+    }
+
+    private void remove(int position) {
+        lines.remove(position);
+        instructions.remove(position);
+        removedInstructions++;
+    }
+
+    private void replace(int position, X86_64Instruction instruction) {
+        lines.set(position, INDENTATION + instruction);
+        instructions.set(position, instruction);
+        rewrittenInstructions++;
+    }
+
+    /**
+     * Gets the number of instructions removed by the last run.
+     *
+     * @return the number of instructions removed.
+     */
+    public int getRemovedInstructions() {
+        return removedInstructions;
+    }
+
+    /**
+     * Gets the number of instructions replaced with another by the last run.
+     *
+     * @return the number of instructions rewritten.
+     */
+    public int getRewrittenInstructions() {
+        return rewrittenInstructions;
+    }
+
+    /**
+     * Gets the number of instructions before the last run.
+     *
+     * @return the number of instructions given.
+     */
+    public int getInstructionCount() {
+        return instructionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "Peephole optimisation: removed " + removedInstructions + " of " + instructionCount
+                + " instructions, rewrote " + rewrittenInstructions;
+    }
+
+}
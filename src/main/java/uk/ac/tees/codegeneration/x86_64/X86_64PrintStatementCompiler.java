@@ -1,19 +1,35 @@
 package uk.ac.tees.codegeneration.x86_64;
 
 import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.expression.ConstantArithmetic;
+import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
+import uk.ac.tees.syntax.grammar.expression.UnaryOperator;
 import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
 import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
 import uk.ac.tees.syntax.grammar.factor.NumberFactor;
 import uk.ac.tees.syntax.grammar.factor.StringLiteral;
 import uk.ac.tees.syntax.grammar.statement.PrintStatement;
 import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
+import uk.ac.tees.syntax.visitor.TreeWalker;
 import uk.ac.tees.syntax.visitor.Visitor;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
 import static uk.ac.tees.codegeneration.x86_64.X86_64CompilerConstants.*;
 
 /**
  * An {@link AbstractSyntaxTreeVisitor} for compiling {@link PrintStatement}s,
  *
+ * <p>The values of the arguments are pushed in order before the statement is compiled, so the value of each argument
+ * lies below those of the arguments that follow it, and is copied to the top of the stack to be converted. The
+ * output of the arguments given as formatted, string literals and constants, is produced at compile time, and each
+ * run of them is written from a single data entry.</p>
+ *
  * @author Sam Hammersley - Gonsalves (q5315908)
  */
 public final class X86_64PrintStatementCompiler extends AbstractSyntaxTreeVisitor<String, PrintStatement> {
@@ -23,24 +39,61 @@ public final class X86_64PrintStatementCompiler extends AbstractSyntaxTreeVisito
      */
     private final X86_64DataSection dataSection;
 
+    /**
+     * The arguments whose output is produced at compile time, rather than being compiled.
+     */
+    private final Set<AbstractSyntaxTreeNode> formatted;
+
     /**
      * {@link StringBuilder} to build the output for {@link PrintStatement}s.
      */
     private final StringBuilder builder = new StringBuilder();
 
+    /**
+     * The bytes of the output of formatted arguments, as hex strings, not yet written.
+     */
+    private final List<String> constantOutput = new ArrayList<>();
+
+    /**
+     * The number of values of arguments on the stack that are not yet written.
+     */
+    private int values;
+
     /**
      * Denotes whether the ascii conversion util subroutines are required.
      */
     private boolean includeAsciiUtil;
 
-    X86_64PrintStatementCompiler(X86_64DataSection dataSection) {
+    X86_64PrintStatementCompiler(X86_64DataSection dataSection, Set<AbstractSyntaxTreeNode> formatted) {
         this.dataSection = dataSection;
+        this.formatted = formatted;
+    }
+
+    X86_64PrintStatementCompiler(X86_64DataSection dataSection) {
+        this(dataSection, Collections.emptySet());
     }
 
     @Override
     public String visitTree(PrintStatement node) {
+        values = (int) node.getExpressions().stream()
+                .filter(expression -> !(expression instanceof StringLiteral) && !formatted.contains(expression))
+                .count();
+
+        int pushed = values;
+
         for (AbstractSyntaxTreeNode expression : node.getExpressions()) {
-            visitNode(expression);
+            if (formatted.contains(expression)) {
+                format(expression);
+            } else {
+                visitNode(expression);
+            }
+        }
+
+        writeConstantOutput();
+
+        // the last value is popped as it is written, the rest are discarded together.
+        if (pushed > 1) {
+            builder.append(INDENTATION).append("add rsp, ").append((pushed - 1) * Long.BYTES).append('\n');
         }
 
         return builder.toString();
@@ -50,9 +103,95 @@ public final class X86_64PrintStatementCompiler extends AbstractSyntaxTreeVisito
         return includeAsciiUtil;
     }
 
-    @Visitor(types = {NumberFactor.class, IdentifierFactor.class, ArithmeticBinaryExpression.class})
-    private void visit(AbstractSyntaxTreeNode node) {
+    /**
+     * Gets the value of the given argument, if it is a constant expression that can be evaluated at compile time.
+     *
+     * @param node the argument.
+     * @return the value, or {@code null} if it is not constant or contains a division that traps.
+     */
+    static Long constantValue(AbstractSyntaxTreeNode node) {
+        if (node instanceof NumberFactor) {
+            return (long) ((NumberFactor) node).getValue();
+        }
+
+        if (!(node instanceof UnaryExpression) && !(node instanceof ArithmeticBinaryExpression)) {
+            return null;
+        }
+
+        // the expression is evaluated on a stack as it is walked, so its depth is not limited by the call stack.
+        Deque<Long> values = new ArrayDeque<>();
+        boolean[] constant = {true};
+
+        TreeWalker.walk(node, child -> {
+            if (!constant[0]) {
+                return;
+            }
+
+            if (child instanceof NumberFactor) {
+                values.push((long) ((NumberFactor) child).getValue());
+
+            } else if (child instanceof UnaryExpression) {
+                long value = values.pop();
+
+                values.push(((UnaryExpression) child).getOperator() == UnaryOperator.SUB ? -value : value);
+
+            } else if (child instanceof ArithmeticBinaryExpression) {
+                long right = values.pop();
+                long left = values.pop();
+
+                try {
+                    values.push(ConstantArithmetic.evaluate(((ArithmeticBinaryExpression) child).getOperator(), left,
+                            right));
+
+                } catch (ArithmeticException e) {
+                    constant[0] = false;
+                }
+
+            } else {
+                constant[0] = false;
+            }
+        });
+
+        return constant[0] ? values.pop() : null;
+    }
+
+    /**
+     * Adds the output of the given formatted argument to the constant output.
+     */
+    private void format(AbstractSyntaxTreeNode node) {
+        if (node instanceof StringLiteral) {
+            Collections.addAll(constantOutput, stringLiteralCharsToHex(((StringLiteral) node).getValue()));
+        } else {
+            Collections.addAll(constantOutput, bytesToHex(X86_64AsciiConversion.decimalToAscii(constantValue(node))));
+        }
+    }
+
+    /**
+     * Writes the constant output not yet written, from a single data entry.
+     */
+    private void writeConstantOutput() {
+        if (constantOutput.isEmpty()) {
+            return;
+        }
+
+        String operand = String.join(",", constantOutput);
+
+        dataSection.addEntry(operand, "db");
+        print(dataSection.getLabel(operand), constantOutput.size());
+        constantOutput.clear();
+    }
+
+    @Visitor(types = {NumberFactor.class, IdentifierFactor.class, ArithmeticBinaryExpression.class,
+            UnaryExpression.class})
+    void visit(AbstractSyntaxTreeNode node) {
+        writeConstantOutput();
         includeAsciiUtil = true;
+
+        // values pushed after this one are above it, so it is copied to the top of the stack to be converted.
+        if (--values > 0) {
+            builder.append(INDENTATION).append("push qword [rsp + ").append(values * Long.BYTES).append("]\n");
+        }
+
         builder.append(INDENTATION).append(CALL_ASCII_CONVERSION).append('\n');
         // syscall expects value/operand in rsp, so we can just push the value onto the stack.
         print("rsp", 8);
@@ -61,7 +200,9 @@ public final class X86_64PrintStatementCompiler extends AbstractSyntaxTreeVisito
     }
 
     @Visitor
-    private void visit(StringLiteral node) {
+    void visit(StringLiteral node) {
+        writeConstantOutput();
+
         // remove quotation marks and unescape double-escaped characters.
         String[] hexArray = X86_64CompilerConstants.stringLiteralCharsToHex(node.getValue());
         String operand = String.join(",", hexArray);
@@ -78,4 +219,4 @@ public final class X86_64PrintStatementCompiler extends AbstractSyntaxTreeVisito
     private void print(String address, int operandSize) {
         systemCall(builder, SYS_WRITE_ID, STD_OUT_FILE_DESCRIPTOR, address, operandSize);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,361 @@
+package uk.ac.tees.codegeneration.x86_64;
+
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.analysis.Liveness;
+import uk.ac.tees.ir.instruction.Call;
+import uk.ac.tees.ir.instruction.Instruction;
+import uk.ac.tees.ir.operand.Location;
+import uk.ac.tees.ir.operand.Operand;
+import uk.ac.tees.ir.operand.Variable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Assigns registers to the variables and temporaries of a {@link ControlFlowGraph} by linear scan, so that they need
+ * not be loaded from and stored to memory by each instruction.
+ *
+ * <p>Instructions are numbered in the order they are laid out, and each location is given a single live interval,
+ * from the first to the last position at which it is live, taken from its uses and definitions and the
+ * {@link Liveness} of each block. Intervals are visited in order of their start. An interval takes a free register if
+ * there is one, and otherwise the register of the active interval with the lowest weight, which is then spilled, or
+ * is spilled itself if its own weight is lower still. The weight of a location is the number of times it is used or
+ * defined, each counted ten times over for every loop, approximated by backward jumps, that the instruction is in.
+ * Spilled locations are left in memory.</p>
+ *
+ * <p>The callee-saved registers, which neither system calls nor the ascii_util subroutines modify, are preferred. The
+ * scratch registers that follow are modified by them, so must be saved and restored around input and output by the
+ * code generator, using {@link #getRegistersLiveAcross(Instruction)}. Registers rax, rcx and rdx are never assigned,
+ * since they are used to evaluate each instruction.</p>
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class X86_64RegisterAllocator {
+
+    /**
+     * The registers that may be assigned, in the order they are preferred.
+     */
+    public static final List<String> REGISTERS
+            = List.of("rbx", "r12", "r13", "r14", "r15", "rsi", "rdi", "r8", "r9", "r10", "r11");
+
+    /**
+     * The factor by which a use or definition in a loop outweighs one outside it.
+     */
+    private static final long LOOP_WEIGHT = 10;
+
+    /**
+     * The deepest loop nesting that adds to the weight of a location, beyond which weights would overflow.
+     */
+    private static final int MAX_LOOP_DEPTH = 16;
+
+    /**
+     * The live interval of each location, by its index in the {@link Liveness} sets.
+     */
+    private final Map<Integer, Interval> intervals = new TreeMap<>();
+
+    /**
+     * The position of each instruction.
+     */
+    private final Map<Instruction, Integer> positions = new IdentityHashMap<>();
+
+    /**
+     * The block containing each instruction.
+     */
+    private final Map<Instruction, BasicBlock> blocks = new IdentityHashMap<>();
+
+    private final Liveness liveness;
+
+    /**
+     * The locations live at the start of the program.
+     */
+    private final BitSet entryLive;
+
+    public X86_64RegisterAllocator(ControlFlowGraph graph, List<String> registers) {
+        liveness = new Liveness(graph);
+        entryLive = graph.getBlocks().isEmpty() ? new BitSet() : liveness.getLiveIn(graph.getEntry());
+
+        int[] loopDepth = number(graph);
+
+        for (BasicBlock block : graph.getBlocks()) {
+            int start = positions.get(block.getInstructions().isEmpty()
+                    ? block.getTerminator()
+                    : block.getInstructions().get(0));
+            int end = positions.get(block.getTerminator());
+
+            liveness.getLiveIn(block).stream().forEach(index -> interval(index).extend(start));
+            liveness.getLiveOut(block).stream().forEach(index -> interval(index).extend(end));
+
+            for (Instruction instruction : block.getInstructions()) {
+                occurrences(instruction, loopDepth);
+            }
+
+            occurrences(block.getTerminator(), loopDepth);
+        }
+
+        allocate(registers);
+    }
+
+    public X86_64RegisterAllocator(ControlFlowGraph graph) {
+        this(graph, REGISTERS);
+    }
+
+    /**
+     * Numbers the instructions in layout order, and finds the number of loops each position is in.
+     */
+    private int[] number(ControlFlowGraph graph) {
+        Map<BasicBlock, Integer> blockStart = new IdentityHashMap<>();
+
+        for (BasicBlock block : graph.getBlocks()) {
+            blockStart.put(block, positions.size());
+
+            for (Instruction instruction : block.getInstructions()) {
+                positions.put(instruction, positions.size());
+                blocks.put(instruction, block);
+            }
+
+            positions.put(block.getTerminator(), positions.size());
+            blocks.put(block.getTerminator(), block);
+        }
+
+        // a jump to a block laid out earlier closes a loop over every position between.
+        int[] loopStarts = new int[positions.size() + 1];
+
+        for (BasicBlock block : graph.getBlocks()) {
+            if (block.getTerminator() instanceof Call) {
+                continue;
+            }
+
+            int end = positions.get(block.getTerminator());
+
+            for (BasicBlock target : block.getTerminator().getTargets()) {
+                int start = blockStart.get(target);
+
+                if (start <= end) {
+                    loopStarts[start]++;
+                    loopStarts[end + 1]--;
+                }
+            }
+        }
+
+        int[] loopDepth = new int[positions.size()];
+
+        for (int i = 0, depth = 0; i < loopDepth.length; i++) {
+            depth += loopStarts[i];
+            loopDepth[i] = depth;
+        }
+
+        return loopDepth;
+    }
+
+    private void occurrences(Instruction instruction, int[] loopDepth) {
+        int position = positions.get(instruction);
+        long weight = 1;
+
+        for (int i = 0; i < Math.min(loopDepth[position], MAX_LOOP_DEPTH); i++) {
+            weight *= LOOP_WEIGHT;
+        }
+
+        for (Operand operand : instruction.getUses()) {
+            if (operand instanceof Location) {
+                interval(Liveness.indexOf((Location) operand)).occurs(position, weight);
+            }
+        }
+
+        if (instruction.getDefinition() != null) {
+            interval(Liveness.indexOf(instruction.getDefinition())).occurs(position, weight);
+        }
+    }
+
+    private Interval interval(int index) {
+        return intervals.computeIfAbsent(index, Interval::new);
+    }
+
+    /**
+     * Assigns registers to intervals by linear scan.
+     */
+    private void allocate(List<String> registers) {
+        List<Interval> unhandled = new ArrayList<>(intervals.values());
+        unhandled.sort(Comparator.comparingInt((Interval interval) -> interval.start)
+                .thenComparingInt(interval -> interval.index));
+
+        List<Interval> active = new ArrayList<>();
+        Set<String> free = new LinkedHashSet<>(registers);
+
+        for (Interval current : unhandled) {
+            active.removeIf(interval -> {
+                if (interval.end < current.start) {
+                    free.add(interval.register);
+                    return true;
+                }
+
+                return false;
+            });
+
+            if (!free.isEmpty()) {
+                // the most preferred free register, in the given order.
+                String register = registers.stream().filter(free::contains).findFirst().orElseThrow();
+                free.remove(register);
+                current.register = register;
+                active.add(current);
+                continue;
+            }
+
+            Interval lightest = active.stream().min(Comparator.comparingLong(interval -> interval.weight)).orElse(null);
+
+            if (lightest != null && lightest.weight < current.weight) {
+                current.register = lightest.register;
+                lightest.register = null;
+                active.remove(lightest);
+                active.add(current);
+            }
+        }
+    }
+
+    /**
+     * Gets the register assigned to the given location.
+     *
+     * @param location the variable or temporary.
+     * @return the register, or {@code null} if the location is in memory.
+     */
+    public String getRegister(Location location) {
+        Interval interval = intervals.get(Liveness.indexOf(location));
+        return interval == null ? null : interval.register;
+    }
+
+    /**
+     * Gets the registers holding values that are live both before and after the given instruction, other than the
+     * register of the location it defines. Liveness is found exactly, by walking back from the end of the block, since
+     * a single interval may span positions at which its location is dead.
+     *
+     * @param instruction the instruction.
+     * @return the registers that must be preserved by the instruction, in the order they are preferred.
+     */
+    public List<String> getRegistersLiveAcross(Instruction instruction) {
+        BasicBlock block = blocks.get(instruction);
+        BitSet live = liveness.getLiveOut(block);
+
+        List<Instruction> instructions = new ArrayList<>(block.getInstructions());
+        instructions.add(block.getTerminator());
+
+        for (int i = instructions.size() - 1; i >= 0 && instructions.get(i) != instruction; i--) {
+            Instruction later = instructions.get(i);
+
+            if (later.getDefinition() != null) {
+                live.clear(Liveness.indexOf(later.getDefinition()));
+            }
+
+            for (Operand operand : later.getUses()) {
+                if (operand instanceof Location) {
+                    live.set(Liveness.indexOf((Location) operand));
+                }
+            }
+        }
+
+        if (instruction.getDefinition() != null) {
+            live.clear(Liveness.indexOf(instruction.getDefinition()));
+        }
+
+        return live.stream()
+                .mapToObj(index -> intervals.get(index).register)
+                .filter(register -> register != null)
+                .distinct()
+                .sorted(Comparator.comparingInt(REGISTERS::indexOf))
+                .toList();
+    }
+
+    /**
+     * Gets the registers of the locations that may be read before they are assigned, and so must be zeroed on entry.
+     *
+     * @return the registers of locations live on entry.
+     */
+    public List<String> getEntryRegisters() {
+        return entryLive.stream()
+                .mapToObj(index -> intervals.get(index).register)
+                .filter(register -> register != null)
+                .toList();
+    }
+
+    /**
+     * Gets every register assigned to a location.
+     *
+     * @return the assigned registers.
+     */
+    public Set<String> getAssignedRegisters() {
+        Set<String> assigned = new LinkedHashSet<>();
+
+        for (String register : REGISTERS) {
+            if (intervals.values().stream().anyMatch(interval -> register.equals(interval.register))) {
+                assigned.add(register);
+            }
+        }
+
+        return assigned;
+    }
+
+    /**
+     * Gets the locations left in memory.
+     *
+     * @return the spilled locations.
+     */
+    public List<Location> getSpilled() {
+        return intervals.values().stream()
+                .filter(interval -> interval.register == null)
+                .map(interval -> Liveness.locationAt(interval.index))
+                .toList();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Register allocation: ")
+                .append(intervals.size() - getSpilled().size()).append(" of ").append(intervals.size())
+                .append(" locations in registers");
+
+        for (Interval interval : intervals.values()) {
+            if (interval.register != null && interval.index < Variable.COUNT) {
+                builder.append(", ").append(Liveness.locationAt(interval.index)).append('=').append(interval.register);
+            }
+        }
+
+        return builder.append(", spilled ").append(getSpilled()).toString();
+    }
+
+    /**
+     * The positions over which a location is live, with the register assigned to it.
+     */
+    private static final class Interval {
+
+        private final int index;
+
+        private int start = Integer.MAX_VALUE;
+
+        private int end = Integer.MIN_VALUE;
+
+        private long weight;
+
+        private String register;
+
+        private Interval(int index) {
+            this.index = index;
+        }
+
+        private void extend(int position) {
+            start = Math.min(start, position);
+            end = Math.max(end, position);
+        }
+
+        private void occurs(int position, long weight) {
+            extend(position);
+            this.weight += weight;
+        }
+
+    }
+
+}
@@ -0,0 +1,221 @@
+package uk.ac.tees.codegeneration.x86_64;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces multiplication and signed division by a constant with cheaper instruction sequences, on signed 64-bit
+ * integers held in the rax register, or in any register for multiplication.
+ *
+ * <p>Multiplication by a power of two is a left shift, and multiplication by a product of up to two of 3, 5 and 9
+ * and a power of two is a chain of lea instructions followed by a shift. Multiplication wraps on overflow exactly as
+ * imul does.</p>
+ *
+ * <p>Division by a power of two adds {@code 2^k - 1} to negative dividends before an arithmetic shift, so the
+ * quotient truncates towards zero. Division by any other constant is a multiplication by a magic reciprocal, keeping
+ * the high 64 bits of the product, followed by an arithmetic shift and the addition of the sign bit, as described in
+ * Hacker's Delight, chapter 10. The quotient is exactly that of idiv for every dividend.</p>
+ *
+ * <p>Division by 0 and by -1 is not reduced, since idiv traps for a divisor of 0 and for the minimum value divided
+ * by -1, and the reduced sequences would not.</p>
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class X86_64StrengthReduction {
+
+    /**
+     * The factors that a single lea instruction multiplies by, with the scale it uses for each.
+     */
+    private static final int[][] LEA_FACTORS = {{9, 8}, {5, 4}, {3, 2}};
+
+    private X86_64StrengthReduction() {
+
+    }
+
+    /**
+     * Gets the instructions that multiply rax by the given constant, leaving the product in rax.
+     *
+     * @param multiplier the constant multiplier.
+     * @return the instructions, which may be empty, or {@code null} if the multiplication is not reduced and imul
+     * should be used.
+     */
+    public static List<String> multiply(long multiplier) {
+        return multiply(multiplier, "rax");
+    }
+
+    /**
+     * Gets the instructions that multiply the given register by the given constant, leaving the product in the same
+     * register. No other register is used.
+     *
+     * @param multiplier the constant multiplier.
+     * @param register   the 64-bit register holding the multiplicand.
+     * @return the instructions, which may be empty, or {@code null} if the multiplication is not reduced and imul
+     * should be used.
+     */
+    public static List<String> multiply(long multiplier, String register) {
+        List<String> instructions = new ArrayList<>();
+
+        if (multiplier == 0) {
+            String low = doubleWord(register);
+            instructions.add("xor " + low + ", " + low);
+            return instructions;
+        }
+
+        // the magnitude of the minimum value is itself, as an unsigned value, and is a power of two.
+        long magnitude = Math.abs(multiplier);
+        int shift = Long.numberOfTrailingZeros(magnitude);
+        long factor = magnitude >>> shift;
+
+        // a factor may be used twice, as in 25 or 81.
+        for (int[] lea : LEA_FACTORS) {
+            while (factor % lea[0] == 0 && instructions.size() < 2) {
+                factor /= lea[0];
+                instructions.add("lea " + register + ", [" + register + " + " + register + " * " + lea[1] + "]");
+            }
+        }
+
+        if (factor != 1) {
+            return null;
+        }
+
+        if (shift > 0) {
+            instructions.add("shl " + register + ", " + shift);
+        }
+
+        if (multiplier < 0) {
+            instructions.add("neg " + register);
+        }
+
+        return instructions;
+    }
+
+    /**
+     * Gets the name of the low 32 bits of the given 64-bit register, writing which zeroes the upper 32 bits.
+     */
+    private static String doubleWord(String register) {
+        return register.matches("r[0-9]+") ? register + "d" : "e" + register.substring(1);
+    }
+
+    /**
+     * Gets the instructions that divide rax by the given constant, leaving the quotient, truncated towards zero, in
+     * rax. The rcx and rdx registers may be clobbered.
+     *
+     * @param divisor the constant divisor.
+     * @return the instructions, which may be empty, or {@code null} if the division is not reduced and idiv should be
+     * used.
+     */
+    public static List<String> divide(long divisor) {
+        if (divisor == 0 || divisor == -1) {
+            return null;
+        }
+
+        List<String> instructions = new ArrayList<>();
+
+        long magnitude = Math.abs(divisor);
+
+        if (Long.bitCount(magnitude) == 1) {
+            int shift = Long.numberOfTrailingZeros(magnitude);
+
+            if (shift > 0) {
+                // rdx is 2^shift - 1 for negative dividends and 0 otherwise.
+                instructions.add("mov rdx, rax");
+                instructions.add("sar rdx, 63");
+                instructions.add("shr rdx, " + (Long.SIZE - shift));
+                instructions.add("add rax, rdx");
+                instructions.add("sar rax, " + shift);
+            }
+
+        } else {
+            MagicNumber magic = MagicNumber.of(divisor);
+
+            instructions.add("mov rcx, rax");
+            instructions.add("mov rax, " + magic.multiplier);
+            instructions.add("imul rcx");
+
+            // the magic multiplier has the wrong sign when it does not fit in 63 bits, so the dividend is corrected.
+            if (divisor > 0 && magic.multiplier < 0) {
+                instructions.add("add rdx, rcx");
+
+            } else if (divisor < 0 && magic.multiplier > 0) {
+                instructions.add("sub rdx, rcx");
+            }
+
+            if (magic.shift > 0) {
+                instructions.add("sar rdx, " + magic.shift);
+            }
+
+            // adds one to negative quotients, which are otherwise rounded towards negative infinity.
+            instructions.add("mov rax, rdx");
+            instructions.add("shr rax, 63");
+            instructions.add("add rax, rdx");
+            return instructions;
+        }
+
+        if (divisor < 0) {
+            instructions.add("neg rax");
+        }
+
+        return instructions;
+    }
+
+    /**
+     * The magic multiplier and shift for signed division by a constant that is not a power of two.
+     */
+    private static final class MagicNumber {
+
+        private final long multiplier;
+
+        private final int shift;
+
+        private MagicNumber(long multiplier, int shift) {
+            this.multiplier = multiplier;
+            this.shift = shift;
+        }
+
+        /**
+         * Computes the magic number for the given divisor, with all arithmetic on unsigned 64-bit values.
+         */
+        static MagicNumber of(long divisor) {
+            final long twoPow63 = Long.MIN_VALUE;
+
+            long absoluteDivisor = Math.abs(divisor);
+            long t = twoPow63 + (divisor >>> 63);
+            long absoluteNc = t - 1 - Long.remainderUnsigned(t, absoluteDivisor);
+
+            int p = 63;
+            long q1 = Long.divideUnsigned(twoPow63, absoluteNc);
+            long r1 = twoPow63 - q1 * absoluteNc;
+            long q2 = Long.divideUnsigned(twoPow63, absoluteDivisor);
+            long r2 = twoPow63 - q2 * absoluteDivisor;
+            long delta;
+
+            do {
+                p++;
+
+                q1 <<= 1;
+                r1 <<= 1;
+
+                if (Long.compareUnsigned(r1, absoluteNc) >= 0) {
+                    q1++;
+                    r1 -= absoluteNc;
+                }
+
+                q2 <<= 1;
+                r2 <<= 1;
+
+                if (Long.compareUnsigned(r2, absoluteDivisor) >= 0) {
+                    q2++;
+                    r2 -= absoluteDivisor;
+                }
+
+                delta = absoluteDivisor - r2;
+            } while (Long.compareUnsigned(q1, delta) < 0 || (q1 == delta && r1 == 0));
+
+            long multiplier = q2 + 1;
+
+            return new MagicNumber(divisor < 0 ? -multiplier : multiplier, p - Long.SIZE);
+        }
+
+    }
+
+}
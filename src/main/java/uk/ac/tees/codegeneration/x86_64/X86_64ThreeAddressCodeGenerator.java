@@ -0,0 +1,757 @@
+package uk.ac.tees.codegeneration.x86_64;
+
+import uk.ac.tees.codegeneration.CodeGenerationOption;
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.analysis.InductionVariables;
+import uk.ac.tees.ir.instruction.*;
+import uk.ac.tees.ir.operand.Constant;
+import uk.ac.tees.ir.operand.Location;
+import uk.ac.tees.ir.operand.Operand;
+import uk.ac.tees.ir.operand.Temporary;
+import uk.ac.tees.ir.operand.Variable;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static uk.ac.tees.codegeneration.x86_64.X86_64CompilerConstants.*;
+
+/**
+ * Compiles three-address code, held in a {@link ControlFlowGraph}, to x86-64 Netwide Assembler assembly code.
+ *
+ * <p>Each variable and temporary is allocated 8 bytes below the rbp register. Variables are allocated first, in
+ * the order they first appear, followed by temporaries. Instructions compute their result in rax, loading the right
+ * operand into rcx where it cannot be used directly, and store it back, with rdx taking the sign extension of the
+ * dividend for a division. These scratch registers, rax, rcx and rdx, hold nothing between instructions.</p>
+ *
+ * <p>With {@link CodeGenerationOption#REGISTER_ALLOCATION}, an {@link X86_64RegisterAllocator} assigns registers to
+ * locations, other than the scratch registers, and only the locations it spills are given a slot below rbp. An
+ * instruction then reads its operands from their registers and, other than a division, computes its result in the
+ * register of its destination where that does not hold the right operand. The registers that stay live across a
+ * PrintValue, PrintString or Input, and that its system call or the ascii_util subroutines would modify, are pushed
+ * before it and popped after it.</p>
+ *
+ * <p>Blocks are emitted in the order they are held in the graph. A jump to the block that immediately follows is
+ * omitted, and a conditional branch is inverted where its true target immediately follows, so control falls through
+ * where it can. With {@link CodeGenerationOption#LABEL_PRUNING}, only the blocks that are jumped to or called are
+ * given a label, so a block entered only by falling through from the block before continues its straight-line
+ * sequence.</p>
+ *
+ * <p>With {@link CodeGenerationOption#COUNTED_LOOPS}, a counted loop found by {@link InductionVariables} whose
+ * induction variable is compared with 0 in the block that steps it is closed by stepping the variable in its register
+ * or slot with inc, dec, add or sub, and a conditional jump on the flags that sets, with no cmp, as in
+ * {@code dec rbx; jnz loop}. The flags of a signed comparison only match those of cmp if the step does not overflow,
+ * so that is only done for loops with a known trip count, or for comparisons of equality.</p>
+ *
+ * <p>With {@link CodeGenerationOption#CONSTANT_OUTPUT}, the output of each run of consecutive string literals and
+ * constant values printed within a block, such as those left by constant propagation, is formatted at compile time
+ * and written from a single data entry, by a single system call.</p>
+ *
+ * <p>Input and output are performed exactly as they are by {@link X86_64NetwideAssemblyGenerator}, using the same
+ * subroutines, so a program compiled by either produces the same output.</p>
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class X86_64ThreeAddressCodeGenerator {
+
+    /**
+     * The registers modified by a read or write system call, as it is made.
+     */
+    private static final Set<String> SYSTEM_CALL_CLOBBERS = Set.of("rax", "rcx", "rdx", "rsi", "rdi", "r11");
+
+    /**
+     * The registers modified by a system call or the ascii_util subroutines, and r8 which holds the input buffer.
+     */
+    private static final Set<String> ASCII_UTIL_CLOBBERS
+            = Set.of("rax", "rcx", "rdx", "rsi", "rdi", "r8", "r9", "r10", "r11");
+
+    /**
+     * The read-only data section holding string data, with generated labels.
+     */
+    private final X86_64DataSection dataSection = new X86_64DataSection(DataSectionType.READ_ONLY);
+
+    /**
+     * Used to build the assembly code output.
+     */
+    private final StringBuilder builder = new StringBuilder();
+
+    /**
+     * Address offsets, from rbp, of each variable, 'A' being at index 0, or 0 for variables not allocated.
+     */
+    private final int[] variableAddress = new int[Variable.COUNT];
+
+    /**
+     * Address offsets, from rbp, of each temporary.
+     */
+    private final Map<Temporary, Integer> temporaryAddress = new HashMap<>();
+
+    /**
+     * The blocks that are laid out, and so have a label.
+     */
+    private final Set<BasicBlock> laidOut = new HashSet<>();
+
+    /**
+     * The optimisations applied as code is generated.
+     */
+    private final Set<CodeGenerationOption> options;
+
+    /**
+     * The registers assigned to locations, or {@code null} if every location is held in memory.
+     */
+    private X86_64RegisterAllocator allocator;
+
+    /**
+     * The induction variables of the graph being compiled, or {@code null} if counted loops are not recognised.
+     */
+    private InductionVariables inductionVariables;
+
+    /**
+     * The number of 8 byte slots allocated below rbp.
+     */
+    private int slotCount;
+
+    /**
+     * Denotes whether the decimal to ascii or ascii to decimal subroutines are required.
+     */
+    private boolean includeAsciiUtil;
+
+    public X86_64ThreeAddressCodeGenerator(Set<CodeGenerationOption> options) {
+        this.options = options.isEmpty() ? EnumSet.noneOf(CodeGenerationOption.class) : EnumSet.copyOf(options);
+    }
+
+    public X86_64ThreeAddressCodeGenerator() {
+        this(Set.of());
+    }
+
+    /**
+     * Compiles the given control flow graph.
+     *
+     * @param graph the control flow graph to compile.
+     * @return the x86-64 NASM assembly code for the given graph.
+     */
+    public String compile(ControlFlowGraph graph) {
+        if (options.contains(CodeGenerationOption.REGISTER_ALLOCATION)) {
+            allocator = new X86_64RegisterAllocator(graph);
+        }
+
+        if (options.contains(CodeGenerationOption.COUNTED_LOOPS)) {
+            inductionVariables = new InductionVariables(graph);
+        }
+
+        allocate(graph);
+
+        builder.append("section .text\n")
+                .append(INDENTATION).append("global _start\n")
+                .append("_start:\n")
+                .append(INDENTATION).append("push rbp\n")
+                .append(INDENTATION).append("mov rbp, rsp\n");
+
+        if (slotCount > 0) {
+            instruction("sub rsp, " + slotCount * Long.BYTES);
+        }
+
+        // variables read before they are assigned are 0, as their slots in the stack would be.
+        if (allocator != null) {
+            allocator.getEntryRegisters().forEach(register -> instruction("xor " + register + ", " + register));
+        }
+
+        List<BasicBlock> blocks = graph.getBlocks();
+        laidOut.addAll(blocks);
+
+        Set<BasicBlock> targets = options.contains(CodeGenerationOption.LABEL_PRUNING) ? branchTargets(blocks) : null;
+
+        for (int i = 0; i < blocks.size(); i++) {
+            BasicBlock block = blocks.get(i);
+            BasicBlock next = i + 1 < blocks.size() ? blocks.get(i + 1) : null;
+
+            if (targets == null || targets.contains(block)) {
+                builder.append(block.getLabel()).append(":\n");
+            }
+
+            List<Instruction> instructions = block.getInstructions();
+            InductionVariables.CountedLoop counted = countedLoopClosedBy(block);
+
+            int end = instructions.size() - (counted == null ? 0 : 1);
+
+            for (int j = 0; j < end; j++) {
+                Instruction instruction = instructions.get(j);
+
+                if (options.contains(CodeGenerationOption.CONSTANT_OUTPUT) && isConstantOutput(instruction)) {
+                    j = compileConstantOutput(instructions, j, end);
+                } else {
+                    compile(instruction);
+                }
+            }
+
+            if (counted != null) {
+                step(counted.getVariable());
+            }
+
+            compile(block.getTerminator(), next, counted);
+        }
+
+        StringBuilder output = new StringBuilder();
+
+        if (includeAsciiUtil) {
+            output.append(INCLUDE_ASCII_UTILS);
+        }
+
+        return output.append(dataSection).append(builder).toString();
+    }
+
+    /**
+     * Finds the blocks that are jumped to or called, as each terminator is compiled, given the blocks are laid out in
+     * the given order.
+     */
+    private Set<BasicBlock> branchTargets(List<BasicBlock> blocks) {
+        Set<BasicBlock> targets = new HashSet<>();
+
+        for (int i = 0; i < blocks.size(); i++) {
+            Terminator terminator = blocks.get(i).getTerminator();
+            BasicBlock next = i + 1 < blocks.size() ? blocks.get(i + 1) : null;
+
+            if (terminator instanceof Call) {
+                Call call = (Call) terminator;
+                targets.add(call.getTarget());
+
+                if (laidOut.contains(call.getContinuation()) && call.getContinuation() != next) {
+                    targets.add(call.getContinuation());
+                }
+
+            } else if (terminator instanceof Branch) {
+                Branch branch = (Branch) terminator;
+
+                // a branch whose true target follows is inverted, and jumps to its false target even if that follows.
+                if (branch.getTrueTarget() == next) {
+                    targets.add(branch.getFalseTarget());
+
+                } else {
+                    targets.add(branch.getTrueTarget());
+
+                    if (branch.getFalseTarget() != next) {
+                        targets.add(branch.getFalseTarget());
+                    }
+                }
+
+            } else if (terminator instanceof Jump && ((Jump) terminator).getTarget() != next) {
+                targets.add(((Jump) terminator).getTarget());
+            }
+        }
+
+        return targets;
+    }
+
+    /**
+     * Finds the counted loop whose exit test the given block ends with, if the test may be made from the flags set by
+     * stepping the induction variable, which must be the last instruction of the block.
+     *
+     * @return the counted loop, or {@code null} if the block must be compiled as it is.
+     */
+    private InductionVariables.CountedLoop countedLoopClosedBy(BasicBlock block) {
+        InductionVariables.CountedLoop counted = inductionVariables == null
+                ? null
+                : inductionVariables.getCountedLoop(block.getTerminator());
+
+        if (counted == null || !counted.getBound().equals(Constant.of(0))) {
+            return null;
+        }
+
+        List<Instruction> instructions = block.getInstructions();
+        long stride = counted.getVariable().getStride();
+        RelationalOperator operator = counted.getCondition();
+
+        if (instructions.isEmpty() || instructions.get(instructions.size() - 1) != counted.getVariable().getUpdate()
+                || stride != (int) stride) {
+            return null;
+        }
+
+        return operator == RelationalOperator.EQUAL || operator == RelationalOperator.NOT_EQUAL
+                || counted.isOverflowFree() ? counted : null;
+    }
+
+    /**
+     * Appends an instruction that adds the stride of the given induction variable to it in place, setting the flags
+     * for its new value.
+     */
+    private void step(InductionVariables.InductionVariable variable) {
+        String address = address(variable.getLocation());
+        long stride = variable.getStride();
+
+        if (X86_64Instruction.isMemory(address)) {
+            address = "qword " + address;
+        }
+
+        if (stride == 1) {
+            instruction("inc " + address);
+
+        } else if (stride == -1) {
+            instruction("dec " + address);
+
+        } else if (stride > 0) {
+            instruction("add " + address + ", " + stride);
+
+        } else {
+            instruction("sub " + address + ", " + -stride);
+        }
+    }
+
+    /**
+     * Allocates a slot below rbp for each variable, in the order they first appear, and then each temporary.
+     */
+    private void allocate(ControlFlowGraph graph) {
+        for (BasicBlock block : graph.getBlocks()) {
+            for (Instruction instruction : block.getInstructions()) {
+                instruction.getUses().forEach(this::allocate);
+                allocate(instruction.getDefinition());
+            }
+
+            block.getTerminator().getUses().forEach(this::allocate);
+        }
+    }
+
+    private void allocate(Operand operand) {
+        if (register(operand) != null) {
+            return;
+        }
+
+        if (operand instanceof Variable) {
+            Variable variable = (Variable) operand;
+
+            if (variableAddress[variable.index()] == 0) {
+                variableAddress[variable.index()] = ++slotCount * Long.BYTES;
+            }
+
+        } else if (operand instanceof Temporary) {
+            temporaryAddress.computeIfAbsent((Temporary) operand, t -> ++slotCount * Long.BYTES);
+        }
+    }
+
+    /**
+     * Gets the register assigned to the given operand.
+     *
+     * @return the register, or {@code null} if the operand is a constant or a location in memory.
+     */
+    private String register(Operand operand) {
+        return allocator == null || !(operand instanceof Location) ? null : allocator.getRegister((Location) operand);
+    }
+
+    /**
+     * Gets the register or memory operand holding the given location.
+     */
+    private String address(Location location) {
+        String register = register(location);
+
+        if (register != null) {
+            return register;
+        }
+
+        int offset = location instanceof Variable
+                ? variableAddress[((Variable) location).index()]
+                : temporaryAddress.get((Temporary) location);
+
+        return "[rbp - " + offset + "]";
+    }
+
+    /**
+     * Gets the given operand as a source operand for an instruction whose destination is a register, that is an
+     * immediate value for constants that fit in 32 bits or the register or memory operand of locations.
+     *
+     * @return the source operand, or {@code null} for constants that must first be loaded into a register.
+     */
+    private String source(Operand operand) {
+        if (operand instanceof Constant) {
+            long value = ((Constant) operand).getValue();
+
+            return value == (int) value ? Long.toString(value) : null;
+        }
+
+        return address((Location) operand);
+    }
+
+    /**
+     * Appends an instruction that loads the value of the given operand into the given register.
+     */
+    private void load(String register, Operand operand) {
+        String value = operand instanceof Constant
+                ? Long.toString(((Constant) operand).getValue())
+                : address((Location) operand);
+
+        instruction("mov " + register + ", " + value);
+    }
+
+    /**
+     * Gets the given operand as the source operand of an arithmetic or comparison instruction, loading it into the
+     * given scratch register if it cannot be encoded directly.
+     */
+    private String operand(String scratch, Operand operand) {
+        String source = source(operand);
+
+        if (source == null) {
+            load(scratch, operand);
+            return scratch;
+        }
+
+        return source;
+    }
+
+    private void instruction(String instruction) {
+        builder.append(INDENTATION).append(instruction).append('\n');
+    }
+
+    /**
+     * Denotes whether the output of the given instruction is known at compile time, that is it prints a string
+     * literal or a constant.
+     */
+    private static boolean isConstantOutput(Instruction instruction) {
+        return instruction instanceof PrintString
+                || instruction instanceof PrintValue && ((PrintValue) instruction).getValue() instanceof Constant;
+    }
+
+    /**
+     * Appends a single write of the output of the run of constant output instructions from the given index, formatted
+     * at compile time.
+     *
+     * @param instructions the instructions of a block.
+     * @param from         the index of the first instruction of the run.
+     * @param to           the index at which the run must end.
+     * @return the index of the last instruction of the run.
+     */
+    private int compileConstantOutput(List<Instruction> instructions, int from, int to) {
+        List<String> output = new ArrayList<>();
+        int last = from;
+
+        for (; last < to && isConstantOutput(instructions.get(last)); last++) {
+            Instruction instruction = instructions.get(last);
+
+            if (instruction instanceof PrintString) {
+                Collections.addAll(output, stringLiteralCharsToHex(((PrintString) instruction).getLiteral()));
+            } else {
+                long value = ((Constant) ((PrintValue) instruction).getValue()).getValue();
+
+                Collections.addAll(output, bytesToHex(X86_64AsciiConversion.decimalToAscii(value)));
+            }
+        }
+
+        if (!output.isEmpty()) {
+            String operand = String.join(",", output);
+            // the instructions of the run define nothing, so the registers live across each are the same.
+            List<String> saved = save(instructions.get(from), SYSTEM_CALL_CLOBBERS);
+
+            dataSection.addEntry(operand, "db");
+            systemCall(builder, SYS_WRITE_ID, STD_OUT_FILE_DESCRIPTOR, dataSection.getLabel(operand), output.size());
+            restore(saved);
+        }
+
+        return last - 1;
+    }
+
+    private void compile(Instruction instruction) {
+        if (instruction instanceof Copy) {
+            Copy copy = (Copy) instruction;
+            String source = source(copy.getSource());
+            String destination = register(copy.getDefinition());
+
+            if (destination != null) {
+                if (!destination.equals(source)) {
+                    load(destination, copy.getSource());
+                }
+
+            } else if (copy.getSource() instanceof Constant && source != null) {
+                instruction("mov qword " + address(copy.getDefinition()) + ", " + source);
+
+            } else {
+                load("rax", copy.getSource());
+                instruction("mov " + address(copy.getDefinition()) + ", rax");
+            }
+
+        } else if (instruction instanceof BinaryOperation) {
+            compile((BinaryOperation) instruction);
+
+        } else if (instruction instanceof Negate) {
+            Negate negate = (Negate) instruction;
+            String destination = register(negate.getDefinition());
+
+            if (destination != null) {
+                load(destination, negate.getSource());
+                instruction("neg " + destination);
+
+            } else {
+                load("rax", negate.getSource());
+                instruction("neg rax");
+                instruction("mov " + address(negate.getDefinition()) + ", rax");
+            }
+
+        } else if (instruction instanceof PrintValue) {
+            includeAsciiUtil = true;
+            List<String> saved = save(instruction, ASCII_UTIL_CLOBBERS);
+
+            load("rax", ((PrintValue) instruction).getValue());
+            instruction("push rax");
+            instruction(CALL_ASCII_CONVERSION);
+            systemCall(builder, SYS_WRITE_ID, STD_OUT_FILE_DESCRIPTOR, "rsp", 8);
+            instruction("pop rax");
+            restore(saved);
+
+        } else if (instruction instanceof PrintString) {
+            String[] hexArray = stringLiteralCharsToHex(((PrintString) instruction).getLiteral());
+            String operand = String.join(",", hexArray);
+            List<String> saved = save(instruction, SYSTEM_CALL_CLOBBERS);
+
+            dataSection.addEntry(operand, "db");
+            systemCall(builder, SYS_WRITE_ID, STD_OUT_FILE_DESCRIPTOR, dataSection.getLabel(operand), hexArray.length);
+            restore(saved);
+
+        } else if (instruction instanceof Input) {
+            includeAsciiUtil = true;
+            Variable variable = ((Input) instruction).getVariable();
+            List<String> saved = save(instruction, ASCII_UTIL_CLOBBERS);
+
+            // a variable in a register is read into a buffer on the stack, as its initial value would be.
+            if (register(variable) != null) {
+                instruction("push 0");
+                instruction("mov r8, rsp");
+                systemCall(builder, SYS_READ_ID, STD_IN_FILE_DESCRIPTOR, "r8", 8);
+
+            } else {
+                String address = address(variable);
+
+                instruction("lea r8, " + address);
+                systemCall(builder, SYS_READ_ID, STD_IN_FILE_DESCRIPTOR, "r8", 8);
+                instruction("mov rax, " + address);
+                instruction("push rax");
+            }
+
+            instruction(CALL_ASCII_DECONVERSION);
+            instruction("pop rax");
+            restore(saved);
+            instruction("mov " + address(variable) + ", rax");
+
+        } else {
+            throw new IllegalArgumentException("Unsupported instruction! " + instruction);
+        }
+    }
+
+    private void compile(BinaryOperation operation) {
+        if (options.contains(CodeGenerationOption.STRENGTH_REDUCTION) && reduce(operation)) {
+            instruction("mov " + address(operation.getDefinition()) + ", rax");
+            return;
+        }
+
+        String destination = register(operation.getDefinition());
+        Operand left = operation.getLeft();
+        Operand right = operation.getRight();
+
+        // the operands of addition and multiplication are swapped so the result can be computed in place.
+        boolean commutative = operation.getOperator() == ArithmeticOperator.ADD
+                || operation.getOperator() == ArithmeticOperator.MUL;
+
+        if (commutative && destination != null && destination.equals(register(right))) {
+            right = left;
+            left = operation.getRight();
+        }
+
+        // the result is computed in the register of its location, unless that would overwrite the right operand.
+        boolean inPlace = destination != null && operation.getOperator() != ArithmeticOperator.DIV
+                && !destination.equals(register(right));
+
+        String result = inPlace ? destination : "rax";
+
+        if (!result.equals(register(left))) {
+            load(result, left);
+        }
+
+        switch (operation.getOperator()) {
+            case ADD:
+                instruction("add " + result + ", " + operand("rcx", right));
+                break;
+
+            case SUB:
+                instruction("sub " + result + ", " + operand("rcx", right));
+                break;
+
+            case MUL:
+                instruction("imul " + result + ", " + operand("rcx", right));
+                break;
+
+            case DIV:
+                load("rcx", right);
+                instruction("cqo");
+                instruction("idiv rcx");
+                break;
+        }
+
+        if (!inPlace) {
+            instruction("mov " + address(operation.getDefinition()) + ", rax");
+        }
+    }
+
+    /**
+     * Appends instructions that push each register live across the given instruction that it would modify.
+     *
+     * @return the registers pushed, in the order they were pushed.
+     */
+    private List<String> save(Instruction instruction, Set<String> clobbered) {
+        if (allocator == null) {
+            return List.of();
+        }
+
+        List<String> saved = allocator.getRegistersLiveAcross(instruction).stream()
+                .filter(clobbered::contains)
+                .toList();
+
+        saved.forEach(register -> instruction("push " + register));
+        return saved;
+    }
+
+    /**
+     * Appends instructions that pop the given registers, saved by {@link #save(Instruction, Set)}.
+     */
+    private void restore(List<String> saved) {
+        for (int i = saved.size() - 1; i >= 0; i--) {
+            instruction("pop " + saved.get(i));
+        }
+    }
+
+    /**
+     * Appends a strength reduced sequence for a multiplication or division by a constant, leaving the result in rax.
+     *
+     * @return {@code true} if the operation was reduced.
+     */
+    private boolean reduce(BinaryOperation operation) {
+        Operand operand = operation.getLeft();
+        List<String> instructions = null;
+
+        if (operation.getRight() instanceof Constant) {
+            long value = ((Constant) operation.getRight()).getValue();
+
+            switch (operation.getOperator()) {
+                case MUL:
+                    instructions = X86_64StrengthReduction.multiply(value);
+                    break;
+
+                case DIV:
+                    instructions = X86_64StrengthReduction.divide(value);
+                    break;
+            }
+
+        } else if (operation.getOperator() == ArithmeticOperator.MUL && operation.getLeft() instanceof Constant) {
+            operand = operation.getRight();
+            instructions = X86_64StrengthReduction.multiply(((Constant) operation.getLeft()).getValue());
+        }
+
+        if (instructions == null) {
+            return false;
+        }
+
+        load("rax", operand);
+        instructions.forEach(this::instruction);
+        return true;
+    }
+
+    /**
+     * Compiles the given terminator, omitting a jump to the given next block since control falls through to it.
+     *
+     * @param counted the counted loop whose exit test the terminator is, if the flags have been set by stepping its
+     *                induction variable, otherwise {@code null}.
+     */
+    private void compile(Terminator terminator, BasicBlock next, InductionVariables.CountedLoop counted) {
+        if (terminator instanceof Jump) {
+            jump(((Jump) terminator).getTarget(), next);
+
+        } else if (terminator instanceof Branch) {
+            Branch branch = (Branch) terminator;
+            RelationalOperator operator = branch.getOperator();
+
+            if (counted != null) {
+                // the flags are those of comparing the induction variable with 0, so it must be the left operand.
+                if (!branch.getLeft().equals(counted.getVariable().getLocation())) {
+                    operator = operator.reverse();
+                }
+
+            } else {
+                String left = branch.getLeft() instanceof Location ? address((Location) branch.getLeft()) : null;
+
+                // the first operand of a comparison must be a register unless the second is, so its size is known.
+                if (left == null || (X86_64Instruction.isMemory(left) && register(branch.getRight()) == null)) {
+                    load("rax", branch.getLeft());
+                    left = "rax";
+                }
+
+                instruction("cmp " + left + ", " + operand("rcx", branch.getRight()));
+            }
+
+            if (branch.getTrueTarget() == next) {
+                String jump = getJumpOperation(operator.negate());
+                instruction(jump + " " + branch.getFalseTarget().getLabel());
+
+            } else {
+                instruction(getJumpOperation(operator) + " " + branch.getTrueTarget().getLabel());
+                jump(branch.getFalseTarget(), next);
+            }
+
+        } else if (terminator instanceof Call) {
+            Call call = (Call) terminator;
+
+            instruction("call " + call.getTarget().getLabel());
+
+            // the continuation is removed if the subroutine can never return, and then control never reaches here.
+            if (laidOut.contains(call.getContinuation())) {
+                jump(call.getContinuation(), next);
+            }
+
+        } else if (terminator instanceof Return) {
+            instruction("ret");
+
+        } else if (terminator instanceof Exit) {
+            instruction("xor rax, rax");
+            instruction("mov rsp, rbp");
+            instruction("pop rbp");
+            systemCall(builder, SYS_EXIT_ID, 0);
+
+        } else {
+            throw new IllegalArgumentException("Unsupported terminator! " + terminator);
+        }
+    }
+
+    /**
+     * Gets the registers assigned to locations by the last compilation, which hold values across labels and jumps.
+     *
+     * @return the assigned registers, empty if registers were not allocated.
+     */
+    public Set<String> getAssignedRegisters() {
+        return allocator == null ? Set.of() : allocator.getAssignedRegisters();
+    }
+
+    /**
+     * Gets the register allocator used by the last compilation.
+     *
+     * @return the allocator, or {@code null} if registers were not allocated.
+     */
+    public X86_64RegisterAllocator getRegisterAllocator() {
+        return allocator;
+    }
+
+    /**
+     * Gets the induction variables found by the last compilation.
+     *
+     * @return the induction variables, or {@code null} if counted loops were not recognised.
+     */
+    public InductionVariables getInductionVariables() {
+        return inductionVariables;
+    }
+
+    private void jump(BasicBlock target, BasicBlock next) {
+        if (target != next) {
+            instruction("jmp " + target.getLabel());
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+package uk.ac.tees.ir;
+
+import uk.ac.tees.ir.instruction.Instruction;
+import uk.ac.tees.ir.instruction.Terminator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A sequence of instructions with a single entry, the first instruction, and a single exit, the {@link Terminator}.
+ * Control only enters a block at its start and only leaves at its end.
+ * <p>
+ * The predecessors and successors of a block are maintained by the {@link ControlFlowGraph} it belongs to, and are
+ * only valid until the terminator of any block is changed and {@link ControlFlowGraph#computeEdges()} is next called.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class BasicBlock {
+
+    /**
+     * The label of this block, unique within a control flow graph.
+     */
+    private final String label;
+
+    /**
+     * The number of the source line this block was lowered from.
+     */
+    private final int lineNumber;
+
+    /**
+     * The instructions of this block, excluding the terminator.
+     */
+    private final List<Instruction> instructions = new ArrayList<>();
+
+    /**
+     * The blocks that may transfer control to this block.
+     */
+    private final List<BasicBlock> predecessors = new ArrayList<>();
+
+    /**
+     * The blocks this block may transfer control to.
+     */
+    private final List<BasicBlock> successors = new ArrayList<>();
+
+    /**
+     * The last instruction of this block.
+     */
+    private Terminator terminator;
+
+    public BasicBlock(String label, int lineNumber) {
+        this.label = label;
+        this.lineNumber = lineNumber;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Gets the instructions of this block, excluding the terminator. The returned list may be modified in place.
+     *
+     * @return the instructions of this block.
+     */
+    public List<Instruction> getInstructions() {
+        return instructions;
+    }
+
+    public Terminator getTerminator() {
+        return terminator;
+    }
+
+    public void setTerminator(Terminator terminator) {
+        this.terminator = terminator;
+    }
+
+    public boolean isTerminated() {
+        return terminator != null;
+    }
+
+    public List<BasicBlock> getPredecessors() {
+        return Collections.unmodifiableList(predecessors);
+    }
+
+    public List<BasicBlock> getSuccessors() {
+        return Collections.unmodifiableList(successors);
+    }
+
+    void clearEdges() {
+        predecessors.clear();
+        successors.clear();
+    }
+
+    /**
+     * Adds an edge from this block to the given block, if there is not already one.
+     */
+    void addSuccessor(BasicBlock successor) {
+        if (!successors.contains(successor)) {
+            successors.add(successor);
+            successor.predecessors.add(this);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+
+}
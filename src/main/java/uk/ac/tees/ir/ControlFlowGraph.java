@@ -0,0 +1,194 @@
+package uk.ac.tees.ir;
+
+import uk.ac.tees.ir.instruction.Call;
+import uk.ac.tees.ir.instruction.Instruction;
+import uk.ac.tees.ir.instruction.Return;
+import uk.ac.tees.ir.operand.Temporary;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The basic blocks of a program, connected by the edges along which control may flow between them. The first block is
+ * the entry to the program, and blocks are held in the order they are laid out in the output.
+ * <p>
+ * A {@link Call} has an edge to the subroutine it calls, and every {@link Return} has an edge to the continuation of
+ * every call, since which call a return returns to is only known at runtime.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class ControlFlowGraph {
+
+    /**
+     * The name of the program.
+     */
+    private final String name;
+
+    /**
+     * The blocks of the program, in the order they are laid out.
+     */
+    private final List<BasicBlock> blocks;
+
+    /**
+     * The number of temporaries created so far, used to number the next one.
+     */
+    private int temporaryCount;
+
+    public ControlFlowGraph(String name, List<BasicBlock> blocks, int temporaryCount) {
+        this.name = name;
+        this.blocks = new ArrayList<>(blocks);
+        this.temporaryCount = temporaryCount;
+
+        computeEdges();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the blocks of this graph, in layout order. The returned list may be modified in place, after which
+     * {@link #computeEdges()} should be called.
+     *
+     * @return the blocks of this graph.
+     */
+    public List<BasicBlock> getBlocks() {
+        return blocks;
+    }
+
+    public BasicBlock getEntry() {
+        return blocks.get(0);
+    }
+
+    /**
+     * Creates a new temporary, unique within this graph.
+     *
+     * @return a new temporary.
+     */
+    public Temporary newTemporary() {
+        return new Temporary(temporaryCount++);
+    }
+
+    public int getTemporaryCount() {
+        return temporaryCount;
+    }
+
+    /**
+     * Recomputes the predecessors and successors of each block from the terminators of the blocks.
+     */
+    public void computeEdges() {
+        List<BasicBlock> continuations = new ArrayList<>();
+
+        for (BasicBlock block : blocks) {
+            block.clearEdges();
+
+            if (block.getTerminator() instanceof Call) {
+                continuations.add(((Call) block.getTerminator()).getContinuation());
+            }
+        }
+
+        for (BasicBlock block : blocks) {
+            List<BasicBlock> targets = block.getTerminator() instanceof Return
+                    ? continuations
+                    : block.getTerminator().getTargets();
+
+            targets.forEach(block::addSuccessor);
+        }
+    }
+
+    /**
+     * Gets the blocks that are reachable from the entry block, in reverse post-order. Every block appears before its
+     * successors, other than those it is reached from through a back edge.
+     *
+     * @return the reachable blocks in reverse post-order.
+     */
+    public List<BasicBlock> reversePostOrder() {
+        List<BasicBlock> postOrder = new ArrayList<>(blocks.size());
+        Set<BasicBlock> visited = new HashSet<>();
+
+        // iterative depth-first search, each block is pushed at most once so the depth is bounded by the block count.
+        BasicBlock[] stack = new BasicBlock[blocks.size()];
+        int[] nextSuccessor = new int[blocks.size()];
+        int top = 0;
+
+        stack[top] = getEntry();
+        visited.add(getEntry());
+
+        while (top >= 0) {
+            BasicBlock block = stack[top];
+            List<BasicBlock> successors = block.getSuccessors();
+
+            if (nextSuccessor[top] < successors.size()) {
+                BasicBlock successor = successors.get(nextSuccessor[top]++);
+
+                if (visited.add(successor)) {
+                    stack[++top] = successor;
+                    nextSuccessor[top] = 0;
+                }
+
+            } else {
+                postOrder.add(block);
+                stack[top--] = null;
+            }
+        }
+
+        List<BasicBlock> reversed = new ArrayList<>(postOrder.size());
+        for (int i = postOrder.size() - 1; i >= 0; i--) {
+            reversed.add(postOrder.get(i));
+        }
+
+        return reversed;
+    }
+
+    /**
+     * Removes the blocks that cannot be reached from the entry block and recomputes the edges of those that remain.
+     *
+     * @return the number of blocks removed.
+     */
+    public int removeUnreachableBlocks() {
+        Set<BasicBlock> reachable = new HashSet<>(reversePostOrder());
+        int before = blocks.size();
+
+        blocks.removeIf(b -> !reachable.contains(b));
+        computeEdges();
+
+        return before - blocks.size();
+    }
+
+    /**
+     * Produces a textual dump of this graph, listing each block with its predecessors and instructions.
+     *
+     * @return a textual representation of this graph.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("program ").append(name).append('\n');
+
+        for (BasicBlock block : blocks) {
+            builder.append(block.getLabel()).append(':');
+
+            if (!block.getPredecessors().isEmpty()) {
+                String predecessors = block.getPredecessors()
+                        .stream()
+                        .map(BasicBlock::getLabel)
+                        .collect(Collectors.joining(", "));
+
+                builder.append(" ; predecessors: ").append(predecessors);
+            }
+
+            builder.append('\n');
+
+            for (Instruction instruction : block.getInstructions()) {
+                builder.append("    ").append(instruction).append('\n');
+            }
+
+            builder.append("    ").append(block.getTerminator()).append('\n');
+        }
+
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,352 @@
+package uk.ac.tees.ir;
+
+import uk.ac.tees.ir.instruction.*;
+import uk.ac.tees.ir.operand.Constant;
+import uk.ac.tees.ir.operand.Location;
+import uk.ac.tees.ir.operand.Operand;
+import uk.ac.tees.ir.operand.Temporary;
+import uk.ac.tees.ir.operand.Variable;
+import uk.ac.tees.semantics.ProgramIndex;
+import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
+import uk.ac.tees.syntax.grammar.expression.UnaryOperator;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.factor.StringLiteral;
+import uk.ac.tees.syntax.grammar.statement.*;
+import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
+import uk.ac.tees.syntax.visitor.TreeWalker;
+import uk.ac.tees.syntax.visitor.Visitor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Lowers a semantically valid {@link Program} to three-address code, held in a {@link ControlFlowGraph}.
+ * <p>
+ * Expressions are lowered in the same order that the stack-based generator evaluates them, each intermediate value
+ * being assigned to a new {@link Temporary}. Statements are lowered one at a time, so that the operands of a
+ * statement are only evaluated when the statement is reached, just as they would be in the source program.
+ * <p>
+ * A new basic block starts at each line that is the target of a GOTO or GOSUB statement, at each line that follows
+ * an IF, GOTO, GOSUB, RETURN or END statement, and at the statement of an IF statement. Blocks starting at a line are
+ * labelled {@code _line_N}, as they are by the stack-based generator, and blocks starting within a line are labelled
+ * {@code _line_N_k}. Control that would flow past the last line of a program ends the program.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class ThreeAddressCodeGenerator extends AbstractSyntaxTreeVisitor<ControlFlowGraph, Program> {
+
+    /**
+     * Operands of the expression currently being lowered, the top being the value of the most recently visited node.
+     */
+    private final Deque<Operand> operands = new ArrayDeque<>();
+
+    /**
+     * The blocks of the program, in the order they are created.
+     */
+    private final List<BasicBlock> blocks = new ArrayList<>();
+
+    /**
+     * The block starting at each line, at the position of that line, or {@code null} for lines that do not start a
+     * block.
+     */
+    private BasicBlock[] lineBlocks;
+
+    /**
+     * The index of the program being lowered.
+     */
+    private ProgramIndex index;
+
+    /**
+     * The position of the line currently being lowered.
+     */
+    private int linePosition;
+
+    /**
+     * The number of blocks started within the current line.
+     */
+    private int innerBlockCount;
+
+    /**
+     * The block instructions are currently appended to.
+     */
+    private BasicBlock current;
+
+    /**
+     * The block that ends the program when control flows past the last line, created only if required.
+     */
+    private BasicBlock exitBlock;
+
+    /**
+     * The number of temporaries created.
+     */
+    private int temporaryCount;
+
+    @Override
+    public ControlFlowGraph visitTree(Program root) {
+        index = ProgramIndex.of(root);
+        lineBlocks = new BasicBlock[index.lineCount()];
+
+        markLeaders();
+
+        for (linePosition = 0; linePosition < index.lineCount(); linePosition++) {
+            Line line = index.lineAt(linePosition);
+
+            if (lineBlocks[linePosition] != null) {
+                startBlock(lineBlocks[linePosition]);
+            }
+
+            innerBlockCount = 0;
+            visitNode(line.getStatement());
+        }
+
+        if (!current.isTerminated()) {
+            current.setTerminator(new Jump(exitBlock()));
+        }
+
+        if (exitBlock != null) {
+            blocks.add(exitBlock);
+        }
+
+        return new ControlFlowGraph(root.getName(), blocks, temporaryCount);
+    }
+
+    /**
+     * Creates the blocks that start at lines, for the first line and each line that is a leader.
+     */
+    private void markLeaders() {
+        lineBlocks[0] = lineBlock(0);
+
+        for (int i = 0; i < index.lineCount(); i++) {
+            Statement statement = index.lineAt(i).getStatement();
+            boolean conditional = statement instanceof IfStatement;
+
+            while (statement instanceof IfStatement) {
+                statement = ((IfStatement) statement).getStatement();
+            }
+
+            if (statement instanceof GoToStatement) {
+                int target = index.indexOf(((GoToStatement) statement).getLineNumber());
+                lineBlocks[target] = lineBlock(target);
+
+            } else if (statement instanceof GoSubStatement) {
+                int target = index.indexOf(((GoSubStatement) statement).getLineNumber());
+                lineBlocks[target] = lineBlock(target);
+            }
+
+            boolean transfersControl = conditional
+                    || statement instanceof GoToStatement
+                    || statement instanceof GoSubStatement
+                    || statement instanceof ReturnStatement
+                    || statement instanceof EndStatement;
+
+            if (transfersControl && i + 1 < index.lineCount()) {
+                lineBlocks[i + 1] = lineBlock(i + 1);
+            }
+        }
+    }
+
+    /**
+     * Gets the block starting at the line at the given position, creating it if it does not exist.
+     */
+    private BasicBlock lineBlock(int position) {
+        if (lineBlocks[position] == null) {
+            lineBlocks[position] = new BasicBlock("_line_" + index.lineAt(position).getLineNumber(),
+                    index.lineAt(position).getLineNumber());
+        }
+
+        return lineBlocks[position];
+    }
+
+    /**
+     * Gets the block that control is transferred to after the current line, or the exit block after the last line.
+     */
+    private BasicBlock nextLineBlock() {
+        return linePosition + 1 < index.lineCount() ? lineBlocks[linePosition + 1] : exitBlock();
+    }
+
+    private BasicBlock exitBlock() {
+        if (exitBlock == null) {
+            exitBlock = new BasicBlock("_exit", -1);
+            exitBlock.setTerminator(new Exit());
+        }
+
+        return exitBlock;
+    }
+
+    /**
+     * Starts appending instructions to the given block. If the current block is not terminated, control falls
+     * through from it to the given block.
+     */
+    private void startBlock(BasicBlock block) {
+        if (current != null && !current.isTerminated()) {
+            current.setTerminator(new Jump(block));
+        }
+
+        blocks.add(block);
+        current = block;
+    }
+
+    /**
+     * Appends an instruction to the current block. An instruction following a terminator is unreachable, since every
+     * reachable point after a terminator starts a new block, but must still be lowered so it is placed in a new block.
+     */
+    private void emit(Instruction instruction) {
+        if (current.isTerminated()) {
+            startBlock(innerBlock());
+        }
+
+        current.getInstructions().add(instruction);
+    }
+
+    private void terminate(Terminator terminator) {
+        if (current.isTerminated()) {
+            startBlock(innerBlock());
+        }
+
+        current.setTerminator(terminator);
+    }
+
+    /**
+     * Creates a new block that starts within the current line.
+     */
+    private BasicBlock innerBlock() {
+        int lineNumber = index.lineAt(linePosition).getLineNumber();
+
+        return new BasicBlock("_line_" + lineNumber + "_" + ++innerBlockCount, lineNumber);
+    }
+
+    private Temporary newTemporary() {
+        return new Temporary(temporaryCount++);
+    }
+
+    /**
+     * Lowers the given expression, appending instructions that compute its value to the current block.
+     *
+     * @param expression the expression to lower.
+     * @return the operand holding the value of the expression.
+     */
+    private Operand lower(AbstractSyntaxTreeNode expression) {
+        TreeWalker.walk(expression, this);
+
+        return operands.pop();
+    }
+
+    /**
+     * Assigns the given value to the given location. Where the value is the temporary defined by the last
+     * instruction, that instruction is made to define the location instead.
+     */
+    private void assign(Location location, Operand value) {
+        List<Instruction> instructions = current.getInstructions();
+
+        if (value instanceof Temporary && !current.isTerminated() && !instructions.isEmpty()) {
+            int last = instructions.size() - 1;
+
+            if (instructions.get(last) instanceof Definition && value.equals(instructions.get(last).getDefinition())) {
+                instructions.set(last, ((Definition) instructions.get(last)).withDefinition(location));
+                return;
+            }
+        }
+
+        emit(new Copy(location, value));
+    }
+
+    @Visitor
+    void visit(NumberFactor node) {
+        operands.push(Constant.of(node.getValue()));
+    }
+
+    @Visitor
+    void visit(IdentifierFactor node) {
+        operands.push(Variable.of(node.getName()));
+    }
+
+    @Visitor
+    void visit(ArithmeticBinaryExpression node) {
+        Operand right = operands.pop();
+        Operand left = operands.pop();
+        Temporary result = newTemporary();
+
+        emit(new BinaryOperation(result, node.getOperator(), left, right));
+        operands.push(result);
+    }
+
+    @Visitor
+    void visit(UnaryExpression node) {
+        if (node.getOperator() == UnaryOperator.SUB) {
+            Operand value = operands.pop();
+            Temporary result = newTemporary();
+
+            emit(new Negate(result, value));
+            operands.push(result);
+        }
+    }
+
+    @Visitor
+    void visit(LetStatement node) {
+        assign(Variable.of(node.getIdentifier().getName()), lower(node.getValue()));
+    }
+
+    @Visitor
+    void visit(PrintStatement node) {
+        for (AbstractSyntaxTreeNode expression : node.getExpressions()) {
+            if (expression instanceof StringLiteral) {
+                emit(new PrintString(((StringLiteral) expression).getValue()));
+
+            } else {
+                emit(new PrintValue(lower(expression)));
+            }
+        }
+    }
+
+    @Visitor
+    void visit(InputStatement node) {
+        for (UnassignedIdentifier identifier : node.getIdentifiers()) {
+            emit(new Input(Variable.of(identifier.getName())));
+        }
+    }
+
+    @Visitor
+    void visit(IfStatement node) {
+        RelationalBinaryExpression condition = node.getExpression();
+
+        Operand left = lower(condition.getLeft());
+        Operand right = lower(condition.getRight());
+
+        BasicBlock then = innerBlock();
+
+        terminate(new Branch(condition.getOperator(), left, right, then, nextLineBlock()));
+        startBlock(then);
+
+        visitNode(node.getStatement());
+    }
+
+    @Visitor
+    void visit(GoToStatement node) {
+        terminate(new Jump(lineBlocks[index.indexOf(node.getLineNumber())]));
+    }
+
+    @Visitor
+    void visit(GoSubStatement node) {
+        terminate(new Call(lineBlocks[index.indexOf(node.getLineNumber())], nextLineBlock()));
+    }
+
+    @Visitor
+    void visit(ReturnStatement node) {
+        terminate(new Return());
+    }
+
+    @Visitor
+    void visit(EndStatement node) {
+        terminate(new Exit());
+    }
+
+}
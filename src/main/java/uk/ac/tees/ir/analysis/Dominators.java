@@ -0,0 +1,215 @@
+package uk.ac.tees.ir.analysis;
+
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.ControlFlowGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The dominator tree and dominance frontiers of the blocks of a {@link ControlFlowGraph} that are reachable from its
+ * entry block. A block dominates another if every path from the entry block to the other block passes through it.
+ * <p>
+ * Immediate dominators are computed with the iterative algorithm described by Cooper, Harvey and Kennedy in "A Simple,
+ * Fast Dominance Algorithm", which iterates over the blocks in reverse post-order until no immediate dominator
+ * changes.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class Dominators {
+
+    /**
+     * The reachable blocks, in reverse post-order.
+     */
+    private final List<BasicBlock> blocks;
+
+    /**
+     * The position of each reachable block in {@link #blocks}.
+     */
+    private final Map<BasicBlock, Integer> order = new HashMap<>();
+
+    /**
+     * The position of the immediate dominator of each block, the entry block being its own immediate dominator.
+     */
+    private final int[] immediateDominators;
+
+    /**
+     * The blocks immediately dominated by each block.
+     */
+    private final List<List<BasicBlock>> children;
+
+    /**
+     * The dominance frontier of each block.
+     */
+    private final List<Set<BasicBlock>> frontiers;
+
+    public Dominators(ControlFlowGraph graph) {
+        this.blocks = graph.reversePostOrder();
+        this.immediateDominators = new int[blocks.size()];
+        this.children = new ArrayList<>(blocks.size());
+        this.frontiers = new ArrayList<>(blocks.size());
+
+        for (int i = 0; i < blocks.size(); i++) {
+            order.put(blocks.get(i), i);
+            children.add(new ArrayList<>());
+            frontiers.add(new LinkedHashSet<>());
+        }
+
+        computeImmediateDominators();
+        computeFrontiers();
+    }
+
+    private void computeImmediateDominators() {
+        final int undefined = -1;
+
+        Arrays.fill(immediateDominators, undefined);
+        immediateDominators[0] = 0;
+
+        boolean changed = true;
+
+        while (changed) {
+            changed = false;
+
+            for (int i = 1; i < blocks.size(); i++) {
+                int dominator = undefined;
+
+                for (BasicBlock predecessor : blocks.get(i).getPredecessors()) {
+                    Integer position = order.get(predecessor);
+
+                    if (position == null || immediateDominators[position] == undefined) {
+                        continue;
+                    }
+
+                    dominator = dominator == undefined ? position : intersect(position, dominator);
+                }
+
+                if (immediateDominators[i] != dominator) {
+                    immediateDominators[i] = dominator;
+                    changed = true;
+                }
+            }
+        }
+
+        for (int i = 1; i < blocks.size(); i++) {
+            children.get(immediateDominators[i]).add(blocks.get(i));
+        }
+    }
+
+    /**
+     * Finds the closest common dominator of the two blocks at the given positions, by walking up the dominator tree.
+     */
+    private int intersect(int first, int second) {
+        while (first != second) {
+            while (first > second) {
+                first = immediateDominators[first];
+            }
+
+            while (second > first) {
+                second = immediateDominators[second];
+            }
+        }
+
+        return first;
+    }
+
+    private void computeFrontiers() {
+        for (int i = 0; i < blocks.size(); i++) {
+            BasicBlock block = blocks.get(i);
+
+            if (block.getPredecessors().size() < 2) {
+                continue;
+            }
+
+            for (BasicBlock predecessor : block.getPredecessors()) {
+                Integer runner = order.get(predecessor);
+
+                if (runner == null) {
+                    continue;
+                }
+
+                while (runner != immediateDominators[i]) {
+                    frontiers.get(runner).add(block);
+                    runner = immediateDominators[runner];
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the blocks reachable from the entry block, in reverse post-order.
+     *
+     * @return the reachable blocks.
+     */
+    public List<BasicBlock> getBlocks() {
+        return Collections.unmodifiableList(blocks);
+    }
+
+    /**
+     * Checks whether the given block is reachable from the entry block.
+     *
+     * @param block the block.
+     * @return {@code true} if the block is reachable.
+     */
+    public boolean isReachable(BasicBlock block) {
+        return order.containsKey(block);
+    }
+
+    /**
+     * Gets the immediate dominator of the given block.
+     *
+     * @param block a reachable block.
+     * @return the immediate dominator of the block, or {@code null} for the entry block.
+     */
+    public BasicBlock getImmediateDominator(BasicBlock block) {
+        int position = order.get(block);
+
+        return position == 0 ? null : blocks.get(immediateDominators[position]);
+    }
+
+    /**
+     * Checks whether the first block dominates the second, every block dominates itself.
+     *
+     * @param dominator the possible dominator.
+     * @param block     the possibly dominated block.
+     * @return {@code true} if the first block dominates the second.
+     */
+    public boolean dominates(BasicBlock dominator, BasicBlock block) {
+        int target = order.get(dominator);
+        int position = order.get(block);
+
+        // a dominator always precedes the blocks it dominates in reverse post-order.
+        while (position > target) {
+            position = immediateDominators[position];
+        }
+
+        return position == target;
+    }
+
+    /**
+     * Gets the blocks immediately dominated by the given block, its children in the dominator tree.
+     *
+     * @param block a reachable block.
+     * @return the blocks immediately dominated by the given block.
+     */
+    public List<BasicBlock> getChildren(BasicBlock block) {
+        return Collections.unmodifiableList(children.get(order.get(block)));
+    }
+
+    /**
+     * Gets the dominance frontier of the given block, the blocks where its dominance ends. That is each block that
+     * has a predecessor dominated by the given block, but is not strictly dominated by it.
+     *
+     * @param block a reachable block.
+     * @return the dominance frontier of the block.
+     */
+    public Set<BasicBlock> getFrontier(BasicBlock block) {
+        return Collections.unmodifiableSet(frontiers.get(order.get(block)));
+    }
+
+}
@@ -0,0 +1,532 @@
+package uk.ac.tees.ir.analysis;
+
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.instruction.BinaryOperation;
+import uk.ac.tees.ir.instruction.Branch;
+import uk.ac.tees.ir.instruction.Copy;
+import uk.ac.tees.ir.instruction.Instruction;
+import uk.ac.tees.ir.instruction.Jump;
+import uk.ac.tees.ir.instruction.Terminator;
+import uk.ac.tees.ir.operand.Constant;
+import uk.ac.tees.ir.operand.Location;
+import uk.ac.tees.ir.operand.Operand;
+import uk.ac.tees.ir.operand.Variable;
+import uk.ac.tees.syntax.grammar.expression.ConstantArithmetic;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The basic induction variables of the loops of a {@link ControlFlowGraph}, and the loops among them that are counted
+ * by one.
+ * <p>
+ * A basic induction variable of a loop is a variable or temporary that is assigned exactly once in the loop, by adding
+ * a constant to or subtracting a constant from itself, such as {@code LET N = N - 1}. Its stride is the amount it
+ * changes by on each iteration.
+ * <p>
+ * A loop is counted if it is an innermost loop, left only by jumps and branches, that has a single exit: a branch on a
+ * comparison of one of its induction variables with a constant or a location not assigned in the loop, such as
+ * {@code IF N > 0 THEN GOTO 40}. The branch must be in the same block as the assignment of the induction variable, and
+ * that block must be passed through on every iteration, so the variable is compared exactly once after each time it
+ * changes. Loops containing a GOSUB or RETURN are never counted, since the subroutine may assign any variable.
+ * <p>
+ * The trip count of a counted loop, the number of times its body is executed each time it is entered, is known if its
+ * bound is a constant and the value of its induction variable on entry is known. That is the case if a constant is
+ * assigned to it on the single path into the loop, or if no value is assigned to a variable before the loop at all,
+ * since variables are then 0. A trip count is only given if the induction variable reaches its final value without
+ * overflowing, so its comparisons may be made from the flags set by the arithmetic that changes it.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class InductionVariables {
+
+    /**
+     * A basic induction variable of a loop.
+     */
+    public static final class InductionVariable {
+
+        private final Location location;
+
+        private final long stride;
+
+        /**
+         * The instruction that adds the stride to the variable.
+         */
+        private final BinaryOperation update;
+
+        /**
+         * The block containing the update.
+         */
+        private final BasicBlock block;
+
+        private InductionVariable(Location location, long stride, BinaryOperation update, BasicBlock block) {
+            this.location = location;
+            this.stride = stride;
+            this.update = update;
+            this.block = block;
+        }
+
+        public Location getLocation() {
+            return location;
+        }
+
+        public long getStride() {
+            return stride;
+        }
+
+        public BinaryOperation getUpdate() {
+            return update;
+        }
+
+        public BasicBlock getBlock() {
+            return block;
+        }
+
+        @Override
+        public String toString() {
+            return location + " stride " + stride;
+        }
+
+    }
+
+    /**
+     * A loop whose iterations are counted by an induction variable.
+     */
+    public static final class CountedLoop {
+
+        private final Loops.Loop loop;
+
+        private final InductionVariable variable;
+
+        /**
+         * The branch that leaves the loop.
+         */
+        private final Branch test;
+
+        /**
+         * The comparison of the induction variable, on the left, with the bound, under which the loop continues.
+         */
+        private final RelationalOperator condition;
+
+        private final Operand bound;
+
+        private final Long initialValue;
+
+        private final Long tripCount;
+
+        private CountedLoop(Loops.Loop loop, InductionVariable variable, Branch test, RelationalOperator condition,
+                            Operand bound, Long initialValue, Long tripCount) {
+            this.loop = loop;
+            this.variable = variable;
+            this.test = test;
+            this.condition = condition;
+            this.bound = bound;
+            this.initialValue = initialValue;
+            this.tripCount = tripCount;
+        }
+
+        public Loops.Loop getLoop() {
+            return loop;
+        }
+
+        public InductionVariable getVariable() {
+            return variable;
+        }
+
+        public Branch getTest() {
+            return test;
+        }
+
+        /**
+         * Gets the comparison under which the loop continues, with the induction variable as its left operand.
+         *
+         * @return the continuing condition.
+         */
+        public RelationalOperator getCondition() {
+            return condition;
+        }
+
+        public Operand getBound() {
+            return bound;
+        }
+
+        /**
+         * Gets the value of the induction variable on entry to the loop.
+         *
+         * @return the initial value, or {@code null} if it is not known.
+         */
+        public Long getInitialValue() {
+            return initialValue;
+        }
+
+        /**
+         * Gets the number of times the body of the loop is executed each time it is entered.
+         *
+         * @return the trip count, or {@code null} if it is not known.
+         */
+        public Long getTripCount() {
+            return tripCount;
+        }
+
+        /**
+         * Denotes whether the induction variable is known never to overflow within the loop, so that comparing its
+         * new value with 0 gives the same result as the sign and zero flags set by the arithmetic that changes it.
+         *
+         * @return {@code true} if the trip count is known.
+         */
+        public boolean isOverflowFree() {
+            return tripCount != null;
+        }
+
+        @Override
+        public String toString() {
+            return loop.getHeader().getLabel() + ": " + variable.getLocation() + " " + condition.getSymbol() + " "
+                    + bound + " stride " + variable.getStride()
+                    + (tripCount == null ? "" : ", " + tripCount + " iterations");
+        }
+
+    }
+
+    /**
+     * The basic induction variables of each loop, innermost first.
+     */
+    private final Map<Loops.Loop, List<InductionVariable>> inductionVariables = new LinkedHashMap<>();
+
+    /**
+     * The counted loops, by the branch that leaves them.
+     */
+    private final Map<Branch, CountedLoop> countedLoops = new IdentityHashMap<>();
+
+    public InductionVariables(ControlFlowGraph graph) {
+        Dominators dominators = new Dominators(graph);
+        List<Loops.Loop> loops = new Loops(graph, dominators).getLoops();
+
+        for (Loops.Loop loop : loops) {
+            List<InductionVariable> variables = find(loop);
+            inductionVariables.put(loop, variables);
+
+            CountedLoop counted = count(graph, dominators, loops, loop, variables);
+
+            if (counted != null) {
+                countedLoops.put(counted.test, counted);
+            }
+        }
+    }
+
+    /**
+     * Finds the basic induction variables of the given loop.
+     */
+    private static List<InductionVariable> find(Loops.Loop loop) {
+        Map<Location, Integer> definitions = new HashMap<>();
+        Map<Location, InductionVariable> candidates = new LinkedHashMap<>();
+
+        for (BasicBlock block : loop.getBody()) {
+            for (Instruction instruction : block.getInstructions()) {
+                Location destination = instruction.getDefinition();
+
+                if (destination == null) {
+                    continue;
+                }
+
+                definitions.merge(destination, 1, Integer::sum);
+                Long stride = instruction instanceof BinaryOperation ? stride((BinaryOperation) instruction) : null;
+
+                if (stride != null) {
+                    candidates.put(destination,
+                            new InductionVariable(destination, stride, (BinaryOperation) instruction, block));
+                }
+            }
+        }
+
+        // a variable assigned anywhere else in the loop does not change by the same amount on every iteration.
+        return candidates.values().stream()
+                .filter(variable -> definitions.get(variable.location) == 1)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the amount the given operation adds to the location it assigns.
+     *
+     * @return the stride, or {@code null} if the operation is not of the form {@code V = V + c}, {@code V = c + V} or
+     * {@code V = V - c}.
+     */
+    private static Long stride(BinaryOperation operation) {
+        Location destination = operation.getDefinition();
+        Operand left = operation.getLeft();
+        Operand right = operation.getRight();
+
+        if (operation.getOperator() == ArithmeticOperator.ADD) {
+            if (left.equals(destination) && right instanceof Constant) {
+                return ((Constant) right).getValue();
+            }
+
+            if (right.equals(destination) && left instanceof Constant) {
+                return ((Constant) left).getValue();
+            }
+
+        } else if (operation.getOperator() == ArithmeticOperator.SUB
+                && left.equals(destination) && right instanceof Constant) {
+            return -((Constant) right).getValue();
+        }
+
+        return null;
+    }
+
+    /**
+     * Recognises the given loop as a counted loop.
+     *
+     * @return the counted loop, or {@code null} if the loop is not counted by one of the given induction variables.
+     */
+    private static CountedLoop count(ControlFlowGraph graph, Dominators dominators, List<Loops.Loop> loops,
+                                     Loops.Loop loop, List<InductionVariable> variables) {
+        for (Loops.Loop other : loops) {
+            if (other != loop && loop.contains(other.getHeader())) {
+                return null;
+            }
+        }
+
+        BasicBlock exit = null;
+
+        for (BasicBlock block : loop.getBody()) {
+            Terminator terminator = block.getTerminator();
+
+            if (!(terminator instanceof Jump) && !(terminator instanceof Branch)) {
+                return null;
+            }
+
+            for (BasicBlock target : terminator.getTargets()) {
+                if (!loop.contains(target)) {
+                    if (exit != null && exit != block) {
+                        return null;
+                    }
+
+                    exit = block;
+                }
+            }
+        }
+
+        if (exit == null || !(exit.getTerminator() instanceof Branch)) {
+            return null;
+        }
+
+        for (BasicBlock latch : loop.getLatches()) {
+            if (!dominators.dominates(exit, latch)) {
+                return null;
+            }
+        }
+
+        Branch test = (Branch) exit.getTerminator();
+
+        for (InductionVariable variable : variables) {
+            if (variable.block != exit || variable.stride == 0) {
+                continue;
+            }
+
+            RelationalOperator condition;
+            Operand bound;
+
+            if (test.getLeft().equals(variable.location)) {
+                condition = test.getOperator();
+                bound = test.getRight();
+
+            } else if (test.getRight().equals(variable.location)) {
+                condition = test.getOperator().reverse();
+                bound = test.getLeft();
+
+            } else {
+                continue;
+            }
+
+            if (bound instanceof Location && isAssigned(loop, (Location) bound)) {
+                continue;
+            }
+
+            // the loop continues on whichever branch stays in it.
+            if (!loop.contains(test.getTrueTarget())) {
+                condition = condition.negate();
+            }
+
+            Long initialValue = initialValue(graph, loop, variable.location);
+            Long tripCount = initialValue != null && bound instanceof Constant
+                    ? tripCount(condition, initialValue, variable.stride, ((Constant) bound).getValue())
+                    : null;
+
+            return new CountedLoop(loop, variable, test, condition, bound, initialValue, tripCount);
+        }
+
+        return null;
+    }
+
+    private static boolean isAssigned(Loops.Loop loop, Location location) {
+        for (BasicBlock block : loop.getBody()) {
+            for (Instruction instruction : block.getInstructions()) {
+                if (location.equals(instruction.getDefinition())) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Finds the value of the given location on entry to the given loop, by walking back along the single path into it.
+     *
+     * @return the value, or {@code null} if it is not known.
+     */
+    private static Long initialValue(ControlFlowGraph graph, Loops.Loop loop, Location location) {
+        List<BasicBlock> entries = loop.getEntries();
+
+        if (entries.size() != 1) {
+            return null;
+        }
+
+        BasicBlock block = entries.get(0);
+        Set<BasicBlock> visited = new HashSet<>();
+
+        // a path that passes through a subroutine may assign anything, so only jumps and branches are followed.
+        while (visited.add(block)
+                && (block.getTerminator() instanceof Jump || block.getTerminator() instanceof Branch)) {
+            List<Instruction> instructions = block.getInstructions();
+
+            for (int i = instructions.size() - 1; i >= 0; i--) {
+                Instruction instruction = instructions.get(i);
+
+                if (location.equals(instruction.getDefinition())) {
+                    return instruction instanceof Copy && ((Copy) instruction).getSource() instanceof Constant
+                            ? ((Constant) ((Copy) instruction).getSource()).getValue()
+                            : null;
+                }
+            }
+
+            if (block == graph.getEntry() && block.getPredecessors().isEmpty()) {
+                return location instanceof Variable ? 0L : null;
+            }
+
+            if (block.getPredecessors().size() != 1) {
+                return null;
+            }
+
+            block = block.getPredecessors().get(0);
+        }
+
+        return null;
+    }
+
+    /**
+     * Finds the number of times the body of a loop is executed, if its induction variable starts at the given value,
+     * changes by the given stride before each comparison, and the loop continues while the given comparison with the
+     * given bound holds.
+     *
+     * @return the trip count, or {@code null} if the loop would not end before the variable overflows.
+     */
+    static Long tripCount(RelationalOperator condition, long initial, long stride, long bound) {
+        try {
+            long first = Math.addExact(initial, stride);
+            long trips;
+
+            if (!ConstantArithmetic.compare(condition, first, bound)) {
+                return 1L;
+            }
+
+            switch (condition) {
+                case LESS:
+                    trips = stride > 0 ? ceilDiv(Math.subtractExact(bound, initial), stride) : -1;
+                    break;
+
+                case LESS_EQUAL:
+                    trips = stride > 0
+                            ? Math.addExact(Math.floorDiv(Math.subtractExact(bound, initial), stride), 1)
+                            : -1;
+                    break;
+
+                case GREATER:
+                    trips = stride < 0 ? ceilDiv(Math.subtractExact(initial, bound), -stride) : -1;
+                    break;
+
+                case GREATER_EQUAL:
+                    trips = stride < 0
+                            ? Math.addExact(Math.floorDiv(Math.subtractExact(initial, bound), -stride), 1)
+                            : -1;
+                    break;
+
+                case NOT_EQUAL:
+                    long distance = Math.subtractExact(bound, initial);
+                    trips = distance % stride == 0 && distance / stride > 0 ? distance / stride : -1;
+                    break;
+
+                default:
+                    // the variable is equal to the bound after one step, so differs from it after the next.
+                    trips = 2;
+                    break;
+            }
+
+            if (trips < 0) {
+                return null;
+            }
+
+            // the variable only changes in one direction, so its last value is the furthest from the initial value.
+            Math.addExact(initial, Math.multiplyExact(trips, stride));
+            return trips;
+
+        } catch (ArithmeticException exception) {
+            return null;
+        }
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    /**
+     * Gets the basic induction variables of each loop.
+     *
+     * @return the induction variables of each loop, innermost first.
+     */
+    public Map<Loops.Loop, List<InductionVariable>> getInductionVariables() {
+        return Collections.unmodifiableMap(inductionVariables);
+    }
+
+    /**
+     * Gets the counted loops.
+     *
+     * @return the counted loops, innermost first.
+     */
+    public List<CountedLoop> getCountedLoops() {
+        List<CountedLoop> loops = new ArrayList<>();
+
+        for (Loops.Loop loop : inductionVariables.keySet()) {
+            countedLoops.values().stream().filter(counted -> counted.loop == loop).forEach(loops::add);
+        }
+
+        return loops;
+    }
+
+    /**
+     * Gets the counted loop that the given terminator leaves.
+     *
+     * @param terminator the terminator.
+     * @return the counted loop, or {@code null} if the terminator is not the exit test of a counted loop.
+     */
+    public CountedLoop getCountedLoop(Terminator terminator) {
+        return countedLoops.get(terminator);
+    }
+
+    @Override
+    public String toString() {
+        return "Induction variables: " + countedLoops.size() + " counted loops of " + inductionVariables.size() + " "
+                + getCountedLoops();
+    }
+
+}
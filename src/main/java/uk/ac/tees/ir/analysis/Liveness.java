@@ -0,0 +1,165 @@
+package uk.ac.tees.ir.analysis;
+
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.instruction.Instruction;
+import uk.ac.tees.ir.operand.Location;
+import uk.ac.tees.ir.operand.Operand;
+import uk.ac.tees.ir.operand.Temporary;
+import uk.ac.tees.ir.operand.Variable;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The locations live at the start and end of each block of a {@link ControlFlowGraph}, that is those whose current
+ * value may be read before it is next assigned.
+ * <p>
+ * Sets of locations are held as bit sets, indexed by {@link #indexOf(Location)}, with variable 'A' at 0 and each
+ * temporary after the variables. Liveness is computed by backward dataflow, iterating over the blocks in post-order
+ * until the sets no longer change. The successors of a block that returns from a subroutine are the continuations of
+ * every call, as they are in the graph, so variables read after any call are live at the end of every subroutine.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class Liveness {
+
+    /**
+     * The locations live at the start of each block.
+     */
+    private final Map<BasicBlock, BitSet> liveIn = new HashMap<>();
+
+    /**
+     * The locations live at the end of each block.
+     */
+    private final Map<BasicBlock, BitSet> liveOut = new HashMap<>();
+
+    /**
+     * The number of times the blocks were iterated over until the sets no longer changed.
+     */
+    private int iterations;
+
+    public Liveness(ControlFlowGraph graph) {
+        List<BasicBlock> blocks = graph.getBlocks();
+
+        Map<BasicBlock, BitSet> uses = new HashMap<>();
+        Map<BasicBlock, BitSet> definitions = new HashMap<>();
+
+        for (BasicBlock block : blocks) {
+            BitSet used = new BitSet();
+            BitSet defined = new BitSet();
+
+            for (Instruction instruction : block.getInstructions()) {
+                addUses(instruction, used, defined);
+
+                if (instruction.getDefinition() != null) {
+                    defined.set(indexOf(instruction.getDefinition()));
+                }
+            }
+
+            addUses(block.getTerminator(), used, defined);
+
+            uses.put(block, used);
+            definitions.put(block, defined);
+            liveIn.put(block, new BitSet());
+            liveOut.put(block, new BitSet());
+        }
+
+        boolean changed;
+
+        do {
+            changed = false;
+            iterations++;
+
+            // later blocks are mostly successors, so visiting them first propagates liveness in fewer iterations.
+            for (int i = blocks.size() - 1; i >= 0; i--) {
+                BasicBlock block = blocks.get(i);
+                BitSet out = liveOut.get(block);
+
+                for (BasicBlock successor : block.getSuccessors()) {
+                    out.or(liveIn.get(successor));
+                }
+
+                BitSet in = (BitSet) out.clone();
+                in.andNot(definitions.get(block));
+                in.or(uses.get(block));
+
+                if (!in.equals(liveIn.get(block))) {
+                    liveIn.put(block, in);
+                    changed = true;
+                }
+            }
+        } while (changed);
+    }
+
+    /**
+     * Adds the locations read by the given instruction, that are not already defined in the block, to the given set.
+     */
+    private static void addUses(Instruction instruction, BitSet used, BitSet defined) {
+        for (Operand operand : instruction.getUses()) {
+            if (operand instanceof Location && !defined.get(indexOf((Location) operand))) {
+                used.set(indexOf((Location) operand));
+            }
+        }
+    }
+
+    /**
+     * Gets the index of the given location in the sets of live locations.
+     *
+     * @param location the variable or temporary.
+     * @return the index of the location.
+     */
+    public static int indexOf(Location location) {
+        return location instanceof Variable
+                ? ((Variable) location).index()
+                : Variable.COUNT + ((Temporary) location).getId();
+    }
+
+    /**
+     * Gets the location at the given index in the sets of live locations.
+     *
+     * @param index the index of the location.
+     * @return the variable or temporary.
+     */
+    public static Location locationAt(int index) {
+        return index < Variable.COUNT ? Variable.at(index) : new Temporary(index - Variable.COUNT);
+    }
+
+    /**
+     * Gets the locations live at the start of the given block.
+     *
+     * @param block the block.
+     * @return a copy of the set of live locations, by index.
+     */
+    public BitSet getLiveIn(BasicBlock block) {
+        return (BitSet) liveIn.get(block).clone();
+    }
+
+    /**
+     * Gets the locations live at the end of the given block.
+     *
+     * @param block the block.
+     * @return a copy of the set of live locations, by index.
+     */
+    public BitSet getLiveOut(BasicBlock block) {
+        return (BitSet) liveOut.get(block).clone();
+    }
+
+    /**
+     * Denotes whether the given location is live at the end of the given block.
+     *
+     * @param block    the block.
+     * @param location the location.
+     * @return {@code true} if the value of the location may be read after the block.
+     */
+    public boolean isLiveOut(BasicBlock block, Location location) {
+        return liveOut.get(block).get(indexOf(location));
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+}
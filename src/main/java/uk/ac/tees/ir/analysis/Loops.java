@@ -0,0 +1,192 @@
+package uk.ac.tees.ir.analysis;
+
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.ControlFlowGraph;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The natural loops of a {@link ControlFlowGraph}, found from its back edges. An edge is a back edge if its target,
+ * the header of the loop, dominates its source, the latch. The body of the loop is the header and every block that can
+ * reach a latch without passing through the header, so every block of a loop is dominated by its header and control
+ * can only enter the loop at its header.
+ * <p>
+ * Loops with the same header are merged into one, so in a program such as {@code 20 IF I < N THEN GOTO 50 ... 60 GOTO
+ * 20} with several GOTOs back to line 20 there is a single loop. Loops are ordered innermost first, by the size of
+ * their bodies, so that a loop nested in another is always before it.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class Loops {
+
+    /**
+     * A natural loop.
+     */
+    public static final class Loop {
+
+        private final BasicBlock header;
+
+        /**
+         * The blocks of this loop, in layout order, including the header.
+         */
+        private final Set<BasicBlock> body;
+
+        /**
+         * The blocks with an edge back to the header.
+         */
+        private final List<BasicBlock> latches;
+
+        private Loop(BasicBlock header, Set<BasicBlock> body, List<BasicBlock> latches) {
+            this.header = header;
+            this.body = body;
+            this.latches = latches;
+        }
+
+        public BasicBlock getHeader() {
+            return header;
+        }
+
+        /**
+         * Gets the blocks of this loop, including the header, in the order they are laid out.
+         *
+         * @return the blocks of this loop.
+         */
+        public Set<BasicBlock> getBody() {
+            return Collections.unmodifiableSet(body);
+        }
+
+        public List<BasicBlock> getLatches() {
+            return Collections.unmodifiableList(latches);
+        }
+
+        /**
+         * Denotes whether the given block is part of this loop.
+         *
+         * @param block the block.
+         * @return {@code true} if the block is in the body of this loop.
+         */
+        public boolean contains(BasicBlock block) {
+            return body.contains(block);
+        }
+
+        /**
+         * Adds a block to this loop, such as a preheader inserted for a loop nested within it, after the blocks
+         * already in the loop.
+         *
+         * @param block the block to add.
+         */
+        public void add(BasicBlock block) {
+            body.add(block);
+        }
+
+        /**
+         * Gets the predecessors of the header that are outside this loop, through which control enters the loop.
+         *
+         * @return the entering blocks.
+         */
+        public List<BasicBlock> getEntries() {
+            List<BasicBlock> entries = new ArrayList<>();
+
+            for (BasicBlock predecessor : header.getPredecessors()) {
+                if (!body.contains(predecessor)) {
+                    entries.add(predecessor);
+                }
+            }
+
+            return entries;
+        }
+
+        @Override
+        public String toString() {
+            return "loop " + header + " " + body;
+        }
+
+    }
+
+    /**
+     * The loops, innermost first.
+     */
+    private final List<Loop> loops = new ArrayList<>();
+
+    public Loops(ControlFlowGraph graph) {
+        this(graph, new Dominators(graph));
+    }
+
+    public Loops(ControlFlowGraph graph, Dominators dominators) {
+        Map<BasicBlock, List<BasicBlock>> latches = new LinkedHashMap<>();
+
+        for (BasicBlock block : dominators.getBlocks()) {
+            for (BasicBlock successor : block.getSuccessors()) {
+                if (dominators.dominates(successor, block)) {
+                    latches.computeIfAbsent(successor, header -> new ArrayList<>()).add(block);
+                }
+            }
+        }
+
+        Map<BasicBlock, Integer> layout = new LinkedHashMap<>();
+
+        for (BasicBlock block : graph.getBlocks()) {
+            layout.put(block, layout.size());
+        }
+
+        for (Map.Entry<BasicBlock, List<BasicBlock>> entry : latches.entrySet()) {
+            BasicBlock header = entry.getKey();
+            Set<BasicBlock> found = new HashSet<>();
+            Deque<BasicBlock> worklist = new ArrayDeque<>();
+
+            found.add(header);
+
+            for (BasicBlock latch : entry.getValue()) {
+                if (found.add(latch)) {
+                    worklist.push(latch);
+                }
+            }
+
+            // walks backwards from the latches, the header stops the walk since it is already found.
+            while (!worklist.isEmpty()) {
+                for (BasicBlock predecessor : worklist.pop().getPredecessors()) {
+                    if (dominators.isReachable(predecessor) && found.add(predecessor)) {
+                        worklist.push(predecessor);
+                    }
+                }
+            }
+
+            List<BasicBlock> ordered = new ArrayList<>(found);
+            ordered.sort(Comparator.comparingInt(layout::get));
+
+            loops.add(new Loop(header, new LinkedHashSet<>(ordered), entry.getValue()));
+        }
+
+        loops.sort(Comparator.comparingInt(loop -> loop.body.size()));
+    }
+
+    /**
+     * Gets the loops of the graph, innermost first.
+     *
+     * @return the natural loops.
+     */
+    public List<Loop> getLoops() {
+        return Collections.unmodifiableList(loops);
+    }
+
+    /**
+     * Gets the number of loops that contain the given block.
+     *
+     * @param block the block.
+     * @return the loop nesting depth of the block, 0 if it is in no loop.
+     */
+    public int depthOf(BasicBlock block) {
+        return (int) loops.stream().filter(loop -> loop.contains(block)).count();
+    }
+
+}
@@ -0,0 +1,489 @@
+package uk.ac.tees.ir.analysis;
+
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.instruction.Definition;
+import uk.ac.tees.ir.instruction.Input;
+import uk.ac.tees.ir.instruction.Instruction;
+import uk.ac.tees.ir.operand.Location;
+import uk.ac.tees.ir.operand.Operand;
+import uk.ac.tees.ir.operand.Temporary;
+import uk.ac.tees.ir.operand.Variable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The static single assignment form of the reachable blocks of a {@link ControlFlowGraph}, held alongside the graph
+ * rather than as a rewrite of it.
+ * <p>
+ * Each definition of a location, and each phi function, is given a unique name, an integer from 0. Each use of a
+ * location is resolved to the name of the single definition that reaches it. Where different definitions of a
+ * variable reach a block along different edges, a {@link Phi} merges them at the start of that block. Phis are placed
+ * at the iterated dominance frontier of the blocks that define each of the 26 variables, as described by Cytron et
+ * al. in "Efficiently Computing Static Single Assignment Form and the Control Dependence Graph".
+ * <p>
+ * Names 0 to 25 are the entry names of the variables A to Z, the values they hold when the program starts, which are
+ * unknown. Temporaries are assigned once by construction, so are given a single name and never merged.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class SsaForm {
+
+    /**
+     * Merges the names of a variable that reach a block along each of its incoming edges.
+     */
+    public static final class Phi {
+
+        private final Variable variable;
+
+        /**
+         * The name defined by this phi, given when its block is renamed.
+         */
+        private int name = NO_NAME;
+
+        private final BasicBlock block;
+
+        /**
+         * The reachable predecessors of the block, the first being {@code null} for the entry block, denoting the
+         * start of the program.
+         */
+        private final List<BasicBlock> predecessors;
+
+        /**
+         * The name of the variable reaching the block from each predecessor, at the position of that predecessor.
+         */
+        private final int[] operands;
+
+        private Phi(Variable variable, BasicBlock block, List<BasicBlock> predecessors) {
+            this.variable = variable;
+            this.block = block;
+            this.predecessors = predecessors;
+            this.operands = new int[predecessors.size()];
+        }
+
+        public Variable getVariable() {
+            return variable;
+        }
+
+        /**
+         * Gets the name defined by this phi.
+         *
+         * @return the name defined by this phi.
+         */
+        public int getName() {
+            return name;
+        }
+
+        public BasicBlock getBlock() {
+            return block;
+        }
+
+        public List<BasicBlock> getPredecessors() {
+            return Collections.unmodifiableList(predecessors);
+        }
+
+        /**
+         * Gets the name of the variable that reaches this phi along the edge from the predecessor at the given
+         * position.
+         *
+         * @param position the position of the predecessor in {@link #getPredecessors()}.
+         * @return the name reaching this phi from the predecessor.
+         */
+        public int getOperand(int position) {
+            return operands[position];
+        }
+
+    }
+
+    /**
+     * Denotes that an operand is a constant, so is not named.
+     */
+    public static final int NO_NAME = -1;
+
+    private final Dominators dominators;
+
+    /**
+     * The phis at the start of each block that has any.
+     */
+    private final Map<BasicBlock, List<Phi>> phis = new HashMap<>();
+
+    /**
+     * The names of the operands used by each instruction, including terminators, at the position of each operand.
+     */
+    private final Map<Instruction, int[]> uses = new IdentityHashMap<>();
+
+    /**
+     * The name defined by each instruction that defines a location.
+     */
+    private final Map<Instruction, Integer> definitions = new IdentityHashMap<>();
+
+    /**
+     * The name of each temporary.
+     */
+    private final Map<Temporary, Integer> temporaries = new HashMap<>();
+
+    /**
+     * The readable form of each name, such as {@code A2} or {@code t4}.
+     */
+    private final List<String> names = new ArrayList<>();
+
+    /**
+     * The number of names given to each variable so far, used to number the next.
+     */
+    private final int[] versions = new int[Variable.COUNT];
+
+    /**
+     * The names of each variable that reach the point currently being renamed, the top being the current name.
+     */
+    private final List<Deque<Integer>> reaching = new ArrayList<>(Variable.COUNT);
+
+    /**
+     * Constructs the static single assignment form of the given graph, whose edges must be up to date.
+     *
+     * @param graph the control flow graph.
+     */
+    public SsaForm(ControlFlowGraph graph) {
+        this.dominators = new Dominators(graph);
+
+        for (int i = 0; i < Variable.COUNT; i++) {
+            Deque<Integer> stack = new ArrayDeque<>();
+            stack.push(newName(Variable.at(i)));
+            reaching.add(stack);
+        }
+
+        placePhis();
+        rename();
+    }
+
+    /**
+     * Places a phi for each variable at each block in the iterated dominance frontier of the blocks that define it.
+     * The entry block defines every variable, with its entry name, so a phi at the entry block merges the entry name
+     * from the start of the program with the names reaching it along its back edges.
+     */
+    private void placePhis() {
+        List<Set<BasicBlock>> definingBlocks = new ArrayList<>(Variable.COUNT);
+
+        for (int i = 0; i < Variable.COUNT; i++) {
+            definingBlocks.add(new LinkedHashSet<>());
+        }
+
+        for (BasicBlock block : dominators.getBlocks()) {
+            for (Instruction instruction : block.getInstructions()) {
+                if (instruction.getDefinition() instanceof Variable) {
+                    definingBlocks.get(((Variable) instruction.getDefinition()).index()).add(block);
+                }
+            }
+        }
+
+        for (int i = 0; i < Variable.COUNT; i++) {
+            Variable variable = Variable.at(i);
+            Set<BasicBlock> hasPhi = new HashSet<>();
+            Deque<BasicBlock> worklist = new ArrayDeque<>(definingBlocks.get(i));
+
+            while (!worklist.isEmpty()) {
+                for (BasicBlock frontier : dominators.getFrontier(worklist.pop())) {
+                    if (!hasPhi.add(frontier)) {
+                        continue;
+                    }
+
+                    List<BasicBlock> predecessors = new ArrayList<>();
+                    boolean entry = frontier == dominators.getBlocks().get(0);
+
+                    if (entry) {
+                        predecessors.add(null);
+                    }
+
+                    for (BasicBlock predecessor : frontier.getPredecessors()) {
+                        if (dominators.isReachable(predecessor)) {
+                            predecessors.add(predecessor);
+                        }
+                    }
+
+                    Phi phi = new Phi(variable, frontier, predecessors);
+
+                    if (entry) {
+                        phi.operands[0] = variable.index();
+                    }
+
+                    phis.computeIfAbsent(frontier, b -> new ArrayList<>()).add(phi);
+
+                    if (definingBlocks.get(i).add(frontier)) {
+                        worklist.push(frontier);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Renames each definition and use, walking the dominator tree depth-first so that the current name of each
+     * variable is that of the definition that dominates the point being renamed. The walk is iterative, since the
+     * dominator tree of a long program without branches is as deep as it has blocks.
+     */
+    private void rename() {
+        Deque<BasicBlock> stack = new ArrayDeque<>();
+        Deque<int[]> pushed = new ArrayDeque<>();
+        Set<BasicBlock> entered = new HashSet<>();
+
+        stack.push(dominators.getBlocks().get(0));
+
+        while (!stack.isEmpty()) {
+            BasicBlock block = stack.peek();
+
+            if (entered.add(block)) {
+                pushed.push(renameBlock(block));
+
+                List<BasicBlock> children = dominators.getChildren(block);
+
+                for (int i = children.size() - 1; i >= 0; i--) {
+                    stack.push(children.get(i));
+                }
+
+                continue;
+            }
+
+            stack.pop();
+
+            // restore the names that reached the start of the block, once all it dominates are renamed.
+            int[] counts = pushed.pop();
+
+            for (int i = 0; i < Variable.COUNT; i++) {
+                for (int j = 0; j < counts[i]; j++) {
+                    reaching.get(i).pop();
+                }
+            }
+        }
+    }
+
+    /**
+     * Renames the phis and instructions of the given block, and the operands of the phis of its successors that
+     * correspond to the edge from it.
+     *
+     * @return the number of names pushed for each variable.
+     */
+    private int[] renameBlock(BasicBlock block) {
+        int[] counts = new int[Variable.COUNT];
+
+        for (Phi phi : phis.getOrDefault(block, List.of())) {
+            phi.name = newName(phi.variable);
+            define(phi.variable, phi.name, counts);
+        }
+
+        for (Instruction instruction : block.getInstructions()) {
+            renameUses(instruction);
+
+            Location definition = instruction.getDefinition();
+
+            if (definition instanceof Variable) {
+                int name = newName(definition);
+
+                definitions.put(instruction, name);
+                define((Variable) definition, name, counts);
+
+            } else if (definition instanceof Temporary) {
+                int name = temporaries.computeIfAbsent((Temporary) definition, this::newName);
+                definitions.put(instruction, name);
+            }
+        }
+
+        renameUses(block.getTerminator());
+
+        for (BasicBlock successor : block.getSuccessors()) {
+            for (Phi phi : phis.getOrDefault(successor, List.of())) {
+                phi.operands[phi.predecessors.indexOf(block)] = reaching.get(phi.variable.index()).peek();
+            }
+        }
+
+        return counts;
+    }
+
+    private void define(Variable variable, int name, int[] counts) {
+        reaching.get(variable.index()).push(name);
+        counts[variable.index()]++;
+    }
+
+    private void renameUses(Instruction instruction) {
+        List<Operand> operands = instruction.getUses();
+        int[] operandNames = new int[operands.size()];
+
+        for (int i = 0; i < operands.size(); i++) {
+            Operand operand = operands.get(i);
+
+            if (operand instanceof Variable) {
+                operandNames[i] = reaching.get(((Variable) operand).index()).peek();
+
+            } else if (operand instanceof Temporary) {
+                // a temporary used without a definition holds an unknown value, just as a variable would.
+                operandNames[i] = temporaries.computeIfAbsent((Temporary) operand, this::newName);
+
+            } else {
+                operandNames[i] = NO_NAME;
+            }
+        }
+
+        uses.put(instruction, operandNames);
+    }
+
+    private int newName(Location location) {
+        if (location instanceof Variable) {
+            Variable variable = (Variable) location;
+            names.add(variable.toString() + versions[variable.index()]++);
+
+        } else {
+            names.add(location.toString());
+        }
+
+        return names.size() - 1;
+    }
+
+    public Dominators getDominators() {
+        return dominators;
+    }
+
+    /**
+     * Gets the blocks in static single assignment form, those reachable from the entry block, in reverse post-order.
+     *
+     * @return the reachable blocks.
+     */
+    public List<BasicBlock> getBlocks() {
+        return dominators.getBlocks();
+    }
+
+    /**
+     * Gets the number of names, every name being less than this.
+     *
+     * @return the number of names.
+     */
+    public int getNameCount() {
+        return names.size();
+    }
+
+    /**
+     * Gets the readable form of the given name.
+     *
+     * @param name the name.
+     * @return the readable form, the variable followed by its version, or the temporary.
+     */
+    public String getName(int name) {
+        return names.get(name);
+    }
+
+    /**
+     * Gets the phis at the start of the given block.
+     *
+     * @param block a reachable block.
+     * @return the phis of the block, which may be empty.
+     */
+    public List<Phi> getPhis(BasicBlock block) {
+        return Collections.unmodifiableList(phis.getOrDefault(block, List.of()));
+    }
+
+    /**
+     * Gets the names of the operands used by the given instruction.
+     *
+     * @param instruction an instruction or terminator of a reachable block.
+     * @return the name of each operand, at the position of that operand, or {@link #NO_NAME} for constants.
+     */
+    public int[] getUses(Instruction instruction) {
+        return uses.get(instruction);
+    }
+
+    /**
+     * Gets the name defined by the given instruction.
+     *
+     * @param instruction an instruction of a reachable block.
+     * @return the name defined by the instruction, or {@link #NO_NAME} if it defines no location.
+     */
+    public int getDefinition(Instruction instruction) {
+        return definitions.getOrDefault(instruction, NO_NAME);
+    }
+
+    /**
+     * Produces a textual dump of the reachable blocks, with their phis, each location being replaced by its name.
+     *
+     * @return a textual representation of this static single assignment form.
+     */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+
+        for (BasicBlock block : getBlocks()) {
+            builder.append(block.getLabel()).append(":\n");
+
+            for (Phi phi : getPhis(block)) {
+                builder.append("    ").append(getName(phi.name)).append(" = phi(");
+
+                for (int i = 0; i < phi.operands.length; i++) {
+                    builder.append(i == 0 ? "" : ", ")
+                            .append(phi.predecessors.get(i) == null ? "start" : phi.predecessors.get(i).getLabel())
+                            .append(": ")
+                            .append(getName(phi.operands[i]));
+                }
+
+                builder.append(")\n");
+            }
+
+            for (Instruction instruction : block.getInstructions()) {
+                builder.append("    ").append(renamed(instruction)).append('\n');
+            }
+
+            builder.append("    ").append(renamed(block.getTerminator())).append('\n');
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Renders the given instruction with each location replaced by its name.
+     */
+    private String renamed(Instruction instruction) {
+        int[] operandNames = uses.get(instruction);
+        int[] position = {0};
+
+        Instruction mapped = instruction.mapUses(operand -> {
+            int name = operandNames[position[0]++];
+
+            return name == NO_NAME ? operand : new Name(getName(name));
+        });
+
+        int definition = getDefinition(instruction);
+
+        if (mapped instanceof Definition) {
+            return ((Definition) mapped).withDefinition(new Name(getName(definition))).toString();
+
+        } else if (mapped instanceof Input) {
+            return "input " + getName(definition);
+        }
+
+        return mapped.toString();
+    }
+
+    /**
+     * A location that is rendered as a name, used only to dump this form.
+     */
+    private static final class Name implements Location {
+
+        private final String name;
+
+        private Name(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+
+    }
+
+}
@@ -0,0 +1,75 @@
+package uk.ac.tees.ir.instruction;
+
+import uk.ac.tees.ir.operand.Location;
+import uk.ac.tees.ir.operand.Operand;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Applies an arithmetic operator to two operands, {@code destination = left operator right}. Arithmetic is on
+ * signed 64-bit integers, division truncates towards zero.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class BinaryOperation extends Definition {
+
+    private final ArithmeticOperator operator;
+
+    private final Operand left;
+
+    private final Operand right;
+
+    public BinaryOperation(Location destination, ArithmeticOperator operator, Operand left, Operand right) {
+        super(destination);
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+    }
+
+    public ArithmeticOperator getOperator() {
+        return operator;
+    }
+
+    public Operand getLeft() {
+        return left;
+    }
+
+    public Operand getRight() {
+        return right;
+    }
+
+    @Override
+    public List<Operand> getUses() {
+        return List.of(left, right);
+    }
+
+    @Override
+    public Instruction mapUses(Function<Operand, Operand> mapping) {
+        Operand mappedLeft = mapping.apply(left);
+        Operand mappedRight = mapping.apply(right);
+
+        if (mappedLeft.equals(left) && mappedRight.equals(right)) {
+            return this;
+        }
+
+        return new BinaryOperation(destination, operator, mappedLeft, mappedRight);
+    }
+
+    @Override
+    public Definition withDefinition(Location destination) {
+        return new BinaryOperation(destination, operator, left, right);
+    }
+
+    @Override
+    public Definition copy() {
+        return new BinaryOperation(destination, operator, left, right);
+    }
+
+    @Override
+    public String toString() {
+        return destination + " = " + left + " " + operator.getSymbol() + " " + right;
+    }
+
+}
@@ -0,0 +1,107 @@
+package uk.ac.tees.ir.instruction;
+
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.operand.Operand;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Transfers control to one of two blocks, depending on a signed comparison of two operands.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class Branch extends Terminator {
+
+    private final RelationalOperator operator;
+
+    private final Operand left;
+
+    private final Operand right;
+
+    /**
+     * The block control is transferred to if the comparison holds.
+     */
+    private final BasicBlock trueTarget;
+
+    /**
+     * The block control is transferred to if the comparison does not hold.
+     */
+    private final BasicBlock falseTarget;
+
+    public Branch(RelationalOperator operator, Operand left, Operand right, BasicBlock trueTarget,
+                  BasicBlock falseTarget) {
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+        this.trueTarget = trueTarget;
+        this.falseTarget = falseTarget;
+    }
+
+    public RelationalOperator getOperator() {
+        return operator;
+    }
+
+    public Operand getLeft() {
+        return left;
+    }
+
+    public Operand getRight() {
+        return right;
+    }
+
+    public BasicBlock getTrueTarget() {
+        return trueTarget;
+    }
+
+    public BasicBlock getFalseTarget() {
+        return falseTarget;
+    }
+
+    @Override
+    public List<BasicBlock> getTargets() {
+        return List.of(trueTarget, falseTarget);
+    }
+
+    @Override
+    public List<Operand> getUses() {
+        return List.of(left, right);
+    }
+
+    @Override
+    public Instruction mapUses(Function<Operand, Operand> mapping) {
+        Operand mappedLeft = mapping.apply(left);
+        Operand mappedRight = mapping.apply(right);
+
+        if (mappedLeft.equals(left) && mappedRight.equals(right)) {
+            return this;
+        }
+
+        return new Branch(operator, mappedLeft, mappedRight, trueTarget, falseTarget);
+    }
+
+    @Override
+    public Terminator retarget(Function<BasicBlock, BasicBlock> mapping) {
+        BasicBlock mappedTrue = mapping.apply(trueTarget);
+        BasicBlock mappedFalse = mapping.apply(falseTarget);
+
+        if (mappedTrue == trueTarget && mappedFalse == falseTarget) {
+            return this;
+        }
+
+        return new Branch(operator, left, right, mappedTrue, mappedFalse);
+    }
+
+    @Override
+    public Terminator copy() {
+        return new Branch(operator, left, right, trueTarget, falseTarget);
+    }
+
+    @Override
+    public String toString() {
+        return "if " + left + " " + operator.getSymbol() + " " + right + " goto " + trueTarget.getLabel()
+                + " else " + falseTarget.getLabel();
+    }
+
+}
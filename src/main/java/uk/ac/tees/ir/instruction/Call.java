@@ -0,0 +1,66 @@
+package uk.ac.tees.ir.instruction;
+
+import uk.ac.tees.ir.BasicBlock;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Transfers control to a subroutine, pushing the return address. A {@link Return} from the subroutine transfers
+ * control to the continuation of the call.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class Call extends Terminator {
+
+    /**
+     * The first block of the subroutine.
+     */
+    private final BasicBlock target;
+
+    /**
+     * The block control returns to, once the subroutine returns.
+     */
+    private final BasicBlock continuation;
+
+    public Call(BasicBlock target, BasicBlock continuation) {
+        this.target = target;
+        this.continuation = continuation;
+    }
+
+    public BasicBlock getTarget() {
+        return target;
+    }
+
+    public BasicBlock getContinuation() {
+        return continuation;
+    }
+
+    @Override
+    public List<BasicBlock> getTargets() {
+        return List.of(target);
+    }
+
+    @Override
+    public Terminator retarget(Function<BasicBlock, BasicBlock> mapping) {
+        BasicBlock mappedTarget = mapping.apply(target);
+        BasicBlock mappedContinuation = mapping.apply(continuation);
+
+        if (mappedTarget == target && mappedContinuation == continuation) {
+            return this;
+        }
+
+        return new Call(mappedTarget, mappedContinuation);
+    }
+
+    @Override
+    public Terminator copy() {
+        return new Call(target, continuation);
+    }
+
+    @Override
+    public String toString() {
+        return "call " + target.getLabel() + " then " + continuation.getLabel();
+    }
+
+}
@@ -0,0 +1,37 @@
+package uk.ac.tees.ir.instruction;
+
+import uk.ac.tees.ir.operand.Location;
+
+/**
+ * An instruction that computes a value, from its operands alone, and assigns it to a location.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public abstract class Definition extends Instruction {
+
+    /**
+     * The location assigned by this instruction.
+     */
+    protected final Location destination;
+
+    protected Definition(Location destination) {
+        this.destination = destination;
+    }
+
+    @Override
+    public final Location getDefinition() {
+        return destination;
+    }
+
+    /**
+     * Creates a copy of this instruction, that assigns the same value to the given location.
+     *
+     * @param destination the location to assign.
+     * @return an instruction assigning to the given location.
+     */
+    public abstract Definition withDefinition(Location destination);
+
+    @Override
+    public abstract Definition copy();
+
+}
@@ -0,0 +1,35 @@
+package uk.ac.tees.ir.instruction;
+
+import uk.ac.tees.ir.BasicBlock;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Ends the program.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class Exit extends Terminator {
+
+    @Override
+    public List<BasicBlock> getTargets() {
+        return List.of();
+    }
+
+    @Override
+    public Terminator retarget(Function<BasicBlock, BasicBlock> mapping) {
+        return this;
+    }
+
+    @Override
+    public Terminator copy() {
+        return new Exit();
+    }
+
+    @Override
+    public String toString() {
+        return "exit";
+    }
+
+}
@@ -0,0 +1,57 @@
+package uk.ac.tees.ir.instruction;
+
+import uk.ac.tees.ir.operand.Location;
+import uk.ac.tees.ir.operand.Operand;
+import uk.ac.tees.ir.operand.Variable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Reads a value from standard input into a variable.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class Input extends Instruction {
+
+    private final Variable variable;
+
+    public Input(Variable variable) {
+        this.variable = variable;
+    }
+
+    public Variable getVariable() {
+        return variable;
+    }
+
+    @Override
+    public Location getDefinition() {
+        return variable;
+    }
+
+    @Override
+    public List<Operand> getUses() {
+        return List.of();
+    }
+
+    @Override
+    public Instruction mapUses(Function<Operand, Operand> mapping) {
+        return this;
+    }
+
+    @Override
+    public boolean hasSideEffects() {
+        return true;
+    }
+
+    @Override
+    public Instruction copy() {
+        return new Input(variable);
+    }
+
+    @Override
+    public String toString() {
+        return "input " + variable;
+    }
+
+}
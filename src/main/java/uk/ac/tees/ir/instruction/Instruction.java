@@ -0,0 +1,59 @@
+package uk.ac.tees.ir.instruction;
+
+import uk.ac.tees.ir.operand.Location;
+import uk.ac.tees.ir.operand.Operand;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A three-address code instruction. Instructions are immutable, a transformation replaces an instruction with a new
+ * instance rather than modifying it.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public abstract class Instruction {
+
+    /**
+     * Gets the location this instruction assigns a value to.
+     *
+     * @return the location defined by this instruction, or {@code null} if it does not define one.
+     */
+    public Location getDefinition() {
+        return null;
+    }
+
+    /**
+     * Gets the operands whose values this instruction reads, in the order they are read.
+     *
+     * @return the operands used by this instruction.
+     */
+    public abstract List<Operand> getUses();
+
+    /**
+     * Creates a copy of this instruction, with each of its used operands replaced by the given mapping.
+     *
+     * @param mapping maps each used operand to its replacement.
+     * @return an instruction with the replaced operands, or this instruction if none were replaced.
+     */
+    public abstract Instruction mapUses(Function<Operand, Operand> mapping);
+
+    /**
+     * Creates a distinct instruction equal to this one, since an instruction may only appear in one place, such as
+     * when the instructions of a subroutine are duplicated where it is called.
+     *
+     * @return a new instance of this instruction.
+     */
+    public abstract Instruction copy();
+
+    /**
+     * Denotes whether this instruction has an effect other than defining its location, such as input or output, and
+     * so must not be removed even if the location it defines is never used.
+     *
+     * @return {@code true} if this instruction has side effects.
+     */
+    public boolean hasSideEffects() {
+        return false;
+    }
+
+}
@@ -0,0 +1,47 @@
+package uk.ac.tees.ir.instruction;
+
+import uk.ac.tees.ir.BasicBlock;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Unconditionally transfers control to a block.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class Jump extends Terminator {
+
+    private final BasicBlock target;
+
+    public Jump(BasicBlock target) {
+        this.target = target;
+    }
+
+    public BasicBlock getTarget() {
+        return target;
+    }
+
+    @Override
+    public List<BasicBlock> getTargets() {
+        return List.of(target);
+    }
+
+    @Override
+    public Terminator retarget(Function<BasicBlock, BasicBlock> mapping) {
+        BasicBlock mapped = mapping.apply(target);
+
+        return mapped == target ? this : new Jump(mapped);
+    }
+
+    @Override
+    public Terminator copy() {
+        return new Jump(target);
+    }
+
+    @Override
+    public String toString() {
+        return "jump " + target.getLabel();
+    }
+
+}
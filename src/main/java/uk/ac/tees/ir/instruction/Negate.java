@@ -0,0 +1,54 @@
+package uk.ac.tees.ir.instruction;
+
+import uk.ac.tees.ir.operand.Location;
+import uk.ac.tees.ir.operand.Operand;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Negates the value of an operand, {@code destination = -source}.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class Negate extends Definition {
+
+    private final Operand source;
+
+    public Negate(Location destination, Operand source) {
+        super(destination);
+        this.source = source;
+    }
+
+    public Operand getSource() {
+        return source;
+    }
+
+    @Override
+    public List<Operand> getUses() {
+        return List.of(source);
+    }
+
+    @Override
+    public Instruction mapUses(Function<Operand, Operand> mapping) {
+        Operand mapped = mapping.apply(source);
+
+        return mapped.equals(source) ? this : new Negate(destination, mapped);
+    }
+
+    @Override
+    public Definition withDefinition(Location destination) {
+        return new Negate(destination, source);
+    }
+
+    @Override
+    public Definition copy() {
+        return new Negate(destination, source);
+    }
+
+    @Override
+    public String toString() {
+        return destination + " = -" + source;
+    }
+
+}
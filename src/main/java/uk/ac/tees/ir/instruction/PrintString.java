@@ -0,0 +1,53 @@
+package uk.ac.tees.ir.instruction;
+
+import uk.ac.tees.ir.operand.Operand;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes a string literal to standard output.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class PrintString extends Instruction {
+
+    /**
+     * The string literal, as it appears in source code, including quotation marks.
+     */
+    private final String literal;
+
+    public PrintString(String literal) {
+        this.literal = literal;
+    }
+
+    public String getLiteral() {
+        return literal;
+    }
+
+    @Override
+    public List<Operand> getUses() {
+        return List.of();
+    }
+
+    @Override
+    public Instruction mapUses(Function<Operand, Operand> mapping) {
+        return this;
+    }
+
+    @Override
+    public boolean hasSideEffects() {
+        return true;
+    }
+
+    @Override
+    public Instruction copy() {
+        return new PrintString(literal);
+    }
+
+    @Override
+    public String toString() {
+        return "print " + literal;
+    }
+
+}
@@ -0,0 +1,52 @@
+package uk.ac.tees.ir.instruction;
+
+import uk.ac.tees.ir.operand.Operand;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes the decimal representation of the value of an operand to standard output.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class PrintValue extends Instruction {
+
+    private final Operand value;
+
+    public PrintValue(Operand value) {
+        this.value = value;
+    }
+
+    public Operand getValue() {
+        return value;
+    }
+
+    @Override
+    public List<Operand> getUses() {
+        return List.of(value);
+    }
+
+    @Override
+    public Instruction mapUses(Function<Operand, Operand> mapping) {
+        Operand mapped = mapping.apply(value);
+
+        return mapped.equals(value) ? this : new PrintValue(mapped);
+    }
+
+    @Override
+    public boolean hasSideEffects() {
+        return true;
+    }
+
+    @Override
+    public Instruction copy() {
+        return new PrintValue(value);
+    }
+
+    @Override
+    public String toString() {
+        return "print " + value;
+    }
+
+}
@@ -0,0 +1,35 @@
+package uk.ac.tees.ir.instruction;
+
+import uk.ac.tees.ir.BasicBlock;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Returns from a subroutine, to the continuation of the most recent {@link Call}.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class Return extends Terminator {
+
+    @Override
+    public List<BasicBlock> getTargets() {
+        return List.of();
+    }
+
+    @Override
+    public Terminator retarget(Function<BasicBlock, BasicBlock> mapping) {
+        return this;
+    }
+
+    @Override
+    public Terminator copy() {
+        return new Return();
+    }
+
+    @Override
+    public String toString() {
+        return "return";
+    }
+
+}
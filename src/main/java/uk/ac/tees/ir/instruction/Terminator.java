@@ -0,0 +1,49 @@
+package uk.ac.tees.ir.instruction;
+
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.operand.Operand;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * The last instruction of a {@link BasicBlock}, which transfers control to another block or ends the program.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public abstract class Terminator extends Instruction {
+
+    /**
+     * Gets the blocks this instruction may directly transfer control to.
+     *
+     * @return the target blocks of this instruction.
+     */
+    public abstract List<BasicBlock> getTargets();
+
+    /**
+     * Creates a copy of this instruction, with each of the blocks it refers to replaced by the given mapping.
+     *
+     * @param mapping maps each block to its replacement.
+     * @return an instruction referring to the replaced blocks, or this instruction if none were replaced.
+     */
+    public abstract Terminator retarget(Function<BasicBlock, BasicBlock> mapping);
+
+    @Override
+    public List<Operand> getUses() {
+        return List.of();
+    }
+
+    @Override
+    public Instruction mapUses(Function<Operand, Operand> mapping) {
+        return this;
+    }
+
+    @Override
+    public boolean hasSideEffects() {
+        return true;
+    }
+
+    @Override
+    public abstract Terminator copy();
+
+}
@@ -0,0 +1,57 @@
+package uk.ac.tees.ir.operand;
+
+/**
+ * A constant 64-bit integer operand.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class Constant implements Operand {
+
+    /**
+     * The value of this constant.
+     */
+    private final long value;
+
+    private Constant(long value) {
+        this.value = value;
+    }
+
+    /**
+     * Gets a constant with the given value.
+     *
+     * @param value the value of the constant.
+     * @return a constant operand.
+     */
+    public static Constant of(long value) {
+        return new Constant(value);
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean isConstant() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(value);
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof Constant)) {
+            return false;
+        }
+
+        return ((Constant) object).value == value;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(value);
+    }
+
+}
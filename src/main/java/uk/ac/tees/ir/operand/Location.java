@@ -0,0 +1,10 @@
+package uk.ac.tees.ir.operand;
+
+/**
+ * An {@link Operand} that holds a value, which an instruction may define.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public interface Location extends Operand {
+
+}
@@ -0,0 +1,19 @@
+package uk.ac.tees.ir.operand;
+
+/**
+ * An operand of a three-address code instruction, that is a constant value or a location holding a value.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public interface Operand {
+
+    /**
+     * Denotes whether this operand is a {@link Constant}.
+     *
+     * @return {@code true} if this operand is a constant.
+     */
+    default boolean isConstant() {
+        return false;
+    }
+
+}
@@ -0,0 +1,43 @@
+package uk.ac.tees.ir.operand;
+
+/**
+ * A virtual temporary, holding an intermediate value in the evaluation of an expression. Temporaries are numbered
+ * uniquely within a {@link uk.ac.tees.ir.ControlFlowGraph}.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class Temporary implements Location {
+
+    /**
+     * The number of this temporary.
+     */
+    private final int id;
+
+    public Temporary(int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String toString() {
+        return "t" + id;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof Temporary)) {
+            return false;
+        }
+
+        return ((Temporary) object).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
+
+}
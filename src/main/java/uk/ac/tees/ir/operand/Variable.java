@@ -0,0 +1,73 @@
+package uk.ac.tees.ir.operand;
+
+/**
+ * One of the 26 variables of a Tiny BASIC program, named 'A' to 'Z'.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class Variable implements Location {
+
+    /**
+     * The number of variables a program may have, one for each uppercase letter.
+     */
+    public static final int COUNT = 'Z' - 'A' + 1;
+
+    /**
+     * An instance of each variable, so that variables can be compared by identity.
+     */
+    private static final Variable[] VARIABLES = new Variable[COUNT];
+
+    static {
+        for (int i = 0; i < COUNT; i++) {
+            VARIABLES[i] = new Variable((char) ('A' + i));
+        }
+    }
+
+    /**
+     * The name of this variable.
+     */
+    private final char name;
+
+    private Variable(char name) {
+        this.name = name;
+    }
+
+    /**
+     * Gets the variable with the given name.
+     *
+     * @param name the name of the variable, 'A' to 'Z'.
+     * @return the variable with the given name.
+     */
+    public static Variable of(char name) {
+        return VARIABLES[name - 'A'];
+    }
+
+    /**
+     * Gets the variable at the given index, 'A' being at index 0.
+     *
+     * @param index the index of the variable.
+     * @return the variable at the given index.
+     */
+    public static Variable at(int index) {
+        return VARIABLES[index];
+    }
+
+    public char getName() {
+        return name;
+    }
+
+    /**
+     * The index of this variable, 'A' being at index 0 and 'Z' at 25.
+     *
+     * @return the index of this variable.
+     */
+    public int index() {
+        return name - 'A';
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(name);
+    }
+
+}
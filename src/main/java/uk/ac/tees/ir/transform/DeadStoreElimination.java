@@ -0,0 +1,167 @@
+package uk.ac.tees.ir.transform;
+
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.analysis.Liveness;
+import uk.ac.tees.ir.instruction.BinaryOperation;
+import uk.ac.tees.ir.instruction.Instruction;
+import uk.ac.tees.ir.operand.Constant;
+import uk.ac.tees.ir.operand.Location;
+import uk.ac.tees.ir.operand.Operand;
+import uk.ac.tees.optimise.Pass;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Removes the definitions of variables and temporaries that are never read before they are next assigned, such as a
+ * LET to a variable that is overwritten by a later LET.
+ * <p>
+ * Each block is walked backwards from the locations live at its end, found by {@link Liveness}, so the locations live
+ * after each instruction are known exactly. A definition of a location that is not live after it is removed, and the
+ * locations it reads are then not made live by it, so the computations of temporaries used only by a removed
+ * definition are themselves removed. Since removing a definition in one block may leave a location dead at the end of
+ * another, liveness is found again until nothing more is removed.
+ * <p>
+ * INPUT is never removed, since reading a value has an effect even if the value is never used. Division traps for a
+ * divisor of 0, or of -1 with the minimum value, so a division is only removed if its divisor is a constant that
+ * cannot trap.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class DeadStoreElimination implements Pass<ControlFlowGraph> {
+
+    /**
+     * The number of definitions removed from each block that had any, in layout order.
+     */
+    private final Map<BasicBlock, Integer> removed = new LinkedHashMap<>();
+
+    private int iterations;
+
+    /**
+     * Removes the dead definitions of the given graph, rewriting it in place.
+     *
+     * @param graph the control flow graph, whose edges must be up to date.
+     * @return the given graph, rewritten in place.
+     */
+    @Override
+    public ControlFlowGraph run(ControlFlowGraph graph) {
+        boolean changed = true;
+
+        while (changed) {
+            changed = false;
+            iterations++;
+
+            Liveness liveness = new Liveness(graph);
+
+            for (BasicBlock block : graph.getBlocks()) {
+                changed |= eliminate(block, liveness.getLiveOut(block));
+            }
+        }
+
+        return graph;
+    }
+
+    /**
+     * Removes the dead definitions of the given block, walking back from the locations live at its end.
+     *
+     * @return {@code true} if any definition was removed.
+     */
+    private boolean eliminate(BasicBlock block, BitSet live) {
+        List<Instruction> instructions = block.getInstructions();
+        int count = 0;
+
+        addUses(block.getTerminator(), live);
+
+        for (int i = instructions.size() - 1; i >= 0; i--) {
+            Instruction instruction = instructions.get(i);
+            Location destination = instruction.getDefinition();
+
+            if (destination != null && !live.get(Liveness.indexOf(destination)) && isRemovable(instruction)) {
+                instructions.remove(i);
+                count++;
+                continue;
+            }
+
+            if (destination != null) {
+                live.clear(Liveness.indexOf(destination));
+            }
+
+            addUses(instruction, live);
+        }
+
+        if (count > 0) {
+            removed.merge(block, count, Integer::sum);
+        }
+
+        return count > 0;
+    }
+
+    private static void addUses(Instruction instruction, BitSet live) {
+        for (Operand operand : instruction.getUses()) {
+            if (operand instanceof Location) {
+                live.set(Liveness.indexOf((Location) operand));
+            }
+        }
+    }
+
+    /**
+     * Denotes whether the given instruction has no effect other than defining its location, so may be removed if the
+     * location is dead.
+     */
+    private static boolean isRemovable(Instruction instruction) {
+        if (instruction.hasSideEffects()) {
+            return false;
+        }
+
+        if (!(instruction instanceof BinaryOperation)
+                || ((BinaryOperation) instruction).getOperator() != ArithmeticOperator.DIV) {
+            return true;
+        }
+
+        Operand divisor = ((BinaryOperation) instruction).getRight();
+
+        return divisor instanceof Constant
+                && ((Constant) divisor).getValue() != 0 && ((Constant) divisor).getValue() != -1;
+    }
+
+    /**
+     * Gets the number of definitions removed from each block that had any, by the last run.
+     *
+     * @return the removed definitions of each block, in layout order.
+     */
+    public Map<BasicBlock, Integer> getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Gets the total number of definitions removed by the last run.
+     *
+     * @return the number of removed definitions.
+     */
+    public int getRemovedCount() {
+        return removed.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Gets the number of times liveness was found by the last run.
+     *
+     * @return the number of iterations.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    @Override
+    public String toString() {
+        return "Dead store elimination: " + getRemovedCount() + " definitions removed in " + iterations
+                + " iterations " + removed.entrySet().stream()
+                .map(entry -> entry.getKey().getLabel() + "=" + entry.getValue())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+}
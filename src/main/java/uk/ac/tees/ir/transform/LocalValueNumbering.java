@@ -0,0 +1,215 @@
+package uk.ac.tees.ir.transform;
+
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.instruction.BinaryOperation;
+import uk.ac.tees.ir.instruction.Copy;
+import uk.ac.tees.ir.instruction.Instruction;
+import uk.ac.tees.ir.instruction.Negate;
+import uk.ac.tees.ir.operand.Location;
+import uk.ac.tees.ir.operand.Operand;
+import uk.ac.tees.optimise.Pass;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Removes computations that are repeated within a basic block, by local value numbering.
+ * <p>
+ * Each block is numbered on its own, in order. Every distinct value is given a number, and each operand is mapped to
+ * the number of the value it holds, with constants numbered by their value. A computation is identified by its
+ * operator and the numbers of its operands, ordered for addition and multiplication since they are commutative. If
+ * the same computation has already been made, and a variable or temporary still holds its value, the computation is
+ * replaced with a copy of that location, which the register allocator may then keep in a register.
+ * <p>
+ * Assigning a location, whether by LET, INPUT or a computation, gives it the number of its new value, so a location
+ * that is reassigned no longer holds the value of a computation made before and is not reused. INPUT always gives a
+ * new number, since the value read is unknown.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class LocalValueNumbering implements Pass<ControlFlowGraph> {
+
+    /**
+     * The number of computations replaced in each block that had any, in layout order.
+     */
+    private final Map<BasicBlock, Integer> hits = new LinkedHashMap<>();
+
+    /**
+     * The number of the value held by each operand in the block being numbered.
+     */
+    private final Map<Operand, Integer> numbers = new HashMap<>();
+
+    /**
+     * The number of the value of each computation made in the block being numbered, by its operator and the numbers of
+     * its operands.
+     */
+    private final Map<List<Object>, Integer> computations = new HashMap<>();
+
+    /**
+     * The locations that have held each value in the block being numbered, in the order they were assigned.
+     */
+    private final Map<Integer, List<Location>> holders = new HashMap<>();
+
+    private int nextNumber;
+
+    /**
+     * Replaces the repeated computations of each block of the given graph, rewriting it in place.
+     *
+     * @param graph the control flow graph.
+     * @return the given graph, rewritten in place.
+     */
+    @Override
+    public ControlFlowGraph run(ControlFlowGraph graph) {
+        for (BasicBlock block : graph.getBlocks()) {
+            number(block);
+        }
+
+        return graph;
+    }
+
+    private void number(BasicBlock block) {
+        numbers.clear();
+        computations.clear();
+        holders.clear();
+
+        List<Instruction> instructions = block.getInstructions();
+
+        for (int i = 0; i < instructions.size(); i++) {
+            Instruction instruction = instructions.get(i);
+            Location destination = instruction.getDefinition();
+
+            if (destination == null) {
+                continue;
+            }
+
+            List<Object> computation = computation(instruction);
+
+            if (computation == null) {
+                // a copy assigns the value of its source, anything else, such as INPUT, an unknown value.
+                assign(destination, instruction instanceof Copy
+                        ? numberOf(((Copy) instruction).getSource())
+                        : nextNumber++);
+                continue;
+            }
+
+            Integer number = computations.get(computation);
+            Location holder = number == null ? null : holderOf(number);
+
+            if (holder != null) {
+                hits.merge(block, 1, Integer::sum);
+
+                // a location that already holds the value need not be assigned it again.
+                if (holder.equals(destination)) {
+                    instructions.remove(i--);
+                    continue;
+                }
+
+                instructions.set(i, new Copy(destination, holder));
+
+            } else if (number == null) {
+                number = nextNumber++;
+                computations.put(computation, number);
+            }
+
+            assign(destination, number);
+        }
+    }
+
+    /**
+     * Identifies the computation made by the given instruction, by its operator and the numbers of its operands.
+     *
+     * @return the computation, or {@code null} if the instruction is not a computation.
+     */
+    private List<Object> computation(Instruction instruction) {
+        if (instruction instanceof Negate) {
+            return List.of("-", numberOf(((Negate) instruction).getSource()));
+        }
+
+        if (!(instruction instanceof BinaryOperation)) {
+            return null;
+        }
+
+        BinaryOperation operation = (BinaryOperation) instruction;
+        int left = numberOf(operation.getLeft());
+        int right = numberOf(operation.getRight());
+
+        boolean commutative = operation.getOperator() == ArithmeticOperator.ADD
+                || operation.getOperator() == ArithmeticOperator.MUL;
+
+        if (commutative && right < left) {
+            return List.of(operation.getOperator(), right, left);
+        }
+
+        return List.of(operation.getOperator(), left, right);
+    }
+
+    /**
+     * Gets the number of the value held by the given operand, numbering it if it was assigned before this block.
+     */
+    private int numberOf(Operand operand) {
+        Integer number = numbers.get(operand);
+
+        if (number == null) {
+            number = nextNumber++;
+            numbers.put(operand, number);
+
+            if (operand instanceof Location) {
+                holders.computeIfAbsent(number, value -> new ArrayList<>()).add((Location) operand);
+            }
+        }
+
+        return number;
+    }
+
+    private void assign(Location location, int number) {
+        numbers.put(location, number);
+        holders.computeIfAbsent(number, value -> new ArrayList<>()).add(location);
+    }
+
+    /**
+     * Gets the first location that was assigned the given value and still holds it.
+     *
+     * @return the location, or {@code null} if every location holding the value has since been reassigned.
+     */
+    private Location holderOf(int number) {
+        for (Location location : holders.getOrDefault(number, List.of())) {
+            if (numbers.get(location) == number) {
+                return location;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the number of computations replaced in each block that had any, by the last run.
+     *
+     * @return the hits of each block, in layout order.
+     */
+    public Map<BasicBlock, Integer> getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the total number of computations replaced by the last run.
+     *
+     * @return the number of hits.
+     */
+    public int getHitCount() {
+        return hits.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Override
+    public String toString() {
+        return "Local value numbering: " + getHitCount() + " computations reused " + hits.entrySet().stream()
+                .map(entry -> entry.getKey().getLabel() + "=" + entry.getValue())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+}
@@ -0,0 +1,253 @@
+package uk.ac.tees.ir.transform;
+
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.analysis.Loops;
+import uk.ac.tees.ir.instruction.*;
+import uk.ac.tees.ir.operand.Constant;
+import uk.ac.tees.ir.operand.Location;
+import uk.ac.tees.ir.operand.Operand;
+import uk.ac.tees.ir.operand.Temporary;
+import uk.ac.tees.optimise.Pass;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves computations whose value is the same on every iteration of a loop out of the loop, into a preheader block
+ * that is executed once before the loop is entered.
+ * <p>
+ * Loops are the natural loops of the graph, found from its back edges by {@link Loops}, such as those formed by an IF
+ * that branches back to an earlier line. They are visited innermost first, so a computation hoisted out of an inner
+ * loop may then be hoisted out of the loop that contains it. A preheader is only inserted for a loop that has
+ * something to hoist, immediately before its header, and every edge entering the loop from outside is retargeted to
+ * it. Loops whose header is the first line of a subroutine, or where control returns to after a GOSUB, are left as
+ * they are, since the edges entering them cannot be retargeted.
+ * <p>
+ * A computation, an arithmetic operation or negation, is invariant if each of its operands is a constant, a location
+ * that is not assigned anywhere in the loop, or a temporary whose computation has already been hoisted. A computation
+ * assigned to a temporary, which is assigned nowhere else, is moved to the preheader. One assigned to a variable is
+ * computed into a new temporary in the preheader, and the variable is assigned that temporary where the computation
+ * was, since whether and when the variable is assigned must not change.
+ * <p>
+ * PRINT and INPUT are never moved, and INPUT assigns its variable so nothing computed from it is invariant. Arithmetic
+ * wraps rather than traps, so computing a value the loop may not have used is harmless. Division traps for a divisor
+ * of 0, or of -1 with the minimum value, so a division is only hoisted if its divisor is a constant that cannot trap,
+ * or if it is in the header before any PRINT or INPUT, where it is always executed immediately after the preheader.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class LoopInvariantCodeMotion implements Pass<ControlFlowGraph> {
+
+    private int loopCount;
+
+    private int preheaderCount;
+
+    private int hoistedInstructions;
+
+    /**
+     * Hoists the invariant computations of each loop of the given graph, rewriting it in place.
+     *
+     * @param graph the control flow graph, whose edges must be up to date.
+     * @return the given graph, rewritten in place.
+     */
+    @Override
+    public ControlFlowGraph run(ControlFlowGraph graph) {
+        List<Loops.Loop> loops = new Loops(graph).getLoops();
+        Set<BasicBlock> callTargets = callTargets(graph);
+        Map<Temporary, Integer> temporaryDefinitions = countTemporaryDefinitions(graph);
+
+        loopCount = loops.size();
+
+        for (Loops.Loop loop : loops) {
+            if (callTargets.contains(loop.getHeader())) {
+                continue;
+            }
+
+            BasicBlock preheader = hoist(graph, loop, temporaryDefinitions);
+
+            if (preheader == null) {
+                continue;
+            }
+
+            // the preheader of a nested loop is part of every loop that contains the nested loop.
+            for (Loops.Loop outer : loops) {
+                if (outer != loop && outer.contains(loop.getHeader())) {
+                    outer.add(preheader);
+                }
+            }
+        }
+
+        return graph;
+    }
+
+    /**
+     * Finds the blocks that are the first block of a subroutine, or the continuation of a call.
+     */
+    private static Set<BasicBlock> callTargets(ControlFlowGraph graph) {
+        Set<BasicBlock> targets = new HashSet<>();
+
+        for (BasicBlock block : graph.getBlocks()) {
+            if (block.getTerminator() instanceof Call) {
+                Call call = (Call) block.getTerminator();
+
+                targets.add(call.getTarget());
+                targets.add(call.getContinuation());
+            }
+        }
+
+        return targets;
+    }
+
+    private static Map<Temporary, Integer> countTemporaryDefinitions(ControlFlowGraph graph) {
+        Map<Temporary, Integer> counts = new HashMap<>();
+
+        for (BasicBlock block : graph.getBlocks()) {
+            for (Instruction instruction : block.getInstructions()) {
+                if (instruction.getDefinition() instanceof Temporary) {
+                    counts.merge((Temporary) instruction.getDefinition(), 1, Integer::sum);
+                }
+            }
+        }
+
+        return counts;
+    }
+
+    /**
+     * Hoists the invariant computations of the given loop into a new preheader.
+     *
+     * @return the preheader, or {@code null} if there was nothing to hoist.
+     */
+    private BasicBlock hoist(ControlFlowGraph graph, Loops.Loop loop, Map<Temporary, Integer> temporaryDefinitions) {
+        Set<Location> assigned = new HashSet<>();
+
+        for (BasicBlock block : loop.getBody()) {
+            for (Instruction instruction : block.getInstructions()) {
+                if (instruction.getDefinition() != null) {
+                    assigned.add(instruction.getDefinition());
+                }
+            }
+        }
+
+        List<Instruction> hoisted = new ArrayList<>();
+        boolean changed = true;
+
+        // hoisting a computation may make those that use its temporary invariant, which may be in earlier blocks.
+        while (changed) {
+            changed = false;
+
+            for (BasicBlock block : loop.getBody()) {
+                List<Instruction> instructions = block.getInstructions();
+                boolean sideEffects = false;
+
+                for (int i = 0; i < instructions.size(); i++) {
+                    Instruction instruction = instructions.get(i);
+                    sideEffects |= instruction.hasSideEffects();
+
+                    if (!isInvariant(instruction, assigned)
+                            || !isSafe(instruction, block == loop.getHeader() && !sideEffects)) {
+                        continue;
+                    }
+
+                    Location destination = instruction.getDefinition();
+
+                    if (destination instanceof Temporary && temporaryDefinitions.get(destination) == 1) {
+                        hoisted.add(instruction);
+                        instructions.remove(i--);
+                        assigned.remove(destination);
+
+                    } else {
+                        Temporary temporary = graph.newTemporary();
+                        temporaryDefinitions.put(temporary, 1);
+
+                        hoisted.add(((Definition) instruction).withDefinition(temporary));
+                        instructions.set(i, new Copy(destination, temporary));
+                    }
+
+                    changed = true;
+                }
+            }
+        }
+
+        if (hoisted.isEmpty()) {
+            return null;
+        }
+
+        BasicBlock header = loop.getHeader();
+        BasicBlock preheader = new BasicBlock(header.getLabel() + "_preheader", header.getLineNumber());
+        preheader.getInstructions().addAll(hoisted);
+        preheader.setTerminator(new Jump(header));
+
+        for (BasicBlock entry : loop.getEntries()) {
+            entry.setTerminator(entry.getTerminator().retarget(target -> target == header ? preheader : target));
+        }
+
+        // the entry block has no predecessors, so the preheader takes its place as the first block.
+        graph.getBlocks().add(graph.getBlocks().indexOf(header), preheader);
+        graph.computeEdges();
+
+        preheaderCount++;
+        hoistedInstructions += hoisted.size();
+
+        return preheader;
+    }
+
+    /**
+     * Denotes whether the given instruction is a computation whose operands are not assigned in the loop.
+     */
+    private static boolean isInvariant(Instruction instruction, Set<Location> assigned) {
+        if (!(instruction instanceof BinaryOperation) && !(instruction instanceof Negate)) {
+            return false;
+        }
+
+        for (Operand operand : instruction.getUses()) {
+            if (operand instanceof Location && assigned.contains(operand)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Denotes whether the given computation can be executed before the loop, which is always so unless it is a
+     * division that may trap.
+     *
+     * @param executedFirst whether the computation is executed as the loop is entered, before any side effects.
+     */
+    private static boolean isSafe(Instruction instruction, boolean executedFirst) {
+        if (!(instruction instanceof BinaryOperation)
+                || ((BinaryOperation) instruction).getOperator() != ArithmeticOperator.DIV || executedFirst) {
+            return true;
+        }
+
+        Operand divisor = ((BinaryOperation) instruction).getRight();
+
+        return divisor instanceof Constant
+                && ((Constant) divisor).getValue() != 0 && ((Constant) divisor).getValue() != -1;
+    }
+
+    public int getLoopCount() {
+        return loopCount;
+    }
+
+    public int getPreheaderCount() {
+        return preheaderCount;
+    }
+
+    public int getHoistedInstructions() {
+        return hoistedInstructions;
+    }
+
+    @Override
+    public String toString() {
+        return "Loop invariant code motion: " + loopCount + " loops, " + hoistedInstructions
+                + " instructions hoisted into " + preheaderCount + " preheaders";
+    }
+
+}
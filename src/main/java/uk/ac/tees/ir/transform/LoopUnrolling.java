@@ -0,0 +1,296 @@
+package uk.ac.tees.ir.transform;
+
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.analysis.InductionVariables;
+import uk.ac.tees.ir.instruction.*;
+import uk.ac.tees.ir.operand.Constant;
+import uk.ac.tees.optimise.Pass;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Unrolls small counted loops, so that several iterations are executed for each comparison and branch of the loop.
+ * <p>
+ * Loops are the counted loops found by {@link InductionVariables} whose body is a straight line of blocks, from the
+ * header to the block that tests the induction variable, which branches back to the header directly or through an
+ * empty block. The body is copied a number of times, the unroll factor, into a single block that ends with the test
+ * of the loop. A guard, entered in place of the loop, compares the induction variable with a bound moved towards it
+ * by all but one of the strides, so the copies are only entered when the tests of all but the last copy would have
+ * continued the loop, and the test of the last copy branches back to the guard. Otherwise, the guard enters the
+ * original loop, which is left as it is to run the remaining iterations. The copies and then the guard are laid out
+ * before the loop, so each falls through to the next.
+ * <p>
+ * The guard can only be found for a loop that continues while its induction variable is less than, or greater than,
+ * a constant bound that it steps towards, or that is not equal to the value it reaches after a known number of
+ * iterations. The moved bound is found exactly, and the induction variable is compared with it without stepping it,
+ * so the guard itself never overflows. Loops containing INPUT are not unrolled, nor are loops whose header is the
+ * first line of a subroutine or where control returns to after a GOSUB, since the edges entering them cannot be
+ * retargeted. The number of instructions of the copies is limited for each loop, and for the program by a budget.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class LoopUnrolling implements Pass<ControlFlowGraph> {
+
+    /**
+     * The default number of copies of the body of an unrolled loop.
+     */
+    private static final int DEFAULT_FACTOR = 4;
+
+    /**
+     * The default maximum number of instructions of the copies of the body of a loop.
+     */
+    private static final int DEFAULT_SIZE_LIMIT = 32;
+
+    /**
+     * The default maximum number of instructions, including terminators, added to the program.
+     */
+    private static final int DEFAULT_BUDGET = 128;
+
+    private final int factor;
+
+    private final int sizeLimit;
+
+    private int budget;
+
+    private int unrolledLoops;
+
+    private int addedInstructions;
+
+    public LoopUnrolling(int factor, int sizeLimit, int budget) {
+        if (factor < 2) {
+            throw new IllegalArgumentException("Unroll factor must be at least 2! " + factor);
+        }
+
+        this.factor = factor;
+        this.sizeLimit = sizeLimit;
+        this.budget = budget;
+    }
+
+    public LoopUnrolling() {
+        this(DEFAULT_FACTOR, DEFAULT_SIZE_LIMIT, DEFAULT_BUDGET);
+    }
+
+    /**
+     * Unrolls the small counted loops of the given graph, rewriting it in place.
+     *
+     * @param graph the control flow graph, whose edges must be up to date.
+     * @return the given graph, rewritten in place.
+     */
+    @Override
+    public ControlFlowGraph run(ControlFlowGraph graph) {
+        Set<BasicBlock> callTargets = callTargets(graph);
+
+        // counted loops are innermost, so unrolling one leaves the blocks of the others as they were found.
+        for (InductionVariables.CountedLoop loop : new InductionVariables(graph).getCountedLoops()) {
+            if (callTargets.contains(loop.getLoop().getHeader())) {
+                continue;
+            }
+
+            Long bound = guardBound(loop);
+            List<Instruction> body = body(loop);
+
+            if (bound == null || body == null || factor * body.size() > Math.min(sizeLimit, budget)
+                    || (loop.getTripCount() != null && loop.getTripCount() < factor)) {
+                continue;
+            }
+
+            unroll(graph, loop, body, bound);
+            budget -= factor * body.size() + 2;
+        }
+
+        graph.computeEdges();
+        return graph;
+    }
+
+    /**
+     * Finds the blocks that are the first block of a subroutine, or the continuation of a call.
+     */
+    private static Set<BasicBlock> callTargets(ControlFlowGraph graph) {
+        Set<BasicBlock> targets = new HashSet<>();
+
+        for (BasicBlock block : graph.getBlocks()) {
+            if (block.getTerminator() instanceof Call) {
+                Call call = (Call) block.getTerminator();
+
+                targets.add(call.getTarget());
+                targets.add(call.getContinuation());
+            }
+        }
+
+        return targets;
+    }
+
+    /**
+     * Gets the block of the given loop that its test branches to in order to continue the loop.
+     */
+    private static BasicBlock backTarget(InductionVariables.CountedLoop loop) {
+        Branch test = loop.getTest();
+
+        return loop.getLoop().contains(test.getTrueTarget()) ? test.getTrueTarget() : test.getFalseTarget();
+    }
+
+    /**
+     * Finds the instructions of the body of the given loop, in the order they are executed on each iteration.
+     *
+     * @return the instructions, or {@code null} if the body is not a straight line of blocks or contains INPUT.
+     */
+    private static List<Instruction> body(InductionVariables.CountedLoop loop) {
+        BasicBlock header = loop.getLoop().getHeader();
+        BasicBlock exit = loop.getVariable().getBlock();
+        BasicBlock back = backTarget(loop);
+
+        List<BasicBlock> blocks = new ArrayList<>();
+        BasicBlock block = header;
+
+        while (block != exit) {
+            if (!(block.getTerminator() instanceof Jump) || blocks.contains(block)) {
+                return null;
+            }
+
+            blocks.add(block);
+            block = ((Jump) block.getTerminator()).getTarget();
+        }
+
+        blocks.add(exit);
+
+        // the branch back to the header may pass through the empty block of the GOTO of an IF.
+        if (back != header) {
+            if (!back.getInstructions().isEmpty() || !(back.getTerminator() instanceof Jump)
+                    || ((Jump) back.getTerminator()).getTarget() != header) {
+                return null;
+            }
+
+            blocks.add(back);
+        }
+
+        if (blocks.size() != loop.getLoop().getBody().size()) {
+            return null;
+        }
+
+        List<Instruction> body = new ArrayList<>();
+
+        for (BasicBlock part : blocks) {
+            for (Instruction instruction : part.getInstructions()) {
+                if (instruction instanceof Input) {
+                    return null;
+                }
+
+                body.add(instruction);
+            }
+        }
+
+        return body;
+    }
+
+    /**
+     * Finds the bound the guard compares the induction variable with, such that the comparison holds if and only if
+     * the loop would continue after each of the first {@code factor - 1} iterations from there.
+     *
+     * @return the bound, or {@code null} if no such bound can be found.
+     */
+    private Long guardBound(InductionVariables.CountedLoop loop) {
+        if (!(loop.getBound() instanceof Constant)) {
+            return null;
+        }
+
+        long stride = loop.getVariable().getStride();
+        RelationalOperator condition = guardCondition(loop);
+
+        if (condition == null) {
+            return null;
+        }
+
+        try {
+            return Math.subtractExact(((Constant) loop.getBound()).getValue(), Math.multiplyExact(factor - 1, stride));
+
+        } catch (ArithmeticException exception) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the comparison of the guard, under which the loop continues as the induction variable steps towards its
+     * bound.
+     *
+     * @return the comparison, or {@code null} if the loop does not continue until the bound is reached.
+     */
+    private static RelationalOperator guardCondition(InductionVariables.CountedLoop loop) {
+        long stride = loop.getVariable().getStride();
+
+        switch (loop.getCondition()) {
+            case LESS:
+            case LESS_EQUAL:
+                return stride > 0 ? loop.getCondition() : null;
+
+            case GREATER:
+            case GREATER_EQUAL:
+                return stride < 0 ? loop.getCondition() : null;
+
+            case NOT_EQUAL:
+                // a known trip count means the variable reaches the bound, so is on one side of it until then.
+                if (loop.getTripCount() == null) {
+                    return null;
+                }
+
+                return stride > 0 ? RelationalOperator.LESS : RelationalOperator.GREATER;
+
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Lays out the guard and copies of the body of the given loop before it, and retargets the edges entering the loop
+     * to the guard.
+     */
+    private void unroll(ControlFlowGraph graph, InductionVariables.CountedLoop loop, List<Instruction> body,
+                        long bound) {
+        BasicBlock header = loop.getLoop().getHeader();
+        BasicBlock back = backTarget(loop);
+
+        BasicBlock guard = new BasicBlock(header.getLabel() + "_guard", header.getLineNumber());
+        BasicBlock unrolled = new BasicBlock(header.getLabel() + "_unrolled", header.getLineNumber());
+
+        for (int i = 0; i < factor; i++) {
+            for (Instruction instruction : body) {
+                unrolled.getInstructions().add(instruction.copy());
+            }
+        }
+
+        unrolled.setTerminator(loop.getTest().copy().retarget(target -> target == back ? guard : target));
+        guard.setTerminator(new Branch(guardCondition(loop), loop.getVariable().getLocation(), Constant.of(bound),
+                unrolled, header));
+
+        for (BasicBlock entry : loop.getLoop().getEntries()) {
+            entry.setTerminator(entry.getTerminator().retarget(target -> target == header ? guard : target));
+        }
+
+        // the copies are laid out before the guard, so they fall through into it and it falls through into the
+        // loop, unless the header is the entry block, which has no predecessors, so the guard takes its place.
+        graph.getBlocks().addAll(graph.getBlocks().indexOf(header),
+                header == graph.getEntry() ? List.of(guard, unrolled) : List.of(unrolled, guard));
+
+        unrolledLoops++;
+        addedInstructions += unrolled.getInstructions().size() + 2;
+    }
+
+    public int getUnrolledLoops() {
+        return unrolledLoops;
+    }
+
+    public int getAddedInstructions() {
+        return addedInstructions;
+    }
+
+    @Override
+    public String toString() {
+        return "Loop unrolling: " + unrolledLoops + " loops unrolled by " + factor + ", " + addedInstructions
+                + " instructions added";
+    }
+
+}
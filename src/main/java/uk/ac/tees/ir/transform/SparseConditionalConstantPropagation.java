@@ -0,0 +1,508 @@
+package uk.ac.tees.ir.transform;
+
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.analysis.SsaForm;
+import uk.ac.tees.ir.instruction.*;
+import uk.ac.tees.ir.operand.Constant;
+import uk.ac.tees.ir.operand.Operand;
+import uk.ac.tees.ir.operand.Temporary;
+import uk.ac.tees.optimise.Pass;
+import uk.ac.tees.syntax.grammar.expression.ConstantArithmetic;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static uk.ac.tees.ir.analysis.SsaForm.NO_NAME;
+
+/**
+ * Sparse conditional constant propagation, as described by Wegman and Zadeck in "Constant Propagation with Conditional
+ * Branches", over the {@link SsaForm} of a {@link ControlFlowGraph}.
+ * <p>
+ * Each name starts undefined and is only ever lowered, to a constant and then to overdefined, as the definitions that
+ * reach it are evaluated. Only edges that may be taken are followed, so a branch whose operands are constant only
+ * makes the edge it takes executable, and the definitions along the other edge never reach the phis they would
+ * otherwise have merged with. Names are evaluated again only when a name they use is lowered, so the work done is
+ * proportional to the number of uses rather than to the number of blocks times the number of iterations.
+ * <p>
+ * Once solved, the graph is rewritten in place:
+ * <ul>
+ *     <li>each operand whose name is constant is replaced by that constant,</li>
+ *     <li>each definition whose value is constant is replaced by a copy of that constant, and those of temporaries,
+ *     which are assigned once and whose every use has been replaced, are removed,</li>
+ *     <li>each branch whose operands are constant is replaced by a jump to the target it takes,</li>
+ *     <li>each block that cannot be executed is removed.</li>
+ * </ul>
+ * Divisions by zero, and of the minimum value by -1, trap at runtime so are never evaluated.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class SparseConditionalConstantPropagation implements Pass<ControlFlowGraph> {
+
+    /**
+     * The lattice state of a name not yet known to hold any value.
+     */
+    private static final byte UNDEFINED = 0;
+
+    /**
+     * The lattice state of a name known to hold a single constant value.
+     */
+    private static final byte CONSTANT = 1;
+
+    /**
+     * The lattice state of a name that may hold more than one value.
+     */
+    private static final byte OVERDEFINED = 2;
+
+    private ControlFlowGraph graph;
+
+    private SsaForm ssa;
+
+    /**
+     * The lattice state of each name.
+     */
+    private byte[] states;
+
+    /**
+     * The value of each name whose state is {@link #CONSTANT}.
+     */
+    private long[] values;
+
+    /**
+     * The phis and instructions that use each name.
+     */
+    private final List<List<Object>> users = new ArrayList<>();
+
+    /**
+     * The block each instruction, including terminators, belongs to.
+     */
+    private final Map<Instruction, BasicBlock> instructionBlocks = new IdentityHashMap<>();
+
+    /**
+     * The blocks that have been reached along at least one executable edge.
+     */
+    private final Set<BasicBlock> executable = new HashSet<>();
+
+    /**
+     * The predecessors of each block along executable edges, {@code null} denoting the start of the program.
+     */
+    private final Map<BasicBlock, Set<BasicBlock>> executableEdges = new HashMap<>();
+
+    /**
+     * Edges, from and to, that have been found to be executable but are yet to be followed.
+     */
+    private final Deque<BasicBlock[]> flowWorklist = new ArrayDeque<>();
+
+    /**
+     * Phis and instructions to evaluate again, since a name they use has been lowered.
+     */
+    private final Deque<Object> ssaWorklist = new ArrayDeque<>();
+
+    /**
+     * The executable blocks that end with a return.
+     */
+    private final List<BasicBlock> returns = new ArrayList<>();
+
+    /**
+     * The continuations of executable calls.
+     */
+    private final List<BasicBlock> continuations = new ArrayList<>();
+
+    private int replacedOperands;
+
+    private int foldedInstructions;
+
+    private int resolvedBranches;
+
+    private int removedBlocks;
+
+    /**
+     * Propagates constants through the given graph, rewriting it in place.
+     *
+     * @param graph the control flow graph, whose edges must be up to date.
+     * @return the given graph, rewritten in place.
+     */
+    @Override
+    public ControlFlowGraph run(ControlFlowGraph graph) {
+        this.graph = graph;
+        this.ssa = new SsaForm(graph);
+
+        initialise();
+        solve();
+        rewrite();
+
+        return graph;
+    }
+
+    /**
+     * Denotes whether the last run changed the graph.
+     *
+     * @return {@code true} if the graph was changed.
+     */
+    public boolean isChanged() {
+        return replacedOperands + foldedInstructions + resolvedBranches + removedBlocks > 0;
+    }
+
+    /**
+     * Finds the users of each name, and lowers the names that are never defined, the entry names of variables, to
+     * overdefined.
+     */
+    private void initialise() {
+        int nameCount = ssa.getNameCount();
+        boolean[] defined = new boolean[nameCount];
+
+        states = new byte[nameCount];
+        values = new long[nameCount];
+
+        for (int i = 0; i < nameCount; i++) {
+            users.add(new ArrayList<>());
+        }
+
+        for (BasicBlock block : ssa.getBlocks()) {
+            for (SsaForm.Phi phi : ssa.getPhis(block)) {
+                defined[phi.getName()] = true;
+
+                for (int i = 0; i < phi.getPredecessors().size(); i++) {
+                    users.get(phi.getOperand(i)).add(phi);
+                }
+            }
+
+            for (Instruction instruction : block.getInstructions()) {
+                addUser(instruction, block);
+
+                if (ssa.getDefinition(instruction) != NO_NAME) {
+                    defined[ssa.getDefinition(instruction)] = true;
+                }
+            }
+
+            addUser(block.getTerminator(), block);
+        }
+
+        for (int i = 0; i < nameCount; i++) {
+            if (!defined[i]) {
+                states[i] = OVERDEFINED;
+            }
+        }
+    }
+
+    private void addUser(Instruction instruction, BasicBlock block) {
+        instructionBlocks.put(instruction, block);
+
+        for (int name : ssa.getUses(instruction)) {
+            if (name != NO_NAME) {
+                users.get(name).add(instruction);
+            }
+        }
+    }
+
+    private void solve() {
+        flowWorklist.add(new BasicBlock[]{null, graph.getEntry()});
+
+        while (!flowWorklist.isEmpty() || !ssaWorklist.isEmpty()) {
+            while (!flowWorklist.isEmpty()) {
+                BasicBlock[] edge = flowWorklist.poll();
+                BasicBlock block = edge[1];
+
+                if (!executableEdges.computeIfAbsent(block, b -> new HashSet<>()).add(edge[0])) {
+                    continue;
+                }
+
+                // a new edge may bring a new value to each phi, but the instructions need only be evaluated once.
+                ssa.getPhis(block).forEach(this::evaluate);
+
+                if (executable.add(block)) {
+                    block.getInstructions().forEach(this::evaluate);
+                    evaluate(block, block.getTerminator());
+                }
+            }
+
+            while (!ssaWorklist.isEmpty()) {
+                Object user = ssaWorklist.poll();
+
+                if (user instanceof SsaForm.Phi) {
+                    SsaForm.Phi phi = (SsaForm.Phi) user;
+
+                    if (executable.contains(phi.getBlock())) {
+                        evaluate(phi);
+                    }
+
+                } else {
+                    Instruction instruction = (Instruction) user;
+                    BasicBlock block = instructionBlocks.get(instruction);
+
+                    if (!executable.contains(block)) {
+                        continue;
+                    }
+
+                    if (instruction instanceof Terminator) {
+                        evaluate(block, (Terminator) instruction);
+
+                    } else {
+                        evaluate(instruction);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Lowers the given name to the given state, queueing its users to be evaluated again if it changes.
+     */
+    private void lower(int name, byte state, long value) {
+        if (state <= states[name]) {
+            return;
+        }
+
+        states[name] = state;
+        values[name] = value;
+        ssaWorklist.addAll(users.get(name));
+    }
+
+    /**
+     * Evaluates a phi as the meet of the names reaching it along executable edges.
+     */
+    private void evaluate(SsaForm.Phi phi) {
+        Set<BasicBlock> predecessors = executableEdges.getOrDefault(phi.getBlock(), Set.of());
+        byte state = UNDEFINED;
+        long value = 0;
+
+        for (int i = 0; i < phi.getPredecessors().size() && state != OVERDEFINED; i++) {
+            if (!predecessors.contains(phi.getPredecessors().get(i))) {
+                continue;
+            }
+
+            int operand = phi.getOperand(i);
+
+            if (states[operand] == OVERDEFINED || (state == CONSTANT && states[operand] == CONSTANT
+                    && values[operand] != value)) {
+                state = OVERDEFINED;
+
+            } else if (states[operand] == CONSTANT) {
+                state = CONSTANT;
+                value = values[operand];
+            }
+        }
+
+        lower(phi.getName(), state, value);
+    }
+
+    private void evaluate(Instruction instruction) {
+        int name = ssa.getDefinition(instruction);
+
+        if (name == NO_NAME) {
+            return;
+        }
+
+        // the value of any other instruction, such as input, is not known until runtime.
+        if (!(instruction instanceof Definition)) {
+            lower(name, OVERDEFINED, 0);
+            return;
+        }
+
+        List<Operand> operands = instruction.getUses();
+        int[] names = ssa.getUses(instruction);
+        long[] operandValues = new long[operands.size()];
+
+        byte state = operandStates(operands, names, operandValues);
+
+        if (state != CONSTANT) {
+            lower(name, state, 0);
+            return;
+        }
+
+        try {
+            lower(name, CONSTANT, evaluate(instruction, operandValues));
+
+        } catch (ArithmeticException e) {
+            lower(name, OVERDEFINED, 0);
+        }
+    }
+
+    /**
+     * Evaluates the given definition, whose operands are all constant.
+     */
+    private static long evaluate(Instruction instruction, long[] operands) {
+        if (instruction instanceof Copy) {
+            return operands[0];
+
+        } else if (instruction instanceof Negate) {
+            return -operands[0];
+
+        } else if (instruction instanceof BinaryOperation) {
+            return ConstantArithmetic.evaluate(((BinaryOperation) instruction).getOperator(), operands[0], operands[1]);
+        }
+
+        throw new IllegalArgumentException("Unsupported instruction! " + instruction);
+    }
+
+    /**
+     * Gets the combined state of the given operands, overdefined if any are, otherwise undefined if any are, and
+     * otherwise constant, in which case their values are stored.
+     */
+    private byte operandStates(List<Operand> operands, int[] names, long[] operandValues) {
+        byte state = CONSTANT;
+
+        for (int i = 0; i < operands.size(); i++) {
+            if (names[i] == NO_NAME) {
+                operandValues[i] = ((Constant) operands.get(i)).getValue();
+
+            } else if (states[names[i]] == OVERDEFINED) {
+                return OVERDEFINED;
+
+            } else if (states[names[i]] == UNDEFINED) {
+                state = UNDEFINED;
+
+            } else {
+                operandValues[i] = values[names[i]];
+            }
+        }
+
+        return state;
+    }
+
+    /**
+     * Marks the edges out of the given block that may be taken as executable.
+     */
+    private void evaluate(BasicBlock block, Terminator terminator) {
+        if (terminator instanceof Branch) {
+            Branch branch = (Branch) terminator;
+            long[] operandValues = new long[2];
+            byte state = operandStates(branch.getUses(), ssa.getUses(branch), operandValues);
+
+            if (state == CONSTANT) {
+                boolean taken = ConstantArithmetic.compare(branch.getOperator(), operandValues[0], operandValues[1]);
+                markEdge(block, taken ? branch.getTrueTarget() : branch.getFalseTarget());
+
+            } else if (state == OVERDEFINED) {
+                markEdge(block, branch.getTrueTarget());
+                markEdge(block, branch.getFalseTarget());
+            }
+
+        } else if (terminator instanceof Call) {
+            // a return only returns to the continuations of calls that may be executed.
+            BasicBlock continuation = ((Call) terminator).getContinuation();
+
+            markEdge(block, ((Call) terminator).getTarget());
+            continuations.add(continuation);
+            returns.forEach(r -> markEdge(r, continuation));
+
+        } else if (terminator instanceof Return) {
+            returns.add(block);
+            continuations.forEach(c -> markEdge(block, c));
+
+        } else {
+            terminator.getTargets().forEach(target -> markEdge(block, target));
+        }
+    }
+
+    private void markEdge(BasicBlock from, BasicBlock to) {
+        flowWorklist.add(new BasicBlock[]{from, to});
+    }
+
+    private void rewrite() {
+        List<BasicBlock> blocks = graph.getBlocks();
+        int blockCount = blocks.size();
+
+        blocks.removeIf(block -> !executable.contains(block));
+        removedBlocks = blockCount - blocks.size();
+
+        for (BasicBlock block : blocks) {
+            List<Instruction> rewritten = new ArrayList<>(block.getInstructions().size());
+
+            for (Instruction instruction : block.getInstructions()) {
+                int name = ssa.getDefinition(instruction);
+
+                if (instruction instanceof Definition && states[name] == CONSTANT) {
+                    boolean copiesConstant = instruction instanceof Copy && ((Copy) instruction).getSource().isConstant();
+
+                    if (instruction.getDefinition() instanceof Temporary) {
+                        foldedInstructions++;
+
+                    } else if (copiesConstant) {
+                        rewritten.add(instruction);
+
+                    } else {
+                        foldedInstructions++;
+                        rewritten.add(new Copy(instruction.getDefinition(), Constant.of(values[name])));
+                    }
+
+                    continue;
+                }
+
+                rewritten.add(substitute(instruction));
+            }
+
+            block.getInstructions().clear();
+            block.getInstructions().addAll(rewritten);
+            block.setTerminator(rewrite(block.getTerminator()));
+        }
+
+        graph.computeEdges();
+    }
+
+    private Terminator rewrite(Terminator terminator) {
+        if (terminator instanceof Branch) {
+            Branch branch = (Branch) terminator;
+            long[] operandValues = new long[2];
+
+            if (operandStates(branch.getUses(), ssa.getUses(branch), operandValues) == CONSTANT) {
+                resolvedBranches++;
+
+                boolean taken = ConstantArithmetic.compare(branch.getOperator(), operandValues[0], operandValues[1]);
+                return new Jump(taken ? branch.getTrueTarget() : branch.getFalseTarget());
+            }
+        }
+
+        return (Terminator) substitute(terminator);
+    }
+
+    /**
+     * Replaces each operand of the given instruction whose name is constant with that constant.
+     */
+    private Instruction substitute(Instruction instruction) {
+        int[] names = ssa.getUses(instruction);
+        int[] position = {0};
+
+        return instruction.mapUses(operand -> {
+            int name = names[position[0]++];
+
+            if (name == NO_NAME || states[name] != CONSTANT) {
+                return operand;
+            }
+
+            replacedOperands++;
+            return Constant.of(values[name]);
+        });
+    }
+
+    public int getReplacedOperands() {
+        return replacedOperands;
+    }
+
+    public int getFoldedInstructions() {
+        return foldedInstructions;
+    }
+
+    public int getResolvedBranches() {
+        return resolvedBranches;
+    }
+
+    public int getRemovedBlocks() {
+        return removedBlocks;
+    }
+
+    @Override
+    public String toString() {
+        return "Constant propagation: " + replacedOperands + " operands replaced, " + foldedInstructions
+                + " instructions folded, " + resolvedBranches + " branches resolved, " + removedBlocks
+                + " blocks removed";
+    }
+
+}
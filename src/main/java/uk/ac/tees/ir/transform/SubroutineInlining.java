@@ -0,0 +1,216 @@
+package uk.ac.tees.ir.transform;
+
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.instruction.*;
+import uk.ac.tees.ir.operand.Location;
+import uk.ac.tees.ir.operand.Operand;
+import uk.ac.tees.ir.operand.Temporary;
+import uk.ac.tees.optimise.Pass;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Replaces calls to small subroutines with a copy of the subroutine, so no call or return is executed and the code of
+ * the subroutine can be optimised together with the code around the call.
+ * <p>
+ * The body of a subroutine is every block reachable from its first block without passing through a RETURN. A
+ * subroutine is inlined if its body is entered only at its first block, it calls no other subroutine, so can never
+ * call itself, and it has no more instructions than the size limit. The copy of each RETURN jumps to the continuation
+ * of the call instead. Once a subroutine has had the subroutines it calls inlined into it, it may then be inlined
+ * itself. The total number of instructions added to the program is limited by a budget, after which calls are left as
+ * they are.
+ * <p>
+ * A call that is not inlined, whose continuation is only a RETURN, such as a GOSUB on the line before a RETURN, becomes
+ * a jump to the subroutine, since the RETURN of the subroutine may return to where the RETURN after the call would.
+ * The copies of the subroutine are laid out after the call, and the original subroutine is left in place, to be
+ * removed if nothing else calls it.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class SubroutineInlining implements Pass<ControlFlowGraph> {
+
+    /**
+     * The default maximum number of instructions, including terminators, of a subroutine that is inlined.
+     */
+    private static final int DEFAULT_SIZE_LIMIT = 16;
+
+    /**
+     * The default maximum number of instructions, including terminators, added to the program.
+     */
+    private static final int DEFAULT_BUDGET = 256;
+
+    private final int sizeLimit;
+
+    private int budget;
+
+    private int inlinedCalls;
+
+    private int tailJumps;
+
+    public SubroutineInlining(int sizeLimit, int budget) {
+        this.sizeLimit = sizeLimit;
+        this.budget = budget;
+    }
+
+    public SubroutineInlining() {
+        this(DEFAULT_SIZE_LIMIT, DEFAULT_BUDGET);
+    }
+
+    /**
+     * Inlines the calls to small subroutines of the given graph, rewriting it in place.
+     *
+     * @param graph the control flow graph, whose edges must be up to date.
+     * @return the given graph, rewritten in place.
+     */
+    @Override
+    public ControlFlowGraph run(ControlFlowGraph graph) {
+        boolean changed = true;
+
+        // inlining every call in a subroutine makes it a subroutine that calls no other, which may then be inlined.
+        while (changed) {
+            changed = false;
+
+            for (BasicBlock block : List.copyOf(graph.getBlocks())) {
+                if (!(block.getTerminator() instanceof Call)) {
+                    continue;
+                }
+
+                Call call = (Call) block.getTerminator();
+                Set<BasicBlock> body = body(call.getTarget());
+
+                if (body != null && size(body) <= Math.min(sizeLimit, budget)) {
+                    inline(graph, block, call, body);
+                    budget -= size(body);
+
+                } else if (call.getContinuation().getInstructions().isEmpty()
+                        && call.getContinuation().getTerminator() instanceof Return) {
+                    block.setTerminator(new Jump(call.getTarget()));
+                    tailJumps++;
+
+                } else {
+                    continue;
+                }
+
+                // whether a subroutine is entered only at its first block is found from the predecessors of its blocks.
+                graph.computeEdges();
+                changed = true;
+            }
+        }
+
+        return graph;
+    }
+
+    /**
+     * Finds the body of the subroutine that starts at the given block.
+     *
+     * @return the blocks of the subroutine, or {@code null} if it calls another subroutine or is entered other than at
+     * its first block.
+     */
+    private static Set<BasicBlock> body(BasicBlock first) {
+        Set<BasicBlock> body = new LinkedHashSet<>();
+        Deque<BasicBlock> worklist = new ArrayDeque<>();
+
+        body.add(first);
+        worklist.push(first);
+
+        while (!worklist.isEmpty()) {
+            Terminator terminator = worklist.pop().getTerminator();
+
+            if (terminator instanceof Call) {
+                return null;
+            }
+
+            // the edges of a return are to the continuations of every call, which are not part of the subroutine.
+            if (terminator instanceof Return) {
+                continue;
+            }
+
+            for (BasicBlock target : terminator.getTargets()) {
+                if (body.add(target)) {
+                    worklist.push(target);
+                }
+            }
+        }
+
+        for (BasicBlock block : body) {
+            if (block != first && !body.containsAll(block.getPredecessors())) {
+                return null;
+            }
+        }
+
+        return body;
+    }
+
+    private static int size(Set<BasicBlock> body) {
+        return body.stream().mapToInt(block -> block.getInstructions().size() + 1).sum();
+    }
+
+    /**
+     * Replaces the given call with a jump to a copy of the given subroutine, laid out after the call.
+     */
+    private void inline(ControlFlowGraph graph, BasicBlock caller, Call call, Set<BasicBlock> body) {
+        String suffix = "_inline_" + ++inlinedCalls;
+        Map<BasicBlock, BasicBlock> copies = new HashMap<>();
+        Map<Operand, Operand> temporaries = new HashMap<>();
+
+        for (BasicBlock block : body) {
+            copies.put(block, new BasicBlock(block.getLabel() + suffix, block.getLineNumber()));
+
+            // temporaries defined in the subroutine are renamed, so each copy has its own.
+            for (Instruction instruction : block.getInstructions()) {
+                if (instruction.getDefinition() instanceof Temporary) {
+                    temporaries.computeIfAbsent(instruction.getDefinition(), temporary -> graph.newTemporary());
+                }
+            }
+        }
+
+        Function<Operand, Operand> renaming = operand -> temporaries.getOrDefault(operand, operand);
+        List<BasicBlock> laidOut = new ArrayList<>();
+
+        for (BasicBlock block : body) {
+            BasicBlock copy = copies.get(block);
+
+            for (Instruction instruction : block.getInstructions()) {
+                Instruction copied = instruction.copy().mapUses(renaming);
+
+                if (temporaries.containsKey(copied.getDefinition())) {
+                    copied = ((Definition) copied).withDefinition((Location) temporaries.get(copied.getDefinition()));
+                }
+
+                copy.getInstructions().add(copied);
+            }
+
+            copy.setTerminator(block.getTerminator() instanceof Return
+                    ? new Jump(call.getContinuation())
+                    : ((Terminator) block.getTerminator().copy().mapUses(renaming)).retarget(copies::get));
+
+            laidOut.add(copy);
+        }
+
+        caller.setTerminator(new Jump(copies.get(call.getTarget())));
+        graph.getBlocks().addAll(graph.getBlocks().indexOf(caller) + 1, laidOut);
+    }
+
+    public int getInlinedCalls() {
+        return inlinedCalls;
+    }
+
+    public int getTailJumps() {
+        return tailJumps;
+    }
+
+    @Override
+    public String toString() {
+        return "Subroutine inlining: " + inlinedCalls + " calls inlined, " + tailJumps + " calls made tail jumps";
+    }
+
+}
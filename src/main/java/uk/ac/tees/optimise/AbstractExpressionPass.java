@@ -0,0 +1,100 @@
+package uk.ac.tees.optimise;
+
+import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.expression.Expression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.factor.StringLiteral;
+import uk.ac.tees.syntax.grammar.statement.IfStatement;
+import uk.ac.tees.syntax.grammar.statement.LetStatement;
+import uk.ac.tees.syntax.grammar.statement.PrintStatement;
+import uk.ac.tees.syntax.grammar.statement.Statement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A pass that transforms each arithmetic expression of a {@link Program} on its own, including those of LET and
+ * PRINT statements and both sides of IF conditions, producing a new program if any expression was changed.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+abstract class AbstractExpressionPass implements Pass<Program> {
+
+    /**
+     * Transforms the given expression.
+     *
+     * @param expression the expression.
+     * @return the transformed expression, or the given expression if it was not changed.
+     */
+    protected abstract Expression transform(Expression expression);
+
+    @Override
+    public Program run(Program program) {
+        List<Line> lines = new ArrayList<>(program.lines().size());
+        boolean changed = false;
+
+        for (Line line : program.lines()) {
+            Statement statement = transform(line.getStatement());
+
+            changed |= statement != line.getStatement();
+            lines.add(statement == line.getStatement() ? line : new Line(line.getLineNumber(), statement));
+        }
+
+        return changed ? new Program(program.getName(), lines) : program;
+    }
+
+    /**
+     * Transforms the expressions of the given statement.
+     *
+     * @return the transformed statement, or the given statement if no expression was changed.
+     */
+    private Statement transform(Statement statement) {
+        if (statement instanceof LetStatement) {
+            LetStatement let = (LetStatement) statement;
+            Expression value = transform(let.getValue());
+
+            return value == let.getValue() ? let : new LetStatement(let.getIdentifier(), value);
+
+        } else if (statement instanceof PrintStatement) {
+            return transform((PrintStatement) statement);
+
+        } else if (statement instanceof IfStatement) {
+            return transform((IfStatement) statement);
+        }
+
+        return statement;
+    }
+
+    private Statement transform(PrintStatement print) {
+        List<AbstractSyntaxTreeNode> expressions = new ArrayList<>(print.getExpressions().size());
+        boolean changed = false;
+
+        for (AbstractSyntaxTreeNode expression : print.getExpressions()) {
+            AbstractSyntaxTreeNode transformed = expression instanceof StringLiteral
+                    ? expression
+                    : transform((Expression) expression);
+
+            changed |= transformed != expression;
+            expressions.add(transformed);
+        }
+
+        return changed ? new PrintStatement(expressions) : print;
+    }
+
+    private Statement transform(IfStatement ifStatement) {
+        RelationalBinaryExpression condition = ifStatement.getExpression();
+
+        Expression left = transform(condition.getLeft());
+        Expression right = transform(condition.getRight());
+        Statement statement = transform(ifStatement.getStatement());
+
+        if (left == condition.getLeft() && right == condition.getRight() && statement == ifStatement.getStatement()) {
+            return ifStatement;
+        }
+
+        return new IfStatement(new RelationalBinaryExpression(left, right, condition.getOperator()), statement);
+    }
+
+}
@@ -0,0 +1,237 @@
+package uk.ac.tees.optimise;
+
+import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.expression.Expression;
+import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
+import uk.ac.tees.syntax.grammar.expression.UnaryOperator;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.visitor.TreeWalker;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The algebraic identities of arithmetic on 64-bit integers that wrap on overflow, as {@link RewriteRule}s.
+ *
+ * <p>A constant operand is matched whether it is a number or a number prefixed with a unary operator, since the
+ * rules may be applied before constants are folded. An operand is only discarded, as it is by {@code x * 0} and
+ * {@code x - x}, if it has no division that may trap.</p>
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class AlgebraicRules {
+
+    /**
+     * {@code x + 0} and {@code 0 + x} are {@code x}.
+     */
+    public static final RewriteRule ADD_ZERO = RewriteRule.binary("x + 0", ArithmeticOperator.ADD,
+            (left, right) -> isValue(right, 0) ? left : isValue(left, 0) ? right : null);
+
+    /**
+     * {@code x - 0} is {@code x}.
+     */
+    public static final RewriteRule SUBTRACT_ZERO = RewriteRule.binary("x - 0", ArithmeticOperator.SUB,
+            (left, right) -> isValue(right, 0) ? left : null);
+
+    /**
+     * {@code 0 - x} is {@code -x}.
+     */
+    public static final RewriteRule SUBTRACT_FROM_ZERO = RewriteRule.binary("0 - x", ArithmeticOperator.SUB,
+            (left, right) -> isValue(left, 0) && !isValue(right, 0) ? negate(right) : null);
+
+    /**
+     * {@code x - x} is {@code 0}.
+     */
+    public static final RewriteRule SUBTRACT_SELF = RewriteRule.binary("x - x", ArithmeticOperator.SUB,
+            (left, right) -> isSame(left, right) && !mayTrap(left) ? new NumberFactor(0) : null);
+
+    /**
+     * {@code x * 1} and {@code 1 * x} are {@code x}.
+     */
+    public static final RewriteRule MULTIPLY_BY_ONE = RewriteRule.binary("x * 1", ArithmeticOperator.MUL,
+            (left, right) -> isValue(right, 1) ? left : isValue(left, 1) ? right : null);
+
+    /**
+     * {@code x * 0} and {@code 0 * x} are {@code 0}.
+     */
+    public static final RewriteRule MULTIPLY_BY_ZERO = RewriteRule.binary("x * 0", ArithmeticOperator.MUL,
+            (left, right) -> (isValue(right, 0) && !mayTrap(left)) || (isValue(left, 0) && !mayTrap(right))
+                    ? new NumberFactor(0)
+                    : null);
+
+    /**
+     * {@code x * -1} and {@code -1 * x} are {@code -x}.
+     */
+    public static final RewriteRule MULTIPLY_BY_MINUS_ONE = RewriteRule.binary("x * -1", ArithmeticOperator.MUL,
+            (left, right) -> isValue(right, -1) ? negate(left) : isValue(left, -1) ? negate(right) : null);
+
+    /**
+     * {@code x / 1} is {@code x}. Dividing by -1 traps for the minimum value, so is not rewritten.
+     */
+    public static final RewriteRule DIVIDE_BY_ONE = RewriteRule.binary("x / 1", ArithmeticOperator.DIV,
+            (left, right) -> isValue(right, 1) ? left : null);
+
+    /**
+     * {@code x + -y} and {@code -y + x} are {@code x - y}.
+     */
+    public static final RewriteRule ADD_NEGATION = RewriteRule.binary("x + -y", ArithmeticOperator.ADD,
+            (left, right) -> isNegation(right) ? subtract(left, operand(right))
+                    : isNegation(left) ? subtract(right, operand(left))
+                    : null);
+
+    /**
+     * {@code x - -y} is {@code x + y}.
+     */
+    public static final RewriteRule SUBTRACT_NEGATION = RewriteRule.binary("x - -y", ArithmeticOperator.SUB,
+            (left, right) -> isNegation(right)
+                    ? new ArithmeticBinaryExpression(left, operand(right), ArithmeticOperator.ADD)
+                    : null);
+
+    /**
+     * {@code -(-x)} is {@code x}.
+     */
+    public static final RewriteRule DOUBLE_NEGATION = RewriteRule.unary("-(-x)", UnaryOperator.SUB,
+            operand -> isNegation(operand) ? operand(operand) : null);
+
+    /**
+     * {@code +x} is {@code x}.
+     */
+    public static final RewriteRule UNARY_PLUS = RewriteRule.unary("+x", UnaryOperator.ADD, operand -> operand);
+
+    /**
+     * Prevent instantiation.
+     */
+    private AlgebraicRules() {
+
+    }
+
+    /**
+     * Gets every rule, in the order they are tried.
+     *
+     * @return the rules.
+     */
+    public static List<RewriteRule> all() {
+        return List.of(ADD_ZERO, SUBTRACT_ZERO, SUBTRACT_FROM_ZERO, SUBTRACT_SELF, MULTIPLY_BY_ONE, MULTIPLY_BY_ZERO,
+                MULTIPLY_BY_MINUS_ONE, DIVIDE_BY_ONE, ADD_NEGATION, SUBTRACT_NEGATION, DOUBLE_NEGATION, UNARY_PLUS);
+    }
+
+    /**
+     * Denotes whether the given expression is a constant with the given value.
+     */
+    private static boolean isValue(Expression expression, long value) {
+        if (expression instanceof NumberFactor) {
+            return ((NumberFactor) expression).getValue() == value;
+        }
+
+        if (expression instanceof UnaryExpression) {
+            UnaryExpression unary = (UnaryExpression) expression;
+            long operandValue = unary.getOperator() == UnaryOperator.SUB ? -value : value;
+
+            return isValue((Expression) unary.getExpression(), operandValue);
+        }
+
+        return false;
+    }
+
+    private static boolean isNegation(Expression expression) {
+        return expression instanceof UnaryExpression
+                && ((UnaryExpression) expression).getOperator() == UnaryOperator.SUB;
+    }
+
+    private static Expression operand(Expression unary) {
+        return (Expression) ((UnaryExpression) unary).getExpression();
+    }
+
+    private static Expression negate(Expression expression) {
+        return new UnaryExpression(UnaryOperator.SUB, expression);
+    }
+
+    private static Expression subtract(Expression left, Expression right) {
+        return new ArithmeticBinaryExpression(left, right, ArithmeticOperator.SUB);
+    }
+
+    /**
+     * Denotes whether the given expressions have the same structure, operators and operands.
+     *
+     * @param left  the first expression.
+     * @param right the second expression.
+     * @return {@code true} if the expressions are the same.
+     */
+    static boolean isSame(AbstractSyntaxTreeNode left, AbstractSyntaxTreeNode right) {
+        // corresponding nodes are compared in pairs from an explicit stack, so depth is not limited by the call stack.
+        Deque<AbstractSyntaxTreeNode> pairs = new ArrayDeque<>(List.of(left, right));
+
+        while (!pairs.isEmpty()) {
+            AbstractSyntaxTreeNode first = pairs.pop();
+            AbstractSyntaxTreeNode second = pairs.pop();
+
+            if (first == second) {
+                continue;
+            }
+
+            if (first instanceof UnaryExpression && second instanceof UnaryExpression) {
+                UnaryExpression firstUnary = (UnaryExpression) first;
+                UnaryExpression secondUnary = (UnaryExpression) second;
+
+                if (firstUnary.getOperator() != secondUnary.getOperator()) {
+                    return false;
+                }
+
+                pairs.push(firstUnary.getExpression());
+                pairs.push(secondUnary.getExpression());
+
+            } else if (first instanceof ArithmeticBinaryExpression && second instanceof ArithmeticBinaryExpression) {
+                ArithmeticBinaryExpression firstBinary = (ArithmeticBinaryExpression) first;
+                ArithmeticBinaryExpression secondBinary = (ArithmeticBinaryExpression) second;
+
+                if (firstBinary.getOperator() != secondBinary.getOperator()) {
+                    return false;
+                }
+
+                pairs.push(firstBinary.getLeft());
+                pairs.push(secondBinary.getLeft());
+                pairs.push(firstBinary.getRight());
+                pairs.push(secondBinary.getRight());
+
+            } else if (first instanceof UnaryExpression || first instanceof ArithmeticBinaryExpression
+                    || !first.equals(second)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Denotes whether the given expression has a division whose divisor is not a constant other than 0 and -1.
+     *
+     * @param node the expression.
+     * @return {@code true} if evaluating the expression may trap.
+     */
+    static boolean mayTrap(AbstractSyntaxTreeNode node) {
+        if (!(node instanceof UnaryExpression) && !(node instanceof ArithmeticBinaryExpression)) {
+            return false;
+        }
+
+        boolean[] mayTrap = new boolean[1];
+
+        // the expression is walked with an explicit stack, so its depth is not limited by the call stack.
+        TreeWalker.walk(node, child -> mayTrap[0] |= child instanceof ArithmeticBinaryExpression
+                && mayTrap((ArithmeticBinaryExpression) child));
+
+        return mayTrap[0];
+    }
+
+    /**
+     * Denotes whether the given expression is a division whose divisor is not a constant other than 0 and -1.
+     */
+    private static boolean mayTrap(ArithmeticBinaryExpression expression) {
+        return expression.getOperator() == ArithmeticOperator.DIV && !(expression.getRight() instanceof NumberFactor
+                && ((NumberFactor) expression.getRight()).getValue() != 0
+                && ((NumberFactor) expression.getRight()).getValue() != -1);
+    }
+
+}
@@ -0,0 +1,65 @@
+package uk.ac.tees.optimise;
+
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.expression.Expression;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Simplifies the arithmetic expressions of a {@link Program} with a list of {@link RewriteRule}s, by default the
+ * algebraic identities of {@link AlgebraicRules}, such as {@code X * 1} to {@code X} and {@code X - X} to {@code 0},
+ * including those of LET and PRINT statements and both sides of IF conditions.
+ *
+ * <p>The rules of each expression are applied bottom-up, until none applies. The number of times each rule was
+ * applied is kept. Simplifying an expression may leave it constant, such as {@code 0 * X + 2}, so this pass is run
+ * before constants are folded, which resolves any IF condition that has become constant.</p>
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class AlgebraicSimplification extends AbstractExpressionPass {
+
+    private final ExpressionRewriter rewriter;
+
+    public AlgebraicSimplification(List<RewriteRule> rules) {
+        this.rewriter = new ExpressionRewriter(rules);
+    }
+
+    public AlgebraicSimplification() {
+        this(AlgebraicRules.all());
+    }
+
+    @Override
+    protected Expression transform(Expression expression) {
+        return rewriter.visitTree(expression);
+    }
+
+    /**
+     * Gets the number of times each rule was applied.
+     *
+     * @return the hits of each rule, by its name, in the order the rules are tried.
+     */
+    public Map<String, Integer> getHits() {
+        return Collections.unmodifiableMap(rewriter.getHits());
+    }
+
+    /**
+     * Gets the total number of times a rule was applied.
+     *
+     * @return the number of hits.
+     */
+    public int getHitCount() {
+        return rewriter.getHits().values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    @Override
+    public String toString() {
+        return "Algebraic simplification: " + getHitCount() + " rewrites " + rewriter.getHits().entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+}
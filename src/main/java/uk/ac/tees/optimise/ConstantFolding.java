@@ -0,0 +1,208 @@
+package uk.ac.tees.optimise;
+
+import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.expression.ConstantArithmetic;
+import uk.ac.tees.syntax.grammar.expression.Expression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.factor.StringLiteral;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Folds the constant expressions of a {@link Program}, using an {@link ExpressionFolder}, including those of LET and
+ * PRINT statements and both sides of IF conditions.
+ *
+ * <p>An IF statement whose condition folds to a constant is resolved. Where the condition holds, the IF statement is
+ * replaced by its statement. Where it does not, the line is removed and GOTO and GOSUB statements that target it are
+ * retargeted to the line that follows, since control would have fallen through to that line. An IF statement on the
+ * last line whose condition does not hold is kept, as there is no following line to retarget to.</p>
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class ConstantFolding implements Pass<Program> {
+
+    private final ExpressionFolder folder = new ExpressionFolder();
+
+    /**
+     * The number of IF statements whose condition was found to be constant.
+     */
+    private int resolvedConditions;
+
+    /**
+     * The line numbers of the lines removed, since their IF condition never holds.
+     */
+    private final List<Integer> removedLines = new ArrayList<>();
+
+    @Override
+    public Program run(Program program) {
+        List<Line> lines = program.lines();
+        List<Line> folded = new ArrayList<>(lines.size());
+        boolean changed = false;
+
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            Statement statement = fold(line.getStatement());
+
+            if (statement == null && i + 1 < lines.size()) {
+                removedLines.add(line.getLineNumber());
+                changed = true;
+                continue;
+            }
+
+            if (statement == null) {
+                statement = line.getStatement();
+            }
+
+            changed |= statement != line.getStatement();
+            folded.add(statement == line.getStatement() ? line : new Line(line.getLineNumber(), statement));
+        }
+
+        if (!removedLines.isEmpty()) {
+            retarget(lines, folded);
+        }
+
+        return changed ? new Program(program.getName(), folded) : program;
+    }
+
+    /**
+     * Folds the constant expressions of the given statement.
+     *
+     * @return the folded statement, the given statement if nothing was folded, or {@code null} if the statement is an
+     * IF statement whose condition never holds.
+     */
+    private Statement fold(Statement statement) {
+        if (statement instanceof LetStatement) {
+            LetStatement let = (LetStatement) statement;
+            Expression value = folder.visitTree(let.getValue());
+
+            return value == let.getValue() ? let : new LetStatement(let.getIdentifier(), value);
+
+        } else if (statement instanceof PrintStatement) {
+            return fold((PrintStatement) statement);
+
+        } else if (statement instanceof IfStatement) {
+            return fold((IfStatement) statement);
+        }
+
+        return statement;
+    }
+
+    private Statement fold(PrintStatement print) {
+        List<AbstractSyntaxTreeNode> expressions = new ArrayList<>(print.getExpressions().size());
+        boolean changed = false;
+
+        for (AbstractSyntaxTreeNode expression : print.getExpressions()) {
+            AbstractSyntaxTreeNode folded = expression instanceof StringLiteral
+                    ? expression
+                    : folder.visitTree((Expression) expression);
+
+            changed |= folded != expression;
+            expressions.add(folded);
+        }
+
+        return changed ? new PrintStatement(expressions) : print;
+    }
+
+    private Statement fold(IfStatement ifStatement) {
+        RelationalBinaryExpression condition = ifStatement.getExpression();
+
+        Expression left = folder.visitTree(condition.getLeft());
+        Expression right = folder.visitTree(condition.getRight());
+
+        if (left instanceof NumberFactor && right instanceof NumberFactor) {
+            resolvedConditions++;
+
+            boolean holds = ConstantArithmetic.compare(condition.getOperator(),
+                    ((NumberFactor) left).getValue(), ((NumberFactor) right).getValue());
+
+            return holds ? fold(ifStatement.getStatement()) : null;
+        }
+
+        Statement statement = fold(ifStatement.getStatement());
+
+        // an IF statement whose inner IF never holds, never executes a statement, but its condition is still evaluated.
+        if (statement == null) {
+            statement = ifStatement.getStatement();
+        }
+
+        if (left == condition.getLeft() && right == condition.getRight() && statement == ifStatement.getStatement()) {
+            return ifStatement;
+        }
+
+        return new IfStatement(new RelationalBinaryExpression(left, right, condition.getOperator()), statement);
+    }
+
+    /**
+     * Retargets each GOTO and GOSUB statement that targets a removed line to the first line after it that remains.
+     */
+    private void retarget(List<Line> original, List<Line> folded) {
+        Map<Integer, Integer> targets = new HashMap<>();
+        int next = -1;
+
+        for (int i = original.size() - 1, j = folded.size() - 1; i >= 0; i--) {
+            int lineNumber = original.get(i).getLineNumber();
+
+            if (j >= 0 && folded.get(j).getLineNumber() == lineNumber) {
+                next = lineNumber;
+                j--;
+
+            } else {
+                targets.put(lineNumber, next);
+            }
+        }
+
+        for (int i = 0; i < folded.size(); i++) {
+            Line line = folded.get(i);
+            Statement statement = retarget(line.getStatement(), targets);
+
+            if (statement != line.getStatement()) {
+                folded.set(i, new Line(line.getLineNumber(), statement));
+            }
+        }
+    }
+
+    private static Statement retarget(Statement statement, Map<Integer, Integer> targets) {
+        if (statement instanceof GoToStatement) {
+            Integer target = targets.get(((GoToStatement) statement).getLineNumber());
+            return target == null ? statement : new GoToStatement(target);
+
+        } else if (statement instanceof GoSubStatement) {
+            Integer target = targets.get(((GoSubStatement) statement).getLineNumber());
+            return target == null ? statement : new GoSubStatement(target);
+
+        } else if (statement instanceof IfStatement) {
+            IfStatement ifStatement = (IfStatement) statement;
+            Statement inner = retarget(ifStatement.getStatement(), targets);
+
+            return inner == ifStatement.getStatement() ? statement : new IfStatement(ifStatement.getExpression(), inner);
+        }
+
+        return statement;
+    }
+
+    public int getFoldedExpressions() {
+        return folder.getFoldCount();
+    }
+
+    public int getResolvedConditions() {
+        return resolvedConditions;
+    }
+
+    public List<Integer> getRemovedLines() {
+        return removedLines;
+    }
+
+    @Override
+    public String toString() {
+        return "Constant folding: folded " + folder.getFoldCount() + " expressions, resolved " + resolvedConditions
+                + " IF conditions and removed " + removedLines.size() + " lines " + removedLines;
+    }
+
+}
@@ -0,0 +1,306 @@
+package uk.ac.tees.optimise;
+
+import uk.ac.tees.semantics.ProgramIndex;
+import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.statement.*;
+import uk.ac.tees.syntax.visitor.TreeWalker;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Removes the LET statements of a {@link Program} whose variable is never read before it is next assigned, so no code
+ * is generated to evaluate the expression or store its value.
+ * <p>
+ * The variables live at each line are found by a backward dataflow over the lines, with each of the 26 variables a
+ * bit of an int. A line is followed by the line after it, unless it is a GOTO, RETURN or END statement, and by the
+ * target of a GOTO or GOSUB statement, including those of IF statements. A RETURN statement is followed by the line
+ * after every GOSUB statement, since it may return to any of them. The condition of an IF statement and the
+ * expressions of a PRINT statement read variables, and a LET or INPUT statement assigns them, but one within an IF
+ * statement may not be executed, so does not end the life of its variable.
+ * <p>
+ * A LET statement on a line of its own is removed if its variable is dead after it, the line is not the target of a
+ * GOTO or GOSUB statement, and its expression has no division that may trap, which would be if its divisor is not a
+ * constant other than 0 and -1. Removing a LET statement may leave the variables read by its expression dead, so
+ * liveness is found again until nothing more is removed. The last assignment of a variable that is still read is
+ * kept, so that the variable is still given a slot on the stack.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class DeadLetElimination implements Pass<Program> {
+
+    /**
+     * The line numbers of the removed lines, in order.
+     */
+    private final List<Integer> removedLines = new ArrayList<>();
+
+    /**
+     * Removes the dead LET statements of the given program. Branch statements that target lines that do not exist
+     * are ignored, so the program need not yet have been verified.
+     *
+     * @param program the program.
+     * @return a program without the dead LET statements of the given program, or the given program if there are none.
+     */
+    @Override
+    public Program run(Program program) {
+        ProgramIndex index = ProgramIndex.of(program);
+        int lineCount = index.lineCount();
+
+        if (lineCount == 0) {
+            return program;
+        }
+
+        boolean[] removed = new boolean[lineCount];
+        boolean[] targeted = new boolean[lineCount];
+        int[] assignments = new int[ProgramIndex.VARIABLE_COUNT];
+
+        for (int i = 0; i < lineCount; i++) {
+            Statement statement = innermost(index.lineAt(i).getStatement());
+            int target = target(index, statement);
+            int assigned = definitions(statement);
+
+            if (target >= 0) {
+                targeted[target] = true;
+            }
+
+            for (int variable = 0; variable < ProgramIndex.VARIABLE_COUNT; variable++) {
+                if ((assigned & 1 << variable) != 0) {
+                    assignments[variable]++;
+                }
+            }
+        }
+
+        boolean changed = true;
+
+        while (changed) {
+            changed = false;
+
+            int[] liveOut = liveOut(index, removed);
+            int read = 0;
+
+            for (int i = 0; i < lineCount; i++) {
+                read |= removed[i] ? 0 : uses(index.lineAt(i).getStatement());
+            }
+
+            for (int i = 0; i < lineCount; i++) {
+                Statement statement = index.lineAt(i).getStatement();
+
+                if (removed[i] || targeted[i] || !(statement instanceof LetStatement)
+                        || AlgebraicRules.mayTrap(((LetStatement) statement).getValue())) {
+                    continue;
+                }
+
+                int variable = ((LetStatement) statement).getIdentifier().getName() - 'A';
+                boolean lastAssignment = assignments[variable] == 1 && (read & 1 << variable) != 0;
+
+                if ((liveOut[i] & 1 << variable) == 0 && !lastAssignment) {
+                    removed[i] = true;
+                    assignments[variable]--;
+                    changed = true;
+                }
+            }
+        }
+
+        List<Line> lines = new ArrayList<>(lineCount);
+
+        for (int i = 0; i < lineCount; i++) {
+            if (removed[i]) {
+                removedLines.add(index.lineAt(i).getLineNumber());
+
+            } else {
+                lines.add(index.lineAt(i));
+            }
+        }
+
+        return removedLines.isEmpty() ? program : new Program(program.getName(), lines);
+    }
+
+    /**
+     * Finds the variables live after each line, treating removed lines as if they were not there.
+     */
+    private static int[] liveOut(ProgramIndex index, boolean[] removed) {
+        int lineCount = index.lineCount();
+        int[] uses = new int[lineCount];
+        int[] definitions = new int[lineCount];
+        int[][] successors = new int[lineCount][];
+        List<Integer> returnPoints = new ArrayList<>();
+
+        for (int i = 0; i < lineCount; i++) {
+            Statement statement = index.lineAt(i).getStatement();
+            boolean conditional = statement instanceof IfStatement;
+            boolean fallsThrough = true;
+
+            if (!removed[i]) {
+                uses[i] = uses(statement);
+            }
+
+            statement = innermost(statement);
+
+            if (!removed[i] && !conditional) {
+                definitions[i] = definitions(statement);
+                fallsThrough = !(statement instanceof GoToStatement
+                        || statement instanceof ReturnStatement
+                        || statement instanceof EndStatement);
+            }
+
+            int target = removed[i] ? -1 : target(index, statement);
+
+            if (statement instanceof GoSubStatement && i + 1 < lineCount) {
+                returnPoints.add(i + 1);
+            }
+
+            List<Integer> following = new ArrayList<>(2);
+
+            if (target >= 0) {
+                following.add(target);
+            }
+
+            if (fallsThrough && i + 1 < lineCount) {
+                following.add(i + 1);
+            }
+
+            successors[i] = following.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        int[] returns = returnPoints.stream().mapToInt(Integer::intValue).toArray();
+        int[] liveIn = new int[lineCount];
+        int[] liveOut = new int[lineCount];
+        boolean changed = true;
+
+        // later lines are mostly successors, so visiting them first propagates liveness in fewer iterations.
+        while (changed) {
+            changed = false;
+
+            for (int i = lineCount - 1; i >= 0; i--) {
+                Statement statement = index.lineAt(i).getStatement();
+                int out = 0;
+
+                for (int successor : successors[i]) {
+                    out |= liveIn[successor];
+                }
+
+                if (!removed[i] && innermost(statement) instanceof ReturnStatement) {
+                    for (int successor : returns) {
+                        out |= liveIn[successor];
+                    }
+                }
+
+                int in = uses[i] | out & ~definitions[i];
+
+                if (in != liveIn[i] || out != liveOut[i]) {
+                    liveIn[i] = in;
+                    liveOut[i] = out;
+                    changed = true;
+                }
+            }
+        }
+
+        return liveOut;
+    }
+
+    /**
+     * Gets the statement executed by the given statement, that of an IF statement if its condition holds.
+     */
+    private static Statement innermost(Statement statement) {
+        while (statement instanceof IfStatement) {
+            statement = ((IfStatement) statement).getStatement();
+        }
+
+        return statement;
+    }
+
+    /**
+     * Gets the position of the line targeted by the given GOTO or GOSUB statement.
+     *
+     * @return the position, or a negative value if the statement is not a branch or its target does not exist.
+     */
+    private static int target(ProgramIndex index, Statement statement) {
+        if (statement instanceof GoToStatement) {
+            return index.indexOf(((GoToStatement) statement).getLineNumber());
+        }
+
+        if (statement instanceof GoSubStatement) {
+            return index.indexOf(((GoSubStatement) statement).getLineNumber());
+        }
+
+        return -1;
+    }
+
+    /**
+     * Gets the variables read by the given statement, including the statement of an IF statement.
+     */
+    private static int uses(Statement statement) {
+        int variables = 0;
+
+        while (statement instanceof IfStatement) {
+            variables |= variables(((IfStatement) statement).getExpression());
+            statement = ((IfStatement) statement).getStatement();
+        }
+
+        if (statement instanceof LetStatement) {
+            variables |= variables(((LetStatement) statement).getValue());
+
+        } else if (statement instanceof PrintStatement) {
+            for (AbstractSyntaxTreeNode expression : ((PrintStatement) statement).getExpressions()) {
+                variables |= variables(expression);
+            }
+        }
+
+        return variables;
+    }
+
+    /**
+     * Gets the variables assigned by the given statement, which must not be an IF statement.
+     */
+    private static int definitions(Statement statement) {
+        if (statement instanceof LetStatement) {
+            return 1 << ((LetStatement) statement).getIdentifier().getName() - 'A';
+        }
+
+        int variables = 0;
+
+        if (statement instanceof InputStatement) {
+            for (UnassignedIdentifier identifier : ((InputStatement) statement).getIdentifiers()) {
+                variables |= 1 << identifier.getName() - 'A';
+            }
+        }
+
+        return variables;
+    }
+
+    /**
+     * Gets the variables read by the given expression, walking it with an explicit stack so that the depth of an
+     * expression is not limited by the call stack.
+     */
+    private static int variables(AbstractSyntaxTreeNode node) {
+        int[] variables = new int[1];
+
+        TreeWalker.walk(node, child -> {
+            if (child instanceof IdentifierFactor) {
+                variables[0] |= 1 << ((IdentifierFactor) child).getName() - 'A';
+            }
+        });
+
+        return variables[0];
+    }
+
+    /**
+     * Gets the line numbers of the lines removed, in order.
+     *
+     * @return the removed line numbers.
+     */
+    public List<Integer> getRemovedLines() {
+        return Collections.unmodifiableList(removedLines);
+    }
+
+    @Override
+    public String toString() {
+        return "Dead LET elimination: removed " + removedLines.size() + " lines " + removedLines;
+    }
+
+}
@@ -0,0 +1,106 @@
+package uk.ac.tees.optimise;
+
+import uk.ac.tees.syntax.grammar.expression.ConstantArithmetic;
+import uk.ac.tees.syntax.grammar.expression.Expression;
+import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
+import uk.ac.tees.syntax.grammar.expression.UnaryOperator;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
+import uk.ac.tees.syntax.visitor.TreeWalker;
+import uk.ac.tees.syntax.visitor.Visitor;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Folds the constant subexpressions of an arithmetic expression into {@link NumberFactor}s, producing a new
+ * expression. Subexpressions that are unchanged are reused rather than copied.
+ *
+ * <p>Values are computed as they would be at runtime, on 64-bit integers, but a result is only folded if it fits in
+ * the 32-bit value of a {@link NumberFactor}. Divisions that would trap at runtime are never folded.</p>
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+final class ExpressionFolder extends AbstractSyntaxTreeVisitor<Expression, Expression> {
+
+    /**
+     * The folded form of each visited subexpression whose parent is yet to be visited.
+     */
+    private final Deque<Expression> folded = new ArrayDeque<>();
+
+    /**
+     * The number of subexpressions folded.
+     */
+    private int foldCount;
+
+    @Override
+    public Expression visitTree(Expression root) {
+        TreeWalker.walk(root, this);
+
+        return folded.pop();
+    }
+
+    int getFoldCount() {
+        return foldCount;
+    }
+
+    /**
+     * Gets the given value as a number, if it fits in one.
+     */
+    private Expression number(long value, Expression otherwise) {
+        if (value != (int) value) {
+            return otherwise;
+        }
+
+        foldCount++;
+        return new NumberFactor((int) value);
+    }
+
+    @Visitor(types = {NumberFactor.class, IdentifierFactor.class})
+    void visit(Expression node) {
+        folded.push(node);
+    }
+
+    @Visitor
+    void visit(UnaryExpression node) {
+        Expression operand = folded.pop();
+
+        if (node.getOperator() == UnaryOperator.ADD) {
+            folded.push(operand);
+
+        } else if (operand instanceof NumberFactor) {
+            folded.push(number(-(long) ((NumberFactor) operand).getValue(), node));
+
+        } else {
+            folded.push(operand == node.getExpression() ? node : new UnaryExpression(node.getOperator(), operand));
+        }
+    }
+
+    @Visitor
+    void visit(ArithmeticBinaryExpression node) {
+        Expression right = folded.pop();
+        Expression left = folded.pop();
+
+        Expression unfolded = left == node.getLeft() && right == node.getRight()
+                ? node
+                : new ArithmeticBinaryExpression(left, right, node.getOperator());
+
+        if (!(left instanceof NumberFactor) || !(right instanceof NumberFactor)) {
+            folded.push(unfolded);
+            return;
+        }
+
+        try {
+            long value = ConstantArithmetic.evaluate(node.getOperator(),
+                    ((NumberFactor) left).getValue(), ((NumberFactor) right).getValue());
+
+            folded.push(number(value, unfolded));
+
+        } catch (ArithmeticException e) {
+            folded.push(unfolded);
+        }
+    }
+
+}
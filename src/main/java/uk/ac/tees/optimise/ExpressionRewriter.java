@@ -0,0 +1,156 @@
+package uk.ac.tees.optimise;
+
+import uk.ac.tees.syntax.grammar.expression.Expression;
+import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
+import uk.ac.tees.syntax.visitor.TreeWalker;
+import uk.ac.tees.syntax.visitor.Visitor;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrites an arithmetic expression with a list of {@link RewriteRule}s, producing a new expression. Subexpressions
+ * that are unchanged are reused rather than copied.
+ *
+ * <p>Rules are applied bottom-up. Once the operands of a subexpression have been rewritten, the first rule that
+ * applies to it is applied, and the expression it produces is rewritten in the same way, until no rule applies. Only
+ * the nodes a rule builds are rewritten again, the operands it was given are already rewritten, so each node is
+ * rewritten once however deep the expression is.</p>
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+final class ExpressionRewriter extends AbstractSyntaxTreeVisitor<Expression, Expression> {
+
+    /**
+     * The rewritten form of each visited subexpression whose parent is yet to be visited.
+     */
+    private final Deque<Expression> rewritten = new ArrayDeque<>();
+
+    /**
+     * The expressions that are already rewritten, to which no rule applies.
+     */
+    private final Set<Expression> done = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private final List<RewriteRule> rules;
+
+    /**
+     * The number of times each rule has been applied, by its name, in the order the rules are tried.
+     */
+    private final Map<String, Integer> hits = new LinkedHashMap<>();
+
+    ExpressionRewriter(List<RewriteRule> rules) {
+        this.rules = List.copyOf(rules);
+        rules.forEach(rule -> hits.put(rule.getName(), 0));
+    }
+
+    @Override
+    public Expression visitTree(Expression root) {
+        done.clear();
+        TreeWalker.walk(root, this);
+
+        return rewritten.pop();
+    }
+
+    Map<String, Integer> getHits() {
+        return hits;
+    }
+
+    /**
+     * Applies the first rule that applies to the given expression, whose operands have already been rewritten.
+     */
+    private Expression rewrite(Expression expression) {
+        for (Expression result = apply(expression); result != null; result = apply(expression)) {
+            // a rule may return an operand it was given, which is already rewritten.
+            if (done.contains(result)) {
+                return result;
+            }
+
+            expression = rewriteBuilt(result);
+        }
+
+        done.add(expression);
+        return expression;
+    }
+
+    /**
+     * Rewrites the operands a rule built, treating those that are already rewritten as leaves, so the expression
+     * produced by the rule can itself be rewritten.
+     */
+    private Expression rewriteBuilt(Expression expression) {
+        if (expression instanceof UnaryExpression) {
+            UnaryExpression unary = (UnaryExpression) expression;
+            Expression operand = rewriteOperand((Expression) unary.getExpression());
+
+            return operand == unary.getExpression() ? unary : new UnaryExpression(unary.getOperator(), operand);
+        }
+
+        if (expression instanceof ArithmeticBinaryExpression) {
+            ArithmeticBinaryExpression binary = (ArithmeticBinaryExpression) expression;
+            Expression left = rewriteOperand(binary.getLeft());
+            Expression right = rewriteOperand(binary.getRight());
+
+            return left == binary.getLeft() && right == binary.getRight()
+                    ? binary
+                    : new ArithmeticBinaryExpression(left, right, binary.getOperator());
+        }
+
+        return expression;
+    }
+
+    private Expression rewriteOperand(Expression operand) {
+        return done.contains(operand) ? operand : rewrite(rewriteBuilt(operand));
+    }
+
+    /**
+     * Applies the first rule that applies to the given expression.
+     *
+     * @return the expression produced by the rule, or {@code null} if no rule applies.
+     */
+    private Expression apply(Expression expression) {
+        for (RewriteRule rule : rules) {
+            Expression result = rule.rewrite(expression);
+
+            if (result != null) {
+                hits.merge(rule.getName(), 1, Integer::sum);
+                return result;
+            }
+        }
+
+        return null;
+    }
+
+    @Visitor(types = {NumberFactor.class, IdentifierFactor.class})
+    void visit(Expression node) {
+        rewritten.push(rewrite(node));
+    }
+
+    @Visitor
+    void visit(UnaryExpression node) {
+        Expression operand = rewritten.pop();
+
+        rewritten.push(rewrite(operand == node.getExpression()
+                ? node
+                : new UnaryExpression(node.getOperator(), operand)));
+    }
+
+    @Visitor
+    void visit(ArithmeticBinaryExpression node) {
+        Expression right = rewritten.pop();
+        Expression left = rewritten.pop();
+
+        rewritten.push(rewrite(left == node.getLeft() && right == node.getRight()
+                ? node
+                : new ArithmeticBinaryExpression(left, right, node.getOperator())));
+    }
+
+}
@@ -0,0 +1,135 @@
+package uk.ac.tees.optimise;
+
+import uk.ac.tees.codegeneration.CodeGenerationOption;
+import uk.ac.tees.codegeneration.x86_64.X86_64BranchOptimiser;
+import uk.ac.tees.codegeneration.x86_64.X86_64PeepholeOptimiser;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.transform.DeadStoreElimination;
+import uk.ac.tees.ir.transform.LocalValueNumbering;
+import uk.ac.tees.ir.transform.LoopInvariantCodeMotion;
+import uk.ac.tees.ir.transform.LoopUnrolling;
+import uk.ac.tees.ir.transform.SparseConditionalConstantPropagation;
+import uk.ac.tees.ir.transform.SubroutineInlining;
+import uk.ac.tees.syntax.grammar.Program;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The level of optimisation, selected with -O0, -O1 or -O2, which determines the passes run over a program and how it
+ * is compiled.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public enum OptimisationLevel {
+
+    /**
+     * No optimisation, the program is compiled exactly as written.
+     */
+    O0,
+
+    /**
+     * Optimises the abstract syntax tree, the code generated and the assembly code, see {@link #syntaxTreePasses()},
+     * {@link #codeGenerationOptions()} and {@link #assemblyPasses(Set)}. The passes of {@link #intermediatePasses()}
+     * only run when three-address code is generated, with --ir-backend or -i, or at {@link #O2}.
+     */
+    O1,
+
+    /**
+     * As {@link #O1}, and the program is always compiled through three-address code.
+     */
+    O2;
+
+    /**
+     * Gets the optimisation level with the given number.
+     *
+     * @param level the number of the level, as given after -O.
+     * @return the optimisation level.
+     * @throws IllegalArgumentException if there is no such level.
+     */
+    public static OptimisationLevel of(String level) {
+        for (OptimisationLevel value : values()) {
+            if (value.name().substring(1).equals(level)) {
+                return value;
+            }
+        }
+
+        throw new IllegalArgumentException("Unsupported optimisation level! " + level);
+    }
+
+    /**
+     * Creates the passes to run over the abstract syntax tree, in order.
+     *
+     * @return new instances of the abstract syntax tree passes of this level.
+     */
+    public List<Pass<Program>> syntaxTreePasses() {
+        if (this == O0) {
+            return List.of();
+        }
+
+        // simplifying and reassociating expressions may leave them constant, so is done before folding. Folding
+        // constant IF statements may leave lines unreachable, so folding comes next, and the LET statements of
+        // unreachable lines no longer keep variables live.
+        return List.of(new AlgebraicSimplification(), new Reassociation(), new ConstantFolding(),
+                new UnreachableLineElimination(), new DeadLetElimination());
+    }
+
+    /**
+     * Creates the passes to run over three-address code, in order.
+     *
+     * @return new instances of the three-address code passes of this level.
+     */
+    public List<Pass<ControlFlowGraph>> intermediatePasses() {
+        if (this == O0) {
+            return List.of();
+        }
+
+        // subroutines are inlined first, so constants are propagated into them, and computations are made constant
+        // or reused before hoisting, so they are not hoisted needlessly. Loops are unrolled once their invariant
+        // computations have been hoisted, so they are not copied. Dead stores are removed last, including those left
+        // by the copies of the other passes.
+        return List.of(new SubroutineInlining(), new SparseConditionalConstantPropagation(),
+                new LocalValueNumbering(), new LoopInvariantCodeMotion(), new LoopUnrolling(),
+                new DeadStoreElimination());
+    }
+
+    /**
+     * Creates the passes to run over the generated assembly code, in order.
+     *
+     * @param assignedRegisters the registers assigned to variables by the code generator.
+     * @return new instances of the assembly code passes of this level.
+     */
+    public List<Pass<String>> assemblyPasses(Set<String> assignedRegisters) {
+        if (this == O0) {
+            return List.of();
+        }
+
+        return List.of(new X86_64BranchOptimiser(), new X86_64PeepholeOptimiser(assignedRegisters));
+    }
+
+    /**
+     * Gets the optimisations applied by the code generator.
+     *
+     * @return the code generation options of this level.
+     */
+    public Set<CodeGenerationOption> codeGenerationOptions() {
+        if (this == O0) {
+            return EnumSet.noneOf(CodeGenerationOption.class);
+        }
+
+        return EnumSet.of(CodeGenerationOption.STRENGTH_REDUCTION, CodeGenerationOption.REGISTER_EXPRESSIONS,
+                CodeGenerationOption.REGISTER_ALLOCATION, CodeGenerationOption.LABEL_PRUNING,
+                CodeGenerationOption.COUNTED_LOOPS, CodeGenerationOption.CONSTANT_OUTPUT);
+    }
+
+    /**
+     * Denotes whether programs are always compiled through three-address code at this level.
+     *
+     * @return {@code true} if the three-address code backend is used.
+     */
+    public boolean usesIntermediateRepresentation() {
+        return this == O2;
+    }
+
+}
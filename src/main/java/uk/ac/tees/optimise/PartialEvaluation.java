@@ -0,0 +1,358 @@
+package uk.ac.tees.optimise;
+
+import uk.ac.tees.codegeneration.x86_64.X86_64AsciiConversion;
+import uk.ac.tees.semantics.ProgramIndex;
+import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.expression.ConstantArithmetic;
+import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
+import uk.ac.tees.syntax.grammar.expression.UnaryOperator;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.factor.StringLiteral;
+import uk.ac.tees.syntax.grammar.statement.*;
+import uk.ac.tees.syntax.visitor.TraversalListener;
+import uk.ac.tees.syntax.visitor.TreeWalker;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Runs a {@link Program} at compile time, and if it ends without reading input, replaces it with a program that
+ * only writes the output it produced, a single PRINT of a string followed by END.
+ *
+ * <p>The program is interpreted exactly as the generated code would run it, on 64-bit integers that wrap on overflow,
+ * with values printed as {@link X86_64AsciiConversion} converts them. Where it cannot be run to the end, the program
+ * is returned unchanged and compiled as usual. That is, if it reaches an INPUT statement, a division that would trap,
+ * a variable read before it is assigned, a RETURN without a GOSUB, a missing line or the end of the last line, or if
+ * it runs for more than a budget of statements, nests GOSUBs too deeply or writes more output than is allowed.</p>
+ *
+ * <p>Since the program is only run to the end, its output and exit status are unchanged. The program as written is
+ * still verified by the semantic analyser, so errors are reported as usual.</p>
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class PartialEvaluation implements Pass<Program> {
+
+    /**
+     * The default maximum number of statements run.
+     */
+    private static final int DEFAULT_STEP_BUDGET = 1_000_000;
+
+    /**
+     * The default maximum number of bytes of output, written to the read-only data of the program.
+     */
+    private static final int DEFAULT_OUTPUT_LIMIT = 1 << 16;
+
+    /**
+     * The maximum number of GOSUBs awaiting a RETURN, beyond which the stack of the generated code may overflow.
+     */
+    private static final int MAX_SUBROUTINE_DEPTH = 1 << 16;
+
+    private final int stepBudget;
+
+    private final int outputLimit;
+
+    /**
+     * The values of the variables, by the offset of their name from 'A'.
+     */
+    private final long[] variables = new long[ProgramIndex.VARIABLE_COUNT];
+
+    /**
+     * The variables assigned, bit n is set if the variable named ('A' + n) has been assigned.
+     */
+    private int assigned;
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    /**
+     * The number of statements run.
+     */
+    private int steps;
+
+    /**
+     * The reason the program could not be run to the end, or {@code null} if it was.
+     */
+    private String fallback;
+
+    public PartialEvaluation(int stepBudget, int outputLimit) {
+        this.stepBudget = stepBudget;
+        this.outputLimit = outputLimit;
+    }
+
+    public PartialEvaluation() {
+        this(DEFAULT_STEP_BUDGET, DEFAULT_OUTPUT_LIMIT);
+    }
+
+    @Override
+    public Program run(Program program) {
+        try {
+            evaluate(ProgramIndex.of(program));
+
+        } catch (EvaluationException e) {
+            fallback = e.getMessage();
+            return program;
+        }
+
+        if (output.size() == 0) {
+            return new Program(program.getName(), List.of(new Line(10, new EndStatement())));
+        }
+
+        return new Program(program.getName(), List.of(
+                new Line(10, new PrintStatement(literal(output.toByteArray()))),
+                new Line(20, new EndStatement())));
+    }
+
+    /**
+     * Runs the indexed program from its first line until it reaches an END statement.
+     *
+     * @throws EvaluationException if the program cannot be run to the end.
+     */
+    private void evaluate(ProgramIndex index) throws EvaluationException {
+        Deque<Integer> returns = new ArrayDeque<>();
+        int position = 0;
+
+        while (true) {
+            if (position >= index.lineCount()) {
+                throw new EvaluationException("control passes the last line");
+            }
+
+            if (++steps > stepBudget) {
+                throw new EvaluationException("step budget of " + stepBudget + " exceeded");
+            }
+
+            Statement statement = index.lineAt(position).getStatement();
+
+            while (statement instanceof IfStatement && holds(((IfStatement) statement).getExpression())) {
+                statement = ((IfStatement) statement).getStatement();
+            }
+
+            if (statement instanceof IfStatement) {
+                position++;
+
+            } else if (statement instanceof LetStatement) {
+                LetStatement let = (LetStatement) statement;
+                int variable = let.getIdentifier().getName() - 'A';
+
+                variables[variable] = evaluate(let.getValue());
+                assigned |= 1 << variable;
+                position++;
+
+            } else if (statement instanceof PrintStatement) {
+                print((PrintStatement) statement);
+                position++;
+
+            } else if (statement instanceof GoToStatement) {
+                position = positionOf(index, ((GoToStatement) statement).getLineNumber());
+
+            } else if (statement instanceof GoSubStatement) {
+                if (returns.size() == MAX_SUBROUTINE_DEPTH) {
+                    throw new EvaluationException("GOSUB nested more than " + MAX_SUBROUTINE_DEPTH + " deep");
+                }
+
+                returns.push(position + 1);
+                position = positionOf(index, ((GoSubStatement) statement).getLineNumber());
+
+            } else if (statement instanceof ReturnStatement) {
+                if (returns.isEmpty()) {
+                    throw new EvaluationException("RETURN without GOSUB");
+                }
+
+                position = returns.pop();
+
+            } else if (statement instanceof EndStatement) {
+                return;
+
+            } else if (statement instanceof InputStatement) {
+                throw new EvaluationException("reads input");
+
+            } else {
+                throw new EvaluationException("unsupported statement " + statement);
+            }
+        }
+    }
+
+    private static int positionOf(ProgramIndex index, int lineNumber) throws EvaluationException {
+        int position = index.indexOf(lineNumber);
+
+        if (position < 0) {
+            throw new EvaluationException("no line " + lineNumber);
+        }
+
+        return position;
+    }
+
+    private boolean holds(RelationalBinaryExpression condition) throws EvaluationException {
+        return ConstantArithmetic.compare(condition.getOperator(), evaluate(condition.getLeft()),
+                evaluate(condition.getRight()));
+    }
+
+    /**
+     * Evaluates the given expression, walking it with an explicit stack so that the depth of an expression is not
+     * limited by the call stack.
+     */
+    private long evaluate(AbstractSyntaxTreeNode node) throws EvaluationException {
+        if (node instanceof NumberFactor) {
+            return ((NumberFactor) node).getValue();
+        }
+
+        ExpressionEvaluator evaluator = new ExpressionEvaluator();
+        TreeWalker.walk(node, evaluator);
+
+        if (evaluator.failure != null) {
+            throw new EvaluationException(evaluator.failure);
+        }
+
+        return evaluator.values.pop();
+    }
+
+    /**
+     * Writes the output of the given PRINT statement.
+     */
+    private void print(PrintStatement print) throws EvaluationException {
+        for (AbstractSyntaxTreeNode expression : print.getExpressions()) {
+            if (expression instanceof StringLiteral) {
+                // the characters of the literal are written as the code generator writes them to its data.
+                for (char character : ((StringLiteral) expression).getValue().replaceAll("\"", "")
+                        .translateEscapes().toCharArray()) {
+                    if (character > 0xFF) {
+                        throw new EvaluationException("character " + (int) character + " is not a byte");
+                    }
+
+                    output.write(character);
+                }
+
+            } else {
+                output.writeBytes(X86_64AsciiConversion.decimalToAscii(evaluate(expression)));
+            }
+        }
+
+        if (output.size() > outputLimit) {
+            throw new EvaluationException("output exceeds " + outputLimit + " bytes");
+        }
+    }
+
+    /**
+     * Creates a string literal of the given bytes, escaping those that are not printable.
+     */
+    private static StringLiteral literal(byte[] bytes) {
+        StringBuilder builder = new StringBuilder("\"");
+
+        for (byte value : bytes) {
+            int character = value & 0xFF;
+
+            // octal escapes are always three digits, so a digit that follows is not taken as part of one.
+            if (character >= ' ' && character <= '~' && character != '"' && character != '\\') {
+                builder.append((char) character);
+
+            } else {
+                builder.append(String.format("\\%03o", character));
+            }
+        }
+
+        return new StringLiteral(builder.append('"').toString());
+    }
+
+    /**
+     * Denotes whether the program was run to the end, and replaced by its output.
+     *
+     * @return {@code true} if the program was evaluated.
+     */
+    public boolean isEvaluated() {
+        return steps > 0 && fallback == null;
+    }
+
+    /**
+     * Gets the reason the program could not be run to the end.
+     *
+     * @return the reason, or {@code null} if it was run to the end.
+     */
+    public String getFallback() {
+        return fallback;
+    }
+
+    public int getSteps() {
+        return steps;
+    }
+
+    @Override
+    public String toString() {
+        if (fallback != null) {
+            return "Partial evaluation: not evaluated, " + fallback + " after " + steps + " steps";
+        }
+
+        return "Partial evaluation: evaluated in " + steps + " steps, " + output.size() + " bytes of output";
+    }
+
+    /**
+     * Evaluates the nodes of an expression as they are visited, after their operands, on a stack of values.
+     */
+    private final class ExpressionEvaluator implements TraversalListener {
+
+        private final Deque<Long> values = new ArrayDeque<>();
+
+        /**
+         * The reason the expression cannot be evaluated, or {@code null} if it can.
+         */
+        private String failure;
+
+        @Override
+        public void visit(AbstractSyntaxTreeNode node) {
+            if (failure != null) {
+                return;
+            }
+
+            if (node instanceof NumberFactor) {
+                values.push((long) ((NumberFactor) node).getValue());
+
+            } else if (node instanceof IdentifierFactor) {
+                int variable = ((IdentifierFactor) node).getName() - 'A';
+
+                if ((assigned & 1 << variable) == 0) {
+                    failure = "variable " + (char) ('A' + variable) + " read before it is assigned";
+                    return;
+                }
+
+                values.push(variables[variable]);
+
+            } else if (node instanceof UnaryExpression) {
+                long value = values.pop();
+
+                values.push(((UnaryExpression) node).getOperator() == UnaryOperator.SUB ? -value : value);
+
+            } else if (node instanceof ArithmeticBinaryExpression) {
+                long right = values.pop();
+                long left = values.pop();
+
+                try {
+                    values.push(ConstantArithmetic.evaluate(((ArithmeticBinaryExpression) node).getOperator(), left,
+                            right));
+
+                } catch (ArithmeticException e) {
+                    failure = "division traps";
+                }
+
+            } else {
+                failure = "unsupported expression " + node;
+            }
+        }
+
+    }
+
+    /**
+     * Thrown when a program cannot be run to the end at compile time.
+     */
+    private static final class EvaluationException extends Exception {
+
+        EvaluationException(String message) {
+            super(message);
+        }
+
+    }
+
+}
@@ -0,0 +1,32 @@
+package uk.ac.tees.optimise;
+
+/**
+ * An optimisation pass over a unit of a program, either its abstract syntax tree or its three-address code. Passes
+ * are run in order by a {@link PassManager}, each being given the output of the last.
+ *
+ * <p>A pass holds the details of what it changed, reported by its {@link Object#toString()}, so a new instance is
+ * created for each compilation.</p>
+ *
+ * @param <T> the type of unit this pass transforms.
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public interface Pass<T> {
+
+    /**
+     * Runs this pass over the given unit.
+     *
+     * @param unit the unit to optimise.
+     * @return the optimised unit, which may be the given unit, changed in place or unchanged.
+     */
+    T run(T unit);
+
+    /**
+     * Gets the name of this pass, used when reporting the time each pass takes.
+     *
+     * @return the name of this pass.
+     */
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
+}
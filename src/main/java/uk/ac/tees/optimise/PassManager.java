@@ -0,0 +1,79 @@
+package uk.ac.tees.optimise;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Runs an ordered list of {@link Pass}es over a unit of a program, timing each of them.
+ *
+ * @param <T> the type of unit the passes transform.
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class PassManager<T> {
+
+    private static final Logger LOGGER = Logger.getLogger(PassManager.class.getName());
+
+    /**
+     * The passes to run, in order.
+     */
+    private final List<Pass<T>> passes;
+
+    /**
+     * The time, in nanoseconds, each pass took on the last run, at the position of that pass.
+     */
+    private final long[] timings;
+
+    public PassManager(List<Pass<T>> passes) {
+        this.passes = List.copyOf(passes);
+        this.timings = new long[passes.size()];
+    }
+
+    /**
+     * Runs each pass over the given unit, in order, logging what each pass changed.
+     *
+     * @param unit the unit to optimise.
+     * @return the unit output by the last pass, or the given unit if there are no passes.
+     */
+    public T run(T unit) {
+        for (int i = 0; i < passes.size(); i++) {
+            Pass<T> pass = passes.get(i);
+            long start = System.nanoTime();
+
+            unit = pass.run(unit);
+
+            timings[i] = System.nanoTime() - start;
+            LOGGER.fine(pass::toString);
+        }
+
+        return unit;
+    }
+
+    public List<Pass<T>> getPasses() {
+        return passes;
+    }
+
+    /**
+     * Gets the time the pass at the given position took on the last run.
+     *
+     * @param position the position of the pass.
+     * @return the time taken, in nanoseconds.
+     */
+    public long getTiming(int position) {
+        return timings[position];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("Ran ").append(passes.size()).append(" passes");
+        long total = 0;
+
+        for (int i = 0; i < passes.size(); i++) {
+            builder.append(i == 0 ? ": " : ", ")
+                    .append(passes.get(i).getName()).append(' ').append(timings[i] / 1000).append("us");
+            total += timings[i];
+        }
+
+        return builder.append(", ").append(total / 1000).append("us in total").toString();
+    }
+
+}
@@ -0,0 +1,507 @@
+package uk.ac.tees.optimise;
+
+import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.expression.Expression;
+import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
+import uk.ac.tees.syntax.grammar.expression.UnaryOperator;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.visitor.TraversalListener;
+import uk.ac.tees.syntax.visitor.TreeWalker;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reassociates the chains of additions and subtractions, and of multiplications, in the arithmetic expressions of a
+ * {@link Program}, so that their constants are combined and they are evaluated as balanced trees.
+ *
+ * <p>The parser builds left-deep trees, so {@code A + B + C + D + 5 + 7} is evaluated as a single chain of dependent
+ * additions, and its constants are never added to each other. The operands of a chain, other than its constants, are
+ * paired off into a tree whose depth is logarithmic in their number, so independent pairs can be evaluated at the
+ * same time, and the constants are combined into one, applied last so it can be an immediate operand, giving
+ * {@code ((A + B) + (C + D)) + 12}. Subtracted operands keep their sign, as in {@code (A - B) - (C + D)}, and unary
+ * minus is moved out of a product. Divisions are left in place, though the expressions they divide are
+ * reassociated.</p>
+ *
+ * <p>Addition, subtraction and multiplication on the 64-bit integers of the generated code wrap on overflow, and are
+ * associative and commutative, so the reassociated chain has exactly the value of the original, even where part of
+ * the original overflowed. Expressions have no side effects, and every operand is still evaluated, so a division
+ * that traps still does. Combined constants are only folded if they fit in a {@link NumberFactor}, otherwise they are
+ * grouped into a subtree of their own. A chain is only rebuilt if constants are combined or its depth is reduced.</p>
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class Reassociation extends AbstractExpressionPass {
+
+    /**
+     * The operator of the chain that each node of the expression being reassociated is a link of, other than the
+     * roots of chains.
+     */
+    private final Map<AbstractSyntaxTreeNode, ArithmeticOperator> links = new IdentityHashMap<>();
+
+    /**
+     * The reassociated form of each chain root and division that was changed.
+     */
+    private final Map<AbstractSyntaxTreeNode, Expression> results = new IdentityHashMap<>();
+
+    /**
+     * The depth of each subexpression found so far.
+     */
+    private final Map<AbstractSyntaxTreeNode, Integer> depths = new IdentityHashMap<>();
+
+    /**
+     * The number of chains rebuilt.
+     */
+    private int reassociatedChains;
+
+    /**
+     * The number of constants combined with another.
+     */
+    private int combinedConstants;
+
+    @Override
+    protected Expression transform(Expression expression) {
+        links.clear();
+        results.clear();
+        depths.clear();
+
+        TreeWalker.walk(expression, new ChainWalker());
+
+        return result(expression);
+    }
+
+    /**
+     * Gets the reassociated form of the given node, once it has been left by the walk.
+     */
+    private Expression result(AbstractSyntaxTreeNode node) {
+        Expression result = results.get(node);
+
+        return result == null ? (Expression) node : result;
+    }
+
+    /**
+     * Gets the operator of the chain the given node would begin, were it not a link of another chain.
+     *
+     * @return the operator, {@link ArithmeticOperator#ADD} for unary minus, additions and subtractions, or
+     * {@code null} if the node is not part of a chain.
+     */
+    private static ArithmeticOperator chainOperator(AbstractSyntaxTreeNode node) {
+        if (node instanceof UnaryExpression) {
+            return ArithmeticOperator.ADD;
+        }
+
+        if (!(node instanceof ArithmeticBinaryExpression)) {
+            return null;
+        }
+
+        switch (((ArithmeticBinaryExpression) node).getOperator()) {
+            case ADD:
+            case SUB:
+                return ArithmeticOperator.ADD;
+
+            case MUL:
+                return ArithmeticOperator.MUL;
+
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Reassociates the chain with the given root as a chain of the operator of the given, empty, chain. The operands
+     * of the chain have already been reassociated.
+     */
+    private Expression reassociate(Expression expression, Chain chain) {
+        gather(expression, chain);
+
+        int constantCount = chain.constants.size();
+        Expression rebuilt = chain.build();
+
+        if (!chain.changed && constantCount < 2 && depth(rebuilt) >= depth(expression)) {
+            return expression;
+        }
+
+        reassociatedChains++;
+        combinedConstants += Math.max(constantCount - 1, 0);
+
+        return rebuilt;
+    }
+
+    /**
+     * Adds the operands of the chain with the given root to the given chain, in the order they are written, using an
+     * explicit stack so that the length of a chain is not limited by the call stack. A term is negated by an odd
+     * number of subtractions and unary minuses within a chain of additions and subtractions.
+     */
+    private void gather(Expression root, Chain chain) {
+        Deque<Term> terms = new ArrayDeque<>();
+        terms.push(new Term(root, false));
+
+        while (!terms.isEmpty()) {
+            Term term = terms.pop();
+            Expression expression = term.expression;
+
+            if (expression != root && !links.containsKey(expression)) {
+                if (expression instanceof NumberFactor) {
+                    chain.constants.add(term);
+
+                } else {
+                    Expression operand = result(expression);
+
+                    chain.changed |= operand != expression;
+                    chain.operands.add(new Term(operand, term.negated));
+                }
+
+            } else if (expression instanceof UnaryExpression) {
+                UnaryExpression unary = (UnaryExpression) expression;
+                boolean negation = unary.getOperator() == UnaryOperator.SUB;
+
+                // a product is negated as a whole, rather than each of its factors.
+                if (chain.operator == ArithmeticOperator.MUL) {
+                    chain.negated ^= negation;
+                    terms.push(new Term((Expression) unary.getExpression(), false));
+
+                } else {
+                    terms.push(new Term((Expression) unary.getExpression(), term.negated ^ negation));
+                }
+
+            } else {
+                ArithmeticBinaryExpression binary = (ArithmeticBinaryExpression) expression;
+
+                // the right operand is pushed first, so the left is gathered first.
+                terms.push(new Term(binary.getRight(),
+                        term.negated ^ binary.getOperator() == ArithmeticOperator.SUB));
+                terms.push(new Term(binary.getLeft(), term.negated));
+            }
+        }
+    }
+
+    /**
+     * Gets the depth of the given expression, the number of nodes on its longest path from root to leaf, using an
+     * explicit stack and the depths already found for its subexpressions.
+     */
+    private int depth(AbstractSyntaxTreeNode root) {
+        Deque<AbstractSyntaxTreeNode> nodes = new ArrayDeque<>();
+        nodes.push(root);
+
+        while (!nodes.isEmpty()) {
+            AbstractSyntaxTreeNode node = nodes.peek();
+
+            if (depths.containsKey(node)) {
+                nodes.pop();
+                continue;
+            }
+
+            List<AbstractSyntaxTreeNode> children = children(node);
+            int depth = 0;
+            boolean known = true;
+
+            for (AbstractSyntaxTreeNode child : children) {
+                Integer childDepth = depths.get(child);
+
+                if (childDepth == null) {
+                    nodes.push(child);
+                    known = false;
+
+                } else {
+                    depth = Math.max(depth, childDepth);
+                }
+            }
+
+            if (known) {
+                depths.put(node, depth + 1);
+                nodes.pop();
+            }
+        }
+
+        return depths.get(root);
+    }
+
+    private static List<AbstractSyntaxTreeNode> children(AbstractSyntaxTreeNode node) {
+        if (node instanceof UnaryExpression) {
+            return List.of(((UnaryExpression) node).getExpression());
+        }
+
+        if (node instanceof ArithmeticBinaryExpression) {
+            ArithmeticBinaryExpression binary = (ArithmeticBinaryExpression) node;
+
+            return List.of(binary.getLeft(), binary.getRight());
+        }
+
+        return List.of();
+    }
+
+    /**
+     * Gets the number of chains rebuilt.
+     *
+     * @return the number of chains.
+     */
+    public int getReassociatedChains() {
+        return reassociatedChains;
+    }
+
+    /**
+     * Gets the number of constants combined with another.
+     *
+     * @return the number of constants.
+     */
+    public int getCombinedConstants() {
+        return combinedConstants;
+    }
+
+    @Override
+    public String toString() {
+        return "Reassociation: " + reassociatedChains + " chains reassociated, " + combinedConstants
+                + " constants combined";
+    }
+
+    /**
+     * Walks an expression, marking each node that is a link of the chain of its parent as it is reached, and
+     * reassociating each chain and division once the expressions within it have been.
+     */
+    private final class ChainWalker implements TraversalListener {
+
+        /**
+         * The nodes from the root of the expression to the node being walked.
+         */
+        private final Deque<AbstractSyntaxTreeNode> ancestors = new ArrayDeque<>();
+
+        @Override
+        public void preOrder(AbstractSyntaxTreeNode node) {
+            AbstractSyntaxTreeNode parent = ancestors.peek();
+
+            if (parent != null) {
+                ArithmeticOperator operator = links.containsKey(parent) ? links.get(parent) : chainOperator(parent);
+
+                // unary minus is part of any chain, otherwise only operators of the chain itself are.
+                if (operator != null && (node instanceof UnaryExpression
+                        || chainOperator(node) == operator && node instanceof ArithmeticBinaryExpression)) {
+                    links.put(node, operator);
+                }
+            }
+
+            ancestors.push(node);
+        }
+
+        @Override
+        public void visit(AbstractSyntaxTreeNode node) {
+            // chains are marked as nodes are reached, and reassociated as they are left.
+        }
+
+        @Override
+        public void postOrder(AbstractSyntaxTreeNode node) {
+            ancestors.pop();
+
+            if (links.containsKey(node)) {
+                return;
+            }
+
+            ArithmeticOperator operator = chainOperator(node);
+
+            if (operator != null) {
+                Expression rebuilt = reassociate((Expression) node, new Chain(operator));
+
+                if (rebuilt != node) {
+                    results.put(node, rebuilt);
+                }
+
+            } else if (node instanceof ArithmeticBinaryExpression) {
+                ArithmeticBinaryExpression binary = (ArithmeticBinaryExpression) node;
+                Expression left = result(binary.getLeft());
+                Expression right = result(binary.getRight());
+
+                if (left != binary.getLeft() || right != binary.getRight()) {
+                    results.put(node, new ArithmeticBinaryExpression(left, right, binary.getOperator()));
+                }
+            }
+        }
+
+    }
+
+    /**
+     * An operand of a chain, and whether it is negated.
+     */
+    private static final class Term {
+
+        private final Expression expression;
+
+        private final boolean negated;
+
+        Term(Expression expression, boolean negated) {
+            this.expression = expression;
+            this.negated = negated;
+        }
+
+    }
+
+    /**
+     * The operands and constants of a chain of additions and subtractions, or of multiplications.
+     */
+    private static final class Chain {
+
+        /**
+         * The operator of the chain, {@link ArithmeticOperator#ADD} for additions and subtractions.
+         */
+        private final ArithmeticOperator operator;
+
+        private final List<Term> operands = new ArrayList<>();
+
+        private final List<Term> constants = new ArrayList<>();
+
+        /**
+         * Whether an operand was itself reassociated.
+         */
+        private boolean changed;
+
+        /**
+         * Whether a product is negated, by an odd number of unary minuses.
+         */
+        private boolean negated;
+
+        Chain(ArithmeticOperator operator) {
+            this.operator = operator;
+        }
+
+        /**
+         * Builds the balanced tree of this chain, applying its combined constant last.
+         */
+        Expression build() {
+            return operator == ArithmeticOperator.ADD ? buildSum() : buildProduct();
+        }
+
+        private Expression buildSum() {
+            long value = 0;
+
+            for (Term constant : constants) {
+                value += constant.negated ? -(long) number(constant) : number(constant);
+            }
+
+            Term constant = value == (int) value
+                    ? (value == 0 ? null : new Term(new NumberFactor((int) value), false))
+                    : balance(constants, ArithmeticOperator.ADD);
+
+            if (operands.isEmpty()) {
+                return constant == null ? new NumberFactor(0) : expression(constant);
+            }
+
+            Term sum = balance(operands, ArithmeticOperator.ADD);
+
+            if (constant == null) {
+                return expression(sum);
+            }
+
+            return expression(add(sum, constant));
+        }
+
+        private Expression buildProduct() {
+            // the constants and unary minuses of the chain contribute only a factor of the product.
+            long value = 1;
+            boolean negated = this.negated;
+
+            for (Term constant : constants) {
+                value *= number(constant);
+            }
+
+            Expression constant = null;
+
+            if (value == (int) value) {
+                if (negated && value != Integer.MIN_VALUE) {
+                    value = -value;
+                    negated = false;
+                }
+
+                if (value == -1) {
+                    negated = !negated;
+
+                } else if (value != 1) {
+                    constant = new NumberFactor((int) value);
+                }
+
+            } else {
+                constant = balance(constants, ArithmeticOperator.MUL).expression;
+            }
+
+            Expression product = operands.isEmpty() ? null : balance(operands, ArithmeticOperator.MUL).expression;
+
+            if (product == null) {
+                product = constant == null ? new NumberFactor(1) : constant;
+
+            } else if (constant != null) {
+                product = new ArithmeticBinaryExpression(product, constant, ArithmeticOperator.MUL);
+            }
+
+            return negated ? new UnaryExpression(UnaryOperator.SUB, product) : product;
+        }
+
+        /**
+         * Pairs off the given terms into a balanced tree, a level at a time. An odd term at the end of a level is
+         * carried to the next, so a chain of three is left as it was written.
+         */
+        private static Term balance(List<Term> terms, ArithmeticOperator operator) {
+            List<Term> level = terms;
+
+            while (level.size() > 1) {
+                List<Term> next = new ArrayList<>((level.size() + 1) / 2);
+
+                for (int i = 0; i + 1 < level.size(); i += 2) {
+                    Term left = level.get(i);
+                    Term right = level.get(i + 1);
+
+                    next.add(operator == ArithmeticOperator.MUL
+                            ? new Term(new ArithmeticBinaryExpression(left.expression, right.expression, operator),
+                                    false)
+                            : add(left, right));
+                }
+
+                if (level.size() % 2 == 1) {
+                    next.add(level.get(level.size() - 1));
+                }
+
+                level = next;
+            }
+
+            return level.get(0);
+        }
+
+        /**
+         * Adds the given terms, preferring subtraction to negating an operand.
+         */
+        private static Term add(Term left, Term right) {
+            // a negative constant is subtracted, unless it is the minimum value, which cannot be negated.
+            if (!right.negated && right.expression instanceof NumberFactor) {
+                int value = ((NumberFactor) right.expression).getValue();
+
+                if (value < 0 && value != Integer.MIN_VALUE) {
+                    right = new Term(new NumberFactor(-value), true);
+                }
+            }
+
+            if (left.negated == right.negated) {
+                return new Term(new ArithmeticBinaryExpression(left.expression, right.expression,
+                        ArithmeticOperator.ADD), left.negated);
+            }
+
+            return left.negated
+                    ? new Term(new ArithmeticBinaryExpression(right.expression, left.expression,
+                            ArithmeticOperator.SUB), false)
+                    : new Term(new ArithmeticBinaryExpression(left.expression, right.expression,
+                            ArithmeticOperator.SUB), false);
+        }
+
+        private static Expression expression(Term term) {
+            return term.negated ? new UnaryExpression(UnaryOperator.SUB, term.expression) : term.expression;
+        }
+
+        private static int number(Term constant) {
+            return ((NumberFactor) constant.expression).getValue();
+        }
+
+    }
+
+}
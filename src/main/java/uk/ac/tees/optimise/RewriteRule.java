@@ -0,0 +1,105 @@
+package uk.ac.tees.optimise;
+
+import uk.ac.tees.syntax.grammar.expression.Expression;
+import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
+import uk.ac.tees.syntax.grammar.expression.UnaryOperator;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A rule that rewrites an arithmetic expression to a simpler expression with the same value, applied by an
+ * {@link AlgebraicSimplification} to each subexpression of a program.
+ *
+ * <p>A rule is only given an expression whose subexpressions have already been rewritten as far as they can be. The
+ * expression it produces is rewritten again, so it may build new subexpressions, but it must be simpler than the
+ * expression it was given, so that rewriting ends. The value of the expression must be the same on 64-bit integers
+ * that wrap on overflow, and an expression that could trap, by dividing by 0 or -1, must not be discarded.</p>
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public interface RewriteRule {
+
+    /**
+     * Gets the name of this rule, the form of the expressions it rewrites, used when reporting how often it applied.
+     *
+     * @return the name of this rule.
+     */
+    String getName();
+
+    /**
+     * Rewrites the given expression.
+     *
+     * @param expression the expression, whose subexpressions have already been rewritten.
+     * @return the rewritten expression, or {@code null} if this rule does not apply to the given expression.
+     */
+    Expression rewrite(Expression expression);
+
+    /**
+     * Creates a rule that rewrites expressions with the given function.
+     *
+     * @param name    the name of the rule.
+     * @param rewrite the function, giving {@code null} where the rule does not apply.
+     * @return the rule.
+     */
+    static RewriteRule of(String name, Function<Expression, Expression> rewrite) {
+        return new RewriteRule() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Expression rewrite(Expression expression) {
+                return rewrite.apply(expression);
+            }
+
+            @Override
+            public String toString() {
+                return name;
+            }
+        };
+    }
+
+    /**
+     * Creates a rule that rewrites binary expressions with the given operator, from their left and right operands.
+     *
+     * @param name     the name of the rule.
+     * @param operator the operator of the expressions the rule applies to.
+     * @param rewrite  the function of the left and right operands, giving {@code null} where the rule does not apply.
+     * @return the rule.
+     */
+    static RewriteRule binary(String name, ArithmeticOperator operator,
+                              BiFunction<Expression, Expression, Expression> rewrite) {
+        return of(name, expression -> {
+            if (!(expression instanceof ArithmeticBinaryExpression)
+                    || ((ArithmeticBinaryExpression) expression).getOperator() != operator) {
+                return null;
+            }
+
+            ArithmeticBinaryExpression binary = (ArithmeticBinaryExpression) expression;
+            return rewrite.apply(binary.getLeft(), binary.getRight());
+        });
+    }
+
+    /**
+     * Creates a rule that rewrites unary expressions with the given operator, from their operand.
+     *
+     * @param name     the name of the rule.
+     * @param operator the operator of the expressions the rule applies to.
+     * @param rewrite  the function of the operand, giving {@code null} where the rule does not apply.
+     * @return the rule.
+     */
+    static RewriteRule unary(String name, UnaryOperator operator, Function<Expression, Expression> rewrite) {
+        return of(name, expression -> {
+            if (!(expression instanceof UnaryExpression) || ((UnaryExpression) expression).getOperator() != operator) {
+                return null;
+            }
+
+            return rewrite.apply((Expression) ((UnaryExpression) expression).getExpression());
+        });
+    }
+
+}
@@ -0,0 +1,171 @@
+package uk.ac.tees.optimise;
+
+import uk.ac.tees.semantics.ProgramIndex;
+import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.factor.StringLiteral;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Removes the lines of a {@link Program} that no path from the first line reaches, along with the
+ * labels and string data that would have been generated for them.
+ * <p>
+ * A line is reached from the line before it, unless that line is a GOTO, RETURN or END statement, and from each GOTO
+ * or GOSUB statement that targets it, including those of IF statements. The line after a GOSUB statement is reached
+ * whenever the GOSUB statement is, since it is where the subroutine returns to, and so a RETURN statement adds no
+ * lines that are not already reached.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class UnreachableLineElimination implements Pass<Program> {
+
+    /**
+     * The line numbers of the removed lines.
+     */
+    private final List<Integer> removedLines = new ArrayList<>();
+
+    /**
+     * The string literals printed only by removed lines.
+     */
+    private final Set<String> droppedStrings = new LinkedHashSet<>();
+
+    /**
+     * Removes the unreachable lines of the given program. Branch statements that target lines that do not exist are
+     * ignored, so the program need not yet have been verified.
+     *
+     * @param program the program.
+     * @return a program with only the reachable lines of the given program, or the given program if every line is
+     * reachable.
+     */
+    @Override
+    public Program run(Program program) {
+        ProgramIndex index = ProgramIndex.of(program);
+
+        if (index.lineCount() == 0) {
+            return program;
+        }
+
+        boolean[] reached = reachableLines(index);
+
+        Set<String> reachedStrings = new LinkedHashSet<>();
+        Set<String> removedStrings = new LinkedHashSet<>();
+        List<Line> lines = new ArrayList<>(index.lineCount());
+
+        for (int i = 0; i < index.lineCount(); i++) {
+            Line line = index.lineAt(i);
+
+            if (reached[i]) {
+                lines.add(line);
+                collectStrings(line.getStatement(), reachedStrings);
+
+            } else {
+                removedLines.add(line.getLineNumber());
+                collectStrings(line.getStatement(), removedStrings);
+            }
+        }
+
+        removedStrings.removeAll(reachedStrings);
+        droppedStrings.addAll(removedStrings);
+
+        return removedLines.isEmpty() ? program : new Program(program.getName(), lines);
+    }
+
+    /**
+     * Marks the lines reachable from the first line, with a worklist of line positions.
+     */
+    private static boolean[] reachableLines(ProgramIndex index) {
+        boolean[] reached = new boolean[index.lineCount()];
+        int[] worklist = new int[index.lineCount()];
+        int size = 0;
+
+        reached[0] = true;
+        worklist[size++] = 0;
+
+        while (size > 0) {
+            int position = worklist[--size];
+            Statement statement = index.lineAt(position).getStatement();
+            boolean fallsThrough = true;
+
+            // the statement of an IF is only executed if its condition holds, otherwise control falls through.
+            if (statement instanceof IfStatement) {
+                while (statement instanceof IfStatement) {
+                    statement = ((IfStatement) statement).getStatement();
+                }
+
+            } else {
+                fallsThrough = !(statement instanceof GoToStatement
+                        || statement instanceof ReturnStatement
+                        || statement instanceof EndStatement);
+            }
+
+            int target = -1;
+
+            if (statement instanceof GoToStatement) {
+                target = index.indexOf(((GoToStatement) statement).getLineNumber());
+
+            } else if (statement instanceof GoSubStatement) {
+                target = index.indexOf(((GoSubStatement) statement).getLineNumber());
+            }
+
+            if (target >= 0 && !reached[target]) {
+                reached[target] = true;
+                worklist[size++] = target;
+            }
+
+            int next = position + 1;
+
+            if (fallsThrough && next < index.lineCount() && !reached[next]) {
+                reached[next] = true;
+                worklist[size++] = next;
+            }
+        }
+
+        return reached;
+    }
+
+    private static void collectStrings(Statement statement, Set<String> strings) {
+        while (statement instanceof IfStatement) {
+            statement = ((IfStatement) statement).getStatement();
+        }
+
+        if (statement instanceof PrintStatement) {
+            for (AbstractSyntaxTreeNode expression : ((PrintStatement) statement).getExpressions()) {
+                if (expression instanceof StringLiteral) {
+                    strings.add(((StringLiteral) expression).getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the line numbers of the lines removed, in order.
+     *
+     * @return the removed line numbers.
+     */
+    public List<Integer> getRemovedLines() {
+        return Collections.unmodifiableList(removedLines);
+    }
+
+    /**
+     * Gets the string literals that were printed only by removed lines, so are no longer in the string data.
+     *
+     * @return the dropped string literals, including their quotation marks.
+     */
+    public Set<String> getDroppedStrings() {
+        return Collections.unmodifiableSet(droppedStrings);
+    }
+
+    @Override
+    public String toString() {
+        return "Unreachable line elimination: removed " + removedLines.size() + " lines " + removedLines
+                + " and " + droppedStrings.size() + " strings " + droppedStrings;
+    }
+
+}
@@ -0,0 +1,110 @@
+package uk.ac.tees.semantics;
+
+/**
+ * The facts gathered, by a {@link ProgramSemanticsAnalyser}, from a single line of a program. These are gathered
+ * without knowledge of any other line, so that lines can be analysed independently of one another, and verified
+ * together afterwards.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+final class LineFacts {
+
+    /**
+     * The line number used for facts gathered from nodes that are not within a line.
+     */
+    static final int NO_LINE = -1;
+
+    /**
+     * The number of the line these facts were gathered from.
+     */
+    private final int lineNumber;
+
+    /**
+     * The names of the variables referenced on the line, in the order they are referenced.
+     */
+    private final StringBuilder references = new StringBuilder();
+
+    /**
+     * The variables assigned on the line, bit n is set if the variable named ('A' + n) is assigned.
+     */
+    private int assigned;
+
+    /**
+     * The line number that the branch statement on the line targets, there is at most one statement on a line.
+     */
+    private int branchTarget = NO_LINE;
+
+    /**
+     * Denotes that there is a gosub statement on the line.
+     */
+    private boolean goSub;
+
+    /**
+     * Denotes that there is a return statement on the line.
+     */
+    private boolean returns;
+
+    /**
+     * Denotes that there is an end statement on the line.
+     */
+    private boolean ends;
+
+    LineFacts(int lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    void reference(char name) {
+        references.append(name);
+    }
+
+    void assign(char name) {
+        assigned |= 1 << (name - 'A');
+    }
+
+    void branch(int targetLine) {
+        branchTarget = targetLine;
+    }
+
+    void goSub() {
+        goSub = true;
+        returns = false;
+    }
+
+    void returns() {
+        returns = true;
+        goSub = false;
+    }
+
+    void ends() {
+        ends = true;
+    }
+
+    int getLineNumber() {
+        return lineNumber;
+    }
+
+    CharSequence getReferences() {
+        return references;
+    }
+
+    int getAssigned() {
+        return assigned;
+    }
+
+    int getBranchTarget() {
+        return branchTarget;
+    }
+
+    boolean isGoSub() {
+        return goSub;
+    }
+
+    boolean isReturn() {
+        return returns;
+    }
+
+    boolean isEnd() {
+        return ends;
+    }
+
+}
@@ -0,0 +1,221 @@
+package uk.ac.tees.semantics;
+
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.statement.IfStatement;
+import uk.ac.tees.syntax.grammar.statement.InputStatement;
+import uk.ac.tees.syntax.grammar.statement.LetStatement;
+import uk.ac.tees.syntax.grammar.statement.Statement;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An index of the lines and variables of a {@link Program}, built once so that lines can be looked up by line number
+ * and variables by name without searching the program each time. Primitive arrays are used throughout so no value
+ * is boxed.
+ * <p>
+ * Lines are held in ascending order of line number, so a line is found with a binary search. Variables are identified
+ * by their index in the alphabet, 'A' being 0 and 'Z' being 25, and each variable assigned anywhere in the program is
+ * given a fixed slot, in the order they are first assigned.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class ProgramIndex {
+
+    /**
+     * The number of variables a program may have, one for each uppercase letter.
+     */
+    public static final int VARIABLE_COUNT = 'Z' - 'A' + 1;
+
+    /**
+     * The line numbers of the program in ascending order.
+     */
+    private final int[] lineNumbers;
+
+    /**
+     * The lines of the program, each at the same index as its line number in {@link #lineNumbers}.
+     */
+    private final Line[] lines;
+
+    /**
+     * The variables assigned in the program, bit n is set if the variable named ('A' + n) is assigned.
+     */
+    private final int variables;
+
+    /**
+     * The slot of each variable, numbered from 1 in the order the variables are first assigned, or 0 for variables
+     * that are never assigned.
+     */
+    private final int[] variableSlots;
+
+    private ProgramIndex(int[] lineNumbers, Line[] lines, int variables, int[] variableSlots) {
+        this.lineNumbers = lineNumbers;
+        this.lines = lines;
+        this.variables = variables;
+        this.variableSlots = variableSlots;
+    }
+
+    /**
+     * Builds an index of the given program. Lines are expected to be in ascending order already, if they are not they
+     * are sorted, so a program need not be valid to be indexed.
+     *
+     * @param program the program to index.
+     * @return an index of the given program.
+     */
+    public static ProgramIndex of(Program program) {
+        List<Line> programLines = program.lines();
+        int lineCount = programLines.size();
+
+        int[] lineNumbers = new int[lineCount];
+        Line[] lines = programLines.toArray(new Line[0]);
+        boolean sorted = true;
+
+        int variables = 0;
+        int[] variableSlots = new int[VARIABLE_COUNT];
+        int slotCount = 0;
+
+        for (int i = 0; i < lineCount; i++) {
+            lineNumbers[i] = lines[i].getLineNumber();
+            sorted &= i == 0 || lineNumbers[i - 1] <= lineNumbers[i];
+
+            Statement statement = lines[i].getStatement();
+
+            while (statement instanceof IfStatement) {
+                statement = ((IfStatement) statement).getStatement();
+            }
+
+            if (statement instanceof LetStatement) {
+                slotCount = assign(((LetStatement) statement).getIdentifier(), variableSlots, slotCount);
+
+            } else if (statement instanceof InputStatement) {
+                for (UnassignedIdentifier identifier : ((InputStatement) statement).getIdentifiers()) {
+                    slotCount = assign(identifier, variableSlots, slotCount);
+                }
+            }
+        }
+
+        for (int i = 0; i < VARIABLE_COUNT; i++) {
+            if (variableSlots[i] != 0) {
+                variables |= 1 << i;
+            }
+        }
+
+        if (!sorted) {
+            Arrays.sort(lines, (a, b) -> Integer.compare(a.getLineNumber(), b.getLineNumber()));
+
+            for (int i = 0; i < lineCount; i++) {
+                lineNumbers[i] = lines[i].getLineNumber();
+            }
+        }
+
+        return new ProgramIndex(lineNumbers, lines, variables, variableSlots);
+    }
+
+    /**
+     * Gives the given variable the next slot, if it does not already have one.
+     *
+     * @return the number of slots given out.
+     */
+    private static int assign(UnassignedIdentifier identifier, int[] variableSlots, int slotCount) {
+        int variable = identifier.getName() - 'A';
+
+        if (variableSlots[variable] == 0) {
+            variableSlots[variable] = ++slotCount;
+        }
+
+        return slotCount;
+    }
+
+    /**
+     * Gets the position of the line with the given line number, in ascending order of line number.
+     *
+     * @param lineNumber the line number to find.
+     * @return the position of the line, or a negative value if there is no such line as per
+     * {@link Arrays#binarySearch(int[], int)}.
+     */
+    public int indexOf(int lineNumber) {
+        return Arrays.binarySearch(lineNumbers, lineNumber);
+    }
+
+    /**
+     * Checks whether there is a line with the given line number.
+     *
+     * @param lineNumber the line number.
+     * @return {@code true} if the program has a line with the given line number.
+     */
+    public boolean containsLine(int lineNumber) {
+        return indexOf(lineNumber) >= 0;
+    }
+
+    /**
+     * Gets the line with the given line number.
+     *
+     * @param lineNumber the line number.
+     * @return the line with the given line number, or {@code null} if there is no such line.
+     */
+    public Line getLine(int lineNumber) {
+        int index = indexOf(lineNumber);
+
+        return index < 0 ? null : lines[index];
+    }
+
+    /**
+     * Gets the line at the given position, in ascending order of line number.
+     *
+     * @param index the position of the line.
+     * @return the line at the given position.
+     */
+    public Line lineAt(int index) {
+        return lines[index];
+    }
+
+    /**
+     * The number of lines in the program.
+     *
+     * @return the number of lines.
+     */
+    public int lineCount() {
+        return lines.length;
+    }
+
+    /**
+     * The set of variables assigned in the program.
+     *
+     * @return a bit set in which bit n is set if the variable named ('A' + n) is assigned.
+     */
+    public int variables() {
+        return variables;
+    }
+
+    /**
+     * Checks whether the given variable is assigned anywhere in the program.
+     *
+     * @param name the name of the variable.
+     * @return {@code true} if the variable is assigned.
+     */
+    public boolean isAssigned(char name) {
+        return (variables & 1 << (name - 'A')) != 0;
+    }
+
+    /**
+     * The number of variables assigned in the program.
+     *
+     * @return the number of variables.
+     */
+    public int variableCount() {
+        return Integer.bitCount(variables);
+    }
+
+    /**
+     * Gets the slot of the given variable, slots are numbered from 1 in the order variables are first assigned.
+     *
+     * @param name the name of the variable.
+     * @return the slot of the variable, or 0 if it is never assigned.
+     */
+    public int slotOf(char name) {
+        return variableSlots[name - 'A'];
+    }
+
+}
@@ -7,6 +7,8 @@ import uk.ac.tees.syntax.grammar.Program;
 import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
 import uk.ac.tees.syntax.grammar.statement.*;
 import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
+import uk.ac.tees.syntax.visitor.FusableVisitor;
+import uk.ac.tees.syntax.visitor.ParallelLineAnalysis;
 import uk.ac.tees.syntax.visitor.Visitor;
 
 import java.util.*;
@@ -24,121 +26,242 @@ import java.util.*;
  * <li>That referenced variables have been declared.</li>
  * <li>That a program ends.</li>
  * </ul>
+ * <p>
+ * Facts are first gathered from each line independently of the others, see {@link LineFacts}, and are then verified
+ * in the order of the lines. This allows {@link #visitTree(Program)} to gather facts from the lines in parallel,
+ * while errors are still reported in the same order as they would be were each line verified as it was visited. The
+ * analyser only reads the program, the index of its lines is given or built before any facts are gathered.
  *
  * @author Sam Hammersley - Gonsalves (q5315908)
  */
-public final class ProgramSemanticsAnalyser extends AbstractSyntaxTreeVisitor<Program, Program> {
+public final class ProgramSemanticsAnalyser extends AbstractSyntaxTreeVisitor<Program, Program>
+        implements FusableVisitor<Program, Program> {
 
     /**
-     * Stack of line numbers, to verify that lines are numbered properly.
+     * The index of the program being analysed, {@code null} if it is to be built from the program analysed.
      */
-    private final Deque<Integer> lineNumbers = new ArrayDeque<>();
+    private final ProgramIndex index;
+
+    /**
+     * The facts gathered from each line visited, in the order they were visited.
+     */
+    private final List<LineFacts> facts = new ArrayList<>();
+
+    /**
+     * The facts of the line currently being visited.
+     */
+    private LineFacts current;
+
+    public ProgramSemanticsAnalyser(ProgramIndex index) {
+        this.index = index;
+    }
+
+    public ProgramSemanticsAnalyser() {
+        this(null);
+    }
 
     /**
-     * Line numbers that branch statements target.
+     * Gets the facts of the line currently being visited, nodes visited outside of any line are gathered into facts
+     * numbered {@link LineFacts#NO_LINE}.
+     *
+     * @return the facts of the current line.
      */
-    private final List<Integer> branchStatementTargets = new ArrayList<>();
+    private LineFacts current() {
+        if (current == null) {
+            startLine(LineFacts.NO_LINE);
+        }
+
+        return current;
+    }
+
+    private void startLine(int lineNumber) {
+        current = new LineFacts(lineNumber);
+        facts.add(current);
+    }
 
     /**
-     * {@link Set} of characters that are declared in the input.
+     * Merges the facts gathered from two neighbouring ranges of lines.
+     *
+     * @param left  the facts of the earlier range of lines.
+     * @param right the facts of the later range of lines.
+     * @return the facts of both ranges of lines, in order.
      */
-    private final Set<Character> identifiers = new HashSet<>();
+    private static List<LineFacts> merge(List<LineFacts> left, List<LineFacts> right) {
+        List<LineFacts> merged = new ArrayList<>(left.size() + right.size());
+        merged.addAll(left);
+        merged.addAll(right);
+
+        return merged;
+    }
 
     /**
-     * Denotes that there is an end statement.
+     * Verifies the facts gathered from each line of a program, in the order of those lines. Each line is verified
+     * as though the lines before it had been verified as they were visited, so the first error in the program is
+     * the one reported.
+     *
+     * @param index the index of the program the facts were gathered from.
+     * @param facts the facts gathered from each line of the program.
      */
-    private boolean ends;
+    private static void verify(ProgramIndex index, List<LineFacts> facts) throws SemanticException {
+        int[] branchStatementTargets = new int[facts.size()];
+        int branchCount = 0;
+
+        int previousLine = LineFacts.NO_LINE;
+        int assigned = 0;
+        boolean requiresReturn = false;
+        boolean ends = false;
+
+        for (LineFacts line : facts) {
+            int lineNumber = line.getLineNumber();
+
+            if (lineNumber != LineFacts.NO_LINE) {
+                verifyLineNumber(lineNumber, previousLine);
+
+                previousLine = lineNumber;
+            }
+
+            CharSequence references = line.getReferences();
+
+            for (int i = 0; i < references.length(); i++) {
+                char name = references.charAt(i);
+
+                if ((assigned & 1 << (name - 'A')) == 0) {
+                    throw new SemanticException("Variable " + name + " referenced without assignment!");
+                }
+            }
+
+            assigned |= line.getAssigned();
+
+            if (line.getBranchTarget() != LineFacts.NO_LINE) {
+                branchStatementTargets[branchCount++] = line.getBranchTarget();
+            }
+
+            if (line.isGoSub()) {
+                requiresReturn = true;
+
+            } else if (line.isReturn()) {
+                requiresReturn = false;
+            }
+
+            ends |= line.isEnd();
+        }
+
+        verifyBranchStatements(index, requiresReturn, branchStatementTargets, branchCount);
+
+        if (!ends) {
+            throw new SemanticException("Missing end statement!");
+        }
+    }
 
     /**
-     * Denotes that a return statement is required.
+     * Checks that a line number is unique, not smaller than the previous line number and a multiple of 10. Since each
+     * line before has been checked to be no smaller than the one before it, a line number can only be equal to an
+     * earlier one if it is equal to the previous one.
      */
-    private boolean requiresReturn;
+    private static void verifyLineNumber(int lineNumber, int previousLine) {
+        if (lineNumber == previousLine) {
+            throw new InvalidLineNumberException("Duplicate line numbers! " + lineNumber);
+        }
+
+        if (previousLine > lineNumber) {
+            String message = "Disordered line numbers! The previous line, %d, is larger than the current, %d";
+
+            throw new InvalidLineNumberException(String.format(message, previousLine, lineNumber));
+        }
+
+        if (lineNumber % 10 != 0) {
+            throw new InvalidLineNumberException("Line number is not a multiple of 10! " + lineNumber);
+        }
+    }
 
     /**
      * Checks that GoSub has corresponding return statement and all branch statements target valid line numbers.
      */
-    private void verifyBranchStatements() throws SemanticException {
+    private static void verifyBranchStatements(ProgramIndex index, boolean requiresReturn,
+                                               int[] branchStatementTargets, int branchCount)
+            throws SemanticException {
         if (requiresReturn) {
             throw new SemanticException("GoSub statement without return!");
         }
 
-        for (int targetLine : branchStatementTargets) {
-            if (!lineNumbers.contains(targetLine)) {
+        for (int i = 0; i < branchCount; i++) {
+            int targetLine = branchStatementTargets[i];
+
+            if (!index.containsLine(targetLine)) {
                 throw new InvalidLineNumberException("Branch statement directs to non-existent line! " + targetLine);
             }
         }
     }
 
+    /**
+     * Gathers facts from the lines of the given program in parallel, each range of lines being visited by a separate
+     * analyser, before verifying them in order.
+     *
+     * @param root the program to analyse.
+     * @return the given program, if it is semantically valid.
+     */
     @Override
     public Program visitTree(Program root) {
-        root.accept(this);
+        ProgramIndex programIndex = indexOf(root);
 
-        verifyBranchStatements();
-
-        if (!ends) {
-            throw new SemanticException("Missing end statement!");
-        }
+        verify(programIndex, new ParallelLineAnalysis<>(ProgramSemanticsAnalyser::new, a -> a.facts,
+                ProgramSemanticsAnalyser::merge).analyse(root));
 
         return root;
     }
 
-    @Visitor
-    private void visit(Line node) {
-        if (lineNumbers.contains(node.getLineNumber())) {
-            throw new InvalidLineNumberException("Duplicate line numbers! " + node.getLineNumber());
-        }
-
-        int previousLine = lineNumbers.isEmpty() ? node.getLineNumber() : lineNumbers.peek();
-
-        if (previousLine > node.getLineNumber()) {
-            String message = "Disordered line numbers! The previous line, %d, is larger than the current, %d";
-
-            throw new InvalidLineNumberException(String.format(message, previousLine, node.getLineNumber()));
-        }
+    @Override
+    public Program finish(Program root) {
+        verify(indexOf(root), facts);
 
-        if (node.getLineNumber() % 10 != 0) {
-            throw new InvalidLineNumberException("Line number is not a multiple of 10! " + node.getLineNumber());
-        }
+        return root;
+    }
 
-        lineNumbers.push(node.getLineNumber());
+    /**
+     * Gets the index of the given program, the one given on construction if there is one.
+     */
+    private ProgramIndex indexOf(Program root) {
+        return index != null ? index : ProgramIndex.of(root);
     }
 
     @Visitor
-    private void visit(IdentifierFactor node) {
-        if (!identifiers.contains(node.getName())) {
-            throw new SemanticException("Variable " + node.getName() + " referenced without assignment!");
-        }
+    void visit(Line node) {
+        startLine(node.getLineNumber());
     }
 
     @Visitor
-    private void visit(EndStatement node) {
-        ends = true;
+    void visit(IdentifierFactor node) {
+        current().reference(node.getName());
     }
 
     @Visitor
-    private void visit(ReturnStatement node) {
-        requiresReturn = false;
+    void visit(EndStatement node) {
+        current().ends();
     }
 
     @Visitor
-    private void visit(GoSubStatement node) {
-        requiresReturn = true;
+    void visit(ReturnStatement node) {
+        current().returns();
+    }
 
-        branchStatementTargets.add(node.getLineNumber());
+    @Visitor
+    void visit(GoSubStatement node) {
+        current().goSub();
+        current().branch(node.getLineNumber());
     }
 
     @Visitor
-    private void visit(GoToStatement node) {
-        branchStatementTargets.add(node.getLineNumber());
+    void visit(GoToStatement node) {
+        current().branch(node.getLineNumber());
     }
 
     @Visitor
-    private void visit(LetStatement node) {
-        identifiers.add(node.getIdentifier().getName());
+    void visit(LetStatement node) {
+        current().assign(node.getIdentifier().getName());
     }
 
     @Visitor
-    private void visit(InputStatement node) {
-        node.getIdentifiers().forEach(i -> identifiers.add(i.getName()));
+    void visit(InputStatement node) {
+        node.getIdentifiers().forEach(i -> current().assign(i.getName()));
     }
-}
\ No newline at end of file
+}
@@ -11,6 +11,14 @@ import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
  */
 public interface AbstractSyntaxTreeNode {
 
+    /**
+     * Gets the {@link NodeKind} identifying the concrete type of this node. This allows visitors to select behaviour
+     * for a node without inspecting its class.
+     *
+     * @return the kind of this node.
+     */
+    NodeKind getKind();
+
     /**
      * This function is called when traversing the tree, implementations should accept any child nodes, in the
      * correct order. This function should invoke the visit function, corresponding to this node type, of the given
@@ -52,6 +52,11 @@ public final class Line implements AbstractSyntaxTreeNode {
         return "Line(" + lineNumber + ")";
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.LINE;
+    }
+
     @Override
     public <T, K extends AbstractSyntaxTreeNode> void accept(AbstractSyntaxTreeVisitor<T, K> visitor) {
         visitor.visitNode(this);
@@ -0,0 +1,47 @@
+package uk.ac.tees.syntax.grammar;
+
+/**
+ * Identifies the concrete type of an {@link AbstractSyntaxTreeNode}. Each constant corresponds to exactly one
+ * concrete node class and is named after that class in upper snake case, for example {@code IfStatement} is
+ * {@link #IF_STATEMENT}. Generated visitor dispatchers rely on this naming to switch directly on the kind of a node
+ * rather than reflectively searching for a visitor method.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public enum NodeKind {
+
+    PROGRAM,
+
+    LINE,
+
+    UNASSIGNED_IDENTIFIER,
+
+    IDENTIFIER_FACTOR,
+
+    NUMBER_FACTOR,
+
+    STRING_LITERAL,
+
+    UNARY_EXPRESSION,
+
+    ARITHMETIC_BINARY_EXPRESSION,
+
+    RELATIONAL_BINARY_EXPRESSION,
+
+    PRINT_STATEMENT,
+
+    IF_STATEMENT,
+
+    INPUT_STATEMENT,
+
+    LET_STATEMENT,
+
+    GO_TO_STATEMENT,
+
+    GO_SUB_STATEMENT,
+
+    RETURN_STATEMENT,
+
+    END_STATEMENT
+
+}
@@ -50,6 +50,11 @@ public final class Program implements AbstractSyntaxTreeNode {
         return "Program(" + name + ")";
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.PROGRAM;
+    }
+
     @Override
     public <T, K extends AbstractSyntaxTreeNode> void accept(AbstractSyntaxTreeVisitor<T, K> visitor) {
         // Visit this node.
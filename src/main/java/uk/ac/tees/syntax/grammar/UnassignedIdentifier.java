@@ -23,6 +23,11 @@ public final class UnassignedIdentifier extends Identifier {
         super(name.charAt(0));
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.UNASSIGNED_IDENTIFIER;
+    }
+
     @Override
     public <T, K extends AbstractSyntaxTreeNode> void accept(AbstractSyntaxTreeVisitor<T, K> visitor) {
         visitor.visitNode(this);
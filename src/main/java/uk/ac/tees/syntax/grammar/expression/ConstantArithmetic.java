@@ -0,0 +1,80 @@
+package uk.ac.tees.syntax.grammar.expression;
+
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+
+/**
+ * The arithmetic and comparisons of operators on constant values, exactly as the code generated by either backend
+ * performs them at runtime, so expressions can be evaluated at compile time. Arithmetic is on signed 64-bit integers,
+ * division truncates towards zero.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class ConstantArithmetic {
+
+    /**
+     * Prevent instantiation.
+     */
+    private ConstantArithmetic() {
+
+    }
+
+    /**
+     * Applies the given operator to the given values. Addition, subtraction and multiplication wrap on overflow.
+     *
+     * @param operator the arithmetic operator.
+     * @param left     the value of the left operand.
+     * @param right    the value of the right operand.
+     * @return the result of the operation.
+     * @throws ArithmeticException if the operation is a division that would trap at runtime, either by zero or of the
+     *                             minimum value by -1, so must not be evaluated at compile time.
+     */
+    public static long evaluate(ArithmeticOperator operator, long left, long right) {
+        switch (operator) {
+            case ADD:
+                return left + right;
+            case SUB:
+                return left - right;
+            case MUL:
+                return left * right;
+            case DIV:
+                if (right == 0 || (left == Long.MIN_VALUE && right == -1)) {
+                    throw new ArithmeticException("Division traps! " + left + " / " + right);
+                }
+
+                return left / right;
+
+            default:
+                throw new IllegalArgumentException("Unsupported operator! " + operator);
+        }
+    }
+
+    /**
+     * Evaluates the comparison of the given values.
+     *
+     * @param operator the comparison operator.
+     * @param left     the value of the left operand.
+     * @param right    the value of the right operand.
+     * @return {@code true} if the comparison holds.
+     */
+    public static boolean compare(RelationalOperator operator, long left, long right) {
+        switch (operator) {
+            case LESS:
+                return left < right;
+            case LESS_EQUAL:
+                return left <= right;
+            case EQUAL:
+                return left == right;
+            case NOT_EQUAL:
+                return left != right;
+            case GREATER:
+                return left > right;
+            case GREATER_EQUAL:
+                return left >= right;
+
+            default:
+                throw new IllegalArgumentException("Unsupported operator! " + operator);
+        }
+    }
+
+}
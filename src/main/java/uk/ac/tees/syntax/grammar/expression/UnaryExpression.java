@@ -1,6 +1,7 @@
 package uk.ac.tees.syntax.grammar.expression;
 
 import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.NodeKind;
 import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
 
 /**
@@ -25,6 +26,11 @@ public final class UnaryExpression implements Expression {
         this.expression = expression;
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.UNARY_EXPRESSION;
+    }
+
     @Override
     public <T, K extends AbstractSyntaxTreeNode> void accept(AbstractSyntaxTreeVisitor<T, K> visitor) {
         expression.accept(visitor);
@@ -43,6 +43,15 @@ public enum ArithmeticOperator implements BinaryOperator {
                 .orElseThrow(NoSuchElementException::new);
     }
 
+    /**
+     * Accessor method for {@link #symbol}.
+     *
+     * @return the symbol associated with this operator.
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
     @Override
     public String toString() {
         return name() + "(" + symbol + ")";
@@ -1,6 +1,7 @@
 package uk.ac.tees.syntax.grammar.expression.relational;
 
 import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.NodeKind;
 import uk.ac.tees.syntax.grammar.expression.BinaryExpression;
 import uk.ac.tees.syntax.grammar.expression.Expression;
 
@@ -17,6 +18,11 @@ public final class RelationalBinaryExpression extends BinaryExpression<Relationa
         super(left, right, operator);
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.RELATIONAL_BINARY_EXPRESSION;
+    }
+
     @Override
     public String toString() {
         return "Relational(" + operator.toString() + ")";
@@ -69,6 +69,37 @@ public enum RelationalOperator implements BinaryOperator {
         }
     }
 
+    /**
+     * Gets the operator that gives the same result with its operands swapped, so that {@code a < b} is {@code b > a}.
+     *
+     * @return the reversed operator.
+     */
+    public RelationalOperator reverse() {
+        switch (this) {
+            case LESS:
+                return GREATER;
+            case LESS_EQUAL:
+                return GREATER_EQUAL;
+
+            case GREATER:
+                return LESS;
+            case GREATER_EQUAL:
+                return LESS_EQUAL;
+
+            default:
+                return this;
+        }
+    }
+
+    /**
+     * Accessor method for {@link #symbol}.
+     *
+     * @return the symbol associated with this operator.
+     */
+    public String getSymbol() {
+        return symbol;
+    }
+
     @Override
     public String toString() {
         return name() + "(" + symbol + ")";
@@ -1,6 +1,7 @@
 package uk.ac.tees.syntax.grammar.factor;
 
 import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.NodeKind;
 import uk.ac.tees.syntax.grammar.Identifier;
 import uk.ac.tees.syntax.grammar.expression.Expression;
 import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
@@ -22,6 +23,11 @@ public final class IdentifierFactor extends Identifier implements Expression {
         super(name.charAt(0));
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.IDENTIFIER_FACTOR;
+    }
+
     @Override
     public <T, K extends AbstractSyntaxTreeNode> void accept(AbstractSyntaxTreeVisitor<T, K> visitor) {
         visitor.visitNode(this);
@@ -1,6 +1,7 @@
 package uk.ac.tees.syntax.grammar.factor;
 
 import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.NodeKind;
 import uk.ac.tees.syntax.grammar.expression.Expression;
 import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
 
@@ -28,6 +29,11 @@ public final class NumberFactor implements Expression {
         return "Num(" + value + ")";
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.NUMBER_FACTOR;
+    }
+
     @Override
     public <T, K extends AbstractSyntaxTreeNode> void accept(AbstractSyntaxTreeVisitor<T, K> visitor) {
         visitor.visitNode(this);
@@ -1,6 +1,7 @@
 package uk.ac.tees.syntax.grammar.factor;
 
 import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.NodeKind;
 import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
 
 import java.util.Objects;
@@ -27,6 +28,11 @@ public final class StringLiteral implements AbstractSyntaxTreeNode {
         return "String(" + value + ")";
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.STRING_LITERAL;
+    }
+
     @Override
     public <T, K extends AbstractSyntaxTreeNode> void accept(AbstractSyntaxTreeVisitor<T, K> visitor) {
         visitor.visitNode(this);
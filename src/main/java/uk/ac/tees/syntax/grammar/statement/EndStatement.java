@@ -1,6 +1,7 @@
 package uk.ac.tees.syntax.grammar.statement;
 
 import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.NodeKind;
 import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
 
 /**
@@ -14,6 +15,11 @@ public final class EndStatement extends Statement {
         super("END");
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.END_STATEMENT;
+    }
+
     @Override
     public <T, K extends AbstractSyntaxTreeNode> void accept(AbstractSyntaxTreeVisitor<T, K> visitor) {
         visitor.visitNode(this);
@@ -1,6 +1,7 @@
 package uk.ac.tees.syntax.grammar.statement;
 
 import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.NodeKind;
 import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
 
 import java.util.Objects;
@@ -28,6 +29,11 @@ public final class GoSubStatement extends Statement {
         return lineNumber;
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.GO_SUB_STATEMENT;
+    }
+
     @Override
     public <T, K extends AbstractSyntaxTreeNode> void accept(AbstractSyntaxTreeVisitor<T, K> visitor) {
         visitor.visitNode(this);
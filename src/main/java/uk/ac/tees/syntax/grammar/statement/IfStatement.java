@@ -1,6 +1,7 @@
 package uk.ac.tees.syntax.grammar.statement;
 
 import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.NodeKind;
 import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
 import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
 
@@ -38,6 +39,11 @@ public final class IfStatement extends Statement {
         return statement;
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.IF_STATEMENT;
+    }
+
     @Override
     public <T, K extends AbstractSyntaxTreeNode> void accept(AbstractSyntaxTreeVisitor<T, K> visitor) {
         // Accept (visit) the expression first.
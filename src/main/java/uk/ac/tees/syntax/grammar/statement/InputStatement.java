@@ -1,6 +1,7 @@
 package uk.ac.tees.syntax.grammar.statement;
 
 import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.NodeKind;
 import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
 import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
 
@@ -29,6 +30,11 @@ public final class InputStatement extends Statement {
         return identifiers;
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.INPUT_STATEMENT;
+    }
+
     @Override
     public <T, K extends AbstractSyntaxTreeNode> void accept(AbstractSyntaxTreeVisitor<T, K> visitor) {
         identifiers.forEach(i -> i.accept(visitor));
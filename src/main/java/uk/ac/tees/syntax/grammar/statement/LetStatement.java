@@ -1,6 +1,7 @@
 package uk.ac.tees.syntax.grammar.statement;
 
 import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.NodeKind;
 import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
 import uk.ac.tees.syntax.grammar.expression.Expression;
 import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
@@ -38,6 +39,11 @@ public final class LetStatement extends Statement {
         return value;
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.LET_STATEMENT;
+    }
+
     @Override
     public <T, K extends AbstractSyntaxTreeNode> void accept(AbstractSyntaxTreeVisitor<T, K> visitor) {
         identifier.accept(visitor);
@@ -1,6 +1,7 @@
 package uk.ac.tees.syntax.grammar.statement;
 
 import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.NodeKind;
 import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
 
 import java.util.Arrays;
@@ -32,6 +33,11 @@ public class PrintStatement extends Statement {
         return expressions;
     }
 
+    @Override
+    public NodeKind getKind() {
+        return NodeKind.PRINT_STATEMENT;
+    }
+
     @Override
     public <T, K extends AbstractSyntaxTreeNode> void accept(AbstractSyntaxTreeVisitor<T, K> visitor) {
         for (AbstractSyntaxTreeNode e : expressions) {
@@ -14,6 +14,9 @@ import uk.ac.tees.syntax.grammar.factor.NumberFactor;
 import uk.ac.tees.syntax.grammar.factor.StringLiteral;
 import uk.ac.tees.syntax.grammar.statement.*;
 import uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor;
+import uk.ac.tees.syntax.visitor.Exhaustive;
+import uk.ac.tees.syntax.visitor.FusableVisitor;
+import uk.ac.tees.syntax.visitor.TreeWalker;
 import uk.ac.tees.syntax.visitor.Visitor;
 
 /**
@@ -28,8 +31,9 @@ import uk.ac.tees.syntax.visitor.Visitor;
  * @see <a href="https://graphviz.gitlab.io/_pages/doc/info/lang.html">DOT Language</a>
  * <p>
  */
+@Exhaustive(except = {Line.class})
 public final class GraphDescriptionVisitor<T extends AbstractSyntaxTreeNode>
-        extends AbstractSyntaxTreeVisitor<String, T> {
+        extends AbstractSyntaxTreeVisitor<String, T> implements FusableVisitor<String, T> {
 
     /**
      * The name of the graph, this is typically the name given to the program.
@@ -54,8 +58,13 @@ public final class GraphDescriptionVisitor<T extends AbstractSyntaxTreeNode>
 
     @Override
     public String visitTree(T root) {
-        root.accept(this);
+        TreeWalker.walk(root, this);
 
+        return finish(root);
+    }
+
+    @Override
+    public String finish(T root) {
         return graphDescription.build(graphName);
     }
 
@@ -64,25 +73,25 @@ public final class GraphDescriptionVisitor<T extends AbstractSyntaxTreeNode>
             NumberFactor.class, StringLiteral.class,
             ReturnStatement.class, EndStatement.class
     })
-    private void visit(AbstractSyntaxTreeNode node) {
+    void visit(AbstractSyntaxTreeNode node) {
         graphDescription.add(node);
     }
 
     @Visitor
-    private void visit(UnaryExpression node) {
+    void visit(UnaryExpression node) {
         graphDescription.add(node);
         graphDescription.associate(node, node.getExpression());
     }
 
     @Visitor(types = {ArithmeticBinaryExpression.class, RelationalBinaryExpression.class})
-    private <T extends BinaryOperator> void visit(BinaryExpression<T> node) {
+    <T extends BinaryOperator> void visit(BinaryExpression<T> node) {
         graphDescription.add(node);
         graphDescription.associate(node, node.getLeft());
         graphDescription.associate(node, node.getRight());
     }
 
     @Visitor
-    private void visit(Program node) {
+    void visit(Program node) {
         graphDescription.add(node);
 
         for (Line line : node.lines()) {
@@ -91,14 +100,14 @@ public final class GraphDescriptionVisitor<T extends AbstractSyntaxTreeNode>
     }
 
     @Visitor
-    private void visit(IfStatement node) {
+    void visit(IfStatement node) {
         graphDescription.add(node);
         graphDescription.associate(node, node.getExpression());
         graphDescription.associate(node, node.getStatement());
     }
 
     @Visitor
-    private void visit(GoSubStatement node) {
+    void visit(GoSubStatement node) {
         graphDescription.add(node);
 
         NumberFactor temp = new NumberFactor(node.getLineNumber());
@@ -108,7 +117,7 @@ public final class GraphDescriptionVisitor<T extends AbstractSyntaxTreeNode>
     }
 
     @Visitor
-    private void visit(GoToStatement node) {
+    void visit(GoToStatement node) {
         graphDescription.add(node);
 
         NumberFactor temp = new NumberFactor(node.getLineNumber());
@@ -118,7 +127,7 @@ public final class GraphDescriptionVisitor<T extends AbstractSyntaxTreeNode>
     }
 
     @Visitor
-    private void visit(InputStatement node) {
+    void visit(InputStatement node) {
         graphDescription.add(node);
 
         for (UnassignedIdentifier factor : node.getIdentifiers()) {
@@ -127,7 +136,7 @@ public final class GraphDescriptionVisitor<T extends AbstractSyntaxTreeNode>
     }
 
     @Visitor
-    private void visit(LetStatement node) {
+    void visit(LetStatement node) {
         graphDescription.add(node);
 
         graphDescription.associate(node, node.getIdentifier());
@@ -135,7 +144,7 @@ public final class GraphDescriptionVisitor<T extends AbstractSyntaxTreeNode>
     }
 
     @Visitor
-    private void visit(PrintStatement node) {
+    void visit(PrintStatement node) {
         graphDescription.add(node);
 
         for (AbstractSyntaxTreeNode expression : node.getExpressions()) {
@@ -15,7 +15,11 @@ import java.util.function.Supplier;
  * the given node's type either matches that of the parameter or is listed in the annotation as an accepted type.
  * <p>
  * If there is no appropriate visitor method for a type of node, then there is no implemented behaviour for nodes of
- * that type in this implementation.
+ * that type in this implementation, unless the visitor is annotated {@link Exhaustive}.
+ * <p>
+ * Where a {@link VisitorDispatcher} has been generated for the concrete visitor type, at compile time, visitor methods
+ * are invoked directly through that dispatcher. Reflection is only used to find visitor methods for types that were
+ * compiled without the {@link uk.ac.tees.syntax.visitor.processor.VisitorDispatcherProcessor}.
  * <p>
  * This class is an implementation of the Visitor pattern, a behavioural design pattern. It allows the tree to be
  * visited and evaluated in a certain way without adding behaviour to the nodes themselves.
@@ -34,6 +38,28 @@ public abstract class AbstractSyntaxTreeVisitor<T, K extends AbstractSyntaxTreeN
      */
     public abstract T visitTree(K rootNode);
 
+    /**
+     * Generated {@link VisitorDispatcher}s, found by name the first time each type of visitor is instantiated.
+     */
+    private static final ClassValue<Optional<VisitorDispatcher>> DISPATCHERS = new ClassValue<>() {
+
+        @Override
+        protected Optional<VisitorDispatcher> computeValue(Class<?> type) {
+            return VisitorDispatcher.forVisitor(type);
+        }
+    };
+
+    /**
+     * The generated dispatcher for this type of visitor, {@code null} if none was generated.
+     */
+    private final VisitorDispatcher dispatcher = DISPATCHERS.get(getClass()).orElse(null);
+
+    /**
+     * The {@link Exhaustive} annotation of this type of visitor, {@code null} if nodes without a visitor method may be
+     * skipped.
+     */
+    private final Exhaustive exhaustive = getClass().getAnnotation(Exhaustive.class);
+
     /**
      * Maps {@link AbstractSyntaxTreeNode} types to visitors.
      */
@@ -43,16 +69,31 @@ public abstract class AbstractSyntaxTreeVisitor<T, K extends AbstractSyntaxTreeN
      * Visits the given node by finding the appropriate visitor method and invoking that method.
      *
      * @param node the node to visit.
+     * @throws IllegalStateException if this visitor is {@link Exhaustive} and has no visitor method for the node.
      */
     public void visitNode(AbstractSyntaxTreeNode node) {
-        Optional<Method> visitor = Optional.ofNullable(visitors.get(node.getClass()));
+        boolean visited;
+
+        if (dispatcher != null) {
+            visited = dispatcher.dispatch(this, node);
 
-        Supplier<Optional<Method>> search = Arrays
-                .stream(getClass().getDeclaredMethods())
-                .filter(m -> isAppropriateVisitor(node, m))
-                ::findAny;
+        } else {
+            Optional<Method> visitor = Optional.ofNullable(visitors.get(node.getClass()));
 
-        visitor.or(search).ifPresent(m -> invokeVisitor(m, node));
+            Supplier<Optional<Method>> search = Arrays
+                    .stream(getClass().getDeclaredMethods())
+                    .filter(m -> isAppropriateVisitor(node, m))
+                    ::findAny;
+
+            visitor = visitor.or(search);
+            visitor.ifPresent(m -> invokeVisitor(m, node));
+            visited = visitor.isPresent();
+        }
+
+        if (!visited && exhaustive != null && !Arrays.asList(exhaustive.except()).contains(node.getClass())) {
+            throw new IllegalStateException(getClass().getSimpleName() + " has no visitor method for "
+                    + node.getKind());
+        }
     }
 
     /**
@@ -0,0 +1,30 @@
+package uk.ac.tees.syntax.visitor;
+
+import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an {@link AbstractSyntaxTreeVisitor} that must have a {@link Visitor} method for every
+ * {@link uk.ac.tees.syntax.grammar.NodeKind}. A missing method is reported as a compilation error by the
+ * {@link uk.ac.tees.syntax.visitor.processor.VisitorDispatcherProcessor}, and visiting a node without one throws an
+ * exception, rather than the node being skipped.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Exhaustive {
+
+    /**
+     * The types of {@link AbstractSyntaxTreeNode}s that the annotated visitor deliberately does not visit, these are
+     * visited as part of another node.
+     *
+     * @return an array of {@link Class}es that need not be visited.
+     */
+    Class<? extends AbstractSyntaxTreeNode>[] except() default {};
+
+}
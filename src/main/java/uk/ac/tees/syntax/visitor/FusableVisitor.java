@@ -0,0 +1,31 @@
+package uk.ac.tees.syntax.visitor;
+
+import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+
+/**
+ * A visitor that can produce its output once every node of a tree has been visited, without walking the tree itself.
+ * Such visitors can share a single traversal of a tree with other visitors, see {@link FusedVisitor}.
+ *
+ * @param <T> the expected output type from visiting an Abstract Syntax Tree.
+ * @param <K> the expected input type of the root node of the visited Abstract Syntax Tree.
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public interface FusableVisitor<T, K extends AbstractSyntaxTreeNode> {
+
+    /**
+     * Visits a single node of the tree, the child nodes of which are visited separately.
+     *
+     * @param node the node to visit.
+     */
+    void visitNode(AbstractSyntaxTreeNode node);
+
+    /**
+     * Produces the output from visiting a tree once every node of that tree, from the given root node, has been
+     * visited.
+     *
+     * @param rootNode the root {@link AbstractSyntaxTreeNode} of the visited tree.
+     * @return the output from visiting the tree of the given root node.
+     */
+    T finish(K rootNode);
+
+}
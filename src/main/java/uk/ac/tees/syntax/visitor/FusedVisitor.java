@@ -0,0 +1,102 @@
+package uk.ac.tees.syntax.visitor;
+
+import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+
+import java.lang.reflect.Method;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs several independent visitors over a tree in a single traversal. Each node is given to every visitor, in the
+ * order the visitors were given, before the traversal moves on to the next node. Each visitor therefore visits the
+ * nodes in exactly the same order as it would if it were to traverse the tree alone.
+ * <p>
+ * Once the tree has been traversed, {@link FusableVisitor#finish} is called on each visitor, again in the order given,
+ * to produce its output. A visitor that verifies the tree, and may throw an exception, should therefore be given
+ * before any visitor whose output depends on the tree being valid.
+ *
+ * @param <K> the expected type of the root node of the visited tree.
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class FusedVisitor<K extends AbstractSyntaxTreeNode> extends AbstractSyntaxTreeVisitor<FusedVisitor.Results, K> {
+
+    /**
+     * The visitors that share the traversal, in the order they visit each node.
+     */
+    private final List<FusableVisitor<?, K>> visitors;
+
+    public FusedVisitor(List<? extends FusableVisitor<?, K>> visitors) {
+        this.visitors = List.copyOf(visitors);
+    }
+
+    @Override
+    public void visitNode(AbstractSyntaxTreeNode node) {
+        for (FusableVisitor<?, K> visitor : visitors) {
+            visitor.visitNode(node);
+        }
+    }
+
+    /**
+     * Walks the tree once, then produces the output of each visitor, in order.
+     *
+     * @param rootNode the root node of the tree to visit.
+     * @return the {@link Results} of the fused traversal.
+     */
+    @Override
+    public Results visitTree(K rootNode) {
+        TreeWalker.walk(rootNode, this);
+
+        Map<FusableVisitor<?, K>, Object> outputs = new IdentityHashMap<>();
+
+        for (FusableVisitor<?, K> visitor : visitors) {
+            outputs.put(visitor, visitor.finish(rootNode));
+        }
+
+        return new Results(outputs, visitors.size());
+    }
+
+    /**
+     * The outputs of the visitors that shared a traversal, along with the number of walks saved by sharing it.
+     */
+    public static final class Results {
+
+        private final Map<? extends FusableVisitor<?, ?>, Object> outputs;
+
+        private final int visitorCount;
+
+        private Results(Map<? extends FusableVisitor<?, ?>, Object> outputs, int visitorCount) {
+            this.outputs = outputs;
+            this.visitorCount = visitorCount;
+        }
+
+        /**
+         * Gets the output of the given visitor.
+         *
+         * @param visitor one of the visitors that shared the traversal.
+         * @param <T>     the output type of the visitor.
+         * @return the output of the given visitor.
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T get(FusableVisitor<T, ?> visitor) {
+            return (T) outputs.get(visitor);
+        }
+
+        /**
+         * The number of tree walks saved by sharing a single traversal, that is one less than the number of visitors.
+         *
+         * @return the number of walks saved.
+         */
+        public int walksSaved() {
+            return Math.max(0, visitorCount - 1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Fused %d visitors into a single tree walk, saving %d walks.", visitorCount,
+                    walksSaved());
+        }
+    }
+
+}
@@ -0,0 +1,136 @@
+package uk.ac.tees.syntax.visitor;
+
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Analyses the lines of a {@link Program} in parallel. The lines are partitioned into contiguous ranges across a
+ * {@link ForkJoinPool}, each range is traversed by its own visitor, created for that range alone, and the result
+ * taken from each visitor is merged with those of the neighbouring ranges.
+ * <p>
+ * This is suitable for read-only analyses whose visitors hold no state other than what they gather from the lines
+ * they visit. The {@link Program} node itself is not visited, only its lines and their child nodes are.
+ * <p>
+ * Results are always merged in the order of the lines they were gathered from, the result of an earlier range being
+ * the left operand of the reducer, so the reducer need only be associative, not commutative.
+ *
+ * @param <V> the type of visitor that traverses each range of lines.
+ * @param <R> the type of result gathered from each range of lines.
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class ParallelLineAnalysis<V extends AbstractSyntaxTreeVisitor<?, ?>, R> {
+
+    /**
+     * The default number of lines below which a range is traversed by a single visitor rather than split further.
+     */
+    public static final int DEFAULT_THRESHOLD = 512;
+
+    /**
+     * Creates a fresh visitor for each range of lines.
+     */
+    private final Supplier<V> visitorFactory;
+
+    /**
+     * Takes the result from a visitor once it has traversed its range of lines.
+     */
+    private final Function<V, R> resultExtractor;
+
+    /**
+     * Merges the results of two neighbouring ranges of lines.
+     */
+    private final BinaryOperator<R> reducer;
+
+    /**
+     * The number of lines below which a range is not split any further.
+     */
+    private final int threshold;
+
+    /**
+     * The pool in which ranges of lines are traversed.
+     */
+    private final ForkJoinPool pool;
+
+    public ParallelLineAnalysis(Supplier<V> visitorFactory, Function<V, R> resultExtractor, BinaryOperator<R> reducer,
+                                int threshold, ForkJoinPool pool) {
+        if (threshold < 1) {
+            throw new IllegalArgumentException("Threshold must be at least 1 line! " + threshold);
+        }
+
+        this.visitorFactory = visitorFactory;
+        this.resultExtractor = resultExtractor;
+        this.reducer = reducer;
+        this.threshold = threshold;
+        this.pool = pool;
+    }
+
+    public ParallelLineAnalysis(Supplier<V> visitorFactory, Function<V, R> resultExtractor, BinaryOperator<R> reducer) {
+        this(visitorFactory, resultExtractor, reducer, DEFAULT_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Analyses the lines of the given program. Programs with no more lines than the threshold are analysed on the
+     * calling thread.
+     *
+     * @param program the program to analyse.
+     * @return the merged result of analysing every line of the program.
+     */
+    public R analyse(Program program) {
+        List<Line> lines = program.lines();
+        AnalysisTask task = new AnalysisTask(lines, 0, lines.size());
+
+        if (lines.size() <= threshold) {
+            return task.compute();
+        }
+
+        return pool.invoke(task);
+    }
+
+    /**
+     * Traverses a range of lines, splitting it in two while it is larger than the threshold.
+     */
+    private final class AnalysisTask extends RecursiveTask<R> {
+
+        private final List<Line> lines;
+
+        private final int from;
+
+        private final int to;
+
+        private AnalysisTask(List<Line> lines, int from, int to) {
+            this.lines = lines;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from <= threshold) {
+                V visitor = visitorFactory.get();
+
+                for (int i = from; i < to; i++) {
+                    TreeWalker.walk(lines.get(i), visitor);
+                }
+
+                return resultExtractor.apply(visitor);
+            }
+
+            int middle = (from + to) >>> 1;
+
+            AnalysisTask left = new AnalysisTask(lines, from, middle);
+            AnalysisTask right = new AnalysisTask(lines, middle, to);
+
+            right.fork();
+            R leftResult = left.compute();
+
+            return reducer.apply(leftResult, right.join());
+        }
+    }
+
+}
@@ -0,0 +1,45 @@
+package uk.ac.tees.syntax.visitor;
+
+import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+
+/**
+ * Receives callbacks from a {@link TreeWalker} as it traverses an Abstract Syntax Tree.
+ * <p>
+ * {@link #visit(AbstractSyntaxTreeNode)} is called for each node at the same point, relative to its child nodes, that
+ * {@link AbstractSyntaxTreeNode#accept(AbstractSyntaxTreeVisitor)} visits that node. For example, the expression of an
+ * {@link uk.ac.tees.syntax.grammar.statement.IfStatement} is visited before the statement itself, whereas a
+ * {@link uk.ac.tees.syntax.grammar.Line} is visited before its statement. {@link #preOrder(AbstractSyntaxTreeNode)}
+ * and {@link #postOrder(AbstractSyntaxTreeNode)} are called before any, and after all, of a node's children
+ * respectively.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+@FunctionalInterface
+public interface TraversalListener {
+
+    /**
+     * Called when a node is first reached, before any of its child nodes.
+     *
+     * @param node the node reached.
+     */
+    default void preOrder(AbstractSyntaxTreeNode node) {
+
+    }
+
+    /**
+     * Called when a node is visited, in the order defined by the accept implementations of each type of node.
+     *
+     * @param node the node visited.
+     */
+    void visit(AbstractSyntaxTreeNode node);
+
+    /**
+     * Called once all the child nodes of a node have been traversed.
+     *
+     * @param node the node left.
+     */
+    default void postOrder(AbstractSyntaxTreeNode node) {
+
+    }
+
+}
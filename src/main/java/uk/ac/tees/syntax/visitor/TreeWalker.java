@@ -0,0 +1,189 @@
+package uk.ac.tees.syntax.visitor;
+
+import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.expression.BinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
+import uk.ac.tees.syntax.grammar.statement.IfStatement;
+import uk.ac.tees.syntax.grammar.statement.InputStatement;
+import uk.ac.tees.syntax.grammar.statement.LetStatement;
+import uk.ac.tees.syntax.grammar.statement.PrintStatement;
+
+import java.util.Arrays;
+
+/**
+ * Traverses an Abstract Syntax Tree iteratively, using an explicit stack in place of the call stack used by
+ * {@link AbstractSyntaxTreeNode#accept(AbstractSyntaxTreeVisitor)}. The depth of a tree that can be traversed is
+ * therefore only limited by the heap.
+ * <p>
+ * Nodes are visited in exactly the same order as they are when accepting a visitor, so a visitor can be given to
+ * {@link #walk(AbstractSyntaxTreeNode, AbstractSyntaxTreeVisitor)} in place of calling accept on the root node.
+ * <p>
+ * Each node is traversed in a number of steps, one for each child node and one to visit the node itself. The visit
+ * step is taken after {@link #visitIndex(AbstractSyntaxTreeNode)} child nodes have been traversed.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public final class TreeWalker {
+
+    /**
+     * The initial capacity of the stack, this is grown as required.
+     */
+    private static final int INITIAL_DEPTH = 32;
+
+    /**
+     * Prevent instantiation.
+     */
+    private TreeWalker() {
+
+    }
+
+    /**
+     * Visits each node of the tree from the given root node with the given visitor, in the same order as
+     * {@link AbstractSyntaxTreeNode#accept(AbstractSyntaxTreeVisitor)}.
+     *
+     * @param root    the root node of the tree to traverse.
+     * @param visitor the visitor to visit the nodes with.
+     */
+    public static void walk(AbstractSyntaxTreeNode root, AbstractSyntaxTreeVisitor<?, ?> visitor) {
+        walk(root, visitor::visitNode);
+    }
+
+    /**
+     * Traverses the tree from the given root node, notifying the given listener of each node reached, visited and
+     * left.
+     *
+     * @param root     the root node of the tree to traverse.
+     * @param listener the listener to notify.
+     */
+    public static void walk(AbstractSyntaxTreeNode root, TraversalListener listener) {
+        AbstractSyntaxTreeNode[] nodes = new AbstractSyntaxTreeNode[INITIAL_DEPTH];
+        int[] steps = new int[INITIAL_DEPTH];
+        int top = 0;
+
+        nodes[top] = root;
+        listener.preOrder(root);
+
+        while (top >= 0) {
+            AbstractSyntaxTreeNode node = nodes[top];
+            int step = steps[top]++;
+            int visitIndex = visitIndex(node);
+
+            if (step > childCount(node)) {
+                listener.postOrder(node);
+                nodes[top--] = null;
+
+            } else if (step == visitIndex) {
+                listener.visit(node);
+
+            } else {
+                AbstractSyntaxTreeNode child = child(node, step < visitIndex ? step : step - 1);
+
+                if (++top == nodes.length) {
+                    nodes = Arrays.copyOf(nodes, top * 2);
+                    steps = Arrays.copyOf(steps, top * 2);
+                }
+
+                nodes[top] = child;
+                steps[top] = 0;
+                listener.preOrder(child);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of child nodes of the given node.
+     *
+     * @param node the node.
+     * @return the number of child nodes.
+     */
+    private static int childCount(AbstractSyntaxTreeNode node) {
+        switch (node.getKind()) {
+            case PROGRAM:
+                return ((Program) node).lines().size();
+
+            case LINE:
+            case UNARY_EXPRESSION:
+                return 1;
+
+            case ARITHMETIC_BINARY_EXPRESSION:
+            case RELATIONAL_BINARY_EXPRESSION:
+            case IF_STATEMENT:
+            case LET_STATEMENT:
+                return 2;
+
+            case INPUT_STATEMENT:
+                return ((InputStatement) node).getIdentifiers().size();
+
+            case PRINT_STATEMENT:
+                return ((PrintStatement) node).getExpressions().size();
+
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Gets the number of child nodes of the given node that are traversed before the node itself is visited.
+     *
+     * @param node the node.
+     * @return the index of the visit step.
+     */
+    private static int visitIndex(AbstractSyntaxTreeNode node) {
+        switch (node.getKind()) {
+            case PROGRAM:
+            case LINE:
+                return 0;
+
+            case IF_STATEMENT:
+                return 1;
+
+            default:
+                return childCount(node);
+        }
+    }
+
+    /**
+     * Gets the child, at the given index, of the given node.
+     *
+     * @param node  the parent node.
+     * @param index the index of the child node, in the order children are accepted.
+     * @return the child node.
+     */
+    private static AbstractSyntaxTreeNode child(AbstractSyntaxTreeNode node, int index) {
+        switch (node.getKind()) {
+            case PROGRAM:
+                return ((Program) node).lines().get(index);
+
+            case LINE:
+                return ((Line) node).getStatement();
+
+            case UNARY_EXPRESSION:
+                return ((UnaryExpression) node).getExpression();
+
+            case ARITHMETIC_BINARY_EXPRESSION:
+            case RELATIONAL_BINARY_EXPRESSION:
+                BinaryExpression<?> expression = (BinaryExpression<?>) node;
+                return index == 0 ? expression.getLeft() : expression.getRight();
+
+            case IF_STATEMENT:
+                IfStatement ifStatement = (IfStatement) node;
+                return index == 0 ? ifStatement.getExpression() : ifStatement.getStatement();
+
+            case LET_STATEMENT:
+                LetStatement letStatement = (LetStatement) node;
+                return index == 0 ? letStatement.getIdentifier() : letStatement.getValue();
+
+            case INPUT_STATEMENT:
+                return ((InputStatement) node).getIdentifiers().get(index);
+
+            case PRINT_STATEMENT:
+                return ((PrintStatement) node).getExpressions().get(index);
+
+            default:
+                throw new IndexOutOfBoundsException(node + " has no child nodes");
+        }
+    }
+
+}
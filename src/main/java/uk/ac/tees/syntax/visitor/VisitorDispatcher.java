@@ -0,0 +1,74 @@
+package uk.ac.tees.syntax.visitor;
+
+import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+
+import java.util.Optional;
+
+/**
+ * Invokes the {@link Visitor} annotated methods of a particular {@link AbstractSyntaxTreeVisitor} subclass directly,
+ * selecting the method by the {@link uk.ac.tees.syntax.grammar.NodeKind} of the visited node.
+ * <p>
+ * Implementations are generated at compile time by
+ * {@link uk.ac.tees.syntax.visitor.processor.VisitorDispatcherProcessor}, in the package of the visitor they dispatch
+ * for, and named after it so that {@link AbstractSyntaxTreeVisitor#visitNode(AbstractSyntaxTreeNode)} can find them in
+ * place of reflection. The dispatcher of {@code a.b.Outer.Inner} is {@code a.b.Outer_InnerDispatcher}.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+public interface VisitorDispatcher {
+
+    /**
+     * The suffix of the simple name of every generated dispatcher.
+     */
+    String SUFFIX = "Dispatcher";
+
+    /**
+     * Invokes the visitor method, of the given visitor, that is appropriate for the given node.
+     *
+     * @param visitor the visitor to invoke the method of, this is always an instance of the visitor type that this
+     *                dispatcher was generated for.
+     * @param node    the node to visit.
+     * @return {@code true} if there is a visitor method for the given node.
+     */
+    boolean dispatch(AbstractSyntaxTreeVisitor<?, ?> visitor, AbstractSyntaxTreeNode node);
+
+    /**
+     * Finds the dispatcher generated for the given type of visitor by its name. Local and anonymous visitors, and
+     * visitors compiled without the processor, have no dispatcher.
+     *
+     * @param visitorType the type of visitor.
+     * @return the generated dispatcher, if there is one.
+     */
+    static Optional<VisitorDispatcher> forVisitor(Class<?> visitorType) {
+        StringBuilder name = new StringBuilder(visitorType.getSimpleName()).append(SUFFIX);
+
+        for (Class<?> type = visitorType; type.getEnclosingClass() != null; type = type.getEnclosingClass()) {
+            if (!type.isMemberClass()) {
+                return Optional.empty();
+            }
+
+            name.insert(0, type.getEnclosingClass().getSimpleName() + "_");
+        }
+
+        if (!visitorType.getPackageName().isEmpty()) {
+            name.insert(0, visitorType.getPackageName() + ".");
+        }
+
+        try {
+            Class<?> type = Class.forName(name.toString(), true, visitorType.getClassLoader());
+
+            if (!VisitorDispatcher.class.isAssignableFrom(type)) {
+                return Optional.empty();
+            }
+
+            return Optional.of((VisitorDispatcher) type.getDeclaredConstructor().newInstance());
+
+        } catch (ClassNotFoundException e) {
+            return Optional.empty();
+
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate visitor dispatcher " + name, e);
+        }
+    }
+
+}
@@ -0,0 +1,435 @@
+package uk.ac.tees.syntax.visitor.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * An annotation processor that generates a {@link uk.ac.tees.syntax.visitor.VisitorDispatcher} for every concrete
+ * subclass of {@link uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor}. The generated dispatcher switches on the
+ * {@link uk.ac.tees.syntax.grammar.NodeKind} of a node and calls the appropriate {@link uk.ac.tees.syntax.visitor.Visitor}
+ * annotated method directly, so visiting a node requires no reflection.
+ * <p>
+ * Visitor methods are validated whilst generating dispatchers. The following are reported as compilation errors:
+ * <ul>
+ * <li>A visitor method that is private or static, since it cannot be invoked by the dispatcher.</li>
+ * <li>A visitor method that does not have exactly one {@link uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode}
+ * parameter.</li>
+ * <li>An accepted type, listed in {@link uk.ac.tees.syntax.visitor.Visitor#types()}, that cannot be given as the
+ * parameter of the method.</li>
+ * <li>A visitor method that handles no concrete type of node and would therefore never be invoked.</li>
+ * <li>Multiple visitor methods that handle the same type of node.</li>
+ * <li>A {@link uk.ac.tees.syntax.grammar.NodeKind} with no visitor method, in a visitor annotated
+ * {@link uk.ac.tees.syntax.visitor.Exhaustive}, that is not listed as an exception.</li>
+ * </ul>
+ * <p>
+ * Only visitors that declare a {@link uk.ac.tees.syntax.visitor.Visitor} method are processed. Each dispatcher is
+ * written to its own source file and found by name at runtime, see
+ * {@link uk.ac.tees.syntax.visitor.VisitorDispatcher#forVisitor(Class)}, so there is no list of dispatchers that an
+ * incremental compilation of some visitors could leave incomplete.
+ * <p>
+ * This class is compiled before the rest of the project so it must only refer to project types by name.
+ *
+ * @author Sam Hammersley - Gonsalves (q5315908)
+ */
+@SupportedAnnotationTypes("uk.ac.tees.syntax.visitor.Visitor")
+public final class VisitorDispatcherProcessor extends AbstractProcessor {
+
+    private static final String VISITOR_TYPE = "uk.ac.tees.syntax.visitor.AbstractSyntaxTreeVisitor";
+
+    private static final String VISITOR_ANNOTATION = "uk.ac.tees.syntax.visitor.Visitor";
+
+    private static final String EXHAUSTIVE_ANNOTATION = "uk.ac.tees.syntax.visitor.Exhaustive";
+
+    private static final String DISPATCHER_TYPE = "uk.ac.tees.syntax.visitor.VisitorDispatcher";
+
+    private static final String NODE_TYPE = "uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode";
+
+    private static final String NODE_KIND_TYPE = "uk.ac.tees.syntax.grammar.NodeKind";
+
+    private static final String DISPATCHER_SUFFIX = "Dispatcher";
+
+    private static final String INDENTATION = "    ";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnvironment) {
+        TypeElement visitorType = processingEnv.getElementUtils().getTypeElement(VISITOR_TYPE);
+        if (visitorType == null || annotations.isEmpty()) {
+            return false;
+        }
+
+        TypeMirror visitor = processingEnv.getTypeUtils().erasure(visitorType.asType());
+        Set<TypeElement> types = new LinkedHashSet<>();
+
+        for (TypeElement annotation : annotations) {
+            for (Element method : roundEnvironment.getElementsAnnotatedWith(annotation)) {
+                types.add((TypeElement) method.getEnclosingElement());
+            }
+        }
+
+        for (TypeElement type : types) {
+            if (isConcrete(type) && isAccessible(type) && processingEnv.getTypeUtils().isSubtype(type.asType(), visitor)) {
+                generateDispatcher(type);
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Validates the visitor methods of the given visitor type and, if they are valid, generates a dispatcher for it.
+     *
+     * @param visitor the visitor type to generate a dispatcher for.
+     */
+    private void generateDispatcher(TypeElement visitor) {
+        Map<String, ExecutableElement> handlers = new LinkedHashMap<>();
+        boolean valid = true;
+
+        for (ExecutableElement method : ElementFilter.methodsIn(visitor.getEnclosedElements())) {
+            AnnotationMirror annotation = annotation(method, VISITOR_ANNOTATION);
+
+            if (annotation != null) {
+                valid &= addHandlers(handlers, method, annotation);
+            }
+        }
+
+        AnnotationMirror exhaustive = annotation(visitor, EXHAUSTIVE_ANNOTATION);
+
+        if (valid && exhaustive != null) {
+            valid = checkExhaustive(visitor, handlers, exhaustive);
+        }
+
+        if (valid) {
+            writeDispatcher(visitor, handlers);
+        }
+    }
+
+    /**
+     * Reports the node kinds that the given {@link uk.ac.tees.syntax.visitor.Exhaustive} visitor neither handles nor
+     * lists as an exception.
+     *
+     * @param visitor    the visitor type.
+     * @param handlers   node kind constant names mapped to the methods that handle them.
+     * @param annotation the exhaustive annotation of the visitor.
+     * @return {@code true} if every node kind is handled or excepted.
+     */
+    private boolean checkExhaustive(TypeElement visitor, Map<String, ExecutableElement> handlers,
+                                    AnnotationMirror annotation) {
+
+        Set<String> unhandled = new TreeSet<>(nodeKinds());
+        unhandled.removeAll(handlers.keySet());
+
+        for (TypeMirror type : annotationTypes(annotation, "except")) {
+            unhandled.remove(nodeKind((TypeElement) processingEnv.getTypeUtils().asElement(type)));
+        }
+
+        if (!unhandled.isEmpty()) {
+            return error(visitor, "Exhaustive visitor has no visitor method for " + String.join(", ", unhandled));
+        }
+
+        return true;
+    }
+
+    /**
+     * Finds the annotation of the given element with the given type.
+     *
+     * @param element        the element to find the annotation of.
+     * @param annotationType the qualified name of the annotation type.
+     * @return the annotation or {@code null} if the element is not annotated.
+     */
+    private AnnotationMirror annotation(Element element, String annotationType) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) annotation.getAnnotationType().asElement();
+
+            if (type.getQualifiedName().contentEquals(annotationType)) {
+                return annotation;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Maps each node kind handled by the given method to that method, reporting any reason the method cannot be
+     * dispatched to as an error.
+     *
+     * @param handlers   node kind constant names mapped to the methods that handle them.
+     * @param method     the annotated visitor method.
+     * @param annotation the visitor annotation of the method.
+     * @return {@code true} if the method is a valid visitor method.
+     */
+    private boolean addHandlers(Map<String, ExecutableElement> handlers, ExecutableElement method,
+                                AnnotationMirror annotation) {
+
+        if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) {
+            return error(method, "Visitor method must not be private or static, it is invoked by a generated dispatcher");
+        }
+
+        TypeMirror node = processingEnv.getElementUtils().getTypeElement(NODE_TYPE).asType();
+
+        if (method.getParameters().size() != 1) {
+            return error(method, "Visitor method must have exactly one parameter");
+        }
+
+        TypeMirror parameter = processingEnv.getTypeUtils().erasure(method.getParameters().get(0).asType());
+        if (!processingEnv.getTypeUtils().isAssignable(parameter, node)) {
+            return error(method, "Visitor method parameter must be an AbstractSyntaxTreeNode");
+        }
+
+        List<TypeElement> accepted = new ArrayList<>();
+
+        for (TypeMirror type : annotationTypes(annotation, "types")) {
+            if (!processingEnv.getTypeUtils().isAssignable(type, parameter)) {
+                return error(method, "Accepted type " + type + " cannot be given as parameter " + parameter);
+            }
+
+            accepted.add((TypeElement) processingEnv.getTypeUtils().asElement(type));
+        }
+
+        TypeElement parameterType = (TypeElement) processingEnv.getTypeUtils().asElement(parameter);
+        if (isConcrete(parameterType)) {
+            accepted.add(parameterType);
+        }
+
+        if (accepted.isEmpty()) {
+            return error(method, "Visitor method does not handle any concrete type of node and would never be invoked");
+        }
+
+        boolean valid = true;
+
+        for (TypeElement type : accepted) {
+            if (!isConcrete(type)) {
+                valid &= error(method, "Accepted type " + type + " is not a concrete type of node");
+                continue;
+            }
+
+            String kind = nodeKind(type);
+
+            if (!nodeKinds().contains(kind)) {
+                valid &= error(method, "There is no NodeKind." + kind + " for " + type.getQualifiedName());
+                continue;
+            }
+
+            ExecutableElement existing = handlers.putIfAbsent(kind, method);
+            if (existing != null && !existing.equals(method)) {
+                valid &= error(method, "Ambiguous visitor methods for " + type.getSimpleName() + ", also handled by "
+                        + existing);
+            }
+        }
+
+        return valid;
+    }
+
+    /**
+     * Gets the types listed in an element of the given annotation, such as
+     * {@link uk.ac.tees.syntax.visitor.Visitor#types()}.
+     *
+     * @param annotation the annotation.
+     * @param name       the name of the element.
+     * @return a {@link List} of the listed types.
+     */
+    @SuppressWarnings("unchecked")
+    private List<TypeMirror> annotationTypes(AnnotationMirror annotation, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                : annotation.getElementValues().entrySet()) {
+
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return ((List<? extends AnnotationValue>) entry.getValue().getValue())
+                        .stream()
+                        .map(v -> (TypeMirror) v.getValue())
+                        .collect(Collectors.toList());
+            }
+        }
+
+        return Collections.emptyList();
+    }
+
+    /**
+     * Gets the names of the constants of the {@link uk.ac.tees.syntax.grammar.NodeKind} enum.
+     *
+     * @return a {@link Set} of constant names.
+     */
+    private Set<String> nodeKinds() {
+        return processingEnv.getElementUtils().getTypeElement(NODE_KIND_TYPE)
+                .getEnclosedElements()
+                .stream()
+                .filter(e -> e.getKind() == ElementKind.ENUM_CONSTANT)
+                .map(e -> e.getSimpleName().toString())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Gets the name of the {@link uk.ac.tees.syntax.grammar.NodeKind} constant for the given node type, this is the
+     * simple name of the type in upper snake case.
+     *
+     * @param type the concrete node type.
+     * @return the constant name.
+     */
+    private String nodeKind(TypeElement type) {
+        return type.getSimpleName().toString().replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+    }
+
+    /**
+     * Determines whether the given type can be referred to by a dispatcher in the same package. Visitors that cannot
+     * be are visited using reflection.
+     *
+     * @param type the type.
+     * @return {@code true} if neither the type nor any type enclosing it is private, local or anonymous.
+     */
+    private boolean isAccessible(TypeElement type) {
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            NestingKind nesting = ((TypeElement) e).getNestingKind();
+
+            if (e.getModifiers().contains(Modifier.PRIVATE) || nesting == NestingKind.LOCAL
+                    || nesting == NestingKind.ANONYMOUS) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private boolean isConcrete(TypeElement type) {
+        return type.getKind() == ElementKind.CLASS && !type.getModifiers().contains(Modifier.ABSTRACT);
+    }
+
+    private boolean error(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+
+        return false;
+    }
+
+    /**
+     * Gets the source code representation of the given type, with wildcards for any type parameters. This can be used
+     * as the target type of a cast.
+     *
+     * @param type the type.
+     * @return the qualified name of the type followed by a wildcard for each type parameter.
+     */
+    private String wildcardType(TypeElement type) {
+        String name = type.getQualifiedName().toString();
+
+        if (type.getTypeParameters().isEmpty()) {
+            return name;
+        }
+
+        return type.getTypeParameters()
+                .stream()
+                .map(p -> "?")
+                .collect(Collectors.joining(", ", name + "<", ">"));
+    }
+
+    /**
+     * Writes the source code for a dispatcher, of the given visitor, that invokes the given handlers.
+     *
+     * @param visitor  the visitor type.
+     * @param handlers node kind constant names mapped to the methods that handle them.
+     */
+    private void writeDispatcher(TypeElement visitor, Map<String, ExecutableElement> handlers) {
+        String packageName = processingEnv.getElementUtils().getPackageOf(visitor).getQualifiedName().toString();
+        String simpleName = dispatcherName(visitor);
+        String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+
+        StringBuilder builder = new StringBuilder();
+
+        if (!packageName.isEmpty()) {
+            builder.append("package ").append(packageName).append(";\n\n");
+        }
+
+        builder.append("@javax.annotation.processing.Generated(\"").append(getClass().getName()).append("\")\n")
+                .append("public final class ").append(simpleName).append(" implements ").append(DISPATCHER_TYPE)
+                .append(" {\n\n");
+
+        builder.append(INDENTATION).append("@Override\n")
+                .append(INDENTATION).append("public boolean dispatch(").append(VISITOR_TYPE).append("<?, ?> visitor, ")
+                .append(NODE_TYPE).append(" node) {\n");
+
+        if (handlers.isEmpty()) {
+            builder.append(INDENTATION.repeat(2)).append("return false;\n");
+
+        } else {
+            String visitorType = wildcardType(visitor);
+
+            builder.append(INDENTATION.repeat(2)).append(visitorType).append(" target = (").append(visitorType)
+                    .append(") visitor;\n\n")
+                    .append(INDENTATION.repeat(2)).append("switch (node.getKind()) {\n");
+
+            for (Map.Entry<String, ExecutableElement> handler : handlers.entrySet()) {
+                ExecutableElement method = handler.getValue();
+                TypeMirror parameter = processingEnv.getTypeUtils().erasure(method.getParameters().get(0).asType());
+                String parameterType = wildcardType((TypeElement) ((DeclaredType) parameter).asElement());
+
+                builder.append(INDENTATION.repeat(3)).append("case ").append(handler.getKey()).append(":\n")
+                        .append(INDENTATION.repeat(4)).append("target.").append(method.getSimpleName())
+                        .append("((").append(parameterType).append(") node);\n")
+                        .append(INDENTATION.repeat(4)).append("return true;\n");
+            }
+
+            builder.append(INDENTATION.repeat(3)).append("default:\n")
+                    .append(INDENTATION.repeat(4)).append("return false;\n")
+                    .append(INDENTATION.repeat(2)).append("}\n");
+        }
+
+        builder.append(INDENTATION).append("}\n\n}\n");
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, visitor);
+
+            try (Writer writer = file.openWriter()) {
+                writer.write(builder.toString());
+            }
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets the simple name of the dispatcher for the given visitor, nested visitors are prefixed with the names of the
+     * types enclosing them.
+     *
+     * @param visitor the visitor type.
+     * @return the simple name of the generated dispatcher.
+     */
+    private String dispatcherName(TypeElement visitor) {
+        String name = visitor.getSimpleName().toString();
+
+        for (Element e = visitor.getEnclosingElement(); e instanceof TypeElement; e = e.getEnclosingElement()) {
+            name = e.getSimpleName() + "_" + name;
+        }
+
+        return name + DISPATCHER_SUFFIX;
+    }
+
+}
@@ -0,0 +1,89 @@
+package uk.ac.tees.ir;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
+import uk.ac.tees.syntax.grammar.expression.UnaryOperator;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.factor.StringLiteral;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class ThreeAddressCodeGeneratorTest {
+
+    private static final String DUMP =
+            """
+                    program test
+                    _line_10:
+                        input A
+                        t0 = -A
+                        B = t0 * 2
+                        if B < 100 goto _line_30_1 else _line_40
+                    _line_30_1: ; predecessors: _line_10
+                        call _line_70 then _line_40
+                    _line_40: ; predecessors: _line_10, _line_70
+                        print "B is "
+                        print B
+                        exit
+                    _line_60:
+                        print "Unreachable"
+                        jump _line_70
+                    _line_70: ; predecessors: _line_30_1, _line_60
+                        B = B + 1
+                        return
+                    """;
+
+    private Program manualAbstractSyntaxTree() {
+        // -A * 2
+        ArithmeticBinaryExpression product = new ArithmeticBinaryExpression(
+                new UnaryExpression(UnaryOperator.SUB, new IdentifierFactor('A')), new NumberFactor(2),
+                ArithmeticOperator.MUL);
+
+        RelationalBinaryExpression condition = new RelationalBinaryExpression(
+                new IdentifierFactor('B'), new NumberFactor(100), RelationalOperator.LESS);
+
+        ArithmeticBinaryExpression increment = new ArithmeticBinaryExpression(
+                new IdentifierFactor('B'), new NumberFactor(1), ArithmeticOperator.ADD);
+
+        List<Line> lines = List.of(
+                new Line(10, new InputStatement(List.of(new UnassignedIdentifier('A')))),
+                new Line(20, new LetStatement(new UnassignedIdentifier('B'), product)),
+                new Line(30, new IfStatement(condition, new GoSubStatement(70))),
+                new Line(40, new PrintStatement(new StringLiteral("\"B is \""), new IdentifierFactor('B'))),
+                new Line(50, new EndStatement()),
+                new Line(60, new PrintStatement(new StringLiteral("\"Unreachable\""))),
+                new Line(70, new LetStatement(new UnassignedIdentifier('B'), increment)),
+                new Line(80, new ReturnStatement()));
+
+        return new Program("test", lines);
+    }
+
+    @Test
+    void testLowering() {
+        ControlFlowGraph graph = new ThreeAddressCodeGenerator().visitTree(manualAbstractSyntaxTree());
+
+        assertEquals(DUMP, graph.toString());
+    }
+
+    @Test
+    void testRemoveUnreachableBlocks() {
+        ControlFlowGraph graph = new ThreeAddressCodeGenerator().visitTree(manualAbstractSyntaxTree());
+
+        assertEquals(1, graph.removeUnreachableBlocks());
+        assertEquals(List.of("_line_10", "_line_30_1", "_line_40", "_line_70"),
+                graph.getBlocks().stream().map(BasicBlock::getLabel).collect(Collectors.toList()));
+        assertEquals(List.of(graph.getBlocks().get(1)), graph.getBlocks().get(3).getPredecessors());
+    }
+
+}
@@ -0,0 +1,113 @@
+package uk.ac.tees.ir.analysis;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.ThreeAddressCodeGenerator;
+import uk.ac.tees.ir.operand.Constant;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class InductionVariablesTest {
+
+    private static BasicBlock block(ControlFlowGraph graph, String label) {
+        return graph.getBlocks().stream().filter(block -> block.getLabel().equals(label)).findFirst().orElseThrow();
+    }
+
+    private static ArithmeticBinaryExpression decrement(char name) {
+        return new ArithmeticBinaryExpression(new IdentifierFactor(name), new NumberFactor(1), ArithmeticOperator.SUB);
+    }
+
+    private static RelationalBinaryExpression greaterThanZero(char name) {
+        return new RelationalBinaryExpression(
+                new IdentifierFactor(name), new NumberFactor(0), RelationalOperator.GREATER);
+    }
+
+    @Test
+    void testCountedLoop() {
+        List<Line> lines = List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('N'), new NumberFactor(10))),
+                new Line(20, new PrintStatement(List.of(new IdentifierFactor('N')))),
+                new Line(30, new LetStatement(new UnassignedIdentifier('N'), decrement('N'))),
+                new Line(40, new IfStatement(greaterThanZero('N'), new GoToStatement(20))),
+                new Line(50, new EndStatement()));
+
+        ControlFlowGraph graph = new ThreeAddressCodeGenerator().visitTree(new Program("test", lines));
+        InductionVariables inductionVariables = new InductionVariables(graph);
+
+        assertEquals(1, inductionVariables.getCountedLoops().size());
+
+        InductionVariables.CountedLoop loop = inductionVariables.getCountedLoops().get(0);
+
+        assertSame(loop, inductionVariables.getCountedLoop(block(graph, "_line_20").getTerminator()));
+        assertEquals(block(graph, "_line_20"), loop.getLoop().getHeader());
+        assertEquals(-1, loop.getVariable().getStride());
+        assertEquals(RelationalOperator.GREATER, loop.getCondition());
+        assertEquals(Constant.of(0), loop.getBound());
+        assertEquals(10L, loop.getInitialValue());
+        assertEquals(10L, loop.getTripCount());
+        assertTrue(loop.isOverflowFree());
+    }
+
+    @Test
+    void testUnknownInitialValue() {
+        List<Line> lines = List.of(
+                new Line(10, new InputStatement(List.of(new UnassignedIdentifier('N')))),
+                new Line(20, new LetStatement(new UnassignedIdentifier('N'), decrement('N'))),
+                new Line(30, new IfStatement(greaterThanZero('N'), new GoToStatement(20))),
+                new Line(40, new EndStatement()));
+
+        ControlFlowGraph graph = new ThreeAddressCodeGenerator().visitTree(new Program("test", lines));
+        InductionVariables.CountedLoop loop = new InductionVariables(graph).getCountedLoops().get(0);
+
+        assertNull(loop.getInitialValue());
+        assertNull(loop.getTripCount());
+        assertFalse(loop.isOverflowFree());
+    }
+
+    @Test
+    void testVariableAssignedTwice() {
+        List<Line> lines = List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('N'), decrement('N'))),
+                new Line(20, new IfStatement(greaterThanZero('N'), new LetStatement(
+                        new UnassignedIdentifier('N'), new NumberFactor(3)))),
+                new Line(30, new IfStatement(greaterThanZero('N'), new GoToStatement(10))),
+                new Line(40, new EndStatement()));
+
+        ControlFlowGraph graph = new ThreeAddressCodeGenerator().visitTree(new Program("test", lines));
+        InductionVariables inductionVariables = new InductionVariables(graph);
+
+        assertEquals(1, inductionVariables.getInductionVariables().size());
+        assertTrue(inductionVariables.getInductionVariables().values().iterator().next().isEmpty());
+        assertTrue(inductionVariables.getCountedLoops().isEmpty());
+    }
+
+    @Test
+    void testTripCount() {
+        assertEquals(10L, InductionVariables.tripCount(RelationalOperator.LESS, 0, 1, 10));
+        assertEquals(6L, InductionVariables.tripCount(RelationalOperator.LESS_EQUAL, 0, 2, 11));
+        assertEquals(4L, InductionVariables.tripCount(RelationalOperator.GREATER, 10, -3, 0));
+        assertEquals(5L, InductionVariables.tripCount(RelationalOperator.GREATER_EQUAL, 10, -2, 2));
+        assertEquals(5L, InductionVariables.tripCount(RelationalOperator.NOT_EQUAL, 0, 2, 10));
+        assertEquals(2L, InductionVariables.tripCount(RelationalOperator.EQUAL, 0, 1, 1));
+        assertEquals(1L, InductionVariables.tripCount(RelationalOperator.LESS, 10, 1, 5));
+
+        // the variable would step past its bound, or count the wrong way, and overflow before the loop ends.
+        assertNull(InductionVariables.tripCount(RelationalOperator.NOT_EQUAL, 0, 2, 7));
+        assertNull(InductionVariables.tripCount(RelationalOperator.LESS, 0, -1, 10));
+        assertNull(InductionVariables.tripCount(RelationalOperator.LESS_EQUAL, 0, 1, Long.MAX_VALUE));
+    }
+
+}
@@ -0,0 +1,78 @@
+package uk.ac.tees.ir.analysis;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.ThreeAddressCodeGenerator;
+import uk.ac.tees.ir.operand.Variable;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class LivenessTest {
+
+    private static final Variable I = Variable.of('I');
+
+    private static final Variable J = Variable.of('J');
+
+    private ControlFlowGraph manualControlFlowGraph() {
+        RelationalBinaryExpression condition = new RelationalBinaryExpression(
+                new IdentifierFactor('I'), new NumberFactor(10), RelationalOperator.LESS);
+
+        ArithmeticBinaryExpression increment = new ArithmeticBinaryExpression(
+                new IdentifierFactor('I'), new NumberFactor(1), ArithmeticOperator.ADD);
+
+        List<Line> lines = List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('I'), new NumberFactor(0))),
+                new Line(20, new IfStatement(condition, new GoToStatement(50))),
+                new Line(30, new PrintStatement(new IdentifierFactor('J'))),
+                new Line(40, new EndStatement()),
+                new Line(50, new LetStatement(new UnassignedIdentifier('I'), increment)),
+                new Line(60, new GoToStatement(20)));
+
+        return new ThreeAddressCodeGenerator().visitTree(new Program("test", lines));
+    }
+
+    private static BasicBlock block(ControlFlowGraph graph, String label) {
+        return graph.getBlocks().stream().filter(b -> b.getLabel().equals(label)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void testLiveness() {
+        ControlFlowGraph graph = manualControlFlowGraph();
+        Liveness liveness = new Liveness(graph);
+
+        BitSet entry = new BitSet();
+        entry.set(Liveness.indexOf(J));
+
+        // J is read before it is assigned, so is live throughout, while I is assigned first.
+        assertEquals(entry, liveness.getLiveIn(block(graph, "_line_10")));
+        assertTrue(liveness.isLiveOut(block(graph, "_line_10"), I));
+        assertTrue(liveness.getLiveIn(block(graph, "_line_20")).get(Liveness.indexOf(I)));
+        assertTrue(liveness.isLiveOut(block(graph, "_line_50"), I));
+        assertTrue(liveness.isLiveOut(block(graph, "_line_50"), J));
+        assertFalse(liveness.getLiveIn(block(graph, "_line_30")).get(Liveness.indexOf(I)));
+        assertTrue(liveness.getLiveOut(block(graph, "_line_30")).isEmpty());
+    }
+
+    @Test
+    void testIndex() {
+        assertEquals(J, Liveness.locationAt(Liveness.indexOf(J)));
+        assertEquals(Variable.COUNT, Liveness.indexOf(Liveness.locationAt(Variable.COUNT)));
+    }
+
+}
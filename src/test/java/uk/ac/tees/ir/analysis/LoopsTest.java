@@ -0,0 +1,66 @@
+package uk.ac.tees.ir.analysis;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.ThreeAddressCodeGenerator;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class LoopsTest {
+
+    private static BasicBlock block(ControlFlowGraph graph, String label) {
+        return graph.getBlocks().stream().filter(block -> block.getLabel().equals(label)).findFirst().orElseThrow();
+    }
+
+    private static ArithmeticBinaryExpression increment(char name) {
+        return new ArithmeticBinaryExpression(new IdentifierFactor(name), new NumberFactor(1), ArithmeticOperator.ADD);
+    }
+
+    private static RelationalBinaryExpression lessThanThree(char name) {
+        return new RelationalBinaryExpression(new IdentifierFactor(name), new NumberFactor(3), RelationalOperator.LESS);
+    }
+
+    @Test
+    void testNestedLoops() {
+        List<Line> lines = List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('I'), new NumberFactor(0))),
+                new Line(20, new LetStatement(new UnassignedIdentifier('J'), new NumberFactor(0))),
+                new Line(30, new LetStatement(new UnassignedIdentifier('J'), increment('J'))),
+                new Line(40, new IfStatement(lessThanThree('J'), new GoToStatement(30))),
+                new Line(50, new LetStatement(new UnassignedIdentifier('I'), increment('I'))),
+                new Line(60, new IfStatement(lessThanThree('I'), new GoToStatement(20))),
+                new Line(70, new EndStatement()));
+
+        ControlFlowGraph graph = new ThreeAddressCodeGenerator().visitTree(new Program("test", lines));
+        Loops loops = new Loops(graph);
+
+        assertEquals(2, loops.getLoops().size());
+
+        Loops.Loop inner = loops.getLoops().get(0);
+        Loops.Loop outer = loops.getLoops().get(1);
+
+        assertEquals(block(graph, "_line_30"), inner.getHeader());
+        assertEquals(List.of(block(graph, "_line_30"), block(graph, "_line_40_1")), List.copyOf(inner.getBody()));
+
+        assertEquals(block(graph, "_line_20"), outer.getHeader());
+        assertEquals(List.of(block(graph, "_line_60_1")), outer.getLatches());
+        assertEquals(List.of(block(graph, "_line_10")), outer.getEntries());
+        assertEquals(2, loops.depthOf(block(graph, "_line_40_1")));
+        assertEquals(1, loops.depthOf(block(graph, "_line_50")));
+        assertEquals(0, loops.depthOf(block(graph, "_line_10")));
+    }
+
+}
@@ -0,0 +1,86 @@
+package uk.ac.tees.ir.analysis;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.ir.BasicBlock;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.ThreeAddressCodeGenerator;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class SsaFormTest {
+
+    private static final String SSA_FORM =
+            """
+                    _line_10:
+                        I1 = 0
+                        jump _line_20
+                    _line_20:
+                        I2 = phi(_line_10: I1, _line_50: I3)
+                        if I2 < 10 goto _line_20_1 else _line_30
+                    _line_30:
+                        print I2
+                        exit
+                    _line_20_1:
+                        jump _line_50
+                    _line_50:
+                        I3 = I2 + 1
+                        jump _line_20
+                    """;
+
+    private ControlFlowGraph manualControlFlowGraph() {
+        RelationalBinaryExpression condition = new RelationalBinaryExpression(
+                new IdentifierFactor('I'), new NumberFactor(10), RelationalOperator.LESS);
+
+        ArithmeticBinaryExpression increment = new ArithmeticBinaryExpression(
+                new IdentifierFactor('I'), new NumberFactor(1), ArithmeticOperator.ADD);
+
+        List<Line> lines = List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('I'), new NumberFactor(0))),
+                new Line(20, new IfStatement(condition, new GoToStatement(50))),
+                new Line(30, new PrintStatement(new IdentifierFactor('I'))),
+                new Line(40, new EndStatement()),
+                new Line(50, new LetStatement(new UnassignedIdentifier('I'), increment)),
+                new Line(60, new GoToStatement(20)));
+
+        return new ThreeAddressCodeGenerator().visitTree(new Program("test", lines));
+    }
+
+    private static BasicBlock block(ControlFlowGraph graph, String label) {
+        return graph.getBlocks().stream().filter(b -> b.getLabel().equals(label)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void testDominators() {
+        ControlFlowGraph graph = manualControlFlowGraph();
+        Dominators dominators = new Dominators(graph);
+
+        BasicBlock entry = block(graph, "_line_10");
+        BasicBlock header = block(graph, "_line_20");
+        BasicBlock body = block(graph, "_line_50");
+
+        assertEquals(entry, dominators.getImmediateDominator(header));
+        assertEquals(block(graph, "_line_20_1"), dominators.getImmediateDominator(body));
+        assertTrue(dominators.dominates(header, body));
+        assertEquals(Set.of(header), dominators.getFrontier(body));
+    }
+
+    @Test
+    void testSsaForm() {
+        assertEquals(SSA_FORM, new SsaForm(manualControlFlowGraph()).toString());
+    }
+
+}
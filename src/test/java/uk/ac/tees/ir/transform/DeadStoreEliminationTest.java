@@ -0,0 +1,80 @@
+package uk.ac.tees.ir.transform;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.ThreeAddressCodeGenerator;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class DeadStoreEliminationTest {
+
+    private static final String DUMP =
+            """
+                    program test
+                    _line_10:
+                        input X
+                        A = X * 2
+                        B = X / 0
+                        if X > 0 goto _line_60_1 else _line_70
+                    _line_60_1: ; predecessors: _line_10
+                        jump _line_90
+                    _line_70: ; predecessors: _line_10
+                        A = X + 1
+                        input X
+                        jump _line_90
+                    _line_90: ; predecessors: _line_60_1, _line_70
+                        print A
+                        exit
+                    """;
+
+    private static ArithmeticBinaryExpression expression(char left, ArithmeticOperator operator, int right) {
+        return new ArithmeticBinaryExpression(new IdentifierFactor(left), new NumberFactor(right), operator);
+    }
+
+    private Program manualAbstractSyntaxTree() {
+        RelationalBinaryExpression condition = new RelationalBinaryExpression(
+                new IdentifierFactor('X'), new NumberFactor(0), RelationalOperator.GREATER);
+
+        List<Line> lines = List.of(
+                new Line(10, new InputStatement(List.of(new UnassignedIdentifier('X')))),
+                new Line(20, new LetStatement(new UnassignedIdentifier('A'), expression('X', ArithmeticOperator.MUL, 2))),
+                new Line(30, new LetStatement(new UnassignedIdentifier('B'), expression('X', ArithmeticOperator.DIV, 0))),
+                new Line(40, new LetStatement(new UnassignedIdentifier('C'), new ArithmeticBinaryExpression(
+                        expression('X', ArithmeticOperator.ADD, 1), new NumberFactor(3), ArithmeticOperator.MUL))),
+                new Line(50, new LetStatement(new UnassignedIdentifier('D'), expression('C', ArithmeticOperator.SUB, 1))),
+                new Line(60, new IfStatement(condition, new GoToStatement(90))),
+                new Line(70, new LetStatement(new UnassignedIdentifier('A'), expression('X', ArithmeticOperator.ADD, 1))),
+                new Line(80, new InputStatement(List.of(new UnassignedIdentifier('X')))),
+                new Line(90, new PrintStatement(new IdentifierFactor('A'))),
+                new Line(100, new EndStatement()));
+
+        return new Program("test", lines);
+    }
+
+    @Test
+    void testElimination() {
+        ControlFlowGraph graph = new ThreeAddressCodeGenerator().visitTree(manualAbstractSyntaxTree());
+        DeadStoreElimination elimination = new DeadStoreElimination();
+
+        assertSame(graph, elimination.run(graph));
+        assertEquals(DUMP, graph.toString());
+
+        assertEquals(3, elimination.getRemovedCount());
+        assertEquals(3, elimination.getRemoved().get(graph.getEntry()));
+        assertEquals(2, elimination.getIterations());
+    }
+
+}
@@ -0,0 +1,82 @@
+package uk.ac.tees.ir.transform;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.ThreeAddressCodeGenerator;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class LocalValueNumberingTest {
+
+    private static final String DUMP =
+            """
+                    program test
+                    _line_10:
+                        input X
+                        input Y
+                        t0 = X * Y
+                        A = t0 + 1
+                        B = t0
+                        t3 = t0
+                        print t3
+                        X = X + 1
+                        C = X * Y
+                        input Y
+                        D = X * Y
+                        print A
+                        print B
+                        print C
+                        print D
+                        exit
+                    """;
+
+    private static ArithmeticBinaryExpression product(char left, char right) {
+        return new ArithmeticBinaryExpression(
+                new IdentifierFactor(left), new IdentifierFactor(right), ArithmeticOperator.MUL);
+    }
+
+    private Program manualAbstractSyntaxTree() {
+        ArithmeticBinaryExpression increment = new ArithmeticBinaryExpression(
+                new IdentifierFactor('X'), new NumberFactor(1), ArithmeticOperator.ADD);
+
+        List<Line> lines = List.of(
+                new Line(10, new InputStatement(List.of(new UnassignedIdentifier('X'), new UnassignedIdentifier('Y')))),
+                new Line(20, new LetStatement(new UnassignedIdentifier('A'), new ArithmeticBinaryExpression(
+                        product('X', 'Y'), new NumberFactor(1), ArithmeticOperator.ADD))),
+                new Line(30, new LetStatement(new UnassignedIdentifier('B'), product('Y', 'X'))),
+                new Line(40, new PrintStatement(product('X', 'Y'))),
+                new Line(50, new LetStatement(new UnassignedIdentifier('X'), increment)),
+                new Line(60, new LetStatement(new UnassignedIdentifier('C'), product('X', 'Y'))),
+                new Line(70, new InputStatement(List.of(new UnassignedIdentifier('Y')))),
+                new Line(80, new LetStatement(new UnassignedIdentifier('D'), product('X', 'Y'))),
+                new Line(90, new PrintStatement(new IdentifierFactor('A'), new IdentifierFactor('B'),
+                        new IdentifierFactor('C'), new IdentifierFactor('D'))),
+                new Line(100, new EndStatement()));
+
+        return new Program("test", lines);
+    }
+
+    @Test
+    void testValueNumbering() {
+        ControlFlowGraph graph = new ThreeAddressCodeGenerator().visitTree(manualAbstractSyntaxTree());
+        LocalValueNumbering numbering = new LocalValueNumbering();
+
+        assertSame(graph, numbering.run(graph));
+        assertEquals(DUMP, graph.toString());
+
+        assertEquals(2, numbering.getHitCount());
+        assertEquals(2, numbering.getHits().get(graph.getEntry()));
+    }
+
+}
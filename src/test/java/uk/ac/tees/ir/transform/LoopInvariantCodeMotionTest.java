@@ -0,0 +1,91 @@
+package uk.ac.tees.ir.transform;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.ThreeAddressCodeGenerator;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class LoopInvariantCodeMotionTest {
+
+    private static final String DUMP =
+            """
+                    program test
+                    _line_10:
+                        input X
+                        input Y
+                        I = 0
+                        jump _line_30_preheader
+                    _line_30_preheader: ; predecessors: _line_10
+                        t0 = X * X
+                        t4 = t0 + 3
+                        jump _line_30
+                    _line_30: ; predecessors: _line_30_preheader, _line_70_1
+                        print I
+                        T = t4
+                        Q = Y / X
+                        I = I + 1
+                        if I < 5 goto _line_70_1 else _line_80
+                    _line_70_1: ; predecessors: _line_30
+                        jump _line_30
+                    _line_80: ; predecessors: _line_30
+                        print T
+                        print Q
+                        exit
+                    """;
+
+    private Program manualAbstractSyntaxTree() {
+        ArithmeticBinaryExpression square = new ArithmeticBinaryExpression(
+                new IdentifierFactor('X'), new IdentifierFactor('X'), ArithmeticOperator.MUL);
+
+        ArithmeticBinaryExpression quotient = new ArithmeticBinaryExpression(
+                new IdentifierFactor('Y'), new IdentifierFactor('X'), ArithmeticOperator.DIV);
+
+        ArithmeticBinaryExpression increment = new ArithmeticBinaryExpression(
+                new IdentifierFactor('I'), new NumberFactor(1), ArithmeticOperator.ADD);
+
+        RelationalBinaryExpression loopCondition = new RelationalBinaryExpression(
+                new IdentifierFactor('I'), new NumberFactor(5), RelationalOperator.LESS);
+
+        List<Line> lines = List.of(
+                new Line(10, new InputStatement(List.of(new UnassignedIdentifier('X'), new UnassignedIdentifier('Y')))),
+                new Line(20, new LetStatement(new UnassignedIdentifier('I'), new NumberFactor(0))),
+                new Line(30, new PrintStatement(new IdentifierFactor('I'))),
+                new Line(40, new LetStatement(new UnassignedIdentifier('T'),
+                        new ArithmeticBinaryExpression(square, new NumberFactor(3), ArithmeticOperator.ADD))),
+                new Line(50, new LetStatement(new UnassignedIdentifier('Q'), quotient)),
+                new Line(60, new LetStatement(new UnassignedIdentifier('I'), increment)),
+                new Line(70, new IfStatement(loopCondition, new GoToStatement(30))),
+                new Line(80, new PrintStatement(new IdentifierFactor('T'), new IdentifierFactor('Q'))),
+                new Line(90, new EndStatement()));
+
+        return new Program("test", lines);
+    }
+
+    @Test
+    void testHoisting() {
+        ControlFlowGraph graph = new ThreeAddressCodeGenerator().visitTree(manualAbstractSyntaxTree());
+        LoopInvariantCodeMotion motion = new LoopInvariantCodeMotion();
+
+        assertSame(graph, motion.run(graph));
+        assertEquals(DUMP, graph.toString());
+
+        assertEquals(1, motion.getLoopCount());
+        assertEquals(1, motion.getPreheaderCount());
+        assertEquals(2, motion.getHoistedInstructions());
+    }
+
+}
@@ -0,0 +1,104 @@
+package uk.ac.tees.ir.transform;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.ThreeAddressCodeGenerator;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class LoopUnrollingTest {
+
+    private static final String DUMP =
+            """
+                    program test
+                    _line_10:
+                        input I
+                        jump _line_20_guard
+                    _line_20_unrolled: ; predecessors: _line_20_guard
+                        print I
+                        I = I + 1
+                        print I
+                        I = I + 1
+                        print I
+                        I = I + 1
+                        if I < 10 goto _line_20_guard else _line_50
+                    _line_20_guard: ; predecessors: _line_10, _line_20_unrolled
+                        if I < 8 goto _line_20_unrolled else _line_20
+                    _line_20: ; predecessors: _line_20_guard, _line_40_1
+                        print I
+                        I = I + 1
+                        if I < 10 goto _line_40_1 else _line_50
+                    _line_40_1: ; predecessors: _line_20
+                        jump _line_20
+                    _line_50: ; predecessors: _line_20_unrolled, _line_20
+                        exit
+                    """;
+
+    private static Program program(Statement statement) {
+        ArithmeticBinaryExpression increment = new ArithmeticBinaryExpression(
+                new IdentifierFactor('I'), new NumberFactor(1), ArithmeticOperator.ADD);
+
+        RelationalBinaryExpression loopCondition = new RelationalBinaryExpression(
+                new IdentifierFactor('I'), new NumberFactor(10), RelationalOperator.LESS);
+
+        List<Line> lines = List.of(
+                new Line(10, new InputStatement(List.of(new UnassignedIdentifier('I')))),
+                new Line(20, statement),
+                new Line(30, new LetStatement(new UnassignedIdentifier('I'), increment)),
+                new Line(40, new IfStatement(loopCondition, new GoToStatement(20))),
+                new Line(50, new EndStatement()));
+
+        return new Program("test", lines);
+    }
+
+    @Test
+    void testUnrolling() {
+        ControlFlowGraph graph = new ThreeAddressCodeGenerator().visitTree(
+                program(new PrintStatement(new IdentifierFactor('I'))));
+        LoopUnrolling unrolling = new LoopUnrolling(3, 32, 128);
+
+        assertSame(graph, unrolling.run(graph));
+        assertEquals(DUMP, graph.toString());
+
+        assertEquals(1, unrolling.getUnrolledLoops());
+        assertEquals(8, unrolling.getAddedInstructions());
+    }
+
+    @Test
+    void testLoopWithInputNotUnrolled() {
+        ControlFlowGraph graph = new ThreeAddressCodeGenerator().visitTree(
+                program(new InputStatement(List.of(new UnassignedIdentifier('N')))));
+        String dump = graph.toString();
+        LoopUnrolling unrolling = new LoopUnrolling(3, 32, 128);
+
+        unrolling.run(graph);
+
+        assertEquals(dump, graph.toString());
+        assertEquals(0, unrolling.getUnrolledLoops());
+    }
+
+    @Test
+    void testBudget() {
+        ControlFlowGraph graph = new ThreeAddressCodeGenerator().visitTree(
+                program(new PrintStatement(new IdentifierFactor('I'))));
+        LoopUnrolling unrolling = new LoopUnrolling(3, 32, 5);
+
+        unrolling.run(graph);
+
+        assertEquals(0, unrolling.getUnrolledLoops());
+    }
+
+}
@@ -0,0 +1,95 @@
+package uk.ac.tees.ir.transform;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.ThreeAddressCodeGenerator;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.factor.StringLiteral;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class SparseConditionalConstantPropagationTest {
+
+    private static final String DUMP =
+            """
+                    program test
+                    _line_10:
+                        A = 5
+                        B = 10
+                        jump _line_30_1
+                    _line_30_1: ; predecessors: _line_10
+                        jump _line_60
+                    _line_60: ; predecessors: _line_30_1
+                        C = 5 / 0
+                        I = 0
+                        jump _line_80
+                    _line_80: ; predecessors: _line_60, _line_90_1
+                        I = I + 1
+                        if I < 3 goto _line_90_1 else _line_100
+                    _line_90_1: ; predecessors: _line_80
+                        jump _line_80
+                    _line_100: ; predecessors: _line_80
+                        print 10
+                        print I
+                        exit
+                    """;
+
+    private Program manualAbstractSyntaxTree() {
+        ArithmeticBinaryExpression product = new ArithmeticBinaryExpression(
+                new IdentifierFactor('A'), new NumberFactor(2), ArithmeticOperator.MUL);
+
+        RelationalBinaryExpression constantCondition = new RelationalBinaryExpression(
+                new IdentifierFactor('B'), new NumberFactor(5), RelationalOperator.GREATER);
+
+        ArithmeticBinaryExpression divisionByZero = new ArithmeticBinaryExpression(
+                new IdentifierFactor('A'), new NumberFactor(0), ArithmeticOperator.DIV);
+
+        ArithmeticBinaryExpression increment = new ArithmeticBinaryExpression(
+                new IdentifierFactor('I'), new NumberFactor(1), ArithmeticOperator.ADD);
+
+        RelationalBinaryExpression loopCondition = new RelationalBinaryExpression(
+                new IdentifierFactor('I'), new NumberFactor(3), RelationalOperator.LESS);
+
+        List<Line> lines = List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('A'), new NumberFactor(5))),
+                new Line(20, new LetStatement(new UnassignedIdentifier('B'), product)),
+                new Line(30, new IfStatement(constantCondition, new GoToStatement(60))),
+                new Line(40, new PrintStatement(new StringLiteral("\"small\""))),
+                new Line(50, new EndStatement()),
+                new Line(60, new LetStatement(new UnassignedIdentifier('C'), divisionByZero)),
+                new Line(70, new LetStatement(new UnassignedIdentifier('I'), new NumberFactor(0))),
+                new Line(80, new LetStatement(new UnassignedIdentifier('I'), increment)),
+                new Line(90, new IfStatement(loopCondition, new GoToStatement(80))),
+                new Line(100, new PrintStatement(new IdentifierFactor('B'), new IdentifierFactor('I'))),
+                new Line(110, new EndStatement()));
+
+        return new Program("test", lines);
+    }
+
+    @Test
+    void testPropagation() {
+        ControlFlowGraph graph = new ThreeAddressCodeGenerator().visitTree(manualAbstractSyntaxTree());
+        SparseConditionalConstantPropagation propagation = new SparseConditionalConstantPropagation();
+
+        assertSame(graph, propagation.run(graph));
+        assertTrue(propagation.isChanged());
+        assertEquals(DUMP, graph.toString());
+
+        assertEquals(1, propagation.getResolvedBranches());
+        assertEquals(1, propagation.getRemovedBlocks());
+    }
+
+}
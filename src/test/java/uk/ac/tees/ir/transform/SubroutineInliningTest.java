@@ -0,0 +1,125 @@
+package uk.ac.tees.ir.transform;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.ThreeAddressCodeGenerator;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class SubroutineInliningTest {
+
+    private static final String INLINED_DUMP =
+            """
+                    program test
+                    _line_10:
+                        A = 2
+                        jump _line_100_inline_1
+                    _line_100_inline_1: ; predecessors: _line_10
+                        t2 = A * A
+                        S = S + t2
+                        jump _line_30
+                    _line_30: ; predecessors: _line_100_inline_1
+                        jump _line_200_inline_3
+                    _line_200_inline_3: ; predecessors: _line_30
+                        jump _line_100_inline_2_inline_3
+                    _line_100_inline_2_inline_3: ; predecessors: _line_200_inline_3
+                        t4 = A * A
+                        S = S + t4
+                        jump _line_210_inline_3
+                    _line_210_inline_3: ; predecessors: _line_100_inline_2_inline_3
+                        jump _line_40
+                    _line_40: ; predecessors: _line_210_inline_3
+                        print S
+                        exit
+                    _line_100:
+                        t0 = A * A
+                        S = S + t0
+                        return
+                    _line_200:
+                        jump _line_100_inline_2
+                    _line_100_inline_2: ; predecessors: _line_200
+                        t3 = A * A
+                        S = S + t3
+                        jump _line_210
+                    _line_210: ; predecessors: _line_100_inline_2
+                        return
+                    """;
+
+    private static final String TAIL_JUMP_DUMP =
+            """
+                    program test
+                    _line_10:
+                        A = 2
+                        call _line_100 then _line_30
+                    _line_30: ; predecessors: _line_100, _line_210
+                        call _line_200 then _line_40
+                    _line_40: ; predecessors: _line_100, _line_210
+                        print S
+                        exit
+                    _line_100: ; predecessors: _line_10, _line_200
+                        t0 = A * A
+                        S = S + t0
+                        return
+                    _line_200: ; predecessors: _line_30
+                        jump _line_100
+                    _line_210:
+                        return
+                    """;
+
+    private Program manualAbstractSyntaxTree() {
+        ArithmeticBinaryExpression square = new ArithmeticBinaryExpression(
+                new IdentifierFactor('A'), new IdentifierFactor('A'), ArithmeticOperator.MUL);
+
+        ArithmeticBinaryExpression sum = new ArithmeticBinaryExpression(
+                new IdentifierFactor('S'), square, ArithmeticOperator.ADD);
+
+        List<Line> lines = List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('A'), new NumberFactor(2))),
+                new Line(20, new GoSubStatement(100)),
+                new Line(30, new GoSubStatement(200)),
+                new Line(40, new PrintStatement(new IdentifierFactor('S'))),
+                new Line(50, new EndStatement()),
+                new Line(100, new LetStatement(new UnassignedIdentifier('S'), sum)),
+                new Line(110, new ReturnStatement()),
+                new Line(200, new GoSubStatement(100)),
+                new Line(210, new ReturnStatement()));
+
+        return new Program("test", lines);
+    }
+
+    @Test
+    void testInlining() {
+        ControlFlowGraph graph = new ThreeAddressCodeGenerator().visitTree(manualAbstractSyntaxTree());
+        SubroutineInlining inlining = new SubroutineInlining();
+
+        assertSame(graph, inlining.run(graph));
+        assertEquals(INLINED_DUMP, graph.toString());
+
+        assertEquals(3, inlining.getInlinedCalls());
+        assertEquals(0, inlining.getTailJumps());
+    }
+
+    @Test
+    void testTailJump() {
+        ControlFlowGraph graph = new ThreeAddressCodeGenerator().visitTree(manualAbstractSyntaxTree());
+        SubroutineInlining inlining = new SubroutineInlining(16, 0);
+
+        assertSame(graph, inlining.run(graph));
+        assertEquals(TAIL_JUMP_DUMP, graph.toString());
+
+        assertEquals(0, inlining.getInlinedCalls());
+        assertEquals(1, inlining.getTailJumps());
+    }
+
+}
@@ -0,0 +1,140 @@
+package uk.ac.tees.optimise;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.Expression;
+import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
+import uk.ac.tees.syntax.grammar.expression.UnaryOperator;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.statement.LetStatement;
+import uk.ac.tees.syntax.grammar.statement.PrintStatement;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class AlgebraicSimplificationTest {
+
+    private static final IdentifierFactor X = new IdentifierFactor('X');
+
+    private static final IdentifierFactor Y = new IdentifierFactor('Y');
+
+    private static Expression binary(Expression left, ArithmeticOperator operator, Expression right) {
+        return new ArithmeticBinaryExpression(left, right, operator);
+    }
+
+    private static Expression simplify(AlgebraicSimplification simplification, Expression expression) {
+        Program program = new Program("test", List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('A'), expression))));
+
+        return ((LetStatement) simplification.run(program).lines().get(0).getStatement()).getValue();
+    }
+
+    private static Expression simplify(Expression expression) {
+        return simplify(new AlgebraicSimplification(), expression);
+    }
+
+    @Test
+    void testIdentities() {
+        assertEquals(X, simplify(binary(X, ArithmeticOperator.ADD, new NumberFactor(0))));
+        assertEquals(X, simplify(binary(new NumberFactor(1), ArithmeticOperator.MUL, X)));
+        assertEquals(X, simplify(binary(X, ArithmeticOperator.DIV, new NumberFactor(1))));
+        assertEquals(new NumberFactor(0), simplify(binary(X, ArithmeticOperator.SUB, X)));
+        assertEquals(new NumberFactor(0), simplify(binary(Y, ArithmeticOperator.MUL, new NumberFactor(0))));
+
+        // (X * 1 + 0) - -(Y - 0) is simplified bottom-up to X + Y.
+        Expression nested = binary(binary(binary(X, ArithmeticOperator.MUL, new NumberFactor(1)),
+                ArithmeticOperator.ADD, new NumberFactor(0)),
+                ArithmeticOperator.SUB,
+                new UnaryExpression(UnaryOperator.SUB, binary(Y, ArithmeticOperator.SUB, new NumberFactor(0))));
+
+        assertEquals(binary(X, ArithmeticOperator.ADD, Y), simplify(nested));
+    }
+
+    @Test
+    void testTrappingOperandKept() {
+        Expression division = binary(X, ArithmeticOperator.DIV, Y);
+
+        Program program = new Program("test", List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('A'),
+                        binary(division, ArithmeticOperator.MUL, new NumberFactor(0)))),
+                new Line(20, new LetStatement(new UnassignedIdentifier('B'),
+                        binary(division, ArithmeticOperator.SUB, division))),
+                new Line(30, new LetStatement(new UnassignedIdentifier('C'),
+                        binary(X, ArithmeticOperator.DIV, new NumberFactor(-1))))));
+
+        assertSame(program, new AlgebraicSimplification().run(program));
+    }
+
+    @Test
+    void testHits() {
+        AlgebraicSimplification simplification = new AlgebraicSimplification();
+
+        Program program = new Program("test", List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('A'),
+                        binary(X, ArithmeticOperator.ADD, new NumberFactor(0)))),
+                new Line(20, new PrintStatement(binary(binary(Y, ArithmeticOperator.MUL, new NumberFactor(1)),
+                        ArithmeticOperator.ADD, new NumberFactor(0))))));
+
+        simplification.run(program);
+
+        assertEquals(2, simplification.getHits().get(AlgebraicRules.ADD_ZERO.getName()));
+        assertEquals(1, simplification.getHits().get(AlgebraicRules.MULTIPLY_BY_ONE.getName()));
+        assertEquals(3, simplification.getHitCount());
+        assertEquals("Algebraic simplification: 3 rewrites [x + 0=2, x * 1=1]", simplification.toString());
+    }
+
+    @Test
+    void testCustomRule() {
+        // X + X is 2 * X, which the default rules do not rewrite.
+        RewriteRule doubling = RewriteRule.binary("x + x", ArithmeticOperator.ADD,
+                (left, right) -> left.equals(right) ? binary(new NumberFactor(2), ArithmeticOperator.MUL, left) : null);
+
+        AlgebraicSimplification simplification = new AlgebraicSimplification(List.of(doubling));
+
+        assertEquals(binary(new NumberFactor(2), ArithmeticOperator.MUL, X),
+                simplify(simplification, binary(X, ArithmeticOperator.ADD, X)));
+        assertEquals(Map.of("x + x", 1), simplification.getHits());
+    }
+
+    @Test
+    void testDeepSubtractSelf() {
+        Expression left = X;
+        Expression right = X;
+
+        for (int i = 1; i < 100_000; i++) {
+            left = binary(left, ArithmeticOperator.ADD, X);
+            right = binary(right, ArithmeticOperator.ADD, X);
+        }
+
+        // the two sides are built separately, so are compared by structure rather than identity.
+        assertEquals(new NumberFactor(0), simplify(binary(left, ArithmeticOperator.SUB, right)));
+    }
+
+    @Test
+    void testDeepRewrite() {
+        Expression expression = X;
+        Expression expected = X;
+
+        // X + X - 0 + X - 0 ..., where each x - 0 returns an operand that is already rewritten.
+        for (int i = 1; i < 100_000; i++) {
+            expression = binary(binary(expression, ArithmeticOperator.ADD, X), ArithmeticOperator.SUB,
+                    new NumberFactor(0));
+            expected = binary(expected, ArithmeticOperator.ADD, X);
+        }
+
+        AlgebraicSimplification simplification = new AlgebraicSimplification();
+
+        assertTrue(AlgebraicRules.isSame(expected, simplify(simplification, expression)));
+        assertEquals(99_999, simplification.getHitCount());
+    }
+
+}
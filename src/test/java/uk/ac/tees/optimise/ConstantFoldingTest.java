@@ -0,0 +1,81 @@
+package uk.ac.tees.optimise;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
+import uk.ac.tees.syntax.grammar.expression.UnaryOperator;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.factor.StringLiteral;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class ConstantFoldingTest {
+
+    private static ArithmeticBinaryExpression binary(int left, ArithmeticOperator operator, int right) {
+        return new ArithmeticBinaryExpression(new NumberFactor(left), new NumberFactor(right), operator);
+    }
+
+    private static RelationalBinaryExpression condition(int left, RelationalOperator operator, int right) {
+        return new RelationalBinaryExpression(new NumberFactor(left), new NumberFactor(right), operator);
+    }
+
+    @Test
+    void testFoldExpressions() {
+        // -(2 * 3) + A
+        ArithmeticBinaryExpression sum = new ArithmeticBinaryExpression(
+                new UnaryExpression(UnaryOperator.SUB, binary(2, ArithmeticOperator.MUL, 3)), new IdentifierFactor('A'),
+                ArithmeticOperator.ADD);
+
+        // 7 / 0 traps, 2147483647 + 1 does not fit
+        ArithmeticBinaryExpression division = binary(7, ArithmeticOperator.DIV, 0);
+        ArithmeticBinaryExpression overflow = binary(Integer.MAX_VALUE, ArithmeticOperator.ADD, 1);
+
+        Program program = new Program("test", List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('B'), sum)),
+                new Line(20, new PrintStatement(new StringLiteral("\"x\""), division, overflow)),
+                new Line(30, new EndStatement())));
+
+        ConstantFolding folding = new ConstantFolding();
+        Program folded = folding.run(program);
+
+        ArithmeticBinaryExpression foldedSum = new ArithmeticBinaryExpression(
+                new NumberFactor(-6), new IdentifierFactor('A'), ArithmeticOperator.ADD);
+
+        assertEquals(new LetStatement(new UnassignedIdentifier('B'), foldedSum), folded.lines().get(0).getStatement());
+        assertEquals(program.lines().get(1), folded.lines().get(1));
+        assertEquals(2, folding.getFoldedExpressions());
+    }
+
+    @Test
+    void testResolveConditions() {
+        Program program = new Program("test", List.of(
+                new Line(10, new IfStatement(condition(1, RelationalOperator.GREATER, 2), new GoToStatement(50))),
+                new Line(20, new GoSubStatement(40)),
+                new Line(30, new IfStatement(condition(3, RelationalOperator.EQUAL, 3), new EndStatement())),
+                new Line(40, new IfStatement(condition(1, RelationalOperator.NOT_EQUAL, 1), new ReturnStatement())),
+                new Line(50, new ReturnStatement())));
+
+        ConstantFolding folding = new ConstantFolding();
+        Program folded = folding.run(program);
+
+        Program expected = new Program("test", List.of(
+                new Line(20, new GoSubStatement(50)),
+                new Line(30, new EndStatement()),
+                new Line(50, new ReturnStatement())));
+
+        assertEquals(expected, folded);
+        assertEquals(3, folding.getResolvedConditions());
+        assertEquals(List.of(10, 40), folding.getRemovedLines());
+    }
+
+}
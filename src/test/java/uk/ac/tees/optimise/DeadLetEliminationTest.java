@@ -0,0 +1,95 @@
+package uk.ac.tees.optimise;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.Expression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class DeadLetEliminationTest {
+
+    private static LetStatement let(char variable, char left, ArithmeticOperator operator, int right) {
+        return new LetStatement(new UnassignedIdentifier(variable),
+                new ArithmeticBinaryExpression(new IdentifierFactor(left), new NumberFactor(right), operator));
+    }
+
+    @Test
+    void testEliminate() {
+        RelationalBinaryExpression condition = new RelationalBinaryExpression(
+                new IdentifierFactor('I'), new NumberFactor(10), RelationalOperator.LESS);
+
+        List<Line> lines = List.of(
+                new Line(10, new InputStatement(List.of(new UnassignedIdentifier('X')))),
+                new Line(20, let('A', 'X', ArithmeticOperator.MUL, 2)),
+                new Line(30, let('B', 'A', ArithmeticOperator.ADD, 1)),
+                new Line(40, let('C', 'X', ArithmeticOperator.DIV, 0)),
+                new Line(50, new LetStatement(new UnassignedIdentifier('I'), new NumberFactor(0))),
+                new Line(60, let('I', 'I', ArithmeticOperator.ADD, 1)),
+                new Line(70, new IfStatement(condition, new GoToStatement(60))),
+                new Line(80, new GoSubStatement(120)),
+                new Line(90, let('B', 'X', ArithmeticOperator.SUB, 1)),
+                new Line(100, new PrintStatement(new IdentifierFactor('B'), new IdentifierFactor('I'))),
+                new Line(110, new EndStatement()),
+                new Line(120, new PrintStatement(new IdentifierFactor('X'))),
+                new Line(130, let('B', 'X', ArithmeticOperator.ADD, 2)),
+                new Line(140, new ReturnStatement()));
+
+        DeadLetElimination elimination = new DeadLetElimination();
+        Program program = elimination.run(new Program("test", lines));
+
+        List<Integer> remaining = program.lines().stream().map(Line::getLineNumber).collect(Collectors.toList());
+
+        // B is assigned again at line 90 before it is printed, leaving A unread once line 30 is removed.
+        assertEquals(List.of(10, 40, 50, 60, 70, 80, 90, 100, 110, 120, 140), remaining);
+        assertEquals(List.of(20, 30, 130), elimination.getRemovedLines());
+    }
+
+    @Test
+    void testLastAssignmentKept() {
+        RelationalBinaryExpression condition = new RelationalBinaryExpression(
+                new IdentifierFactor('X'), new NumberFactor(0), RelationalOperator.GREATER);
+
+        Program program = new Program("test", List.of(
+                new Line(10, new InputStatement(List.of(new UnassignedIdentifier('X')))),
+                new Line(20, new IfStatement(condition, new GoToStatement(50))),
+                new Line(30, let('A', 'X', ArithmeticOperator.ADD, 1)),
+                new Line(40, new EndStatement()),
+                new Line(50, new PrintStatement(new IdentifierFactor('A'))),
+                new Line(60, new EndStatement())));
+
+        assertSame(program, new DeadLetElimination().run(program));
+    }
+
+    @Test
+    void testDeepExpression() {
+        Expression sum = new IdentifierFactor('A');
+
+        for (int i = 1; i < 100_000; i++) {
+            sum = new ArithmeticBinaryExpression(sum, new IdentifierFactor('A'), ArithmeticOperator.ADD);
+        }
+
+        List<Line> lines = List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('A'), new NumberFactor(1))),
+                new Line(20, new LetStatement(new UnassignedIdentifier('B'), sum)),
+                new Line(30, new PrintStatement(new IdentifierFactor('B'))),
+                new Line(40, new EndStatement()));
+
+        Program program = new Program("test", lines);
+
+        assertSame(program, new DeadLetElimination().run(program));
+    }
+
+}
@@ -0,0 +1,111 @@
+package uk.ac.tees.optimise;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.Expression;
+import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
+import uk.ac.tees.syntax.grammar.expression.UnaryOperator;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.factor.StringLiteral;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class PartialEvaluationTest {
+
+    private static LetStatement let(char variable, char left, ArithmeticOperator operator, int right) {
+        return new LetStatement(new UnassignedIdentifier(variable),
+                new ArithmeticBinaryExpression(new IdentifierFactor(left), new NumberFactor(right), operator));
+    }
+
+    @Test
+    void testEvaluate() {
+        RelationalBinaryExpression condition = new RelationalBinaryExpression(
+                new IdentifierFactor('X'), new NumberFactor(2), RelationalOperator.LESS_EQUAL);
+
+        Program program = new Program("test", List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('X'), new NumberFactor(1))),
+                new Line(20, new GoSubStatement(70)),
+                new Line(30, let('X', 'X', ArithmeticOperator.ADD, 1)),
+                new Line(40, new IfStatement(condition, new GoToStatement(20))),
+                new Line(50, new PrintStatement(new UnaryExpression(UnaryOperator.SUB, new NumberFactor(1)))),
+                new Line(60, new EndStatement()),
+                new Line(70, new PrintStatement(new StringLiteral("\"X=\""), new ArithmeticBinaryExpression(
+                        new IdentifierFactor('X'), new NumberFactor(12), ArithmeticOperator.MUL))),
+                new Line(80, new ReturnStatement())));
+
+        PartialEvaluation evaluation = new PartialEvaluation();
+        Program residual = evaluation.run(program);
+
+        // each value is written as a null byte and its first 7 digits, padded with null bytes, -1 being unsigned.
+        String expected = "\"X=\\00012\\000\\000\\000\\000\\000X=\\00024\\000\\000\\000\\000\\000\\0001844674\"";
+
+        assertEquals(List.of(
+                new Line(10, new PrintStatement(new StringLiteral(expected))),
+                new Line(20, new EndStatement())), residual.lines());
+
+        assertTrue(evaluation.isEvaluated());
+        assertEquals(13, evaluation.getSteps());
+    }
+
+    @Test
+    void testFallback() {
+        Program input = new Program("test", List.of(
+                new Line(10, new PrintStatement(new StringLiteral("\"N?\""))),
+                new Line(20, new InputStatement(List.of(new UnassignedIdentifier('N')))),
+                new Line(30, new EndStatement())));
+
+        Program division = new Program("test", List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('A'), new NumberFactor(0))),
+                new Line(20, new PrintStatement(new ArithmeticBinaryExpression(
+                        new NumberFactor(1), new IdentifierFactor('A'), ArithmeticOperator.DIV))),
+                new Line(30, new EndStatement())));
+
+        Program loop = new Program("test", List.of(
+                new Line(10, new GoToStatement(10)),
+                new Line(20, new EndStatement())));
+
+        PartialEvaluation inputEvaluation = new PartialEvaluation();
+        PartialEvaluation divisionEvaluation = new PartialEvaluation();
+        PartialEvaluation loopEvaluation = new PartialEvaluation(100, 1024);
+
+        assertSame(input, inputEvaluation.run(input));
+        assertSame(division, divisionEvaluation.run(division));
+        assertSame(loop, loopEvaluation.run(loop));
+
+        assertFalse(inputEvaluation.isEvaluated());
+        assertEquals("reads input", inputEvaluation.getFallback());
+        assertEquals("division traps", divisionEvaluation.getFallback());
+        assertEquals("step budget of 100 exceeded", loopEvaluation.getFallback());
+    }
+
+    @Test
+    void testDeepExpression() {
+        Expression sum = new IdentifierFactor('A');
+
+        for (int i = 1; i < 100_000; i++) {
+            sum = new ArithmeticBinaryExpression(sum, new IdentifierFactor('A'), ArithmeticOperator.ADD);
+        }
+
+        Program program = new Program("test", List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('A'), new NumberFactor(1))),
+                new Line(20, new PrintStatement(sum)),
+                new Line(30, new EndStatement())));
+
+        Program residual = new PartialEvaluation().run(program);
+
+        assertEquals(List.of(
+                new Line(10, new PrintStatement(new StringLiteral("\"\\000100000\\000\""))),
+                new Line(20, new EndStatement())), residual.lines());
+    }
+
+}
@@ -0,0 +1,155 @@
+package uk.ac.tees.optimise;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.Expression;
+import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
+import uk.ac.tees.syntax.grammar.expression.UnaryOperator;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.statement.LetStatement;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class ReassociationTest {
+
+    private static final Expression A = new IdentifierFactor('A');
+
+    private static final Expression B = new IdentifierFactor('B');
+
+    private static final Expression C = new IdentifierFactor('C');
+
+    private static final Expression D = new IdentifierFactor('D');
+
+    private static Expression add(Expression left, Expression right) {
+        return new ArithmeticBinaryExpression(left, right, ArithmeticOperator.ADD);
+    }
+
+    private static Expression sub(Expression left, Expression right) {
+        return new ArithmeticBinaryExpression(left, right, ArithmeticOperator.SUB);
+    }
+
+    private static Expression mul(Expression left, Expression right) {
+        return new ArithmeticBinaryExpression(left, right, ArithmeticOperator.MUL);
+    }
+
+    private static Expression number(int value) {
+        return new NumberFactor(value);
+    }
+
+    private static Program program(Expression... values) {
+        Line[] lines = new Line[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            lines[i] = new Line(10 * (i + 1), new LetStatement(new UnassignedIdentifier('X'), values[i]));
+        }
+
+        return new Program("test", List.of(lines));
+    }
+
+    private static Expression value(Program program, int index) {
+        return ((LetStatement) program.lines().get(index).getStatement()).getValue();
+    }
+
+    @Test
+    void testReassociate() {
+        Reassociation reassociation = new Reassociation();
+
+        // the parser gives A + B + C + D + 5 + 7 and A - B - C - 5 + 2 as left-deep trees.
+        Program program = reassociation.run(program(
+                add(add(add(add(add(A, B), C), D), number(5)), number(7)),
+                add(sub(sub(sub(A, B), C), number(5)), number(2)),
+                sub(sub(sub(number(5), A), B), number(7))));
+
+        assertEquals(add(add(add(A, B), add(C, D)), number(12)), value(program, 0));
+        assertEquals(sub(sub(sub(A, B), C), number(3)), value(program, 1));
+
+        // 5 - A - B - 7 is -((A + B) + 2), the sum of the constants being negated along with the operands.
+        UnaryExpression negation = (UnaryExpression) value(program, 2);
+
+        assertEquals(UnaryOperator.SUB, negation.getOperator());
+        assertEquals(add(add(A, B), number(2)), negation.getExpression());
+        assertEquals(3, reassociation.getReassociatedChains());
+        assertEquals(3, reassociation.getCombinedConstants());
+    }
+
+    @Test
+    void testProduct() {
+        Expression negatedA = new UnaryExpression(UnaryOperator.SUB, A);
+
+        Program program = new Reassociation().run(program(
+                mul(mul(mul(mul(number(2), negatedA), B), number(3)), C),
+                mul(mul(A, number(65536)), number(65536)),
+                mul(mul(new UnaryExpression(UnaryOperator.SUB, mul(A, B)), C), number(2))));
+
+        assertEquals(mul(mul(mul(A, B), C), number(-6)), value(program, 0));
+
+        // a negated product negates the whole chain once, not each of its factors.
+        assertEquals(mul(mul(mul(A, B), C), number(-2)), value(program, 2));
+
+        // the product of the constants does not fit in a number, so is left for the generated code to compute.
+        assertEquals(mul(A, mul(number(65536), number(65536))), value(program, 1));
+    }
+
+    @Test
+    void testDivisionOperandsReassociated() {
+        Expression sum = add(add(add(A, B), C), D);
+        Program program = new Reassociation().run(program(
+                new ArithmeticBinaryExpression(sum, A, ArithmeticOperator.DIV)));
+
+        assertEquals(new ArithmeticBinaryExpression(add(add(A, B), add(C, D)), A, ArithmeticOperator.DIV),
+                value(program, 0));
+    }
+
+    @Test
+    void testUnchanged() {
+        Program program = program(
+                add(add(A, B), C),
+                sub(number(5), A),
+                mul(add(A, B), number(2)),
+                new UnaryExpression(UnaryOperator.SUB, mul(A, B)));
+
+        assertSame(program, new Reassociation().run(program));
+    }
+
+    @Test
+    void testDeepChain() {
+        Expression sum = A;
+        Expression quotient = A;
+
+        for (int i = 1; i < 100_000; i++) {
+            sum = add(sum, i % 2 == 0 ? A : B);
+            quotient = new ArithmeticBinaryExpression(quotient, add(add(A, B), C), ArithmeticOperator.DIV);
+        }
+
+        Reassociation reassociation = new Reassociation();
+        Program program = reassociation.run(program(sum, quotient));
+
+        // the sum is balanced, and each of the divisors is left as it was written.
+        assertEquals(18, depth(value(program, 0)));
+        assertSame(quotient, value(program, 1));
+        assertEquals(1, reassociation.getReassociatedChains());
+    }
+
+    /**
+     * Gets the depth of a balanced expression, following its left operands.
+     */
+    private static int depth(Expression expression) {
+        int depth = 1;
+
+        while (expression instanceof ArithmeticBinaryExpression) {
+            expression = ((ArithmeticBinaryExpression) expression).getLeft();
+            depth++;
+        }
+
+        return depth;
+    }
+
+}
@@ -0,0 +1,61 @@
+package uk.ac.tees.optimise;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.factor.StringLiteral;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class UnreachableLineEliminationTest {
+
+    @Test
+    void testEliminate() {
+        RelationalBinaryExpression condition = new RelationalBinaryExpression(
+                new IdentifierFactor('A'), new NumberFactor(0), RelationalOperator.GREATER);
+
+        List<Line> lines = List.of(
+                new Line(10, new InputStatement(List.of(new UnassignedIdentifier('A')))),
+                new Line(20, new IfStatement(condition, new GoToStatement(60))),
+                new Line(30, new GoSubStatement(90)),
+                new Line(40, new PrintStatement(new StringLiteral("\"Done\""))),
+                new Line(50, new EndStatement()),
+                new Line(60, new PrintStatement(new StringLiteral("\"Positive\""))),
+                new Line(70, new GoToStatement(30)),
+                new Line(80, new PrintStatement(new StringLiteral("\"Done\""), new StringLiteral("\"Dead\""))),
+                new Line(90, new PrintStatement(new StringLiteral("\"Subroutine\""))),
+                new Line(100, new ReturnStatement()),
+                new Line(110, new PrintStatement(new StringLiteral("\"Dead\""))),
+                new Line(120, new EndStatement()));
+
+        UnreachableLineElimination elimination = new UnreachableLineElimination();
+        Program program = elimination.run(new Program("test", lines));
+
+        List<Integer> remaining = program.lines().stream().map(Line::getLineNumber).collect(Collectors.toList());
+
+        assertEquals(List.of(10, 20, 30, 40, 50, 60, 70, 90, 100), remaining);
+        assertEquals(List.of(80, 110, 120), elimination.getRemovedLines());
+        assertEquals(Set.of("\"Dead\""), elimination.getDroppedStrings());
+    }
+
+    @Test
+    void testAllReachable() {
+        Program program = new Program("test", List.of(
+                new Line(10, new PrintStatement(new StringLiteral("\"Hello\""))),
+                new Line(20, new EndStatement())));
+
+        assertSame(program, new UnreachableLineElimination().run(program));
+    }
+
+}
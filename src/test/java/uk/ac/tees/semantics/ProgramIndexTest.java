@@ -0,0 +1,65 @@
+package uk.ac.tees.semantics;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class ProgramIndexTest {
+
+    private Program manualAbstractSyntaxTree() {
+        RelationalBinaryExpression condition = new RelationalBinaryExpression(
+                new IdentifierFactor('Z'), new NumberFactor(0), RelationalOperator.EQUAL);
+
+        List<Line> lines = List.of(
+                new Line(30, new InputStatement(List.of(new UnassignedIdentifier('Q'), new UnassignedIdentifier('Z')))),
+                new Line(10, new LetStatement(new UnassignedIdentifier('Z'), new NumberFactor(1))),
+                new Line(20, new IfStatement(condition, new LetStatement(new UnassignedIdentifier('C'), new NumberFactor(2)))),
+                new Line(40, new EndStatement()));
+
+        return new Program("test", lines);
+    }
+
+    @Test
+    void testLineLookup() {
+        ProgramIndex index = ProgramIndex.of(manualAbstractSyntaxTree());
+
+        assertEquals(4, index.lineCount());
+        assertEquals(0, index.indexOf(10));
+        assertEquals(2, index.indexOf(30));
+        assertTrue(index.indexOf(25) < 0);
+
+        assertTrue(index.containsLine(40));
+        assertFalse(index.containsLine(50));
+
+        assertEquals(20, index.getLine(20).getLineNumber());
+        assertNull(index.getLine(0));
+        assertEquals(30, index.lineAt(2).getLineNumber());
+    }
+
+    @Test
+    void testVariableSlots() {
+        ProgramIndex index = ProgramIndex.of(manualAbstractSyntaxTree());
+
+        assertEquals(3, index.variableCount());
+        assertEquals(1 << ('C' - 'A') | 1 << ('Q' - 'A') | 1 << ('Z' - 'A'), index.variables());
+
+        // slots are given in the order of the program's lines, as given, not sorted by line number.
+        assertEquals(1, index.slotOf('Q'));
+        assertEquals(2, index.slotOf('Z'));
+        assertEquals(3, index.slotOf('C'));
+
+        assertFalse(index.isAssigned('A'));
+        assertEquals(0, index.slotOf('A'));
+    }
+
+}
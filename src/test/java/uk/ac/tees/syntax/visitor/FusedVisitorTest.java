@@ -0,0 +1,92 @@
+package uk.ac.tees.syntax.visitor;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.codegeneration.x86_64.X86_64NetwideAssemblyGenerator;
+import uk.ac.tees.semantics.ProgramSemanticsAnalyser;
+import uk.ac.tees.semantics.exception.SemanticException;
+import uk.ac.tees.syntax.graph.GraphDescriptionVisitor;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.factor.StringLiteral;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class FusedVisitorTest {
+
+    private Program manualAbstractSyntaxTree() {
+        // A * (B - 1)
+        ArithmeticBinaryExpression product = new ArithmeticBinaryExpression(new IdentifierFactor('A'),
+                new ArithmeticBinaryExpression(new IdentifierFactor('B'), new NumberFactor(1), ArithmeticOperator.SUB),
+                ArithmeticOperator.MUL);
+
+        RelationalBinaryExpression condition = new RelationalBinaryExpression(
+                new IdentifierFactor('C'), new NumberFactor(100), RelationalOperator.GREATER);
+
+        List<Line> lines = List.of(
+                new Line(10, new InputStatement(List.of(new UnassignedIdentifier('A'), new UnassignedIdentifier('B')))),
+                new Line(20, new LetStatement(new UnassignedIdentifier('C'), product)),
+                new Line(30, new IfStatement(condition, new GoSubStatement(60))),
+                new Line(40, new PrintStatement(new StringLiteral("\"C is \""), new IdentifierFactor('C'))),
+                new Line(50, new EndStatement()),
+                new Line(60, new PrintStatement(new StringLiteral("\"Large\""))),
+                new Line(70, new ReturnStatement()));
+
+        return new Program("test", lines);
+    }
+
+    @Test
+    void testOutputsMatchSeparateTraversals() {
+        Program program = manualAbstractSyntaxTree();
+
+        ProgramSemanticsAnalyser analyser = new ProgramSemanticsAnalyser();
+        X86_64NetwideAssemblyGenerator generator = new X86_64NetwideAssemblyGenerator();
+        GraphDescriptionVisitor<Program> graphVisitor = new GraphDescriptionVisitor<>("test");
+
+        FusedVisitor.Results results = new FusedVisitor<>(List.of(analyser, generator, graphVisitor))
+                .visitTree(program);
+
+        assertEquals(new ProgramSemanticsAnalyser().visitTree(program), results.get(analyser));
+        assertEquals(new X86_64NetwideAssemblyGenerator().visitTree(program), results.get(generator));
+
+        // nodes are named by identity hash code, so only the shape of the graph descriptions can be compared.
+        String graph = new GraphDescriptionVisitor<Program>("test").visitTree(program);
+        assertEquals(graph.lines().count(), results.get(graphVisitor).lines().count());
+
+        assertEquals(2, results.walksSaved());
+    }
+
+    @Test
+    void testVisitorsFinishInOrder() {
+        Program program = new Program("test", List.of(new Line(10, new GoToStatement(20))));
+
+        X86_64NetwideAssemblyGenerator generator = new X86_64NetwideAssemblyGenerator();
+        FusedVisitor<Program> fused = new FusedVisitor<>(List.of(new ProgramSemanticsAnalyser(), generator));
+
+        assertThrows(SemanticException.class, () -> fused.visitTree(program));
+    }
+
+    @Test
+    void testWalksSaved() {
+        Program program = manualAbstractSyntaxTree();
+
+        FusedVisitor.Results results = new FusedVisitor<Program>(
+                List.of(new ProgramSemanticsAnalyser(), new X86_64NetwideAssemblyGenerator())).visitTree(program);
+
+        assertEquals(1, results.walksSaved());
+        assertEquals("Fused 2 visitors into a single tree walk, saving 1 walks.", results.toString());
+        assertEquals(0, new FusedVisitor<Program>(List.of(new ProgramSemanticsAnalyser())).visitTree(program)
+                .walksSaved());
+    }
+
+}
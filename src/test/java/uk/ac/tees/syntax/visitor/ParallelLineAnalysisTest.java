@@ -0,0 +1,111 @@
+package uk.ac.tees.syntax.visitor;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.semantics.ProgramSemanticsAnalyser;
+import uk.ac.tees.semantics.exception.SemanticException;
+import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.statement.EndStatement;
+import uk.ac.tees.syntax.grammar.statement.LetStatement;
+import uk.ac.tees.syntax.grammar.statement.PrintStatement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+final class ParallelLineAnalysisTest {
+
+    private Program countingProgram(int lineCount) {
+        List<Line> lines = new ArrayList<>();
+        lines.add(new Line(10, new LetStatement(new UnassignedIdentifier('A'), new NumberFactor(0))));
+
+        for (int i = 2; i < lineCount; i++) {
+            // LET A = A + 1
+            lines.add(new Line(i * 10, new LetStatement(new UnassignedIdentifier('A'),
+                    new ArithmeticBinaryExpression(new IdentifierFactor('A'), new NumberFactor(1), ArithmeticOperator.ADD))));
+        }
+
+        lines.add(new Line(lineCount * 10, new EndStatement()));
+
+        return new Program("test", lines);
+    }
+
+    @Test
+    void testResultsMergedInOrder() {
+        Program program = countingProgram(1000);
+
+        ParallelLineAnalysis<LineNumberVisitor, List<Integer>> analysis = new ParallelLineAnalysis<>(
+                LineNumberVisitor::new, v -> v.lineNumbers, ParallelLineAnalysisTest::concatenate, 7,
+                ForkJoinPool.commonPool());
+
+        List<Integer> expected = new ArrayList<>();
+        program.lines().forEach(l -> expected.add(l.getLineNumber()));
+
+        assertEquals(expected, analysis.analyse(program));
+    }
+
+    @Test
+    void testSemanticsAnalysedInParallel() {
+        Program program = countingProgram(5000);
+
+        assertEquals(program, new ProgramSemanticsAnalyser().visitTree(program));
+    }
+
+    @Test
+    void testFirstErrorReported() {
+        List<Line> lines = new ArrayList<>(countingProgram(5000).lines());
+
+        // both of these lines are erroneous, the earlier error must be the one reported.
+        lines.set(2000, new Line(20005, new PrintStatement(new IdentifierFactor('B'))));
+        lines.set(4000, new Line(40010, new PrintStatement(new IdentifierFactor('B'))));
+
+        Program program = new Program("test", lines);
+
+        SemanticException parallel = assertThrows(SemanticException.class,
+                () -> new ProgramSemanticsAnalyser().visitTree(program));
+
+        ProgramSemanticsAnalyser sequential = new ProgramSemanticsAnalyser();
+        program.accept(sequential);
+
+        SemanticException fused = assertThrows(SemanticException.class, () -> sequential.finish(program));
+
+        assertEquals(fused.getMessage(), parallel.getMessage());
+        assertEquals("Line number is not a multiple of 10! 20005", parallel.getMessage());
+    }
+
+    private static List<Integer> concatenate(List<Integer> left, List<Integer> right) {
+        List<Integer> merged = new ArrayList<>(left);
+        merged.addAll(right);
+
+        return merged;
+    }
+
+    private static final class LineNumberVisitor extends AbstractSyntaxTreeVisitor<List<Integer>, Program> {
+
+        private final List<Integer> lineNumbers = new ArrayList<>();
+
+        @Override
+        public List<Integer> visitTree(Program rootNode) {
+            TreeWalker.walk(rootNode, this);
+
+            return lineNumbers;
+        }
+
+        @Override
+        public void visitNode(AbstractSyntaxTreeNode node) {
+            if (node instanceof Line) {
+                lineNumbers.add(((Line) node).getLineNumber());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+package uk.ac.tees.syntax.visitor;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.syntax.grammar.AbstractSyntaxTreeNode;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.Expression;
+import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
+import uk.ac.tees.syntax.grammar.expression.UnaryOperator;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.factor.StringLiteral;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class TreeWalkerTest {
+
+    private Program manualAbstractSyntaxTree() {
+        // -(A + 2) * B
+        ArithmeticBinaryExpression sum = new ArithmeticBinaryExpression(
+                new IdentifierFactor('A'), new NumberFactor(2), ArithmeticOperator.ADD);
+        ArithmeticBinaryExpression product = new ArithmeticBinaryExpression(
+                new UnaryExpression(UnaryOperator.SUB, sum), new IdentifierFactor('B'), ArithmeticOperator.MUL);
+
+        RelationalBinaryExpression condition = new RelationalBinaryExpression(
+                new IdentifierFactor('A'), new NumberFactor(10), RelationalOperator.LESS);
+
+        List<Line> lines = List.of(
+                new Line(10, new InputStatement(List.of(new UnassignedIdentifier('A'), new UnassignedIdentifier('B')))),
+                new Line(20, new LetStatement(new UnassignedIdentifier('C'), product)),
+                new Line(30, new PrintStatement(new StringLiteral("\"C is \""), new IdentifierFactor('C'))),
+                new Line(40, new IfStatement(condition, new GoSubStatement(70))),
+                new Line(50, new GoToStatement(80)),
+                new Line(60, new ReturnStatement()),
+                new Line(70, new ReturnStatement()),
+                new Line(80, new EndStatement()));
+
+        return new Program("test", lines);
+    }
+
+    @Test
+    void testVisitOrderMatchesAccept() {
+        Program program = manualAbstractSyntaxTree();
+
+        RecordingVisitor accepted = new RecordingVisitor();
+        program.accept(accepted);
+
+        RecordingVisitor walked = new RecordingVisitor();
+        TreeWalker.walk(program, walked);
+
+        assertEquals(accepted.visited.size(), walked.visited.size());
+
+        for (int i = 0; i < accepted.visited.size(); i++) {
+            assertSame(accepted.visited.get(i), walked.visited.get(i));
+        }
+    }
+
+    @Test
+    void testPreOrderAndPostOrder() {
+        RelationalBinaryExpression condition = new RelationalBinaryExpression(
+                new IdentifierFactor('A'), new NumberFactor(1), RelationalOperator.EQUAL);
+        EndStatement end = new EndStatement();
+        IfStatement ifStatement = new IfStatement(condition, end);
+
+        List<String> events = new ArrayList<>();
+
+        TreeWalker.walk(ifStatement, new TraversalListener() {
+            @Override
+            public void preOrder(AbstractSyntaxTreeNode node) {
+                events.add("pre " + node);
+            }
+
+            @Override
+            public void visit(AbstractSyntaxTreeNode node) {
+                events.add("visit " + node);
+            }
+
+            @Override
+            public void postOrder(AbstractSyntaxTreeNode node) {
+                events.add("post " + node);
+            }
+        });
+
+        List<String> expected = List.of(
+                "pre IF ",
+                "pre Relational(EQUAL(=))",
+                "pre Var(A)", "visit Var(A)", "post Var(A)",
+                "pre Num(1)", "visit Num(1)", "post Num(1)",
+                "visit Relational(EQUAL(=))",
+                "post Relational(EQUAL(=))",
+                "visit IF ",
+                "pre END ", "visit END ", "post END ",
+                "post IF ");
+
+        assertEquals(expected, events);
+    }
+
+    @Test
+    void testDeepExpression() {
+        Expression expression = new NumberFactor(0);
+
+        for (int i = 1; i <= 200_000; i++) {
+            expression = new ArithmeticBinaryExpression(expression, new NumberFactor(i), ArithmeticOperator.ADD);
+        }
+
+        int[] visited = new int[1];
+        TreeWalker.walk(expression, node -> visited[0]++);
+
+        assertEquals(400_001, visited[0]);
+    }
+
+    private static final class RecordingVisitor extends AbstractSyntaxTreeVisitor<List<AbstractSyntaxTreeNode>, Program> {
+
+        private final List<AbstractSyntaxTreeNode> visited = new ArrayList<>();
+
+        @Override
+        public List<AbstractSyntaxTreeNode> visitTree(Program rootNode) {
+            TreeWalker.walk(rootNode, this);
+
+            return visited;
+        }
+
+        @Override
+        public void visitNode(AbstractSyntaxTreeNode node) {
+            visited.add(node);
+        }
+    }
+
+}
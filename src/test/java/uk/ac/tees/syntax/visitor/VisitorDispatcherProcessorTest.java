@@ -0,0 +1,210 @@
+package uk.ac.tees.syntax.visitor;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import uk.ac.tees.semantics.ProgramSemanticsAnalyser;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.statement.EndStatement;
+import uk.ac.tees.syntax.visitor.processor.VisitorDispatcherProcessor;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class VisitorDispatcherProcessorTest {
+
+    private static final String VISITOR_SOURCE_FORMAT =
+            """
+                    import uk.ac.tees.syntax.grammar.*;
+                    import uk.ac.tees.syntax.grammar.expression.Expression;
+                    import uk.ac.tees.syntax.grammar.factor.*;
+                    import uk.ac.tees.syntax.visitor.*;
+
+                    %s
+                    public final class TestVisitor extends AbstractSyntaxTreeVisitor<Void, Program> {
+                        @Override
+                        public Void visitTree(Program root) {
+                            return null;
+                        }
+
+                        %s
+                    }
+                    """;
+
+    /**
+     * A visitor that no dispatcher is generated for, since it is private, so is visited using reflection.
+     */
+    @Exhaustive(except = {Line.class})
+    private static final class EndVisitor extends AbstractSyntaxTreeVisitor<Void, EndStatement> {
+
+        @Override
+        public Void visitTree(EndStatement root) {
+            visitNode(root);
+            return null;
+        }
+
+        @Visitor
+        void visit(EndStatement node) {
+        }
+
+    }
+
+    @TempDir
+    Path outputDirectory;
+
+    private List<String> compileErrors(String visitorMethods) {
+        return compileErrors("", visitorMethods);
+    }
+
+    private List<String> compileErrors(String visitorAnnotations, String visitorMethods) {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        JavaFileObject source = new SimpleJavaFileObject(URI.create("string:///TestVisitor.java"),
+                JavaFileObject.Kind.SOURCE) {
+
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return String.format(VISITOR_SOURCE_FORMAT, visitorAnnotations, visitorMethods);
+            }
+        };
+
+        // the generated sources are kept out of the working directory.
+        List<String> options = List.of("-proc:only", "-processor", VisitorDispatcherProcessor.class.getName(),
+                "-classpath", System.getProperty("java.class.path"), "-s", outputDirectory.toString(),
+                "-d", outputDirectory.toString());
+
+        compiler.getTask(null, null, diagnostics, options, null, List.of(source)).call();
+
+        return diagnostics.getDiagnostics()
+                .stream()
+                .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                .map(d -> d.getMessage(null))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void testDispatcherGenerated() {
+        Optional<VisitorDispatcher> dispatcher = VisitorDispatcher.forVisitor(ProgramSemanticsAnalyser.class);
+
+        assertTrue(dispatcher.isPresent());
+
+        ProgramSemanticsAnalyser analyser = new ProgramSemanticsAnalyser();
+        assertTrue(dispatcher.get().dispatch(analyser, new EndStatement()));
+        assertFalse(dispatcher.get().dispatch(analyser, new NumberFactor(1)));
+        assertTrue(VisitorDispatcher.forVisitor(EndVisitor.class).isEmpty());
+    }
+
+    @Test
+    void testDispatcherSourceOnly() {
+        assertEquals(List.of(), compileErrors("@Visitor\nvoid visit(NumberFactor node) {\n}\n"));
+
+        assertTrue(Files.exists(outputDirectory.resolve("TestVisitorDispatcher.java")));
+        assertFalse(Files.exists(outputDirectory.resolve("META-INF")));
+    }
+
+    @Test
+    void testValidVisitor() {
+        String methods = """
+                @Visitor
+                void visit(NumberFactor node) {
+                }
+
+                @Visitor(types = {IdentifierFactor.class})
+                void visit(Expression node) {
+                }
+                """;
+
+        assertEquals(List.of(), compileErrors(methods));
+    }
+
+    @Test
+    void testPrivateVisitorMethod() {
+        String methods = """
+                @Visitor
+                private void visit(NumberFactor node) {
+                }
+                """;
+
+        assertEquals(List.of("Visitor method must not be private or static, it is invoked by a generated dispatcher"),
+                compileErrors(methods));
+    }
+
+    @Test
+    void testVisitorMethodHandlesNoNode() {
+        String methods = """
+                @Visitor
+                void visit(Expression node) {
+                }
+                """;
+
+        assertEquals(List.of("Visitor method does not handle any concrete type of node and would never be invoked"),
+                compileErrors(methods));
+    }
+
+    @Test
+    void testAmbiguousVisitorMethods() {
+        String methods = """
+                @Visitor
+                void visit(NumberFactor node) {
+                }
+
+                @Visitor(types = {NumberFactor.class})
+                void visit(Expression node) {
+                }
+                """;
+
+        List<String> errors = compileErrors(methods);
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).startsWith("Ambiguous visitor methods for NumberFactor"));
+    }
+
+    @Test
+    void testExhaustiveVisitor() {
+        String methods = """
+                @Visitor(types = {IdentifierFactor.class, NumberFactor.class})
+                void visit(Expression node) {
+                }
+
+                @Visitor(types = {Program.class, Line.class, UnassignedIdentifier.class, StringLiteral.class})
+                void visit(AbstractSyntaxTreeNode node) {
+                }
+                """;
+
+        String annotation = "@Exhaustive(except = {uk.ac.tees.syntax.grammar.expression.UnaryExpression.class})";
+
+        List<String> errors = compileErrors(annotation, methods);
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).startsWith("Exhaustive visitor has no visitor method for ARITHMETIC_BINARY_EXPRESSION, "
+                + "END_STATEMENT"));
+        assertFalse(errors.get(0).contains("UNARY_EXPRESSION"));
+    }
+
+    @Test
+    void testExhaustiveVisitorWithoutDispatcher() {
+        EndVisitor visitor = new EndVisitor();
+
+        visitor.visitTree(new EndStatement());
+        visitor.visitNode(new Line(10, new EndStatement()));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> visitor.visitNode(new NumberFactor(1)));
+
+        assertEquals("EndVisitor has no visitor method for NUMBER_FACTOR", e.getMessage());
+    }
+
+}
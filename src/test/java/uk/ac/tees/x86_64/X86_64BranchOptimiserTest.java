@@ -0,0 +1,102 @@
+package uk.ac.tees.x86_64;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.codegeneration.x86_64.X86_64BranchOptimiser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class X86_64BranchOptimiserTest {
+
+    private static final String ASSEMBLY_INPUT =
+            """
+                    section .text
+                        global _start
+                    _start:
+                        push rbp
+                        mov rbp, rsp
+                        sub rsp, 8
+                    _line_10:
+                        cmp qword [rbp - 8], 0
+                        jle _line_20
+                        jmp _line_50
+                    _line_20:
+                        call _line_60
+                    _line_30:
+                        jmp _line_40
+                    _line_40:
+                        jmp _line_40
+                    _line_50:
+                        jmp _line_60
+                    _line_60:
+                        jmp _line_70
+                    _line_70:
+                        ret
+                    """;
+
+    private static final String ASSEMBLY_OUTPUT =
+            """
+                    section .text
+                        global _start
+                    _start:
+                        push rbp
+                        mov rbp, rsp
+                        sub rsp, 8
+                    _line_10:
+                        cmp qword [rbp - 8], 0
+                        jg _line_70
+                    _line_20:
+                        call _line_70
+                    _line_30:
+                    _line_40:
+                        jmp _line_40
+                    _line_50:
+                    _line_60:
+                    _line_70:
+                        ret
+                    """;
+
+    @Test
+    void testOptimise() {
+        X86_64BranchOptimiser optimiser = new X86_64BranchOptimiser();
+
+        assertEquals(ASSEMBLY_OUTPUT, optimiser.run(ASSEMBLY_INPUT));
+        assertEquals(3, optimiser.getThreadedJumps());
+        assertEquals(1, optimiser.getInvertedBranches());
+        assertEquals(3, optimiser.getRemovedJumps());
+    }
+
+    @Test
+    void testBranchToOtherLineKept() {
+        String assembly = """
+                _line_10:
+                    jle _line_30
+                    jmp _line_10
+                _line_20:
+                    ret
+                _line_30:
+                    ret
+                """;
+
+        assertSame(assembly, new X86_64BranchOptimiser().run(assembly));
+    
+    }
+
+    @Test
+    void testTailJump() {
+        String assembly = """
+                _line_20:
+                    call _line_100
+                _line_30:
+                    ret
+                _line_100:
+                    ret
+                """;
+
+        X86_64BranchOptimiser optimiser = new X86_64BranchOptimiser();
+
+        assertEquals(assembly.replace("call", "jmp"), optimiser.run(assembly));
+        assertEquals(1, optimiser.getTailJumps());
+    }
+
+}
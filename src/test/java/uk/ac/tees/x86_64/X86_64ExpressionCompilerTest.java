@@ -0,0 +1,127 @@
+package uk.ac.tees.x86_64;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.codegeneration.CodeGenerationOption;
+import uk.ac.tees.codegeneration.x86_64.X86_64ExpressionCompiler;
+import uk.ac.tees.codegeneration.x86_64.X86_64NetwideAssemblyGenerator;
+import uk.ac.tees.syntax.grammar.expression.Expression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class X86_64ExpressionCompilerTest {
+
+    private static X86_64NetwideAssemblyGenerator generator() {
+        return new X86_64NetwideAssemblyGenerator(null, Set.of(CodeGenerationOption.REGISTER_EXPRESSIONS));
+    }
+
+    private static Expression binary(Expression left, ArithmeticOperator operator, Expression right) {
+        return new ArithmeticBinaryExpression(left, right, operator);
+    }
+
+    /**
+     * (A * A) + (A * A), which needs two registers.
+     */
+    private static Expression sum() {
+        Expression product = binary(new IdentifierFactor('A'), ArithmeticOperator.MUL, new IdentifierFactor('A'));
+        return binary(product, ArithmeticOperator.ADD, product);
+    }
+
+    @Test
+    void testHeavierOperandFirst() {
+        // 5 - ((A * A) + (A * A)), the right operand needs more registers so is evaluated first, into rbx.
+        Expression expression = binary(new NumberFactor(5), ArithmeticOperator.SUB, sum());
+
+        final String expectedOutput =
+                """
+                            mov rbx, [rbp - 8]
+                            imul rbx, [rbp - 8]
+                            mov rax, [rbp - 8]
+                            imul rax, [rbp - 8]
+                            add rbx, rax
+                            mov rax, 5
+                            sub rax, rbx
+                            push rax
+                        """;
+
+        X86_64ExpressionCompiler compiler = new X86_64ExpressionCompiler(generator());
+
+        assertEquals(expectedOutput, compiler.visitTree(expression));
+        assertEquals(0, compiler.getSpillCount());
+    }
+
+    @Test
+    void testSpill() {
+        Expression expression = binary(sum(), ArithmeticOperator.DIV, sum());
+
+        final String expectedOutput =
+                """
+                            mov rax, [rbp - 8]
+                            imul rax, [rbp - 8]
+                            mov rbx, [rbp - 8]
+                            imul rbx, [rbp - 8]
+                            add rax, rbx
+                            push rax
+                            mov rax, [rbp - 8]
+                            imul rax, [rbp - 8]
+                            mov rbx, [rbp - 8]
+                            imul rbx, [rbp - 8]
+                            add rax, rbx
+                            pop rbx
+                            cqo
+                            idiv rbx
+                            push rax
+                        """;
+
+        X86_64ExpressionCompiler compiler = new X86_64ExpressionCompiler(generator(), List.of("rax", "rbx"));
+
+        assertEquals(expectedOutput, compiler.visitTree(expression));
+        assertEquals(1, compiler.getSpillCount());
+    }
+
+    @Test
+    void testDivisionOutOfRax() {
+        // A - A / 3, the quotient is computed in rbx, so rax is saved around the division.
+        Expression quotient = binary(new IdentifierFactor('A'), ArithmeticOperator.DIV, new NumberFactor(3));
+        Expression expression = binary(new IdentifierFactor('A'), ArithmeticOperator.SUB, quotient);
+
+        final String expectedOutput =
+                """
+                            mov rax, [rbp - 8]
+                            mov rbx, [rbp - 8]
+                            push rax
+                            mov rcx, 3
+                            mov rax, rbx
+                            cqo
+                            idiv rcx
+                            mov rbx, rax
+                            pop rax
+                            sub rax, rbx
+                            push rax
+                        """;
+
+        assertEquals(expectedOutput, new X86_64ExpressionCompiler(generator()).visitTree(expression));
+    }
+
+    @Test
+    void testDeepExpression() {
+        Expression expression = new NumberFactor(0);
+
+        for (int i = 1; i <= 100_000; i++) {
+            expression = binary(expression, ArithmeticOperator.ADD, new NumberFactor(i));
+        }
+
+        X86_64ExpressionCompiler compiler = new X86_64ExpressionCompiler(generator());
+        String output = compiler.visitTree(expression);
+
+        assertEquals(100_002, output.lines().count());
+        assertEquals(0, compiler.getSpillCount());
+    }
+
+}
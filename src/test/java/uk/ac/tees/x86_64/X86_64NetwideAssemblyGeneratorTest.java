@@ -1,10 +1,14 @@
 package uk.ac.tees.x86_64;
 
 import org.junit.jupiter.api.Test;
+import uk.ac.tees.codegeneration.CodeGenerationOption;
 import uk.ac.tees.codegeneration.x86_64.X86_64NetwideAssemblyGenerator;
 import uk.ac.tees.syntax.grammar.Line;
 import uk.ac.tees.syntax.grammar.Program;
 import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.Expression;
+import uk.ac.tees.syntax.grammar.expression.UnaryExpression;
+import uk.ac.tees.syntax.grammar.expression.UnaryOperator;
 import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
 import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
 import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
@@ -16,8 +20,11 @@ import uk.ac.tees.syntax.grammar.statement.*;
 import uk.ac.tees.syntax.graph.GraphDescriptionVisitor;
 
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 final class X86_64NetwideAssemblyGeneratorTest {
 
@@ -128,6 +135,188 @@ final class X86_64NetwideAssemblyGeneratorTest {
         assertEquals(ASSEMBLY_OUTPUT, assembly);
     }
 
+    @Test
+    void testRegisterExpressions() {
+        final String expectedOutput =
+                """
+                        _line_20:
+                            mov rax, [rbp - 8]
+                            imul rax, [rbp - 8]
+                            mov rbx, [rbp - 8]
+                            sub rbx, 1
+                            imul rbx, 10
+                            add rax, rbx
+                            push rax
+                            call decimal_to_ascii
+                        """;
+
+        X86_64NetwideAssemblyGenerator compiler = new X86_64NetwideAssemblyGenerator(
+                null, Set.of(CodeGenerationOption.REGISTER_EXPRESSIONS));
+        String assembly = compiler.visitTree(manualAbstractSyntaxTree());
+
+        assertTrue(assembly.contains(expectedOutput));
+        assertTrue(assembly.contains("_line_30:\n    mov rax, [rbp - 8]\n    push rax\n    mov rax, [rbp - 8]\n"));
+    }
+
+    @Test
+    void testLabelPruning() {
+        X86_64NetwideAssemblyGenerator compiler = new X86_64NetwideAssemblyGenerator(
+                null, Set.of(CodeGenerationOption.LABEL_PRUNING));
+        String assembly = compiler.visitTree(manualAbstractSyntaxTree());
+
+        // only the line after the IF on line 30 is jumped to.
+        assertEquals(ASSEMBLY_OUTPUT.replaceAll("_line_[123]0:\n", ""), assembly);
+        assertFalse(assembly.contains("_line_10:"));
+        assertTrue(assembly.contains("_line_40:"));
+    }
+
+    @Test
+    void testPrintOrder() {
+        final String expectedOutput =
+                """
+                            push qword [rsp + 8]
+                            call decimal_to_ascii
+                            mov rax, 1
+                            mov rdi, 1
+                            mov rsi, rsp
+                            mov rdx, 8
+                            syscall
+                            pop rax
+                            call decimal_to_ascii
+                            mov rax, 1
+                            mov rdi, 1
+                            mov rsi, rsp
+                            mov rdx, 8
+                            syscall
+                            pop rax
+                            add rsp, 8
+                        """;
+
+        X86_64NetwideAssemblyGenerator compiler = new X86_64NetwideAssemblyGenerator();
+
+        // the value of A is pushed first, so is below that of B, and is copied to the top of the stack to be written.
+        new PrintStatement(new IdentifierFactor('A'), new IdentifierFactor('B')).accept(compiler);
+
+        assertTrue(compiler.toString().endsWith(expectedOutput));
+    }
+
+    @Test
+    void testUnoptimisedPrintOrder() {
+        final String expectedOutput =
+                """
+                            mov rax, [rbp - 8]
+                            push rax
+                            push 5
+                            mov rax, [rbp - 16]
+                            push rax
+                            mov rax, 1
+                            mov rdi, 1
+                            mov rsi, rodata0
+                            mov rdx, 1
+                            syscall
+                            push qword [rsp + 16]
+                            call decimal_to_ascii
+                            mov rax, 1
+                            mov rdi, 1
+                            mov rsi, rsp
+                            mov rdx, 8
+                            syscall
+                            pop rax
+                            push qword [rsp + 8]
+                            call decimal_to_ascii
+                            mov rax, 1
+                            mov rdi, 1
+                            mov rsi, rsp
+                            mov rdx, 8
+                            syscall
+                            pop rax
+                            call decimal_to_ascii
+                            mov rax, 1
+                            mov rdi, 1
+                            mov rsi, rsp
+                            mov rdx, 8
+                            syscall
+                            pop rax
+                            add rsp, 16
+                        """;
+
+        Program program = new Program("order", List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('A'), new NumberFactor(1))),
+                new Line(20, new LetStatement(new UnassignedIdentifier('B'), new NumberFactor(2))),
+                new Line(30, new PrintStatement(new StringLiteral("\"A\""), new IdentifierFactor('A'),
+                        new NumberFactor(5), new IdentifierFactor('B'))),
+                new Line(40, new EndStatement())));
+
+        // without any options every argument is compiled, the string is written first and each value in turn after it.
+        String assembly = new X86_64NetwideAssemblyGenerator().visitTree(program);
+        String line = assembly.substring(assembly.indexOf("_line_30:\n") + "_line_30:\n".length(),
+                assembly.indexOf("_line_40:"));
+
+        assertEquals(expectedOutput, line);
+    }
+
+    @Test
+    void testConstantOutput() {
+        final String expectedOutput =
+                """
+                        _line_20:
+                            mov rax, [rbp - 8]
+                            push rax
+                            mov rax, 1
+                            mov rdi, 1
+                            mov rsi, rodata0
+                            mov rdx, 10
+                            syscall
+                            call decimal_to_ascii
+                            mov rax, 1
+                            mov rdi, 1
+                            mov rsi, rsp
+                            mov rdx, 8
+                            syscall
+                            pop rax
+                            mov rax, 1
+                            mov rdi, 1
+                            mov rsi, rodata1
+                            mov rdx, 8
+                            syscall
+                        _line_30:
+                        """;
+
+        Program program = new Program("test", List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('A'), new NumberFactor(1))),
+                new Line(20, new PrintStatement(new StringLiteral("\"X\""), new NumberFactor(5),
+                        new StringLiteral("\"Y\""), new IdentifierFactor('A'),
+                        new UnaryExpression(UnaryOperator.SUB, new NumberFactor(3)))),
+                new Line(30, new EndStatement())));
+
+        X86_64NetwideAssemblyGenerator compiler = new X86_64NetwideAssemblyGenerator(
+                null, Set.of(CodeGenerationOption.CONSTANT_OUTPUT));
+        String assembly = compiler.visitTree(program);
+
+        // 5 is written as a null byte and its digit, and -3 as the first 7 digits of its unsigned value.
+        assertTrue(assembly.contains("rodata0: db 0x58,0x0,0x35,0x0,0x0,0x0,0x0,0x0,0x0,0x59\n"));
+        assertTrue(assembly.contains("rodata1: db 0x0,0x31,0x38,0x34,0x34,0x36,0x37,0x34\n"));
+        assertTrue(assembly.contains(expectedOutput));
+    }
+
+    @Test
+    void testDeepConstantOutput() {
+        Expression expression = new NumberFactor(2);
+
+        for (int i = 0; i < 100_000; i++) {
+            expression = new ArithmeticBinaryExpression(expression, new NumberFactor(1), ArithmeticOperator.DIV);
+        }
+
+        Program program = new Program("test", List.of(
+                new Line(10, new PrintStatement(expression)),
+                new Line(20, new EndStatement())));
+
+        X86_64NetwideAssemblyGenerator compiler = new X86_64NetwideAssemblyGenerator(
+                null, Set.of(CodeGenerationOption.CONSTANT_OUTPUT));
+
+        assertTrue(compiler.visitTree(program).contains("rodata0: db 0x0,0x32,0x0,0x0,0x0,0x0,0x0,0x0\n"));
+    }
+
     @Test
     void testInputStatement() {
         final String expectedOutput =
@@ -0,0 +1,151 @@
+package uk.ac.tees.x86_64;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.codegeneration.x86_64.X86_64PeepholeOptimiser;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+final class X86_64PeepholeOptimiserTest {
+
+    private static final String ASSEMBLY_INPUT =
+            """
+                    section .text
+                        global _start
+                    _start:
+                        push rbp
+                        mov rbp, rsp
+                        sub rsp, 8
+                    _line_10:
+                        push 1
+                        pop rax
+                        mov [rbp - 8], rax
+                    _line_20:
+                        mov rax, [rbp - 8]
+                        push rax
+                        push 1
+                        pop rbx
+                        pop rax
+                        add rax, rbx
+                        push rax
+                        pop rax
+                        mov [rbp - 8], rax
+                        mov rax, [rbp - 8]
+                        push rax
+                        push 10
+                        pop rax
+                        pop rbx
+                        cmp rbx, rax
+                        jle _line_20
+                        xor rax, rax
+                        mov rsp, rbp
+                        pop rbp
+                        mov rax, 60
+                        mov rdi, 0
+                        syscall
+                    """;
+
+    private static final String ASSEMBLY_OUTPUT =
+            """
+                    section .text
+                        global _start
+                    _start:
+                        push rbp
+                        mov rbp, rsp
+                        sub rsp, 8
+                    _line_10:
+                        mov qword [rbp - 8], 1
+                    _line_20:
+                        mov rax, [rbp - 8]
+                        add rax, 1
+                        mov [rbp - 8], rax
+                        cmp rax, 10
+                        jle _line_20
+                        mov rsp, rbp
+                        pop rbp
+                        mov rax, 60
+                        xor edi, edi
+                        syscall
+                    """;
+
+    private static final String LIVE_REGISTERS =
+            """
+                    _line_10:
+                        mov rbx, 5
+                        add rax, rbx
+                        imul rbx
+                        mov rax, 0
+                        jle _line_10
+                        push rax
+                        call decimal_to_ascii
+                    """;
+
+    private static final String ASSIGNED_ACROSS_BRANCH =
+            """
+                        mov r14, 4
+                        sub r14, rbx
+                        cmp rbx, -3
+                        jle _line_40
+                        mov r14, rbx
+                    _line_40:
+                        mov [rbp - 8], r14
+                    """;
+
+    private static final String ZERO_COMPARISON_INPUT =
+            """
+                    _line_10:
+                        mov rax, [rbp - 8]
+                        push rax
+                        push 0
+                        pop rax
+                        pop rbx
+                        cmp rbx, rax
+                        jle _line_10
+                        mov rax, 0
+                        mov [rbp - 8], rax
+                    """;
+
+    private static final String ZERO_COMPARISON_OUTPUT =
+            """
+                    _line_10:
+                        cmp qword [rbp - 8], 0
+                        jle _line_10
+                        mov qword [rbp - 8], 0
+                    """;
+
+    @Test
+    void testOptimise() {
+        X86_64PeepholeOptimiser optimiser = new X86_64PeepholeOptimiser();
+
+        assertEquals(ASSEMBLY_OUTPUT, optimiser.run(ASSEMBLY_INPUT));
+        assertEquals(28, optimiser.getInstructionCount());
+        assertEquals(14, optimiser.getRemovedInstructions());
+    }
+
+    @Test
+    void testLiveRegistersKept() {
+        X86_64PeepholeOptimiser optimiser = new X86_64PeepholeOptimiser();
+
+        assertSame(LIVE_REGISTERS, optimiser.run(LIVE_REGISTERS));
+        assertEquals(0, optimiser.getRemovedInstructions());
+    }
+
+    @Test
+    void testAssignedRegisterLiveAtBranch() {
+        X86_64PeepholeOptimiser optimiser = new X86_64PeepholeOptimiser(Set.of("rbx", "r14"));
+
+        // r14 is written again on only one path, so its value is still read where the branch goes.
+        assertSame(ASSIGNED_ACROSS_BRANCH, optimiser.run(ASSIGNED_ACROSS_BRANCH));
+    }
+
+    @Test
+    void testZeroFoldedBeforeZeroIdiom() {
+        X86_64PeepholeOptimiser optimiser = new X86_64PeepholeOptimiser();
+
+        // a zero is folded into the comparison and the store, rather than first being rewritten to xor.
+        assertEquals(ZERO_COMPARISON_OUTPUT, optimiser.run(ZERO_COMPARISON_INPUT));
+    }
+
+}
@@ -0,0 +1,88 @@
+package uk.ac.tees.x86_64;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.codegeneration.x86_64.X86_64RegisterAllocator;
+import uk.ac.tees.ir.ControlFlowGraph;
+import uk.ac.tees.ir.ThreeAddressCodeGenerator;
+import uk.ac.tees.ir.instruction.Instruction;
+import uk.ac.tees.ir.instruction.PrintValue;
+import uk.ac.tees.ir.operand.Variable;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+final class X86_64RegisterAllocatorTest {
+
+    private static final Variable I = Variable.of('I');
+
+    private static final Variable J = Variable.of('J');
+
+    /**
+     * J is assigned first and read once after a loop over I, so is live throughout but used less.
+     */
+    private ControlFlowGraph manualControlFlowGraph() {
+        RelationalBinaryExpression condition = new RelationalBinaryExpression(
+                new IdentifierFactor('I'), new NumberFactor(10), RelationalOperator.LESS);
+
+        ArithmeticBinaryExpression increment = new ArithmeticBinaryExpression(
+                new IdentifierFactor('I'), new NumberFactor(1), ArithmeticOperator.ADD);
+
+        List<Line> lines = List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('J'), new NumberFactor(5))),
+                new Line(20, new LetStatement(new UnassignedIdentifier('I'), new NumberFactor(0))),
+                new Line(30, new IfStatement(condition, new GoToStatement(60))),
+                new Line(40, new PrintStatement(new IdentifierFactor('J'))),
+                new Line(50, new EndStatement()),
+                new Line(60, new PrintStatement(new IdentifierFactor('I'))),
+                new Line(70, new LetStatement(new UnassignedIdentifier('I'), increment)),
+                new Line(80, new GoToStatement(30)));
+
+        return new ThreeAddressCodeGenerator().visitTree(new Program("test", lines));
+    }
+
+    private static Instruction printOf(ControlFlowGraph graph, Variable variable) {
+        return graph.getBlocks().stream()
+                .flatMap(block -> block.getInstructions().stream())
+                .filter(instruction -> instruction instanceof PrintValue
+                        && ((PrintValue) instruction).getValue().equals(variable))
+                .findFirst().orElseThrow();
+    }
+
+    @Test
+    void testAllocate() {
+        ControlFlowGraph graph = manualControlFlowGraph();
+        X86_64RegisterAllocator allocator = new X86_64RegisterAllocator(graph);
+
+        assertEquals("rbx", allocator.getRegister(J));
+        assertEquals("r12", allocator.getRegister(I));
+        assertEquals(List.of(), allocator.getSpilled());
+        assertEquals(List.of(), allocator.getEntryRegisters());
+        assertEquals(List.of("rbx", "r12"), allocator.getRegistersLiveAcross(printOf(graph, I)));
+        assertEquals(List.of(), allocator.getRegistersLiveAcross(printOf(graph, J)));
+    }
+
+    @Test
+    void testSpillLightest() {
+        ControlFlowGraph graph = manualControlFlowGraph();
+        X86_64RegisterAllocator allocator = new X86_64RegisterAllocator(graph, List.of("rbx"));
+
+        // I is used in the loop, so takes the only register from J.
+        assertEquals("rbx", allocator.getRegister(I));
+        assertNull(allocator.getRegister(J));
+        assertEquals(List.of(J), allocator.getSpilled());
+        assertEquals(List.of("rbx"), allocator.getRegistersLiveAcross(printOf(graph, I)));
+    }
+
+}
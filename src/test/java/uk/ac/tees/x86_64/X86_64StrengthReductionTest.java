@@ -0,0 +1,165 @@
+package uk.ac.tees.x86_64;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.codegeneration.x86_64.X86_64StrengthReduction;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.LongUnaryOperator;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+final class X86_64StrengthReductionTest {
+
+    private static final long[] BOUNDARY_VALUES = {
+            Long.MIN_VALUE, Long.MIN_VALUE + 1, Long.MAX_VALUE, Long.MAX_VALUE - 1,
+            Integer.MIN_VALUE, Integer.MIN_VALUE - 1L, Integer.MAX_VALUE, Integer.MAX_VALUE + 1L,
+            1L << 32, -(1L << 32), (1L << 62) + 1, -(1L << 62) - 1
+    };
+
+    /**
+     * Every value in [-1024, 1024], the boundary values, every power of two and its negation and either side of
+     * each, and random values.
+     */
+    private static long[] values() {
+        LongStream powers = LongStream.range(0, Long.SIZE)
+                .flatMap(k -> LongStream.of(1L << k, -(1L << k), (1L << k) - 1, (1L << k) + 1));
+
+        LongStream random = new Random(35).longs(256);
+
+        LongStream dense = LongStream.concat(LongStream.rangeClosed(-1024, 1024), LongStream.of(BOUNDARY_VALUES));
+
+        return LongStream.concat(dense, LongStream.concat(powers, random)).distinct().toArray();
+    }
+
+    @Test
+    void testDivideMatchesIdiv() {
+        long[] values = values();
+
+        for (long divisor : values) {
+            List<String> instructions = X86_64StrengthReduction.divide(divisor);
+
+            if (divisor == 0 || divisor == -1) {
+                assertNull(instructions, "division traps for " + divisor);
+                continue;
+            }
+
+            assertNotNull(instructions, "not reduced " + divisor);
+            LongUnaryOperator quotient = Machine.compile(instructions);
+
+            for (long dividend : values) {
+                assertEquals(dividend / divisor, quotient.applyAsLong(dividend),
+                        () -> dividend + " / " + divisor + " with " + instructions);
+            }
+        }
+    }
+
+    @Test
+    void testMultiplyMatchesImul() {
+        long[] values = values();
+
+        for (long multiplier : values) {
+            List<String> instructions = X86_64StrengthReduction.multiply(multiplier);
+
+            if (instructions == null) {
+                continue;
+            }
+
+            LongUnaryOperator product = Machine.compile(instructions);
+
+            for (long multiplicand : values) {
+                assertEquals(multiplicand * multiplier, product.applyAsLong(multiplicand),
+                        () -> multiplicand + " * " + multiplier + " with " + instructions);
+            }
+        }
+    }
+
+    @Test
+    void testMultiplySequences() {
+        assertEquals(List.of("shl rax, 3"), X86_64StrengthReduction.multiply(8));
+        assertEquals(List.of("lea rax, [rax + rax * 4]", "shl rax, 1"), X86_64StrengthReduction.multiply(10));
+        assertEquals(List.of("lea rax, [rax + rax * 8]", "lea rax, [rax + rax * 4]", "neg rax"),
+                X86_64StrengthReduction.multiply(-45));
+        assertEquals(List.of(), X86_64StrengthReduction.multiply(1));
+        assertNull(X86_64StrengthReduction.multiply(7));
+        assertNull(X86_64StrengthReduction.multiply(3 * 5 * 9));
+    }
+
+    @Test
+    void testDivideSequences() {
+        assertEquals(List.of(), X86_64StrengthReduction.divide(1));
+        assertEquals(List.of("mov rdx, rax", "sar rdx, 63", "shr rdx, 62", "add rax, rdx", "sar rax, 2", "neg rax"),
+                X86_64StrengthReduction.divide(-4));
+        assertEquals(List.of("mov rcx, rax", "mov rax, 6148914691236517206", "imul rcx", "mov rax, rdx",
+                "shr rax, 63", "add rax, rdx"), X86_64StrengthReduction.divide(3));
+    }
+
+    /**
+     * Executes the subset of x86-64 instructions produced by strength reduction, with the argument in rax.
+     */
+    private static final class Machine {
+
+        private static final List<String> REGISTERS = List.of("rax", "rcx", "rdx", "eax");
+
+        private final long[] registers = new long[3];
+
+        static LongUnaryOperator compile(List<String> instructions) {
+            String[][] parsed = instructions.stream()
+                    .map(instruction -> instruction.split("[ ,\\[\\]+*]+"))
+                    .toArray(String[][]::new);
+
+            return value -> {
+                Machine machine = new Machine();
+                machine.registers[0] = value;
+
+                for (String[] instruction : parsed) {
+                    machine.execute(instruction);
+                }
+
+                return machine.registers[0];
+            };
+        }
+
+        private void execute(String[] instruction) {
+            int destination = register(instruction[1]);
+
+            switch (instruction[0]) {
+                case "mov" -> registers[destination] = value(instruction[2]);
+                case "xor" -> registers[destination] = registers[destination] ^ value(instruction[2]);
+                case "add" -> registers[destination] += value(instruction[2]);
+                case "sub" -> registers[destination] -= value(instruction[2]);
+                case "neg" -> registers[destination] = -registers[destination];
+                case "shl" -> registers[destination] <<= value(instruction[2]);
+                case "sar" -> registers[destination] >>= value(instruction[2]);
+                case "shr" -> registers[destination] >>>= value(instruction[2]);
+                case "lea" -> registers[destination] = value(instruction[2])
+                        + value(instruction[3]) * value(instruction[4]);
+                case "imul" -> {
+                    long multiplier = registers[destination];
+
+                    registers[2] = Math.multiplyHigh(registers[0], multiplier);
+                    registers[0] = registers[0] * multiplier;
+                }
+                default -> fail("Unsupported instruction " + String.join(" ", instruction));
+            }
+
+            // writes to 32-bit registers zero the upper half.
+            if (instruction[1].equals("eax")) {
+                registers[0] &= 0xFFFF_FFFFL;
+            }
+        }
+
+        private static int register(String name) {
+            int index = REGISTERS.indexOf(name);
+            return index == 3 ? 0 : index;
+        }
+
+        private long value(String operand) {
+            int index = register(operand);
+            return index >= 0 ? registers[index] : Long.parseLong(operand);
+        }
+
+    }
+
+}
@@ -0,0 +1,238 @@
+package uk.ac.tees.x86_64;
+
+import org.junit.jupiter.api.Test;
+import uk.ac.tees.codegeneration.CodeGenerationOption;
+import uk.ac.tees.codegeneration.x86_64.X86_64ThreeAddressCodeGenerator;
+import uk.ac.tees.ir.ThreeAddressCodeGenerator;
+import uk.ac.tees.syntax.grammar.Line;
+import uk.ac.tees.syntax.grammar.Program;
+import uk.ac.tees.syntax.grammar.UnassignedIdentifier;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.arithmetic.ArithmeticOperator;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalBinaryExpression;
+import uk.ac.tees.syntax.grammar.expression.relational.RelationalOperator;
+import uk.ac.tees.syntax.grammar.factor.IdentifierFactor;
+import uk.ac.tees.syntax.grammar.factor.NumberFactor;
+import uk.ac.tees.syntax.grammar.factor.StringLiteral;
+import uk.ac.tees.syntax.grammar.statement.*;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class X86_64ThreeAddressCodeGeneratorTest {
+
+    private static final String ASSEMBLY_OUTPUT =
+            """
+                    section .rodata
+
+                    section .text
+                        global _start
+                    _start:
+                        push rbp
+                        mov rbp, rsp
+                        sub rsp, 8
+                    _line_10:
+                        mov qword [rbp - 8], 100
+                    _line_20:
+                        mov rax, [rbp - 8]
+                        mov rcx, 3
+                        cqo
+                        idiv rcx
+                        mov [rbp - 8], rax
+                        mov rax, [rbp - 8]
+                        cmp rax, 10
+                        jle _line_40
+                    _line_30_1:
+                        jmp _line_20
+                    _line_40:
+                        xor rax, rax
+                        mov rsp, rbp
+                        pop rbp
+                        mov rax, 60
+                        mov rdi, 0
+                        syscall
+                    """;
+
+    private static final String ALLOCATED_OUTPUT =
+            """
+                    section .rodata
+
+                    section .text
+                        global _start
+                    _start:
+                        push rbp
+                        mov rbp, rsp
+                    _line_10:
+                        mov rbx, 100
+                    _line_20:
+                        mov rax, rbx
+                        mov rcx, 3
+                        cqo
+                        idiv rcx
+                        mov rbx, rax
+                        cmp rbx, 10
+                        jle _line_40
+                    _line_30_1:
+                        jmp _line_20
+                    _line_40:
+                        xor rax, rax
+                        mov rsp, rbp
+                        pop rbp
+                        mov rax, 60
+                        mov rdi, 0
+                        syscall
+                    """;
+
+    private static final String PRUNED_OUTPUT =
+            """
+                    section .rodata
+
+                    section .text
+                        global _start
+                    _start:
+                        push rbp
+                        mov rbp, rsp
+                        sub rsp, 8
+                        mov qword [rbp - 8], 100
+                    _line_20:
+                        mov rax, [rbp - 8]
+                        mov rcx, 3
+                        cqo
+                        idiv rcx
+                        mov [rbp - 8], rax
+                        mov rax, [rbp - 8]
+                        cmp rax, 10
+                        jle _line_40
+                        jmp _line_20
+                    _line_40:
+                        xor rax, rax
+                        mov rsp, rbp
+                        pop rbp
+                        mov rax, 60
+                        mov rdi, 0
+                        syscall
+                    """;
+
+    private static final String COUNTED_OUTPUT =
+            """
+                    section .rodata
+
+                    section .text
+                        global _start
+                    _start:
+                        push rbp
+                        mov rbp, rsp
+                    _line_10:
+                        mov rbx, 5
+                    _line_20:
+                        dec rbx
+                        jle _line_40
+                    _line_30_1:
+                        jmp _line_20
+                    _line_40:
+                        xor rax, rax
+                        mov rsp, rbp
+                        pop rbp
+                        mov rax, 60
+                        mov rdi, 0
+                        syscall
+                    """;
+
+    private static Program program() {
+        ArithmeticBinaryExpression quotient = new ArithmeticBinaryExpression(
+                new IdentifierFactor('A'), new NumberFactor(3), ArithmeticOperator.DIV);
+
+        RelationalBinaryExpression condition = new RelationalBinaryExpression(
+                new IdentifierFactor('A'), new NumberFactor(10), RelationalOperator.GREATER);
+
+        List<Line> lines = List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('A'), new NumberFactor(100))),
+                new Line(20, new LetStatement(new UnassignedIdentifier('A'), quotient)),
+                new Line(30, new IfStatement(condition, new GoToStatement(20))),
+                new Line(40, new EndStatement()));
+
+        return new Program("test", lines);
+    }
+
+    @Test
+    void testCompile() {
+        String output = new X86_64ThreeAddressCodeGenerator().compile(new ThreeAddressCodeGenerator().visitTree(program()));
+
+        assertEquals(ASSEMBLY_OUTPUT, output);
+    }
+
+    @Test
+    void testCompileWithRegisters() {
+        X86_64ThreeAddressCodeGenerator generator
+                = new X86_64ThreeAddressCodeGenerator(Set.of(CodeGenerationOption.REGISTER_ALLOCATION));
+
+        String output = generator.compile(new ThreeAddressCodeGenerator().visitTree(program()));
+
+        assertEquals(ALLOCATED_OUTPUT, output);
+        assertEquals(Set.of("rbx"), generator.getAssignedRegisters());
+    }
+
+    @Test
+    void testLabelPruning() {
+        X86_64ThreeAddressCodeGenerator generator
+                = new X86_64ThreeAddressCodeGenerator(Set.of(CodeGenerationOption.LABEL_PRUNING));
+
+        assertEquals(PRUNED_OUTPUT, generator.compile(new ThreeAddressCodeGenerator().visitTree(program())));
+    }
+
+    @Test
+    void testCountedLoop() {
+        ArithmeticBinaryExpression decrement = new ArithmeticBinaryExpression(
+                new IdentifierFactor('N'), new NumberFactor(1), ArithmeticOperator.SUB);
+
+        RelationalBinaryExpression condition = new RelationalBinaryExpression(
+                new NumberFactor(0), new IdentifierFactor('N'), RelationalOperator.LESS);
+
+        List<Line> lines = List.of(
+                new Line(10, new LetStatement(new UnassignedIdentifier('N'), new NumberFactor(5))),
+                new Line(20, new LetStatement(new UnassignedIdentifier('N'), decrement)),
+                new Line(30, new IfStatement(condition, new GoToStatement(20))),
+                new Line(40, new EndStatement()));
+
+        X86_64ThreeAddressCodeGenerator generator = new X86_64ThreeAddressCodeGenerator(
+                Set.of(CodeGenerationOption.REGISTER_ALLOCATION, CodeGenerationOption.COUNTED_LOOPS));
+
+        String output = generator.compile(new ThreeAddressCodeGenerator().visitTree(new Program("test", lines)));
+
+        assertEquals(COUNTED_OUTPUT, output);
+        assertEquals(5L, generator.getInductionVariables().getCountedLoops().get(0).getTripCount());
+    }
+
+    @Test
+    void testConstantOutput() {
+        final String expectedOutput =
+                """
+                        _line_10:
+                            mov rax, 1
+                            mov rdi, 1
+                            mov rsi, rodata0
+                            mov rdx, 11
+                            syscall
+                            xor rax, rax
+                        """;
+
+        List<Line> lines = List.of(
+                new Line(10, new PrintStatement(new StringLiteral("\"N=\""), new NumberFactor(42),
+                        new StringLiteral("\"!\""))),
+                new Line(20, new EndStatement()));
+
+        X86_64ThreeAddressCodeGenerator generator
+                = new X86_64ThreeAddressCodeGenerator(Set.of(CodeGenerationOption.CONSTANT_OUTPUT));
+
+        String output = generator.compile(new ThreeAddressCodeGenerator().visitTree(new Program("test", lines)));
+
+        assertTrue(output.contains("rodata0: db 0x4e,0x3d,0x0,0x34,0x32,0x0,0x0,0x0,0x0,0x0,0x21\n"));
+        assertTrue(output.contains(expectedOutput));
+        assertFalse(output.contains("decimal_to_ascii"));
+    }
+
+}